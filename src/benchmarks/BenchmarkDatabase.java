@@ -0,0 +1,372 @@
+/**
+ * BenchmarkDatabase.java
+ *
+ * Seeds the embedded database (-Ddb.profile=embedded) for the data-access benchmarks,
+ * following the production tables dumped in db_tables.txt:
+ *   - every secondary key of the dump is created on the embedded tables, so that the
+ *     queries are planned over the same indexes as in production;
+ *   - every table of the dump is filled with a consistent data set (customers with
+ *     addresses, components, bicycles, and orders with their four items each), sized
+ *     with -Dbench.orders=... (default 2000 orders).
+ *
+ * Tables renamed since the dump are mapped to their current names (Wheels is now
+ * PairsOfWheels, and BicycleHasWheels was folded into the Bicycles wheel columns).
+ * The dump is read from ./db_tables.txt, or from -Dbench.tables=...
+ *
+ * The database is seeded once per JVM, and only ever an in-memory one.
+ */
+
+package benchmarks;
+
+import database.DatabaseConfig;
+import database.controllers.DatabaseController;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public final class BenchmarkDatabase {
+    public static final String TABLES = "bench.tables";
+    public static final String ORDERS = "bench.orders";
+
+    public static final int STAFF_MEMBERS = 10;
+    public static final int COMPONENTS = 100;
+    public static final BigDecimal[] FRAME_SIZES = {
+            BigDecimal.valueOf(48), BigDecimal.valueOf(50), BigDecimal.valueOf(52),
+            BigDecimal.valueOf(54), BigDecimal.valueOf(56)
+    };
+    public static final BigDecimal[] WHEEL_DIAMETERS = {
+            BigDecimal.valueOf(26), new BigDecimal("27.5"), BigDecimal.valueOf(29)
+    };
+
+    private static final String[] BRANDS = {"Ribble", "Deda", "Mavic", "Shimano", "Boardman"};
+    private static final String[] HANDLEBAR_TYPES = {"DROPPED", "HIGH", "STRAIGHT"};
+    private static final String[] TYRE_TYPES = {"HYBRID", "MOUNTAIN", "ROAD"};
+    private static final String[] BRAKE_TYPES = {"DISK", "RIM"};
+    private static final String[] ORDER_STATUSES = {"PENDING", "CONFIRMED", "FULFILLED"};
+    private static final int BATCH_SIZE = 500;
+
+    // Tables of the dump renamed since, by their old names.
+    private static final Map<String, String> RENAMED_TABLES = new HashMap<>();
+    static {
+        RENAMED_TABLES.put("Wheels", "PairsOfWheels");
+        RENAMED_TABLES.put("BicycleHasWheels", "Bicycles");
+    }
+
+    private static final Pattern CREATE_TABLE = Pattern.compile("^CREATE TABLE `(\\w+)` \\(");
+    private static final Pattern KEY = Pattern.compile("^\\s*(UNIQUE )?KEY `(\\w+)` \\(([^)]*)\\)");
+
+    private static boolean seeded;
+
+    private BenchmarkDatabase() {}
+
+    /**
+     * Seed the embedded database, unless already done by this JVM.
+     *
+     * @throws IOException if the dump of the tables cannot be read.
+     * @throws SQLException
+     * @throws IllegalStateException if the configured database is not an in-memory one,
+     *                               or the dump lists a table that cannot be filled.
+     */
+    public static synchronized void seed() throws IOException, SQLException {
+        if (seeded) {
+            return;
+        }
+
+        // Never fill a real database with sample records.
+        String url = DatabaseConfig.load().getUrl();
+        if (!url.startsWith("jdbc:h2:mem:")) {
+            throw new IllegalStateException(
+                    "Benchmarks only run on the embedded database (-Ddb.profile=embedded), not on " + url
+            );
+        }
+
+        List<String> dump = Files.readAllLines(
+                Paths.get(System.getProperty(TABLES, "db_tables.txt")), StandardCharsets.UTF_8
+        );
+        int orders = Integer.getInteger(ORDERS, 2000);
+
+        try (Connection connection = DatabaseController.getDataSource().getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                Set<String> tables = createKeys(connection, dump);
+                fillTables(connection, tables, orders);
+                connection.commit();
+            }
+            catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            }
+        }
+
+        seeded = true;
+    }
+
+    /**
+     * Serial number of a sample bicycle; bicycle i is the one of order i.
+     *
+     * @param index - index of the bicycle, from 0 to the number of orders (excluded).
+     * @return serial number.
+     */
+    public static String bicycleSerialNumber(int index) {
+        return String.format("4%011d", index);
+    }
+
+    /**
+     * Username of a sample staff member.
+     *
+     * @param index - index of the staff member, from 0 to STAFF_MEMBERS (excluded).
+     * @return staff username.
+     */
+    public static String staffUsername(int index) {
+        return "benchStaff" + index;
+    }
+
+    /**
+     * Create the secondary keys of the dump on the embedded tables, and list the tables of the dump.
+     *
+     * @param connection - connection to the embedded database.
+     * @param dump - lines of db_tables.txt.
+     * @return current names of the tables of the dump.
+     * @throws SQLException
+     */
+    private static Set<String> createKeys(Connection connection, List<String> dump) throws SQLException {
+        Set<String> tables = new LinkedHashSet<>();
+        String table = null;
+
+        try (Statement sqlStatement = connection.createStatement()) {
+            for (String line : dump) {
+                Matcher createTable = CREATE_TABLE.matcher(line);
+                if (createTable.find()) {
+                    table = createTable.group(1);
+                    tables.add(RENAMED_TABLES.getOrDefault(table, table));
+                    continue;
+                }
+
+                Matcher key = KEY.matcher(line);
+                if (table == null || !key.find() || RENAMED_TABLES.containsKey(table)) {
+                    continue;
+                }
+
+                // Keys of the production tables, named apart from the ones of the migrations.
+                String columns = key.group(3).replace("`", "");
+                sqlStatement.execute(
+                        "CREATE " + (key.group(1) != null ? "UNIQUE " : "") + "INDEX IF NOT EXISTS " +
+                        "db_tables_" + table + "_" + key.group(2) + " ON " + table + " (" + columns + ")"
+                );
+            }
+        }
+
+        return tables;
+    }
+
+    /**
+     * Fill the tables of the dump, parents first.
+     *
+     * @param connection - connection to the embedded database.
+     * @param tables - current names of the tables of the dump.
+     * @param orders - number of orders (and bicycles) to create.
+     * @throws SQLException
+     * @throws IllegalStateException if a table of the dump cannot be filled.
+     */
+    private static void fillTables(Connection connection, Set<String> tables, int orders) throws SQLException {
+        int customers = Math.max(1, orders / 4);
+
+        Map<String, TableFiller> fillers = new LinkedHashMap<>();
+        fillers.put("Addresses", () -> insert(connection,
+                "INSERT INTO Addresses (houseNumber, postcode, roadName, cityName) VALUES (?, ?, ?, ?)",
+                customers, (s, i) -> {
+                    s.setInt(1, i % 200 + 1);
+                    s.setString(2, postcode(i));
+                    s.setString(3, "Bench Road");
+                    s.setString(4, "Sheffield");
+                }));
+        fillers.put("Customers", () -> insert(connection,
+                "INSERT INTO Customers (customerId, forename, surname, houseNumber, postcode) VALUES (?, ?, ?, ?, ?)",
+                customers, (s, i) -> {
+                    s.setString(1, customerId(i));
+                    s.setString(2, "Forename" + i % 50);
+                    s.setString(3, "Surname" + i);
+                    s.setInt(4, i % 200 + 1);
+                    s.setString(5, postcode(i));
+                }));
+        fillers.put("Staff", () -> insert(connection,
+                "INSERT INTO Staff (staffUsername, forename, surname) VALUES (?, 'Bench', 'Staff')",
+                STAFF_MEMBERS, (s, i) -> s.setString(1, staffUsername(i))));
+        fillers.put("FrameSets", () -> insert(connection,
+                "INSERT INTO FrameSets (serialNumber, brandName, frameSetName, forkSetName, gearSetName, " +
+                "hasShocks, size, cost, stock) VALUES (?, ?, ?, 'Bench fork', 'Bench gears', ?, ?, ?, ?)",
+                COMPONENTS, (s, i) -> {
+                    bindComponent(s, i, "Frame");
+                    s.setBoolean(4, i % 2 == 0);
+                    s.setBigDecimal(5, FRAME_SIZES[i % FRAME_SIZES.length]);
+                    s.setBigDecimal(6, componentCost(i));
+                    s.setInt(7, componentStock(i));
+                }));
+        fillers.put("Handlebars", () -> insert(connection,
+                "INSERT INTO Handlebars (serialNumber, brandName, handlebarName, type, cost, stock) " +
+                "VALUES (?, ?, ?, ?, ?, ?)",
+                COMPONENTS, (s, i) -> {
+                    bindComponent(s, i, "Handlebar");
+                    s.setString(4, HANDLEBAR_TYPES[i % HANDLEBAR_TYPES.length]);
+                    s.setBigDecimal(5, componentCost(i));
+                    s.setInt(6, componentStock(i));
+                }));
+        fillers.put("PairsOfWheels", () -> insert(connection,
+                "INSERT INTO PairsOfWheels (serialNumber, brandName, pairOfWheelsName, diameter, tyreType, " +
+                "brakeType, cost, stock) VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
+                COMPONENTS, (s, i) -> {
+                    bindComponent(s, i, "Wheels");
+                    s.setBigDecimal(4, WHEEL_DIAMETERS[i % WHEEL_DIAMETERS.length]);
+                    s.setString(5, TYRE_TYPES[i % TYRE_TYPES.length]);
+                    s.setString(6, BRAKE_TYPES[i % BRAKE_TYPES.length]);
+                    s.setBigDecimal(7, componentCost(i));
+                    s.setInt(8, componentStock(i));
+                }));
+        fillers.put("Bicycles", () -> insert(connection,
+                "INSERT INTO Bicycles (serialNumber, customName, brandName, " +
+                "handlebarSerialNumber, handlebarBrandName, frameSetSerialNumber, frameSetBrandName, " +
+                "pairOfWheelsSerialNumber, pairOfWheelsBrandName) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                orders, (s, i) -> {
+                    s.setString(1, bicycleSerialNumber(i));
+                    s.setString(2, "Bench bike " + i % 100);
+                    s.setString(3, BRANDS[i % BRANDS.length]);
+                    for (int c = 0; c < 3; c++) {
+                        // Each bicycle takes its handlebar, frame-set and wheels from the same row.
+                        s.setString(4 + 2 * c, componentSerialNumber(i % COMPONENTS));
+                        s.setString(5 + 2 * c, componentBrandName(i % COMPONENTS));
+                    }
+                }));
+        fillers.put("Orders", () -> insert(connection,
+                "INSERT INTO Orders (orderNumber, date, totalCost, status, staffUsername, serialNumber, customerId) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?)",
+                orders, (s, i) -> {
+                    String status = ORDER_STATUSES[i % ORDER_STATUSES.length];
+                    s.setString(1, orderNumber(i));
+                    s.setDate(2, Date.valueOf(LocalDate.of(2022, 1, 1).plusDays(i % 730)));
+                    s.setBigDecimal(3, componentCost(i % COMPONENTS).multiply(BigDecimal.valueOf(3)));
+                    s.setString(4, status);
+                    // Half of the pending orders are still waiting for a staff member.
+                    s.setString(5, status.equals("PENDING") && i % 2 == 0 ? null : staffUsername(i % STAFF_MEMBERS));
+                    s.setString(6, bicycleSerialNumber(i));
+                    s.setString(7, customerId(i % customers));
+                }));
+        fillers.put("Items", () -> {
+            String[] types = {"BICYCLE", "FRAMESET", "HANDLEBAR", "PAIROFWHEELS"};
+            // Each order has exactly one item of each type.
+            insert(connection,
+                    "INSERT INTO Items (orderNumber, type, serialNumber, brandName, quantity, cost) " +
+                    "VALUES (?, ?, ?, ?, 1, ?)",
+                    orders * types.length, (s, i) -> {
+                        int order = i / types.length;
+                        int type = i % types.length;
+                        s.setString(1, orderNumber(order));
+                        s.setString(2, types[type]);
+                        s.setString(3, type == 0 ? bicycleSerialNumber(order) : componentSerialNumber(order % COMPONENTS));
+                        s.setString(4, type == 0 ? BRANDS[order % BRANDS.length] : componentBrandName(order % COMPONENTS));
+                        s.setBigDecimal(5, componentCost(order % COMPONENTS));
+                    });
+        });
+
+        List<String> unknown = new ArrayList<>(tables);
+        unknown.removeAll(fillers.keySet());
+        if (!unknown.isEmpty()) {
+            throw new IllegalStateException("No sample records for the tables " + unknown);
+        }
+
+        for (Map.Entry<String, TableFiller> filler : fillers.entrySet()) {
+            if (tables.contains(filler.getKey())) {
+                filler.getValue().fill();
+            }
+        }
+    }
+
+    /**
+     * Insert sample rows in batches.
+     *
+     * @param connection - connection to the embedded database.
+     * @param sqlQuery - insert statement.
+     * @param rows - number of rows.
+     * @param binder - binds the values of a row.
+     * @throws SQLException
+     */
+    private static void insert(Connection connection, String sqlQuery, int rows, RowBinder binder)
+            throws SQLException {
+        try (PreparedStatement sqlStatement = connection.prepareStatement(sqlQuery)) {
+            for (int i = 0; i < rows; i++) {
+                binder.bind(sqlStatement, i);
+                sqlStatement.addBatch();
+                if ((i + 1) % BATCH_SIZE == 0) {
+                    sqlStatement.executeBatch();
+                }
+            }
+            sqlStatement.executeBatch();
+        }
+    }
+
+    private static void bindComponent(PreparedStatement sqlStatement, int index, String name) throws SQLException {
+        sqlStatement.setString(1, componentSerialNumber(index));
+        sqlStatement.setString(2, componentBrandName(index));
+        sqlStatement.setString(3, name + " " + index);
+    }
+
+    private static String componentSerialNumber(int index) {
+        return String.format("9%07d", index);
+    }
+
+    private static String componentBrandName(int index) {
+        return BRANDS[index % BRANDS.length];
+    }
+
+    private static BigDecimal componentCost(int index) {
+        return BigDecimal.valueOf(50 + (index % 20) * 10);
+    }
+
+    private static int componentStock(int index) {
+        // One component in ten is out of stock (none of the ones the benchmarks filter on).
+        return index % 10 == 7 ? 0 : 1000;
+    }
+
+    private static String orderNumber(int index) {
+        return String.format("3%010d", index);
+    }
+
+    private static String customerId(int index) {
+        return String.format("2%010d", index);
+    }
+
+    private static String postcode(int index) {
+        return "S" + index % 100 + " " + index;
+    }
+
+    /**
+     * Fills a table with its sample rows.
+     */
+    private interface TableFiller {
+        void fill() throws SQLException;
+    }
+
+    /**
+     * Binds the values of a sample row to an insert statement.
+     */
+    private interface RowBinder {
+        void bind(PreparedStatement sqlStatement, int index) throws SQLException;
+    }
+}
@@ -0,0 +1,136 @@
+/**
+ * DataAccessBenchmarks.java
+ *
+ * JMH benchmarks of the key data-access paths (order listings, bicycle lookup and
+ * component filters), run against the embedded database seeded from db_tables.txt
+ * (see BenchmarkDatabase).
+ *
+ * Usage: gradle jmh -Pjmh.include=DataAccessBenchmarks
+ */
+
+package benchmarks;
+
+import database.controllers.bicycle.BicycleController;
+import database.controllers.component.FrameSetController;
+import database.controllers.component.HandlebarController;
+import database.controllers.component.PairOfWheelsController;
+import database.controllers.order.OrderController;
+import models.bicycle.Bicycle;
+import models.component.frameset.FrameSet;
+import models.component.handlebar.Handlebar;
+import models.component.handlebar.HandlebarType;
+import models.component.pairofwheels.BrakeType;
+import models.component.pairofwheels.PairOfWheels;
+import models.component.pairofwheels.TyreType;
+import models.order.Order;
+import models.order.OrderPage;
+import models.user.staff.Staff;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import services.ComponentCatalog;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Ddb.profile=embedded")
+public class DataAccessBenchmarks {
+    // Bicycles read at once, as for a page of orders.
+    private static final int BICYCLES_PER_LIST = 50;
+
+    private final OrderController oController = new OrderController();
+    private final BicycleController bController = new BicycleController();
+    private final HandlebarController hController = new HandlebarController();
+    private final FrameSetController fController = new FrameSetController();
+    private final PairOfWheelsController powController = new PairOfWheelsController();
+    private final BigDecimal frameSize = BenchmarkDatabase.FRAME_SIZES[0];
+    private final BigDecimal wheelDiameter = BenchmarkDatabase.WHEEL_DIAMETERS[0];
+    private Staff staff;
+    private String bicycleSerialNumber;
+    private List<String> bicycleSerialNumbers;
+    private ComponentCatalog catalog;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        BenchmarkDatabase.seed();
+
+        this.staff = new Staff(BenchmarkDatabase.staffUsername(0), "Bench", "Staff", null);
+        this.bicycleSerialNumber = BenchmarkDatabase.bicycleSerialNumber(0);
+        this.bicycleSerialNumbers = new ArrayList<>();
+        for (int i = 0; i < BICYCLES_PER_LIST; i++) {
+            this.bicycleSerialNumbers.add(BenchmarkDatabase.bicycleSerialNumber(i));
+        }
+        this.catalog = new ComponentCatalog(Long.MAX_VALUE);
+    }
+
+    @Benchmark
+    public ArrayList<Order> findStaffOrders() throws Exception {
+        return oController.findStaffOrders(this.staff);
+    }
+
+    @Benchmark
+    public ArrayList<Order> readAllPendingOrders() throws Exception {
+        return oController.readAllPendingOrders();
+    }
+
+    @Benchmark
+    public OrderPage readPendingOrdersPage() throws Exception {
+        return oController.readPendingOrdersPage(50, null);
+    }
+
+    @Benchmark
+    public Bicycle findBicycleById() throws Exception {
+        return bController.findBicycleById(this.bicycleSerialNumber);
+    }
+
+    @Benchmark
+    public Map<String, Bicycle> findBicyclesByIds() throws Exception {
+        return bController.findBicyclesByIds(this.bicycleSerialNumbers);
+    }
+
+    @Benchmark
+    public ArrayList<FrameSet> filterFrameSets() throws Exception {
+        return fController.filterFrameSets(this.frameSize, true);
+    }
+
+    @Benchmark
+    public ArrayList<Handlebar> filterHandlebars() throws Exception {
+        return hController.filterHandlebars(HandlebarType.HIGH);
+    }
+
+    @Benchmark
+    public ArrayList<PairOfWheels> filterWheels() throws Exception {
+        return powController.filterWheels(TyreType.HYBRID, BrakeType.DISK, this.wheelDiameter);
+    }
+
+    @Benchmark
+    public ArrayList<FrameSet> catalogFilterFrameSets() throws Exception {
+        return this.catalog.filterFrameSets(this.frameSize, true);
+    }
+
+    @Benchmark
+    public ArrayList<Handlebar> catalogFilterHandlebars() throws Exception {
+        return this.catalog.filterHandlebars(HandlebarType.HIGH);
+    }
+
+    @Benchmark
+    public ArrayList<PairOfWheels> catalogFilterWheels() throws Exception {
+        return this.catalog.filterWheels(TyreType.HYBRID, BrakeType.DISK, this.wheelDiameter);
+    }
+}
@@ -0,0 +1,129 @@
+/**
+ * OrderClaimBenchmark.java
+ *
+ * JMH benchmark of many staff members claiming pending orders at the same time
+ * (OrderController.claimPendingOrders), run against the embedded database seeded
+ * from db_tables.txt (see BenchmarkDatabase).
+ *
+ * Each invocation lets all the claimers drain the queue of unassigned pending orders
+ * concurrently, and checks that the claims are disjoint; the orders are put back on
+ * the queue before the next one. The time reported is per drain of the whole queue
+ * (one pending order in six of the seeded ones, i.e. about 333 for 2000 orders).
+ *
+ * Usage: gradle jmh -Pjmh.include=OrderClaimBenchmark [-Pjmh.args="-p claimers=4"]
+ */
+
+package benchmarks;
+
+import database.controllers.order.OrderController;
+import models.order.Order;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = "-Ddb.profile=embedded")
+public class OrderClaimBenchmark {
+    @Param({"1", "5", "20"})
+    int batchSize;
+
+    @Param({"8"})
+    int claimers;
+
+    private final OrderController oController = new OrderController();
+    private final Set<String> claimed = new HashSet<>();
+    private ExecutorService executor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        if (this.claimers > BenchmarkDatabase.STAFF_MEMBERS) {
+            throw new IllegalArgumentException(
+                    "At most " + BenchmarkDatabase.STAFF_MEMBERS + " claimers: " + this.claimers
+            );
+        }
+        BenchmarkDatabase.seed();
+        this.executor = Executors.newFixedThreadPool(this.claimers);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        this.executor.shutdownNow();
+        this.executor.awaitTermination(1, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Put all the claimed orders back on the queue of pending orders.
+     *
+     * @throws SQLException
+     */
+    @Setup(Level.Invocation)
+    public void releaseClaimedOrders() throws SQLException {
+        for (String orderNumber : this.claimed) {
+            oController.cancelStaffOrder(orderNumber);
+        }
+        this.claimed.clear();
+    }
+
+    /**
+     * Let all the claimers drain the queue of pending orders.
+     *
+     * @return number of orders claimed.
+     * @throws Exception if a claim fails, or any order is claimed twice.
+     */
+    @Benchmark
+    public int drainPendingOrders() throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<List<Order>>> futures = new ArrayList<>();
+
+        for (int i = 0; i < this.claimers; i++) {
+            String staffUsername = BenchmarkDatabase.staffUsername(i);
+            futures.add(this.executor.submit((Callable<List<Order>>) () -> {
+                List<Order> taken = new ArrayList<>();
+                start.await();
+
+                List<Order> batch;
+                do {
+                    batch = oController.claimPendingOrders(staffUsername, this.batchSize);
+                    taken.addAll(batch);
+                } while (!batch.isEmpty());
+                return taken;
+            }));
+        }
+
+        start.countDown();
+        for (Future<List<Order>> future : futures) {
+            for (Order order : future.get()) {
+                if (!this.claimed.add(order.getOrderNumber())) {
+                    throw new IllegalStateException("Order " + order.getOrderNumber() + " claimed twice");
+                }
+            }
+        }
+        return this.claimed.size();
+    }
+}
@@ -0,0 +1,83 @@
+/**
+ * PasswordHashingBenchmarks.java
+ *
+ * JMH benchmarks of verifying a staff password (i.e. the CPU cost of a log in) at
+ * several PBKDF2 work factors, next to the original single SHA-256 round. The
+ * throughput reads as log ins per second on a single core.
+ *
+ * Other work factors can be measured with -Pjmh.args="-p iterations=10000,100000,...".
+ *
+ * Usage: gradle jmh -Pjmh.include=PasswordHashingBenchmarks
+ */
+
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import services.LegacyPasswordHasher;
+import services.PasswordHasher;
+import services.Pbkdf2PasswordHasher;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PasswordHashingBenchmarks {
+    private static final char[] PASSWORD = "samplePassword1".toCharArray();
+
+    @Benchmark
+    public boolean legacyVerify(Legacy legacy) {
+        return legacy.hasher.verify(PASSWORD, legacy.storedHash);
+    }
+
+    @Benchmark
+    public boolean pbkdf2Verify(Pbkdf2 pbkdf2) {
+        return pbkdf2.hasher.verify(PASSWORD, pbkdf2.storedHash);
+    }
+
+    /**
+     * Password stored with the original single SHA-256 round.
+     */
+    @State(Scope.Benchmark)
+    public static class Legacy {
+        PasswordHasher hasher;
+        String storedHash;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            this.hasher = new LegacyPasswordHasher();
+            this.storedHash = this.hasher.hash(PASSWORD);
+        }
+    }
+
+    /**
+     * Password stored with PBKDF2, at each measured work factor.
+     */
+    @State(Scope.Benchmark)
+    public static class Pbkdf2 {
+        @Param({"10000", "100000", "310000", "600000"})
+        int iterations;
+
+        PasswordHasher hasher;
+        String storedHash;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            this.hasher = new Pbkdf2PasswordHasher(this.iterations);
+            this.storedHash = this.hasher.hash(PASSWORD);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+/**
+ * ServiceBenchmarks.java
+ *
+ * JMH benchmarks of the service classes that do not need the database
+ * (ID generation and data encryption).
+ *
+ * The encryption is also measured as originally implemented (a digest looked up
+ * on every call, and a String per hex byte), as the baseline of the current one.
+ *
+ * Usage: gradle jmh -Pjmh.include=ServiceBenchmarks
+ */
+
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import services.EncryptionHandler;
+import services.IdGenerator;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ServiceBenchmarks {
+    private final String password = "samplePassword1";
+
+    @Benchmark
+    public String generateId() {
+        return IdGenerator.generateId(12);
+    }
+
+    @Benchmark
+    public String encryptData() throws NoSuchAlgorithmException {
+        return EncryptionHandler.encryptData(this.password);
+    }
+
+    @Benchmark
+    public String encryptDataBaseline() throws NoSuchAlgorithmException {
+        return baselineEncryptData(this.password);
+    }
+
+    /**
+     * Encrypt data the way EncryptionHandler originally did; produces the same output.
+     *
+     * @param rawData - raw, unencrypted data.
+     * @return encrypted data.
+     * @throws NoSuchAlgorithmException
+     */
+    private static String baselineEncryptData(String rawData) throws NoSuchAlgorithmException {
+        StringBuilder salted = new StringBuilder(rawData);
+        while (salted.length() < 20) {
+            salted.append('$');
+        }
+
+        MessageDigest mdEncryptor = MessageDigest.getInstance("SHA-256");
+        byte[] hashData = mdEncryptor.digest(salted.toString().getBytes(StandardCharsets.UTF_8));
+
+        StringBuilder hexStr = new StringBuilder();
+        for (byte hByte : hashData) {
+            String hex = Integer.toHexString(0xff & hByte);
+            if (hex.length() == 1) {
+                hexStr.append('$');
+            }
+            hexStr.append(hex);
+        }
+        return hexStr.toString();
+    }
+}
@@ -0,0 +1,559 @@
+/**
+ * ConnectionPool.java
+ *
+ * Bounded JDBC connection pool exposed as a standard DataSource.
+ *
+ * Connections handed out by the pool are proxies: calling close() on them
+ * returns the physical connection to the pool instead of closing it. The pool
+ * provides:
+ *   - a hard upper bound on the number of open connections;
+ *   - validation of idle connections when they are borrowed;
+ *   - eviction of connections idle for longer than the configured timeout;
+ *   - leak detection, logging where a connection held for too long was borrowed;
+ *   - a per connection cache of prepared statements (least recently used ones are
+ *     closed beyond db.pool.statementCacheSize): closing a statement prepared with
+ *     prepareStatement(sql) keeps it open for the next borrower preparing the same
+ *     SQL, so the database parses and plans it only once per connection (on MySQL,
+ *     with useServerPrepStmts=true). Hits and misses are counted by StatementRegistry.
+ */
+
+package database;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+public class ConnectionPool implements DataSource {
+    private static final Logger LOGGER = Logger.getLogger(ConnectionPool.class.getName());
+    private static final long HOUSEKEEPING_PERIOD_MS = 30000;
+    // Connections returned to the pool very recently are not re-validated on borrow.
+    private static final long VALIDATION_BYPASS_MS = 500;
+
+    private final DatabaseConfig config;
+    private final Semaphore permits;
+    private final LinkedBlockingDeque<PooledConnection> idleConnections = new LinkedBlockingDeque<>();
+    private final Set<PooledConnection> borrowedConnections = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService housekeeper;
+    // Read once, as it is checked on every prepareStatement call.
+    private final int statementCacheSize;
+    private final LongAdder statementCacheHits = new LongAdder();
+    private final LongAdder statementCacheMisses = new LongAdder();
+    private volatile boolean closed;
+
+    /**
+     * Constructor with parameters.
+     *
+     * @param config - database and pool settings.
+     */
+    public ConnectionPool(DatabaseConfig config) {
+        this.config = config;
+        this.permits = new Semaphore(config.getPoolMaxSize(), true);
+        this.statementCacheSize = config.getStatementCacheSize();
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "connection-pool-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.housekeeper.scheduleAtFixedRate(
+                this::houseKeep, HOUSEKEEPING_PERIOD_MS, HOUSEKEEPING_PERIOD_MS, TimeUnit.MILLISECONDS
+        );
+    }
+
+    /**
+     * Borrow a connection from the pool, opening a new physical connection
+     * only if no valid idle one is available.
+     *
+     * @return pooled connection, which must be closed to be returned to the pool.
+     * @throws SQLException if the pool is exhausted for longer than the timeout,
+     *         or a new connection cannot be opened.
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (this.closed) {
+            throw new SQLException("The connection pool has been shut down.");
+        }
+
+        try {
+            if (!this.permits.tryAcquire(config.getConnectionTimeoutMs(), TimeUnit.MILLISECONDS)) {
+                throw new SQLException(
+                        "Timed out after " + config.getConnectionTimeoutMs() + " ms waiting for a " +
+                        "database connection (pool size " + config.getPoolMaxSize() + ")."
+                );
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection.", e);
+        }
+
+        try {
+            PooledConnection pooled;
+
+            // Reuse the most recently returned connection that is still alive.
+            while ((pooled = this.idleConnections.pollFirst()) != null) {
+                if (isUsable(pooled)) {
+                    break;
+                }
+                discard(pooled);
+            }
+
+            if (pooled == null) {
+                pooled = new PooledConnection(
+                        DriverManager.getConnection(config.getUrl(), config.getUser(), config.getPassword())
+                );
+            }
+
+            pooled.markBorrowed(config.getLeakDetectionThresholdMs() > 0);
+            this.borrowedConnections.add(pooled);
+            return pooled.getProxy();
+        }
+        catch (SQLException | RuntimeException e) {
+            this.permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Credentials are fixed by the configuration, hence not supported.
+     */
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Credentials are taken from the database configuration.");
+    }
+
+    /** Accessor for the number of connections currently borrowed. */
+    public int getActiveCount() {
+        return this.borrowedConnections.size();
+    }
+
+    /** Accessor for the number of connections currently idle in the pool. */
+    public int getIdleCount() {
+        return this.idleConnections.size();
+    }
+
+    /** Accessor for the number of statements reused from the cache of their connection. */
+    public long getStatementCacheHits() {
+        return this.statementCacheHits.sum();
+    }
+
+    /** Accessor for the number of statements prepared because not cached on their connection. */
+    public long getStatementCacheMisses() {
+        return this.statementCacheMisses.sum();
+    }
+
+    /** Close all idle connections and refuse any further borrowing. */
+    public void close() {
+        this.closed = true;
+        this.housekeeper.shutdownNow();
+
+        PooledConnection pooled;
+        while ((pooled = this.idleConnections.pollFirst()) != null) {
+            discard(pooled);
+        }
+    }
+
+    /**
+     * Check if an idle connection can be handed out again.
+     *
+     * @param pooled - idle connection.
+     * @return true if the connection is (still) valid.
+     */
+    private boolean isUsable(PooledConnection pooled) {
+        if (System.currentTimeMillis() - pooled.lastReturnedAt < VALIDATION_BYPASS_MS) {
+            return true;
+        }
+
+        try {
+            return pooled.physical.isValid(config.getValidationTimeoutSeconds());
+        }
+        catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Give a borrowed connection back to the pool (called by the proxy's close()).
+     *
+     * @param pooled - connection being returned.
+     */
+    private void release(PooledConnection pooled) {
+        this.borrowedConnections.remove(pooled);
+
+        try {
+            if (this.closed || pooled.broken) {
+                discard(pooled);
+                return;
+            }
+
+            // Never hand an open transaction over to the next borrower.
+            if (!pooled.physical.getAutoCommit()) {
+                pooled.physical.rollback();
+                pooled.physical.setAutoCommit(true);
+            }
+
+            pooled.lastReturnedAt = System.currentTimeMillis();
+            this.idleConnections.offerFirst(pooled);
+        }
+        catch (SQLException e) {
+            discard(pooled);
+        }
+        finally {
+            this.permits.release();
+        }
+    }
+
+    /**
+     * Close the physical connection, ignoring errors (it is being thrown away).
+     *
+     * @param pooled - connection to be discarded.
+     */
+    private void discard(PooledConnection pooled) {
+        try {
+            pooled.physical.close();
+        }
+        catch (SQLException e) {
+            LOGGER.log(Level.FINE, "Error while closing a discarded connection", e);
+        }
+    }
+
+    /** Periodic task - evict long idle connections and report leaked ones. */
+    private void houseKeep() {
+        long now = System.currentTimeMillis();
+
+        // Idle connections are kept most-recent first, so evict from the tail.
+        Iterator<PooledConnection> idle = this.idleConnections.descendingIterator();
+        while (idle.hasNext()) {
+            PooledConnection pooled = idle.next();
+            boolean aboveMinimum = this.idleConnections.size() + this.borrowedConnections.size()
+                                   > config.getPoolMinIdle();
+
+            if (aboveMinimum && now - pooled.lastReturnedAt > config.getIdleTimeoutMs()
+                    && this.idleConnections.remove(pooled)) {
+                discard(pooled);
+            }
+        }
+
+        long leakThreshold = config.getLeakDetectionThresholdMs();
+        if (leakThreshold > 0) {
+            for (PooledConnection pooled : this.borrowedConnections) {
+                if (!pooled.leakReported && now - pooled.borrowedAt > leakThreshold) {
+                    pooled.leakReported = true;
+                    LOGGER.log(
+                            Level.WARNING,
+                            "Connection held for more than " + leakThreshold + " ms - possible leak.",
+                            pooled.borrowSite
+                    );
+                }
+            }
+        }
+    }
+
+    @Override
+    public PrintWriter getLogWriter() {
+        return null;
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) {}
+
+    @Override
+    public void setLoginTimeout(int seconds) {}
+
+    @Override
+    public int getLoginTimeout() {
+        return 0;
+    }
+
+    @Override
+    public Logger getParentLogger() {
+        return LOGGER;
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        throw new SQLException("The pool does not wrap " + iface.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return iface.isInstance(this);
+    }
+
+    /**
+     * Physical connection together with its pool bookkeeping.
+     */
+    private class PooledConnection implements InvocationHandler {
+        private final Connection physical;
+        private final List<Statement> openStatements = new ArrayList<>();
+        // Least recently used first; only touched by the borrower of the connection.
+        private final LinkedHashMap<String, CachedStatement> statementCache = new LinkedHashMap<>(16, 0.75f, true);
+        private Connection proxy;
+        private volatile long borrowedAt;
+        private volatile long lastReturnedAt;
+        private volatile boolean leakReported;
+        private volatile boolean broken;
+        private Throwable borrowSite;
+        private boolean proxyClosed;
+
+        PooledConnection(Connection physical) {
+            this.physical = physical;
+        }
+
+        void markBorrowed(boolean trackBorrowSite) {
+            this.borrowedAt = System.currentTimeMillis();
+            this.leakReported = false;
+            this.borrowSite = (trackBorrowSite ? new Throwable("Connection borrowed here") : null);
+            this.proxyClosed = false;
+            this.proxy = (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[] { Connection.class },
+                    this
+            );
+        }
+
+        Connection getProxy() {
+            return this.proxy;
+        }
+
+        @Override
+        public Object invoke(Object proxyInstance, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+
+            switch (name) {
+                case "equals":
+                    return proxyInstance == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxyInstance);
+                case "toString":
+                    return "Pooled" + this.physical;
+                default:
+                    break;
+            }
+
+            // A proxy belongs to a single borrow; once closed it is detached for good.
+            if (proxyInstance != this.proxy) {
+                return handleDetached(name);
+            }
+
+            if (name.equals("close")) {
+                if (!this.proxyClosed) {
+                    this.proxyClosed = true;
+                    closeOpenStatements();
+                    release(this);
+                }
+                return null;
+            }
+            if (name.equals("isClosed")) {
+                return this.proxyClosed || this.physical.isClosed();
+            }
+
+            if (this.proxyClosed) {
+                throw new SQLException("Connection is closed.");
+            }
+
+            if (name.equals("prepareStatement") && args.length == 1 && statementCacheSize > 0) {
+                PreparedStatement statement = prepareCached((String) args[0]);
+                this.openStatements.add(statement);
+                return statement;
+            }
+
+            try {
+                Object result = method.invoke(this.physical, args);
+                if (result instanceof Statement) {
+                    this.openStatements.add((Statement) result);
+                }
+                return result;
+            }
+            catch (InvocationTargetException e) {
+                Throwable cause = e.getCause();
+                // SQL state class 08 = connection exception; never reuse such a connection.
+                if (cause instanceof SQLException) {
+                    String state = ((SQLException) cause).getSQLState();
+                    if (state != null && state.startsWith("08")) {
+                        this.broken = true;
+                    }
+                }
+                throw cause;
+            }
+        }
+
+        /**
+         * Take a statement from the cache of the connection, or prepare it.
+         *
+         * @param sql - SQL of the statement.
+         * @return statement proxy, returned to the cache when closed.
+         * @throws SQLException if the statement cannot be prepared.
+         */
+        private PreparedStatement prepareCached(String sql) throws SQLException {
+            CachedStatement cached = this.statementCache.get(sql);
+
+            if (cached != null && !cached.inUse && !cached.physical.isClosed()) {
+                statementCacheHits.increment();
+                StatementRegistry.getInstance().recordHit(sql);
+            }
+            else {
+                statementCacheMisses.increment();
+                StatementRegistry.getInstance().recordMiss(sql);
+                PreparedStatement physicalStatement = prepare(sql);
+
+                // The same SQL still open on this connection (e.g. in a nested call) is not shared.
+                if (cached != null && cached.inUse) {
+                    return physicalStatement;
+                }
+                cached = new CachedStatement(physicalStatement);
+                this.statementCache.put(sql, cached);
+                evictStatements();
+            }
+
+            cached.inUse = true;
+            return cached.borrow();
+        }
+
+        private PreparedStatement prepare(String sql) throws SQLException {
+            try {
+                return this.physical.prepareStatement(sql);
+            }
+            catch (SQLException e) {
+                String state = e.getSQLState();
+                if (state != null && state.startsWith("08")) {
+                    this.broken = true;
+                }
+                throw e;
+            }
+        }
+
+        /** Close the least recently used statements not in use, beyond the size of the cache. */
+        private void evictStatements() {
+            Iterator<CachedStatement> eldest = this.statementCache.values().iterator();
+            while (this.statementCache.size() > statementCacheSize && eldest.hasNext()) {
+                CachedStatement cached = eldest.next();
+                if (!cached.inUse) {
+                    eldest.remove();
+                    cached.closePhysical();
+                }
+            }
+        }
+
+        private Object handleDetached(String methodName) throws SQLException {
+            if (methodName.equals("close")) {
+                return null;
+            }
+            if (methodName.equals("isClosed")) {
+                return true;
+            }
+            throw new SQLException("Connection is closed.");
+        }
+
+        private void closeOpenStatements() {
+            for (Statement statement : this.openStatements) {
+                try {
+                    statement.close();
+                }
+                catch (SQLException e) {
+                    LOGGER.log(Level.FINE, "Error while closing a statement", e);
+                }
+            }
+            this.openStatements.clear();
+        }
+    }
+
+    /**
+     * Prepared statement kept open on its connection, lent to one caller at a time.
+     */
+    private static class CachedStatement {
+        private final PreparedStatement physical;
+        private boolean inUse;
+
+        CachedStatement(PreparedStatement physical) {
+            this.physical = physical;
+        }
+
+        /**
+         * Lend the statement: the proxy behaves as a statement of its own, whose
+         * close() clears the parameters and gives the statement back to the cache.
+         */
+        PreparedStatement borrow() {
+            boolean[] returned = {false};
+
+            return (PreparedStatement) Proxy.newProxyInstance(
+                    PreparedStatement.class.getClassLoader(),
+                    new Class<?>[] { PreparedStatement.class },
+                    (proxyInstance, method, args) -> {
+                        switch (method.getName()) {
+                            case "equals":
+                                return proxyInstance == args[0];
+                            case "hashCode":
+                                return System.identityHashCode(proxyInstance);
+                            case "isClosed":
+                                return returned[0] || this.physical.isClosed();
+                            case "close":
+                                if (!returned[0]) {
+                                    returned[0] = true;
+                                    giveBack();
+                                }
+                                return null;
+                            default:
+                                break;
+                        }
+
+                        if (returned[0]) {
+                            throw new SQLException("Statement is closed.");
+                        }
+                        try {
+                            return method.invoke(this.physical, args);
+                        }
+                        catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    }
+            );
+        }
+
+        private void giveBack() {
+            try {
+                this.physical.clearParameters();
+                this.physical.clearBatch();
+            }
+            catch (SQLException e) {
+                // Not reusable: once closed, it is prepared again on its next use.
+                closePhysical();
+            }
+            this.inUse = false;
+        }
+
+        void closePhysical() {
+            try {
+                this.physical.close();
+            }
+            catch (SQLException e) {
+                LOGGER.log(Level.FINE, "Error while closing a cached statement", e);
+            }
+        }
+    }
+}
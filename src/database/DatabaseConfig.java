@@ -0,0 +1,217 @@
+/**
+ * DatabaseConfig.java
+ *
+ * Externalised database settings (JDBC URL, credentials, connection pool sizing).
+ *
+ * The settings are resolved in the following order, later sources overriding earlier ones:
+ *   1. the "database.properties" resource shipped on the classpath;
+ *   2. the "database-<profile>.properties" resource of the profile selected with
+ *      -Ddb.profile=... (e.g. "embedded" for a local in-memory database);
+ *   3. a properties file whose path is passed with -Ddb.config=...;
+ *   4. individual JVM system properties using the same keys (e.g. -Ddb.url=...).
+ */
+
+package database;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+public class DatabaseConfig {
+    private static final String CONFIG_RESOURCE = "/database.properties";
+    private static final String CONFIG_FILE_PROPERTY = "db.config";
+    private static final String PROFILE_RESOURCE = "/database-%s.properties";
+
+    public static final String PROFILE = "db.profile";
+    public static final String INIT_SCRIPTS = "db.init.scripts";
+    public static final String MIGRATE_ON_STARTUP = "db.migrations.onStartup";
+    public static final String URL = "db.url";
+    public static final String USER = "db.user";
+    public static final String PASSWORD = "db.password";
+    public static final String POOL_MAX_SIZE = "db.pool.maxSize";
+    public static final String POOL_MIN_IDLE = "db.pool.minIdle";
+    public static final String POOL_CONNECTION_TIMEOUT_MS = "db.pool.connectionTimeoutMs";
+    public static final String POOL_IDLE_TIMEOUT_MS = "db.pool.idleTimeoutMs";
+    public static final String POOL_VALIDATION_TIMEOUT_S = "db.pool.validationTimeoutSeconds";
+    public static final String POOL_LEAK_DETECTION_MS = "db.pool.leakDetectionThresholdMs";
+    public static final String POOL_STATEMENT_CACHE_SIZE = "db.pool.statementCacheSize";
+
+    private final Properties properties;
+
+    /**
+     * Constructor with parameters (mainly used to build an ad-hoc configuration, e.g. in tests).
+     *
+     * @param properties - raw key/value settings.
+     */
+    public DatabaseConfig(Properties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Load the configuration from the classpath defaults, optional external file
+     * and JVM system properties.
+     *
+     * @return resolved database configuration.
+     * @throws IllegalStateException if a configuration source cannot be read,
+     *         or no JDBC URL has been configured at all.
+     */
+    public static DatabaseConfig load() {
+        Properties properties = new Properties();
+
+        loadResource(properties, CONFIG_RESOURCE, false);
+
+        String profile = System.getProperty(PROFILE, properties.getProperty(PROFILE));
+        if (profile != null && !profile.trim().isEmpty()) {
+            loadResource(properties, String.format(PROFILE_RESOURCE, profile.trim()), true);
+        }
+
+        String configFile = System.getProperty(CONFIG_FILE_PROPERTY);
+        if (configFile != null) {
+            try (InputStream external = new FileInputStream(configFile)) {
+                properties.load(external);
+            }
+            catch (IOException e) {
+                throw new IllegalStateException("Could not read database config file " + configFile, e);
+            }
+        }
+
+        // JVM system properties take precedence over any file.
+        for (String key : System.getProperties().stringPropertyNames()) {
+            if (key.startsWith("db.")) {
+                properties.setProperty(key, System.getProperty(key));
+            }
+        }
+
+        if (properties.getProperty(URL) == null) {
+            throw new IllegalStateException("No database URL configured (property '" + URL + "').");
+        }
+
+        return new DatabaseConfig(properties);
+    }
+
+    /**
+     * Load a properties resource from the classpath.
+     *
+     * @param properties - settings to be extended (and overridden) by the resource.
+     * @param resource - path of the resource.
+     * @param required - whether a missing resource is an error.
+     * @throws IllegalStateException if the resource cannot be read, or is required but missing.
+     */
+    private static void loadResource(Properties properties, String resource, boolean required) {
+        try (InputStream input = DatabaseConfig.class.getResourceAsStream(resource)) {
+            if (input != null) {
+                properties.load(input);
+            }
+            else if (required) {
+                throw new IllegalStateException("No database profile " + resource + " on the classpath.");
+            }
+        }
+        catch (IOException e) {
+            throw new IllegalStateException("Could not read " + resource, e);
+        }
+    }
+
+    /** Accessor for the JDBC URL. */
+    public String getUrl() {
+        return this.properties.getProperty(URL);
+    }
+
+    /** Accessor for the database user. */
+    public String getUser() {
+        return this.properties.getProperty(USER);
+    }
+
+    /** Accessor for the database password. */
+    public String getPassword() {
+        return this.properties.getProperty(PASSWORD);
+    }
+
+    /** Accessor for the maximum number of pooled connections. */
+    public int getPoolMaxSize() {
+        return getInt(POOL_MAX_SIZE, 10);
+    }
+
+    /** Accessor for the number of idle connections never evicted. */
+    public int getPoolMinIdle() {
+        return getInt(POOL_MIN_IDLE, 1);
+    }
+
+    /** Accessor for how long a caller waits for a free connection. */
+    public long getConnectionTimeoutMs() {
+        return getLong(POOL_CONNECTION_TIMEOUT_MS, 10000);
+    }
+
+    /** Accessor for how long a connection may sit idle before it is evicted. */
+    public long getIdleTimeoutMs() {
+        return getLong(POOL_IDLE_TIMEOUT_MS, 300000);
+    }
+
+    /** Accessor for the timeout of the validation check on borrow. */
+    public int getValidationTimeoutSeconds() {
+        return getInt(POOL_VALIDATION_TIMEOUT_S, 2);
+    }
+
+    /** Accessor for the borrow time after which a connection is reported as leaked (0 = off). */
+    public long getLeakDetectionThresholdMs() {
+        return getLong(POOL_LEAK_DETECTION_MS, 60000);
+    }
+
+    /** Accessor for the number of prepared statements kept open per connection for reuse (0 = off). */
+    public int getStatementCacheSize() {
+        return getInt(POOL_STATEMENT_CACHE_SIZE, 64);
+    }
+
+    /** Accessor for the classpath SQL scripts run once the pool is created (e.g. schema, fixtures). */
+    public List<String> getInitScripts() {
+        List<String> scripts = new ArrayList<>();
+        for (String script : this.properties.getProperty(INIT_SCRIPTS, "").split(",")) {
+            if (!script.trim().isEmpty()) {
+                scripts.add(script.trim());
+            }
+        }
+        return scripts;
+    }
+
+    /** Accessor for whether the pending schema migrations are applied once the pool is created. */
+    public boolean isMigrateOnStartup() {
+        return Boolean.parseBoolean(get(MIGRATE_ON_STARTUP, "false").trim());
+    }
+
+    /**
+     * Read any raw setting (e.g. one not covered by the typed accessors).
+     *
+     * @param key - property key.
+     * @param defaultValue - value returned if the key is not set.
+     * @return configured value or the default.
+     */
+    public String get(String key, String defaultValue) {
+        return this.properties.getProperty(key, defaultValue);
+    }
+
+    /**
+     * Read an integer setting.
+     *
+     * @param key - property key.
+     * @param defaultValue - value returned if the key is not set.
+     * @return configured value or the default.
+     */
+    public int getInt(String key, int defaultValue) {
+        String value = this.properties.getProperty(key);
+        return (value == null ? defaultValue : Integer.parseInt(value.trim()));
+    }
+
+    /**
+     * Read a long setting.
+     *
+     * @param key - property key.
+     * @param defaultValue - value returned if the key is not set.
+     * @return configured value or the default.
+     */
+    public long getLong(String key, long defaultValue) {
+        String value = this.properties.getProperty(key);
+        return (value == null ? defaultValue : Long.parseLong(value.trim()));
+    }
+}
@@ -0,0 +1,273 @@
+/**
+ * MigrationRunner.java
+ *
+ * Versioned schema migrations: the SQL scripts listed, in order, in
+ * /database/migrations/migrations.txt (named V<version>__<description>.sql) are
+ * each applied once, and recorded in the SchemaMigrations table together with
+ * a checksum of their text.
+ *
+ * A migration already applied must never be edited (its checksum would no
+ * longer match, which stops the start-up); changes go into a new migration.
+ *
+ * Each migration runs in its own transaction, with its history record. NB: MySQL
+ * commits DDL statements (e.g. CREATE INDEX) straight away, so should a migration
+ * fail halfway there, its statements already run must be undone by hand before
+ * it is run again.
+ *
+ * Applied on start-up with db.migrations.onStartup=true, or from the command line:
+ * java database.MigrationRunner [migrate|status]
+ */
+
+package database;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class MigrationRunner {
+    public static final String MIGRATIONS_INDEX = "/database/migrations/migrations.txt";
+    private static final String MIGRATIONS_DIRECTORY = "/database/migrations/";
+    private static final Pattern SCRIPT_NAME = Pattern.compile("V(\\d+)__(\\w+)\\.sql");
+
+    public static void main(String[] args) throws SQLException {
+        DatabaseConfig config = DatabaseConfig.load();
+        String command = (args.length > 0 ? args[0] : "migrate");
+
+        ConnectionPool pool = new ConnectionPool(config);
+        try {
+            if (command.equals("migrate")) {
+                List<Migration> applied = migrate(pool);
+                System.out.println("Applied " + applied.size() + " migration(s).");
+                for (Migration migration : applied) {
+                    System.out.println("  " + migration);
+                }
+            }
+            else if (command.equals("status")) {
+                Map<Integer, String> appliedChecksums = readHistory(pool);
+                for (Migration migration : loadMigrations()) {
+                    System.out.println(
+                            (appliedChecksums.containsKey(migration.getVersion()) ? "applied  " : "pending  ") + migration
+                    );
+                }
+            }
+            else {
+                System.err.println("Usage: java database.MigrationRunner [migrate|status]");
+            }
+        }
+        finally {
+            pool.close();
+        }
+    }
+
+    /**
+     * Apply all the migrations not applied yet, in order.
+     *
+     * @param dataSource - database to be migrated.
+     * @return migrations applied by this call (empty if the schema is up to date).
+     * @throws SQLException if a migration fails (the earlier ones stay applied).
+     * @throws IllegalStateException if an applied migration has been changed since.
+     */
+    public static List<Migration> migrate(DataSource dataSource) throws SQLException {
+        List<Migration> migrations = loadMigrations();
+        Map<Integer, String> appliedChecksums = readHistory(dataSource);
+        List<Migration> applied = new ArrayList<>();
+
+        for (Migration migration : migrations) {
+            String appliedChecksum = appliedChecksums.get(migration.getVersion());
+
+            if (appliedChecksum == null) {
+                apply(dataSource, migration);
+                applied.add(migration);
+            }
+            else if (!appliedChecksum.equals(migration.getChecksum())) {
+                throw new IllegalStateException(
+                        "Migration " + migration + " has been changed since it was applied."
+                );
+            }
+        }
+
+        return applied;
+    }
+
+    /**
+     * Read the list of migrations, in the order they are applied.
+     *
+     * @return all the migrations shipped on the classpath.
+     * @throws IllegalStateException if the list is malformed (e.g. versions not increasing).
+     */
+    public static List<Migration> loadMigrations() {
+        List<Migration> migrations = new ArrayList<>();
+        int lastVersion = 0;
+
+        for (String line : ScriptRunner.readResource(MIGRATIONS_INDEX).split("\r?\n")) {
+            String name = line.trim();
+            if (name.isEmpty() || name.startsWith("#")) {
+                continue;
+            }
+
+            Matcher matcher = SCRIPT_NAME.matcher(name);
+            if (!matcher.matches()) {
+                throw new IllegalStateException("Migration " + name + " is not named V<version>__<description>.sql");
+            }
+
+            int version = Integer.parseInt(matcher.group(1));
+            if (version <= lastVersion) {
+                throw new IllegalStateException("Migration " + name + " is listed out of order.");
+            }
+            lastVersion = version;
+
+            String script = ScriptRunner.readResource(MIGRATIONS_DIRECTORY + name);
+            migrations.add(new Migration(version, matcher.group(2).replace('_', ' '), script));
+        }
+
+        return migrations;
+    }
+
+    /**
+     * Read the migrations applied so far, creating the history table if needed.
+     *
+     * @param dataSource - database to be read.
+     * @return checksum of every applied migration, by version.
+     * @throws SQLException
+     */
+    private static Map<Integer, String> readHistory(DataSource dataSource) throws SQLException {
+        Map<Integer, String> appliedChecksums = new HashMap<>();
+
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            connection.setAutoCommit(true);
+            statement.execute(
+                    "CREATE TABLE IF NOT EXISTS SchemaMigrations (" +
+                    "version INT NOT NULL, " +
+                    "description VARCHAR(100) NOT NULL, " +
+                    "checksum VARCHAR(64) NOT NULL, " +
+                    "appliedAt TIMESTAMP NOT NULL, " +
+                    "PRIMARY KEY (version))"
+            );
+
+            try (ResultSet result = statement.executeQuery("SELECT version, checksum FROM SchemaMigrations")) {
+                while (result.next()) {
+                    appliedChecksums.put(result.getInt("version"), result.getString("checksum"));
+                }
+            }
+        }
+
+        return appliedChecksums;
+    }
+
+    /**
+     * Apply a single migration and record it, in one transaction.
+     *
+     * @param dataSource - database to be migrated.
+     * @param migration - migration to be applied.
+     * @throws SQLException if any statement fails.
+     */
+    private static void apply(DataSource dataSource, Migration migration) throws SQLException {
+        String historyQuery = "INSERT INTO SchemaMigrations (version, description, checksum, appliedAt) " +
+                              "VALUES (?, ?, ?, ?)";
+
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             PreparedStatement historyStatement = connection.prepareStatement(historyQuery)) {
+            connection.setAutoCommit(false);
+
+            try {
+                for (String sql : ScriptRunner.splitStatements(migration.script)) {
+                    statement.execute(sql);
+                }
+
+                historyStatement.setInt(1, migration.getVersion());
+                historyStatement.setString(2, migration.getDescription());
+                historyStatement.setString(3, migration.getChecksum());
+                historyStatement.setTimestamp(4, new Timestamp(System.currentTimeMillis()));
+                historyStatement.executeUpdate();
+
+                connection.commit();
+            }
+            catch (SQLException e) {
+                connection.rollback();
+                throw new SQLException("Migration " + migration + " failed: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Checksum of a script, insensitive to the line endings of the platform.
+     *
+     * @param script - full text of the script.
+     * @return SHA-256 of the text, in hexadecimal.
+     */
+    static String checksum(String script) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(
+                    script.replace("\r\n", "\n").getBytes(StandardCharsets.UTF_8)
+            );
+
+            StringBuilder hex = new StringBuilder();
+            for (byte hByte : hash) {
+                hex.append(String.format("%02x", hByte));
+            }
+            return hex.toString();
+        }
+        catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Single versioned migration script.
+     */
+    public static class Migration {
+        private final int version;
+        private final String description;
+        private final String script;
+        private final String checksum;
+
+        /**
+         * Constructor with parameters.
+         *
+         * @param version - version of the schema the migration leads to.
+         * @param description - short description, taken from the script name.
+         * @param script - full text of the script.
+         */
+        public Migration(int version, String description, String script) {
+            this.version = version;
+            this.description = description;
+            this.script = script;
+            this.checksum = checksum(script);
+        }
+
+        /** Accessor for the version. */
+        public int getVersion() {
+            return this.version;
+        }
+
+        /** Accessor for the description. */
+        public String getDescription() {
+            return this.description;
+        }
+
+        /** Accessor for the checksum of the script. */
+        public String getChecksum() {
+            return this.checksum;
+        }
+
+        @Override
+        public String toString() {
+            return "V" + this.version + " (" + this.description + ")";
+        }
+    }
+}
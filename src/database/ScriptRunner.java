@@ -0,0 +1,114 @@
+/**
+ * ScriptRunner.java
+ *
+ * Runs SQL scripts shipped on the classpath (e.g. the schema and the sample
+ * records of the embedded database profile) against a data source.
+ *
+ * Statements are separated by a semicolon at the end of a line; lines starting
+ * with "--" are comments.
+ */
+
+package database;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ScriptRunner {
+    /**
+     * Run all the statements of a classpath script in a single transaction.
+     *
+     * @param dataSource - database the script is run against.
+     * @param resource - classpath path of the script, e.g. "/database/schema.sql".
+     * @throws SQLException if any statement fails (nothing of the script is applied then).
+     * @throws IllegalStateException if the script cannot be found or read.
+     */
+    public static void run(DataSource dataSource, String resource) throws SQLException {
+        List<String> statements = splitStatements(readResource(resource));
+
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            connection.setAutoCommit(false);
+
+            try {
+                for (String sql : statements) {
+                    statement.execute(sql);
+                }
+                connection.commit();
+            }
+            catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Split the text of a script into single statements.
+     *
+     * @param script - full text of the script.
+     * @return statements without the trailing semicolons and comment lines.
+     */
+    public static List<String> splitStatements(String script) {
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+
+        for (String line : script.split("\r?\n")) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("--")) {
+                continue;
+            }
+
+            if (trimmed.endsWith(";")) {
+                current.append(trimmed, 0, trimmed.length() - 1);
+                statements.add(current.toString().trim());
+                current.setLength(0);
+            }
+            else {
+                current.append(trimmed).append('\n');
+            }
+        }
+
+        // The last statement may not be terminated.
+        if (current.toString().trim().length() > 0) {
+            statements.add(current.toString().trim());
+        }
+
+        return statements;
+    }
+
+    /**
+     * Read a classpath resource as text.
+     *
+     * @param resource - classpath path of the script.
+     * @return full text of the script.
+     * @throws IllegalStateException if the script cannot be found or read.
+     */
+    static String readResource(String resource) {
+        try (InputStream input = ScriptRunner.class.getResourceAsStream(resource)) {
+            if (input == null) {
+                throw new IllegalStateException("No SQL script " + resource + " on the classpath.");
+            }
+
+            StringBuilder script = new StringBuilder();
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    script.append(line).append('\n');
+                }
+            }
+            return script.toString();
+        }
+        catch (IOException e) {
+            throw new IllegalStateException("Could not read SQL script " + resource, e);
+        }
+    }
+}
@@ -0,0 +1,166 @@
+/**
+ * StatementRegistry.java
+ *
+ * Registry of the SQL used by the controllers. Each statement is declared once, as a
+ * named constant of its controller:
+ *
+ *     private static final String FIND_BY_ID = StatementRegistry.register(
+ *             "FrameSetController.findComponentById", "SELECT * FROM FrameSets WHERE ...");
+ *
+ * so that the same text is prepared on every call, which lets the connection pool
+ * reuse the statement already prepared on the connection (see ConnectionPool).
+ * The registry counts, per statement and in total, how often the pool found it
+ * prepared (hits) or had to prepare it (misses).
+ */
+
+package database;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+public class StatementRegistry implements StatementRegistryMXBean {
+    private static final StatementRegistry instance = new StatementRegistry();
+
+    private final Map<String, NamedStatement> statementsBySql = new ConcurrentHashMap<>();
+    private final Map<String, NamedStatement> statementsByName = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /** Accessor for the registry shared by the whole application. */
+    public static StatementRegistry getInstance() {
+        return instance;
+    }
+
+    /**
+     * Declare a statement of a controller.
+     *
+     * @param name - unique name of the statement, e.g. Controller.method.
+     * @param sql - SQL of the statement.
+     * @return the SQL, to be kept as a constant.
+     * @throws IllegalStateException if the name is already declared with a different SQL.
+     */
+    public static String register(String name, String sql) {
+        NamedStatement statement = new NamedStatement(name, sql);
+        NamedStatement existing = instance.statementsByName.putIfAbsent(name, statement);
+
+        if (existing != null && !existing.sql.equals(sql)) {
+            throw new IllegalStateException("Statement " + name + " is already declared with another SQL.");
+        }
+        instance.statementsBySql.putIfAbsent(sql, (existing != null ? existing : statement));
+        return sql;
+    }
+
+    /**
+     * Count a statement found prepared on its connection.
+     *
+     * @param sql - SQL of the statement.
+     */
+    void recordHit(String sql) {
+        this.hits.increment();
+        NamedStatement statement = this.statementsBySql.get(sql);
+        if (statement != null) {
+            statement.hits.increment();
+        }
+    }
+
+    /**
+     * Count a statement which had to be prepared.
+     *
+     * @param sql - SQL of the statement.
+     */
+    void recordMiss(String sql) {
+        this.misses.increment();
+        NamedStatement statement = this.statementsBySql.get(sql);
+        if (statement != null) {
+            statement.misses.increment();
+        }
+    }
+
+    /**
+     * Look up the name of a statement.
+     *
+     * @param sql - SQL of the statement.
+     * @return its name, or null if not declared (e.g. SQL built at run time).
+     */
+    public String nameOf(String sql) {
+        NamedStatement statement = this.statementsBySql.get(sql);
+        return (statement != null ? statement.name : null);
+    }
+
+    /**
+     * Accessor for the hits of a single statement.
+     *
+     * @param name - name of the statement.
+     * @return number of hits (0 if not declared).
+     */
+    public long getHits(String name) {
+        NamedStatement statement = this.statementsByName.get(name);
+        return (statement != null ? statement.hits.sum() : 0);
+    }
+
+    /**
+     * Accessor for the misses of a single statement.
+     *
+     * @param name - name of the statement.
+     * @return number of misses (0 if not declared).
+     */
+    public long getMisses(String name) {
+        NamedStatement statement = this.statementsByName.get(name);
+        return (statement != null ? statement.misses.sum() : 0);
+    }
+
+    @Override
+    public long getHits() {
+        return this.hits.sum();
+    }
+
+    @Override
+    public long getMisses() {
+        return this.misses.sum();
+    }
+
+    @Override
+    public double getHitRatio() {
+        long hitCount = this.hits.sum();
+        long total = hitCount + this.misses.sum();
+        return (total == 0 ? 0 : (double) hitCount / total);
+    }
+
+    @Override
+    public String[] getStatements() {
+        List<String> lines = new ArrayList<>();
+        for (NamedStatement statement : new TreeMap<>(this.statementsByName).values()) {
+            lines.add(statement.name + " hits=" + statement.hits.sum() + " misses=" + statement.misses.sum());
+        }
+        return lines.toArray(new String[0]);
+    }
+
+    @Override
+    public void reset() {
+        this.hits.reset();
+        this.misses.reset();
+        for (NamedStatement statement : this.statementsByName.values()) {
+            statement.hits.reset();
+            statement.misses.reset();
+        }
+    }
+
+    /**
+     * Declared statement with its own counters.
+     */
+    private static class NamedStatement {
+        private final String name;
+        private final String sql;
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+
+        NamedStatement(String name, String sql) {
+            this.name = name;
+            this.sql = sql;
+        }
+    }
+}
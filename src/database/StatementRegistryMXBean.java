@@ -0,0 +1,24 @@
+/**
+ * StatementRegistryMXBean.java
+ *
+ * JMX view of the prepared statement cache of the connection pool (see StatementRegistry).
+ */
+
+package database;
+
+public interface StatementRegistryMXBean {
+    /** Number of statements taken from the cache of their connection, i.e. not prepared again. */
+    long getHits();
+
+    /** Number of statements that had to be prepared (first use on a connection, or evicted). */
+    long getMisses();
+
+    /** Share of the statements taken from the cache, between 0 and 1. */
+    double getHitRatio();
+
+    /** One line per named statement with its own hits and misses, by name. */
+    String[] getStatements();
+
+    /** Set all the counters back to zero. */
+    void reset();
+}
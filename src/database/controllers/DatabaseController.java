@@ -5,46 +5,108 @@
  *
  * NB: All the subclasses of the abstract controller rely on the usage of
  * PreparedStatement, which helps to avoid SQL injection by user input.
+ *
+ * Connections are borrowed from a shared, bounded pool (see ConnectionPool),
+ * configured through database.properties rather than hard-coded credentials.
+ *
+ * Controllers hold no per-call state: every method borrows its own connection
+ * and statements as local resources, so a single controller instance can be
+ * shared and called from any number of threads at once.
+ *
+ * Every call is measured per controller method (see ControllerMetrics), unless
+ * disabled with db.metrics.enabled=false.
  */
 
 package database.controllers;
 
+import database.ConnectionPool;
+import database.DatabaseConfig;
+import database.MigrationRunner;
+import database.ScriptRunner;
+import database.metrics.ControllerMetrics;
+import database.metrics.InstrumentedDataSource;
+
+import javax.sql.DataSource;
 import java.sql.Connection;
-import java.sql.DriverManager;
-import java.sql.PreparedStatement;
 import java.sql.SQLException;
 
 public abstract class DatabaseController {
-    private static final String DB_URL = "jdbc:mysql://stusql.dcs.shef.ac.uk/";
-    private static final String DB_USER = "team020";
-    private static final String DB_NAME = "team020";
-    private static final String DB_PASSWORD = "c602ccf2";
-    protected Connection connection;
-    protected PreparedStatement sqlStatement;
+    private static volatile DataSource dataSource;
 
     /**
-     * Open a connection with the database using the pre-defined credentials.
+     * Get the shared data source, creating the connection pool on first use.
      *
-     * @throws SQLException
+     * @return pooled data source used by all the controllers.
+     * @throws IllegalStateException if a configured start-up script or schema migration fails.
      */
-    protected void openConnection() throws SQLException {
-        this.connection = DriverManager.getConnection(
-                DB_URL + DB_NAME, DB_USER, DB_PASSWORD
-        );
+    public static synchronized DataSource getDataSource() {
+        if (dataSource == null) {
+            DatabaseConfig config = DatabaseConfig.load();
+            ConnectionPool pool = new ConnectionPool(config);
+            Runtime.getRuntime().addShutdownHook(new Thread(pool::close));
+
+            // E.g. the embedded profile creates its schema and sample records on start-up.
+            for (String script : config.getInitScripts()) {
+                try {
+                    ScriptRunner.run(pool, script);
+                }
+                catch (SQLException e) {
+                    pool.close();
+                    throw new IllegalStateException("Could not run database script " + script, e);
+                }
+            }
+
+            if (config.isMigrateOnStartup()) {
+                try {
+                    MigrationRunner.migrate(pool);
+                }
+                catch (SQLException | IllegalStateException e) {
+                    pool.close();
+                    throw new IllegalStateException("Could not migrate the database schema", e);
+                }
+            }
+            // Per method latency, round trips and rows, see ControllerMetrics.
+            dataSource = (ControllerMetrics.isEnabled(config)
+                          ? new InstrumentedDataSource(pool, ControllerMetrics.getInstance()) : pool);
+        }
+
+        return dataSource;
     }
 
     /**
-     * Close a connection with the database.
+     * Replace the shared data source, e.g. to point the controllers at a different database.
      *
+     * @param newDataSource - data source to be used by all the controllers.
+     */
+    public static synchronized void setDataSource(DataSource newDataSource) {
+        dataSource = newDataSource;
+    }
+
+    /**
+     * Borrow a connection with the database from the connection pool. The caller
+     * owns the connection and must close it (i.e. return it to the pool), ideally
+     * with try-with-resources.
+     *
+     * @return connection exclusive to the calling method.
      * @throws SQLException
      */
-    protected void closeConnection() throws SQLException {
-        if (sqlStatement != null) {
-            sqlStatement.close();
-        }
+    protected static Connection openConnection() throws SQLException {
+        return getDataSource().getConnection();
+    }
 
-        if (connection != null) {
-            connection.close();
+    /**
+     * Check if a write was refused because of a duplicate primary key, so that an
+     * insert can report an existing record without looking it up beforehand
+     * (also used by services writing through their own transactions).
+     *
+     * @param e - exception thrown by the write.
+     * @return true for a duplicate key (SQL state 23505, or MySQL error 1062), false otherwise.
+     */
+    public static boolean isDuplicateKey(Exception e) {
+        if (!(e instanceof SQLException)) {
+            return false;
         }
+        SQLException sqlException = (SQLException) e;
+        return "23505".equals(sqlException.getSQLState()) || sqlException.getErrorCode() == 1062;
     }
 }
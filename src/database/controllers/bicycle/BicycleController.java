@@ -6,25 +6,91 @@
 
 package database.controllers.bicycle;
 
+import database.StatementRegistry;
 import database.controllers.DatabaseController;
-import database.controllers.component.FrameSetController;
-import database.controllers.component.HandlebarController;
-import database.controllers.component.PairOfWheelsController;
+import database.controllers.component.ComponentController;
 import exceptions.BicycleNotFoundException;
 import exceptions.ComponentNotFoundException;
 import exceptions.InputTooLongException;
+import exceptions.InsufficientStockException;
 import models.bicycle.Bicycle;
+import models.component.Component;
+import models.component.StockAdjustment;
 import models.component.frameset.FrameSet;
 import models.component.handlebar.Handlebar;
+import models.component.handlebar.HandlebarType;
+import models.component.pairofwheels.BrakeType;
 import models.component.pairofwheels.PairOfWheels;
+import models.component.pairofwheels.TyreType;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
 
 public class BicycleController extends DatabaseController {
-    private static HandlebarController handlebarController = new HandlebarController();
-    private static FrameSetController frameSetController = new FrameSetController();
-    private static PairOfWheelsController pairOfWheelsController = new PairOfWheelsController();
+    private static final String EXISTS_QUERY = StatementRegistry.register(
+            "BicycleController.bicycleExists",
+            "SELECT EXISTS(\n\t" +
+            "SELECT * FROM Bicycles WHERE serialNumber = ?\n)"
+    );
+
+    // Bicycle records joined with their components' records, so that a whole bicycle is read at once.
+    private static final String BICYCLES_WITH_COMPONENTS_QUERY =
+            "SELECT b.serialNumber, b.customName, " +
+            "b.handlebarSerialNumber, b.handlebarBrandName, h.handlebarName, " +
+            "h.type AS handlebarType, h.cost AS handlebarCost, h.stock AS handlebarStock, " +
+            "b.frameSetSerialNumber, b.frameSetBrandName, f.frameSetName, f.forkSetName, f.gearSetName, " +
+            "f.size AS frameSetSize, f.hasShocks AS frameSetHasShocks, " +
+            "f.cost AS frameSetCost, f.stock AS frameSetStock, " +
+            "b.pairOfWheelsSerialNumber, b.pairOfWheelsBrandName, w.pairOfWheelsName, " +
+            "w.diameter AS wheelsDiameter, w.tyreType AS wheelsTyreType, w.brakeType AS wheelsBrakeType, " +
+            "w.cost AS wheelsCost, w.stock AS wheelsStock " +
+            "FROM Bicycles b " +
+            "LEFT JOIN Handlebars h " +
+            "ON h.serialNumber = b.handlebarSerialNumber AND h.brandName = b.handlebarBrandName " +
+            "LEFT JOIN FrameSets f " +
+            "ON f.serialNumber = b.frameSetSerialNumber AND f.brandName = b.frameSetBrandName " +
+            "LEFT JOIN PairsOfWheels w " +
+            "ON w.serialNumber = b.pairOfWheelsSerialNumber AND w.brandName = b.pairOfWheelsBrandName ";
+
+    private static final String FIND_BY_ID_QUERY = StatementRegistry.register(
+            "BicycleController.findBicycleById",
+            BICYCLES_WITH_COMPONENTS_QUERY + "WHERE b.serialNumber = ?"
+    );
+
+    private static final String DELETE_QUERY = StatementRegistry.register(
+            "BicycleController.deleteBicycle",
+            "DELETE FROM Bicycles WHERE serialNumber = ?"
+    );
+
+    private static final String INSERT_QUERY = StatementRegistry.register(
+            "BicycleController.insertBicycle",
+            "INSERT INTO Bicycles" +
+            "(serialNumber, customName, brandName, " +
+            "handlebarSerialNumber, frameSetSerialNumber, pairOfWheelsSerialNumber, " +
+            "handlebarBrandName, frameSetBrandName, pairOfWheelsBrandName) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)"
+    );
+
+    // Component tables of the handlebar, frame-set and pair of wheels, in this order.
+    private static final String[] COMPONENT_TABLES = {"Handlebars", "FrameSets", "PairsOfWheels"};
+
+    private static final String STOCK_DIAGNOSTIC_QUERY = StatementRegistry.register(
+            "BicycleController.adjustComponentStock(diagnostic)",
+            "SELECT 0 AS idx, stock, " + ComponentController.heldUnitsOfOthers("Handlebars") + " AS held " +
+            "FROM Handlebars WHERE serialNumber = ? AND brandName = ? " +
+            "UNION ALL SELECT 1, stock, " + ComponentController.heldUnitsOfOthers("FrameSets") + " " +
+            "FROM FrameSets WHERE serialNumber = ? AND brandName = ? " +
+            "UNION ALL SELECT 2, stock, " + ComponentController.heldUnitsOfOthers("PairsOfWheels") + " " +
+            "FROM PairsOfWheels WHERE serialNumber = ? AND brandName = ?"
+    );
 
     /**
      * Check if a bicycle instance with the serial number (ID) exists in DB records.
@@ -34,88 +100,163 @@ public class BicycleController extends DatabaseController {
      * @throws SQLException
      */
     public boolean bicycleExists(String serialNumber) throws SQLException {
-        ResultSet result = null;
-
-        try {
-            openConnection();
-            String sqlQuery = "SELECT EXISTS(\n\t" +
-                              "SELECT * FROM Bicycles WHERE serialNumber = ?\n)";
-            sqlStatement = connection.prepareStatement(sqlQuery);
+        try (Connection connection = openConnection();
+             PreparedStatement sqlStatement = connection.prepareStatement(EXISTS_QUERY)) {
             sqlStatement.setString(1, serialNumber);
-            result = sqlStatement.executeQuery();
-            result.next();
-            int exist = result.getInt(1);
-            return (exist == 1);
-        }
-        finally {
-            if (result != null) {
-                result.close();
+
+            try (ResultSet result = sqlStatement.executeQuery()) {
+                result.next();
+                int exist = result.getInt(1);
+                return (exist == 1);
             }
-            closeConnection();
         }
     }
 
     /**
-     * Search for a bicycle by ID (i.e. serial number).
+     * Search for a bicycle by ID (i.e. serial number), together with its components,
+     * using a single query.
      *
      * @param serialNumber - serial number of the searched bicycle.
      * @return instance of the bicycle that match the passed serial number.
      * @throws SQLException
-     * @throws InputTooLongException
      * @throws BicycleNotFoundException
-     * @throws ComponentNotFoundException
+     * @throws ComponentNotFoundException if any of the bicycle's components no longer exists.
      */
     public Bicycle findBicycleById (String serialNumber)
-            throws SQLException, InputTooLongException, BicycleNotFoundException, ComponentNotFoundException {
-        // Use component's controller to build an instance of the searched bicycle.
-        HandlebarController handlebarController = new HandlebarController();
-        FrameSetController frameSetController = new FrameSetController();
-        PairOfWheelsController pairOfWheelsController = new PairOfWheelsController();
-
-        ResultSet result = null;
-
-        try {
-            openConnection();
-            String sqlQuery = "SELECT * FROM Bicycles WHERE serialNumber = ?";
-            sqlStatement = connection.prepareStatement(sqlQuery);
+            throws SQLException, BicycleNotFoundException, ComponentNotFoundException {
+        try (Connection connection = openConnection()) {
+            return findBicycleById(connection, serialNumber);
+        }
+    }
+
+    /**
+     * Search for a bicycle by ID together with its components, using the caller's connection.
+     *
+     * @param connection - open connection on which the bicycle is read.
+     * @param serialNumber - serial number of the searched bicycle.
+     * @return instance of the bicycle that match the passed serial number.
+     * @throws SQLException
+     * @throws BicycleNotFoundException
+     * @throws ComponentNotFoundException if any of the bicycle's components no longer exists.
+     */
+    private Bicycle findBicycleById(Connection connection, String serialNumber)
+            throws SQLException, BicycleNotFoundException, ComponentNotFoundException {
+        try (PreparedStatement sqlStatement = connection.prepareStatement(FIND_BY_ID_QUERY)) {
             sqlStatement.setString(1, serialNumber);
-            result = sqlStatement.executeQuery();
 
-            if (result.next()) {
-                String customName = result.getString("customName");
-                Handlebar bicycleHandlebar = handlebarController.findComponentById(
-                        result.getString("handlebarSerialNumber"),
-                        result.getString("handlebarBrandName")
-                );
-                FrameSet bicycleFrameSet = frameSetController.findComponentById(
-                        result.getString("frameSetSerialNumber"),
-                        result.getString("frameSetBrandName")
-                );
-                PairOfWheels bicyclePairOfWheels = pairOfWheelsController.findComponentById(
-                        result.getString("pairOfWheelsSerialNumber"),
-                        result.getString("pairOfWheelsBrandName")
-                );
+            try (ResultSet result = sqlStatement.executeQuery()) {
+                if (result.next()) {
+                    return readBicycle(result);
+                }
+                else {
+                    throw new BicycleNotFoundException(serialNumber);
+                }
+            }
+        }
+    }
 
-                Bicycle bicycle = new Bicycle(
-                        customName,
-                        bicycleHandlebar,
-                        bicycleFrameSet,
-                        bicyclePairOfWheels,
-                        serialNumber
-                );
-                return bicycle;
+    /**
+     * Search for several bicycles by their IDs at once (e.g. for lists of orders),
+     * together with their components, using a single query.
+     *
+     * @param serialNumbers - serial numbers of the searched bicycles.
+     * @return map of the bicycles found by their serial numbers (the ones not found are left out).
+     * @throws SQLException
+     * @throws ComponentNotFoundException if any of the bicycles' components no longer exists.
+     */
+    public Map<String, Bicycle> findBicyclesByIds(Collection<String> serialNumbers)
+            throws SQLException, ComponentNotFoundException {
+        Map<String, Bicycle> bicycles = new HashMap<>();
+        // Several orders may share a bicycle - bind each serial number once.
+        Set<String> distinctSerialNumbers = new LinkedHashSet<>(serialNumbers);
+        if (distinctSerialNumbers.isEmpty()) {
+            return bicycles;
+        }
+
+        String placeholders = String.join(", ", Collections.nCopies(distinctSerialNumbers.size(), "?"));
+        String sqlQuery = BICYCLES_WITH_COMPONENTS_QUERY + "WHERE b.serialNumber IN (" + placeholders + ")";
+
+        try (Connection connection = openConnection();
+             PreparedStatement sqlStatement = connection.prepareStatement(sqlQuery)) {
+            int parameterIndex = 1;
+            for (String serialNumber : distinctSerialNumbers) {
+                sqlStatement.setString(parameterIndex++, serialNumber);
             }
-            else {
-                throw new BicycleNotFoundException(serialNumber);
+
+            try (ResultSet result = sqlStatement.executeQuery()) {
+                while (result.next()) {
+                    Bicycle bicycle = readBicycle(result);
+                    bicycles.put(bicycle.getSerialNumber(), bicycle);
+                }
             }
         }
-        finally {
-            if (result != null) {
-                result.close();
-            }
 
-            closeConnection();
+        return bicycles;
+    }
+
+    /**
+     * Build a bicycle and its components from the current row of BICYCLES_WITH_COMPONENTS_QUERY.
+     *
+     * @param result - result set positioned on a row.
+     * @return bicycle instance.
+     * @throws SQLException
+     * @throws ComponentNotFoundException if any of the joined components is missing.
+     */
+    private Bicycle readBicycle(ResultSet result) throws SQLException, ComponentNotFoundException {
+        // Unmatched LEFT JOIN columns are NULL - the component record has gone.
+        String handlebarSerialNumber = result.getString("handlebarSerialNumber");
+        String handlebarBrandName = result.getString("handlebarBrandName");
+        if (result.getString("handlebarName") == null) {
+            throw new ComponentNotFoundException(handlebarBrandName, handlebarSerialNumber);
+        }
+        String frameSetSerialNumber = result.getString("frameSetSerialNumber");
+        String frameSetBrandName = result.getString("frameSetBrandName");
+        if (result.getString("frameSetName") == null) {
+            throw new ComponentNotFoundException(frameSetBrandName, frameSetSerialNumber);
+        }
+        String pairOfWheelsSerialNumber = result.getString("pairOfWheelsSerialNumber");
+        String pairOfWheelsBrandName = result.getString("pairOfWheelsBrandName");
+        if (result.getString("pairOfWheelsName") == null) {
+            throw new ComponentNotFoundException(pairOfWheelsBrandName, pairOfWheelsSerialNumber);
         }
+
+        Handlebar handlebar = new Handlebar(
+                handlebarSerialNumber,
+                result.getString("handlebarName"),
+                handlebarBrandName,
+                result.getBigDecimal("handlebarCost"),
+                result.getInt("handlebarStock"),
+                HandlebarType.valueOf(result.getString("handlebarType"))
+        );
+        FrameSet frameSet = new FrameSet(
+                frameSetSerialNumber,
+                result.getString("frameSetName"),
+                frameSetBrandName,
+                result.getBigDecimal("frameSetCost"),
+                result.getInt("frameSetStock"),
+                result.getString("forkSetName"),
+                result.getString("gearSetName"),
+                result.getBigDecimal("frameSetSize"),
+                result.getBoolean("frameSetHasShocks")
+        );
+        PairOfWheels pairOfWheels = new PairOfWheels(
+                pairOfWheelsSerialNumber,
+                result.getString("pairOfWheelsName"),
+                pairOfWheelsBrandName,
+                result.getBigDecimal("wheelsCost"),
+                result.getInt("wheelsStock"),
+                result.getBigDecimal("wheelsDiameter"),
+                TyreType.valueOf(result.getString("wheelsTyreType")),
+                BrakeType.valueOf(result.getString("wheelsBrakeType"))
+        );
+
+        return new Bicycle(
+                result.getString("customName"),
+                handlebar,
+                frameSet,
+                pairOfWheels,
+                result.getString("serialNumber")
+        );
     }
 
     /**
@@ -131,38 +272,37 @@ public class BicycleController extends DatabaseController {
      */
     public boolean deleteBicycle(String serialNumber)
             throws SQLException, BicycleNotFoundException, InputTooLongException, ComponentNotFoundException {
-        // Check if the bicycle to be deleted exists at all in the records.
-        if (!bicycleExists(serialNumber)) {
-            throw new BicycleNotFoundException(serialNumber);
-        }
+        // Read, delete and return to stock on one connection, within a single transaction.
+        try (Connection connection = openConnection()) {
+            connection.setAutoCommit(false);
 
-        Bicycle deletedBicycle = findBicycleById(serialNumber);
+            try {
+                // Throws if the bicycle to be deleted does not exist at all in the records.
+                Bicycle deletedBicycle = findBicycleById(connection, serialNumber);
 
-        try {
-            openConnection();
-            connection.setAutoCommit(false);
-            // Perform bicycle deletion.
-            String sqlQuery = "DELETE FROM Bicycles WHERE serialNumber = ?";
-            sqlStatement = connection.prepareStatement(sqlQuery);
-            sqlStatement.setString(1, serialNumber);
-            int result = sqlStatement.executeUpdate();
+                try (PreparedStatement sqlStatement = connection.prepareStatement(DELETE_QUERY)) {
+                    sqlStatement.setString(1, serialNumber);
+                    if (sqlStatement.executeUpdate() != 1) {
+                        connection.rollback();
+                        return false;
+                    }
+                }
 
-            if (result == 1) {
+                // Return each component to stock, within the same transaction.
+                adjustComponentStock(connection, deletedBicycle, 1);
                 connection.commit();
-                // Increment each controller's stock by 1.
-                changeStock(deletedBicycle, 1);
+                ComponentController.markModified();
                 return true;
             }
-            else {
+            catch (InsufficientStockException e) {
+                // Cannot happen, since stock is only ever incremented here.
                 connection.rollback();
-                return false;
+                throw new SQLException(e.getMessage(), e);
+            }
+            catch (Exception e) {
+                connection.rollback();
+                throw e;
             }
-        }
-        catch (Exception e) {
-            throw e;
-        }
-        finally {
-            closeConnection();
         }
     }
 
@@ -174,43 +314,179 @@ public class BicycleController extends DatabaseController {
      * @throws SQLException
      * @throws InputTooLongException
      * @throws ComponentNotFoundException
+     * @throws InsufficientStockException if any of the components is out of stock.
      */
     public boolean createBicycle(Bicycle bicycle)
-            throws SQLException, InputTooLongException, ComponentNotFoundException {
-        try {
-            openConnection();
+            throws SQLException, InputTooLongException, ComponentNotFoundException, InsufficientStockException {
+        try (Connection connection = openConnection()) {
             connection.setAutoCommit(false);
-            String sqlQuery = "INSERT INTO Bicycles" +
-                              "(serialNumber, customName, brandName, " +
-                              "handlebarSerialNumber, frameSetSerialNumber, pairOfWheelsSerialNumber, " +
-                              "handlebarBrandName, frameSetBrandName, pairOfWheelsBrandName) " +
-                              "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
-            sqlStatement = connection.prepareStatement(sqlQuery);
-            sqlStatement.setString(1, bicycle.getSerialNumber());
-            sqlStatement.setString(2, bicycle.getCustomName());
-            sqlStatement.setString(3, bicycle.getBrandName());
-            sqlStatement.setString(4, bicycle.getHandlebar().getSerialNumber());
-            sqlStatement.setString(5, bicycle.getFrameSet().getSerialNumber());
-            sqlStatement.setString(6, bicycle.getPairOfWheels().getSerialNumber());
-            sqlStatement.setString(7, bicycle.getHandlebar().getBrandName());
-            sqlStatement.setString(8, bicycle.getFrameSet().getBrandName());
-            sqlStatement.setString(9, bicycle.getPairOfWheels().getBrandName());
-            int result = sqlStatement.executeUpdate();
-
-            if (result == 1) {
-                connection.commit();
-                // Decrement stock of each component by 1.
-                changeStock(bicycle, -1);
-                return true;
+
+            try {
+                if (insertBicycle(connection, bicycle)) {
+                    // Decrement stock of each component by 1, within the same transaction.
+                    adjustComponentStock(connection, bicycle, -1);
+                    connection.commit();
+                    ComponentController.markModified();
+                    applyStockChange(bicycle, -1);
+                    return true;
+                }
+                else {
+                    connection.rollback();
+                    return false;
+                }
             }
-            else {
+            catch (SQLException | ComponentNotFoundException | InsufficientStockException e) {
                 connection.rollback();
-                return false;
+                throw e;
             }
         }
-        finally {
-            closeConnection();
+    }
+
+    /**
+     * Insert a new bicycle record, using the caller's connection.
+     * The caller is responsible for committing (or rolling back) the transaction.
+     *
+     * @param transaction - open connection on which the bicycle is inserted.
+     * @param bicycle - a new bicycle instance to be inserted.
+     * @return true if the record was inserted, false otherwise.
+     * @throws SQLException
+     */
+    public boolean insertBicycle(Connection transaction, Bicycle bicycle) throws SQLException {
+        try (PreparedStatement statement = transaction.prepareStatement(INSERT_QUERY)) {
+            statement.setString(1, bicycle.getSerialNumber());
+            statement.setString(2, bicycle.getCustomName());
+            statement.setString(3, bicycle.getBrandName());
+            statement.setString(4, bicycle.getHandlebar().getSerialNumber());
+            statement.setString(5, bicycle.getFrameSet().getSerialNumber());
+            statement.setString(6, bicycle.getPairOfWheels().getSerialNumber());
+            statement.setString(7, bicycle.getHandlebar().getBrandName());
+            statement.setString(8, bicycle.getFrameSet().getBrandName());
+            statement.setString(9, bicycle.getPairOfWheels().getBrandName());
+            return (statement.executeUpdate() == 1);
+        }
+    }
+
+    /**
+     * Change the stock of all the bicycle's components relative to their current
+     * database values, using the caller's connection (and transaction).
+     *
+     * Each component is changed by a conditional update (sent as a JDBC batch, as
+     * the bulk stock adjustments), which only applies if its stock would not drop
+     * below zero, so concurrent checkouts can never oversell a component. If any of
+     * them does not apply, the whole transaction is rolled back (the caller's other
+     * changes with it), so that the failure is diagnosed against the stock as it was
+     * before; the caller must not go on with the transaction then.
+     *
+     * @param transaction - open connection on which the stock is updated.
+     * @param bicycle - referenced bicycle instance.
+     * @param stockChangeVal - amount to change the stock by.
+     * @throws SQLException
+     * @throws ComponentNotFoundException if any of the components does not exist.
+     * @throws InsufficientStockException if any of the components has not got enough stock.
+     */
+    public void adjustComponentStock(Connection transaction, Bicycle bicycle, int stockChangeVal)
+            throws SQLException, ComponentNotFoundException, InsufficientStockException {
+        adjustComponentStock(transaction, bicycle, stockChangeVal, null);
+    }
+
+    /**
+     * Change the stock of all the bicycle's components, as adjustComponentStock above.
+     * A decrement also leaves the units held by reservations alone (see
+     * StockReservationService), other than the ones of the reservation given.
+     *
+     * @param transaction - open connection on which the stock is updated.
+     * @param bicycle - referenced bicycle instance.
+     * @param stockChangeVal - amount to change the stock by.
+     * @param reservationId - reservation whose units may be taken (e.g. converted by the order), or null.
+     * @throws SQLException
+     * @throws ComponentNotFoundException if any of the components does not exist.
+     * @throws InsufficientStockException if any of the components has not got enough stock left unheld.
+     */
+    public void adjustComponentStock(Connection transaction, Bicycle bicycle, int stockChangeVal,
+                                     String reservationId)
+            throws SQLException, ComponentNotFoundException, InsufficientStockException {
+        if (stockChangeVal == 0) {
+            return;
+        }
+
+        Component[] components = {
+                bicycle.getHandlebar(), bicycle.getFrameSet(), bicycle.getPairOfWheels()
+        };
+        // No reservation ID is ever empty, so "" leaves none out.
+        String ownReservationId = (reservationId != null ? reservationId : "");
+        if (adjustEachComponentStock(transaction, components, stockChangeVal, ownReservationId)) {
+            return;
+        }
+        // Undo the components already changed, so that none of them is blamed wrongly.
+        transaction.rollback();
+
+        // Not all were updated - find out which component caused it (failure path only).
+        Integer[] stocks = new Integer[components.length];
+        int[] held = new int[components.length];
+
+        try (PreparedStatement statement = transaction.prepareStatement(STOCK_DIAGNOSTIC_QUERY)) {
+            for (int i = 0; i < components.length; i++) {
+                statement.setString(1 + 3 * i, ownReservationId);
+                statement.setString(2 + 3 * i, components[i].getSerialNumber());
+                statement.setString(3 + 3 * i, components[i].getBrandName());
+            }
+
+            try (ResultSet result = statement.executeQuery()) {
+                while (result.next()) {
+                    stocks[result.getInt("idx")] = result.getInt("stock");
+                    held[result.getInt("idx")] = result.getInt("held");
+                }
+            }
+        }
+
+        for (int i = 0; i < components.length; i++) {
+            if (stocks[i] == null) {
+                throw new ComponentNotFoundException(
+                        components[i].getBrandName(), components[i].getSerialNumber()
+                );
+            }
+            // Only a decrement is held back by the reservations.
+            int available = (stockChangeVal < 0 ? stocks[i] - held[i] : stocks[i]);
+            if (available + stockChangeVal < 0) {
+                throw new InsufficientStockException(
+                        components[i].getBrandName(), components[i].getSerialNumber(),
+                        Math.max(available, 0), -stockChangeVal
+                );
+            }
+        }
+
+        throw new SQLException("The stock of the bicycle's components was changed concurrently.");
+    }
+
+    /**
+     * Change the stock of each component with the conditional update of its table.
+     * The tables each need their own statement, so this is one single-row batch per
+     * table.
+     *
+     * @param transaction - open connection on which the stock is updated.
+     * @param components - handlebar, frame-set and pair of wheels, in this order.
+     * @param stockChangeVal - amount to change the stock by.
+     * @param ownReservationId - reservation whose units a decrement may take ("" for none).
+     * @return true if all the components were updated, false as soon as one was not.
+     * @throws SQLException
+     */
+    private boolean adjustEachComponentStock(Connection transaction, Component[] components, int stockChangeVal,
+                                             String ownReservationId)
+            throws SQLException {
+        for (int i = 0; i < components.length; i++) {
+            StockAdjustment adjustment = new StockAdjustment(
+                    COMPONENT_TABLES[i], components[i].getSerialNumber(), components[i].getBrandName(), stockChangeVal
+            );
+            int[] counts = ComponentController.adjustUnreservedStock(
+                    transaction, COMPONENT_TABLES[i], Collections.singletonList(adjustment), ownReservationId
+            );
+
+            if (counts[0] != 1) {
+                return false;
+            }
         }
+
+        return true;
     }
 
     /**
@@ -221,10 +497,33 @@ public class BicycleController extends DatabaseController {
      * @param stockChangeVal - amount to change the stock by.
      * @throws ComponentNotFoundException
      * @throws SQLException
-     * @throws InputTooLongException
+     * @throws InsufficientStockException if any of the components has not got enough stock.
      */
     public void changeStock(Bicycle bicycle, int stockChangeVal)
-            throws ComponentNotFoundException, SQLException, InputTooLongException {
+            throws ComponentNotFoundException, SQLException, InsufficientStockException {
+        try (Connection connection = openConnection()) {
+            connection.setAutoCommit(false);
+
+            try {
+                adjustComponentStock(connection, bicycle, stockChangeVal);
+                connection.commit();
+                ComponentController.markModified();
+                applyStockChange(bicycle, stockChangeVal);
+            }
+            catch (SQLException | ComponentNotFoundException | InsufficientStockException e) {
+                connection.rollback();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Reflect a committed stock change in the bicycle's in-memory components.
+     *
+     * @param bicycle - referenced bicycle instance.
+     * @param stockChangeVal - amount the stock was changed by.
+     */
+    public static void applyStockChange(Bicycle bicycle, int stockChangeVal) {
         bicycle.getHandlebar().setStock(
                 bicycle.getHandlebar().getStock() + stockChangeVal
         );
@@ -234,8 +533,5 @@ public class BicycleController extends DatabaseController {
         bicycle.getPairOfWheels().setStock(
                 bicycle.getPairOfWheels().getStock() + stockChangeVal
         );
-        handlebarController.updateComponent(bicycle.getHandlebar());
-        frameSetController.updateComponent(bicycle.getFrameSet());
-        pairOfWheelsController.updateComponent(bicycle.getPairOfWheels());
     }
 }
@@ -7,19 +7,160 @@
 
 package database.controllers.component;
 
+import database.StatementRegistry;
 import database.controllers.DatabaseController;
 import exceptions.ComponentAlreadyExistsException;
 import exceptions.ComponentNotFoundException;
 import exceptions.InputTooLongException;
 import models.component.Component;
+import models.component.StockAdjustment;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 public abstract class ComponentController<ComponentType extends Component>
         extends DatabaseController {
-    protected final static int MAX_INPUT_LENGTH = 20;
+    public final static int MAX_INPUT_LENGTH = 20;
+    // Bumped on every committed change of any component record (used by caches).
+    private final static AtomicLong modificationCount = new AtomicLong();
+    // Stock statements of each component table, registered once.
+    private final static Map<String, String> ADJUST_UNRESERVED_STOCK_QUERIES = new HashMap<>();
+    private final static Map<String, String> UNRESERVED_STOCK_QUERIES = new HashMap<>();
+
+    static {
+        for (String tableName : StockAdjustment.TABLE_NAMES) {
+            ADJUST_UNRESERVED_STOCK_QUERIES.put(tableName, StatementRegistry.register(
+                    "ComponentController.adjustUnreservedStock(" + tableName + ")",
+                    "UPDATE " + tableName + " SET stock = stock + ? " +
+                    "WHERE serialNumber = ? AND brandName = ? AND " +
+                    "stock + ? >= LEAST(stock, " + heldUnitsOfOthers(tableName) + ")"
+            ));
+            UNRESERVED_STOCK_QUERIES.put(tableName, StatementRegistry.register(
+                    "ComponentController.readUnreservedStock(" + tableName + ")",
+                    "SELECT stock - " + heldUnitsOfOthers(tableName) + " AS unreserved " +
+                    "FROM " + tableName + " WHERE serialNumber = ? AND brandName = ?"
+            ));
+        }
+    }
+
+    /**
+     * Record that component records (including their stock) have been changed.
+     * Called after every committed create, update, delete or stock change.
+     */
+    public static void markModified() {
+        modificationCount.incrementAndGet();
+    }
+
+    /**
+     * Accessor for the number of changes of component records so far. Any cached
+     * copy of the records taken at a lower count is out of date.
+     */
+    public static long getModificationCount() {
+        return modificationCount.get();
+    }
+
+    /**
+     * Get the conditional stock update of a component table which leaves the units
+     * held by reservations alone (see StockReservationService): it changes the stock
+     * of one component, unless a decrement would leave fewer units than are held by
+     * others (or drive it below zero). An increment always applies.
+     * Parameters: delta, serial number, brand name, delta, reservation ID not to count
+     * (e.g. the one converted by the order, or "" for none).
+     *
+     * @param tableName - component table (any of StockAdjustment.TABLE_NAMES).
+     * @return SQL of the statement.
+     * @throws IllegalArgumentException if the table is not one of the component tables.
+     */
+    public static String adjustUnreservedStockQuery(String tableName) {
+        return queryOfTable(ADJUST_UNRESERVED_STOCK_QUERIES, tableName);
+    }
+
+    /**
+     * Get the SQL expression of the units of a component held by reservations (see
+     * StockReservationService), leaving out the ones of one reservation, for a
+     * statement on its table (which must not be aliased).
+     * Parameter: reservation ID not to count ("" for none).
+     *
+     * @param tableName - component table (any of StockAdjustment.TABLE_NAMES).
+     * @return SQL expression, 0 if no unit of the component is held by other reservations.
+     */
+    public static String heldUnitsOfOthers(String tableName) {
+        return "(SELECT COALESCE(SUM(r.units), 0) FROM Reservations r " +
+               "WHERE r.tableName = '" + tableName + "' AND r.serialNumber = " + tableName + ".serialNumber " +
+               "AND r.brandName = " + tableName + ".brandName AND r.reservationId <> ?)";
+    }
+
+    private static String queryOfTable(Map<String, String> queries, String tableName) {
+        String sqlQuery = queries.get(tableName);
+        if (sqlQuery == null) {
+            throw new IllegalArgumentException("Not a component table: " + tableName);
+        }
+        return sqlQuery;
+    }
+
+    /**
+     * Change the stock of many components of one table at once, as a single JDBC
+     * batch on a connection owned by the caller, with the conditional update of
+     * adjustUnreservedStockQuery: a decrement is not applied if it would drive the
+     * stock below zero, or take units held by reservations other than the one given.
+     * Nor is an adjustment which matches no component.
+     *
+     * @param transaction - open transaction.
+     * @param tableName - component table (any of StockAdjustment.TABLE_NAMES).
+     * @param adjustments - stock adjustments of components of that table.
+     * @param ownReservationId - reservation whose units a decrement may take ("" for none).
+     * @return update count of each adjustment, in order (1 if applied, 0 otherwise).
+     * @throws SQLException
+     */
+    public static int[] adjustUnreservedStock(Connection transaction, String tableName,
+                                              List<StockAdjustment> adjustments, String ownReservationId)
+            throws SQLException {
+        try (PreparedStatement sqlStatement = transaction.prepareStatement(adjustUnreservedStockQuery(tableName))) {
+            for (StockAdjustment adjustment : adjustments) {
+                sqlStatement.setInt(1, adjustment.getDelta());
+                sqlStatement.setString(2, adjustment.getSerialNumber());
+                sqlStatement.setString(3, adjustment.getBrandName());
+                sqlStatement.setInt(4, adjustment.getDelta());
+                sqlStatement.setString(5, ownReservationId);
+                sqlStatement.addBatch();
+            }
+            return sqlStatement.executeBatch();
+        }
+    }
+
+    /**
+     * Read the current stock of a component less the units held by reservations, on
+     * a connection owned by the caller.
+     *
+     * @param transaction - open transaction.
+     * @param tableName - component table (any of StockAdjustment.TABLE_NAMES).
+     * @param serialNumber - serial number of the component.
+     * @param brandName - brand name of the component.
+     * @return stock left unheld (possibly below zero), or null if the component does not exist.
+     * @throws SQLException
+     */
+    public static Integer readUnreservedStock(Connection transaction, String tableName,
+                                              String serialNumber, String brandName) throws SQLException {
+        String sqlQuery = queryOfTable(UNRESERVED_STOCK_QUERIES, tableName);
+
+        try (PreparedStatement sqlStatement = transaction.prepareStatement(sqlQuery)) {
+            // No reservation ID is ever empty, so "" leaves none out.
+            sqlStatement.setString(1, "");
+            sqlStatement.setString(2, serialNumber);
+            sqlStatement.setString(3, brandName);
+
+            try (ResultSet result = sqlStatement.executeQuery()) {
+                return (result.next() ? result.getInt("unreserved") : null);
+            }
+        }
+    }
 
     /**
      * Abstract method to be implemented by each specific component controller
@@ -46,12 +187,34 @@ public abstract class ComponentController<ComponentType extends Component>
     protected abstract boolean createComponent(ComponentType component)
             throws SQLException, ComponentAlreadyExistsException, InputTooLongException;
 
+    /**
+     * Abstract method to be implemented by each specific component controller
+     * to check the inputs of a new component against MAX_INPUT_LENGTH.
+     *
+     * @param component - instance of a new component record to be created.
+     * @return true if any of the inputs is longer than permitted, false otherwise.
+     */
+    public abstract boolean isInputTooLong(ComponentType component);
+
+    /**
+     * Abstract method to be implemented by each specific component controller
+     * to create many new component records at once, as a single JDBC batch on
+     * a connection owned by the caller (e.g. a chunk of a bulk import).
+     *
+     * @param transaction - open transaction.
+     * @param components - instances of the new component records to be created.
+     * @return update count of each component, in order.
+     * @throws SQLException
+     */
+    public abstract int[] insertComponents(Connection transaction, List<ComponentType> components)
+            throws SQLException;
+
     /**
      * Abstract method to be implemented by each specific component controller
      * to update an existing component record in the database.
      *
      * @param component - instance of a component to be updated
-     * @return true if updated with success, false otherwise.
+     * @return true if updated with success.
      * @throws SQLException
      * @throws ComponentNotFoundException
      */
@@ -78,34 +241,26 @@ public abstract class ComponentController<ComponentType extends Component>
      * @throws SQLException
      */
     public boolean componentExists(Component component, String tableName) throws SQLException {
-        ResultSet result = null;
-
-        try {
-            openConnection();
-            String sqlQuery = "SELECT EXISTS(\n" +
-                    "\tSELECT * FROM " +
-                    tableName +
-                    " WHERE serialNumber = ? AND brandName = ?\n)";
-            sqlStatement = connection.prepareStatement(sqlQuery);
+        String sqlQuery = "SELECT EXISTS(\n" +
+                "\tSELECT * FROM " +
+                tableName +
+                " WHERE serialNumber = ? AND brandName = ?\n)";
+
+        try (Connection connection = openConnection();
+             PreparedStatement sqlStatement = connection.prepareStatement(sqlQuery)) {
             sqlStatement.setString(1, component.getSerialNumber());
             sqlStatement.setString(2, component.getBrandName());
 
-            result = sqlStatement.executeQuery();
-            result.next();
-            int exist = result.getInt(1);
-            return (exist == 1);
-        }
-        finally {
-            if (result != null) {
-                result.close();
+            try (ResultSet result = sqlStatement.executeQuery()) {
+                result.next();
+                int exist = result.getInt(1);
+                return (exist == 1);
             }
-
-            closeConnection();
         }
     }
 
     /**
-     * Delete a component of any type from the database records.
+     * Delete a component of any type from the database records, in a single statement.
      *
      * @param component - component to be deleted (any subclass of Component).
      * @return true if deleted with success, false otherwise.
@@ -114,35 +269,33 @@ public abstract class ComponentController<ComponentType extends Component>
      */
     public boolean deleteComponent(Component component, String tableName)
             throws SQLException, ComponentNotFoundException {
-        // Check if the component to be deleted exists at all in records.
-        if (!componentExists(component, tableName)) {
-            throw new ComponentNotFoundException(
-                    component.getBrandName(), component.getSerialNumber()
-            );
-        }
+        String sqlQuery = "DELETE FROM "+
+                          tableName +
+                          " WHERE brandName = ? AND serialNumber = ?";
 
-        try {
-            openConnection();
-            String sqlQuery = "DELETE FROM "+
-                              tableName +
-                              " WHERE brandName = ? AND serialNumber = ?";
-            sqlStatement = connection.prepareStatement(sqlQuery);
+        int result;
+        try (Connection connection = openConnection();
+             PreparedStatement sqlStatement = connection.prepareStatement(sqlQuery)) {
             sqlStatement.setString(1, component.getBrandName());
             sqlStatement.setString(2, component.getSerialNumber());
-
-            int result = sqlStatement.executeUpdate();
-            if (result != 1) {
-                throw new SQLException("Component could not be deleted!");
-            }
-
-            return true;
+            result = sqlStatement.executeUpdate();
         }
         catch(Exception e) {
             e.printStackTrace();
             throw e;
         }
-        finally {
-            closeConnection();
+
+        // Nothing matched the primary key, i.e. the component does not exist.
+        if (result == 0) {
+            throw new ComponentNotFoundException(
+                    component.getBrandName(), component.getSerialNumber()
+            );
+        }
+        else if (result != 1) {
+            throw new SQLException("Component could not be deleted!");
         }
+
+        markModified();
+        return true;
     }
 }
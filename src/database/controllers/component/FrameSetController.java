@@ -7,6 +7,7 @@
 
 package database.controllers.component;
 
+import database.StatementRegistry;
 import exceptions.ComponentAlreadyExistsException;
 import exceptions.ComponentNotFoundException;
 import exceptions.InputTooLongException;
@@ -14,11 +15,54 @@ import exceptions.NoComponentForFilterException;
 import models.component.frameset.FrameSet;
 
 import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.List;
 
 public class FrameSetController extends ComponentController<FrameSet> {
+    private final static String FIND_BY_ID_QUERY = StatementRegistry.register(
+            "FrameSetController.findComponentById",
+            "SELECT * FROM FrameSets " +
+            "WHERE serialNumber = ? AND brandName = ?"
+    );
+
+    private final static String READ_ALL_QUERY = StatementRegistry.register(
+            "FrameSetController.readAllComponentsOfType",
+            "SELECT * FROM FrameSets"
+    );
+
+    private final static String READ_IN_STOCK_QUERY = StatementRegistry.register(
+            "FrameSetController.readAllComponentsOfType(inStock)",
+            "SELECT * FROM FrameSets WHERE stock > 0 ORDER BY cost ASC"
+    );
+
+    private final static String INSERT_QUERY = StatementRegistry.register(
+            "FrameSetController.createComponent",
+            "INSERT INTO FrameSets " +
+            "(serialNumber, brandName, frameSetName, forkSetName, " +
+            "gearSetName, hasShocks, size, cost, stock) \n" +
+            "\tVALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)"
+    );
+
+    private final static String UPDATE_QUERY = StatementRegistry.register(
+            "FrameSetController.updateComponent",
+            "UPDATE FrameSets " +
+            "SET frameSetName = ?, forkSetName = ?, gearSetName = ?, " +
+            "hasShocks = ?, size = ?, cost = ?, stock = ? " +
+            "WHERE serialNumber = ? AND brandName = ?"
+    );
+
+    private final static String UNIQUE_SIZES_QUERY = StatementRegistry.register(
+            "FrameSetController.getUniqueSizeSet",
+            "SELECT DISTINCT size " +
+            "FROM FrameSets " +
+            "WHERE stock > 0 " +
+            "ORDER BY size ASC"
+    );
+
     /**
      * Search for a unique frame-set instance in the database records by its composite ID.
      *
@@ -32,54 +76,43 @@ public class FrameSetController extends ComponentController<FrameSet> {
     @Override
     public FrameSet findComponentById(String serialNumber, String brandName)
             throws SQLException, ComponentNotFoundException, InputTooLongException {
-        ResultSet result = null;
-
         // Check the input validity before processing any queries.
         if (serialNumber.length() > MAX_INPUT_LENGTH || brandName.length() > MAX_INPUT_LENGTH) {
             throw new InputTooLongException(MAX_INPUT_LENGTH);
         }
 
-        try {
-            openConnection();
-            String sqlQuery = "SELECT * FROM FrameSets " +
-                              "WHERE serialNumber = ? AND brandName = ?";
-            sqlStatement = connection.prepareStatement(sqlQuery);
+        try (Connection connection = openConnection();
+             PreparedStatement sqlStatement = connection.prepareStatement(FIND_BY_ID_QUERY)) {
             sqlStatement.setString(1, serialNumber);
             sqlStatement.setString(2, brandName);
-            result = sqlStatement.executeQuery();
-
-            if (result.next()) {
-                String componentName =  result.getString("frameSetName");
-                String forkSetName =  result.getString("forkSetName");
-                String gearSetName = result.getString("gearSetName");
-                boolean hasShocks = result.getBoolean("hasShocks");
-                BigDecimal size = result.getBigDecimal("size");
-                BigDecimal cost = result.getBigDecimal("cost");
-                int stock = result.getInt("stock");
 
-                FrameSet frameSet = new FrameSet(
-                        serialNumber,
-                        componentName,
-                        brandName,
-                        cost,
-                        stock,
-                        forkSetName,
-                        gearSetName,
-                        size,
-                        hasShocks
-                );
-                return frameSet;
-            }
-            else {
-                throw new ComponentNotFoundException(brandName, serialNumber);
-            }
-        }
-        finally {
-            if (result != null) {
-                result.close();
+            try (ResultSet result = sqlStatement.executeQuery()) {
+                if (result.next()) {
+                    String componentName =  result.getString("frameSetName");
+                    String forkSetName =  result.getString("forkSetName");
+                    String gearSetName = result.getString("gearSetName");
+                    boolean hasShocks = result.getBoolean("hasShocks");
+                    BigDecimal size = result.getBigDecimal("size");
+                    BigDecimal cost = result.getBigDecimal("cost");
+                    int stock = result.getInt("stock");
+
+                    FrameSet frameSet = new FrameSet(
+                            serialNumber,
+                            componentName,
+                            brandName,
+                            cost,
+                            stock,
+                            forkSetName,
+                            gearSetName,
+                            size,
+                            hasShocks
+                    );
+                    return frameSet;
+                }
+                else {
+                    throw new ComponentNotFoundException(brandName, serialNumber);
+                }
             }
-
-            closeConnection();
         }
     }
 
@@ -93,18 +126,13 @@ public class FrameSetController extends ComponentController<FrameSet> {
     @Override
     public ArrayList<FrameSet> readAllComponentsOfType(boolean fullAccess) throws SQLException {
         ArrayList<FrameSet> frameSets = new ArrayList<>();
-        ResultSet result = null;
-
-        try {
-            openConnection();
-            // Prepare query according to the user's access.
-            String sqlQuery = "SELECT * FROM FrameSets";
-            if (!fullAccess) {
-                sqlQuery += " WHERE stock > 0 ORDER BY cost ASC";
-            }
-            sqlStatement = connection.prepareStatement(sqlQuery);
-            result = sqlStatement.executeQuery();
 
+        // Prepare query according to the user's access.
+        String sqlQuery = (fullAccess ? READ_ALL_QUERY : READ_IN_STOCK_QUERY);
+
+        try (Connection connection = openConnection();
+             PreparedStatement sqlStatement = connection.prepareStatement(sqlQuery);
+             ResultSet result = sqlStatement.executeQuery()) {
             while (result.next()) {
                 String serialNumber = result.getString("serialNumber");
                 String brandName = result.getString("brandName");
@@ -136,13 +164,6 @@ public class FrameSetController extends ComponentController<FrameSet> {
             e.printStackTrace();
             throw e;
         }
-        finally {
-            if (result != null) {
-                result.close();
-            }
-
-            closeConnection();
-        }
     }
 
     /**
@@ -157,57 +178,75 @@ public class FrameSetController extends ComponentController<FrameSet> {
     @Override
     public boolean createComponent(FrameSet frameSet)
             throws SQLException, ComponentAlreadyExistsException, InputTooLongException {
-        // Check if the component with the brand name and serial number exists yet.
-        if (componentExists(frameSet, "FrameSets")) {
-            throw new ComponentAlreadyExistsException();
-        }
-        // Check if any of the inputs are longer than permitted.
-        else if (
-                frameSet.getComponentName().length() > MAX_INPUT_LENGTH ||
-                frameSet.getBrandName().length() > MAX_INPUT_LENGTH ||
-                frameSet.getSerialNumber().length() > MAX_INPUT_LENGTH ||
-                frameSet.getGearSetName().length() > MAX_INPUT_LENGTH ||
-                frameSet.getForkSetName().length() > MAX_INPUT_LENGTH
-        ) {
+        // Check if any of the inputs are longer than permitted, before writing anything.
+        if (isInputTooLong(frameSet)) {
+            // An existing component is still reported as such (failure path only).
+            if (componentExists(frameSet, "FrameSets")) {
+                throw new ComponentAlreadyExistsException();
+            }
             throw new InputTooLongException(MAX_INPUT_LENGTH);
         }
 
-        try {
-            openConnection();
+        // Create a new DB record of a frame-set (its primary key refuses an existing one).
+        try (Connection connection = openConnection();
+             PreparedStatement sqlStatement = connection.prepareStatement(INSERT_QUERY)) {
             connection.setAutoCommit(false);
 
-            // Create a new DB record of a frame-set.
-            String sqlQuery = "INSERT INTO FrameSets " +
-                    "(serialNumber, brandName, frameSetName, forkSetName, " +
-                    "gearSetName, hasShocks, size, cost, stock) \n" +
-                    "\tVALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
-            sqlStatement = connection.prepareStatement(sqlQuery);
-            sqlStatement.setString(1, frameSet.getSerialNumber());
-            sqlStatement.setString(2, frameSet.getBrandName());
-            sqlStatement.setString(3, frameSet.getComponentName());
-            sqlStatement.setString(4, frameSet.getForkSetName());
-            sqlStatement.setString(5, frameSet.getGearSetName());
-            sqlStatement.setBoolean(6, frameSet.isHasShocks());
-            sqlStatement.setBigDecimal(7, frameSet.getSize());
-            sqlStatement.setBigDecimal(8, frameSet.getCost());
-            sqlStatement.setInt(9, frameSet.getStock());
-            int result = sqlStatement.executeUpdate();
-
-            if (result == 1) {
-                connection.commit();
-                return true;
+            try {
+                setInsertParameters(sqlStatement, frameSet);
+                int result = sqlStatement.executeUpdate();
+
+                if (result == 1) {
+                    connection.commit();
+                    markModified();
+                    return true;
+                }
+                else {
+                    connection.rollback();
+                    return false;
+                }
             }
-            else {
+            catch (SQLException e) {
                 connection.rollback();
-                return false;
+                if (isDuplicateKey(e)) {
+                    throw new ComponentAlreadyExistsException();
+                }
+                throw e;
             }
         }
-        catch (SQLException e) {
-            connection.rollback();
-            throw e;
-        }
-        finally {
-            closeConnection();
+    }
+
+    /**
+     * Check if any of the inputs of a new frame-set is longer than permitted.
+     *
+     * @param frameSet - frame-set to be created.
+     * @return true if too long, false otherwise.
+     */
+    @Override
+    public boolean isInputTooLong(FrameSet frameSet) {
+        return frameSet.getComponentName().length() > MAX_INPUT_LENGTH ||
+               frameSet.getBrandName().length() > MAX_INPUT_LENGTH ||
+               frameSet.getSerialNumber().length() > MAX_INPUT_LENGTH ||
+               frameSet.getGearSetName().length() > MAX_INPUT_LENGTH ||
+               frameSet.getForkSetName().length() > MAX_INPUT_LENGTH;
+    }
+
+    /**
+     * Insert new frame-set records as a single batch, within a transaction of the caller.
+     *
+     * @param transaction - open transaction.
+     * @param frameSets - frame-set records to be created.
+     * @return update count of each record, in order.
+     * @throws SQLException (e.g. a BatchUpdateException if any of them already exists).
+     */
+    @Override
+    public int[] insertComponents(Connection transaction, List<FrameSet> frameSets) throws SQLException {
+        try (PreparedStatement statement = transaction.prepareStatement(INSERT_QUERY)) {
+            for (FrameSet frameSet : frameSets) {
+                setInsertParameters(statement, frameSet);
+                statement.addBatch();
+            }
+            return statement.executeBatch();
         }
     }
 
@@ -215,7 +254,7 @@ public class FrameSetController extends ComponentController<FrameSet> {
      * Update an existing frame-set in the database records.
      *
      * @param frameSet
-     * @return true if updated with success, false otherwise.
+     * @return true if updated with success.
      * @throws SQLException
      * @throws ComponentNotFoundException
      * @throws InputTooLongException
@@ -223,58 +262,57 @@ public class FrameSetController extends ComponentController<FrameSet> {
     @Override
     public boolean updateComponent(FrameSet frameSet)
             throws SQLException, ComponentNotFoundException, InputTooLongException {
-        // Check if the frame-set to be updated exists at all in records.
-        if (!componentExists(frameSet, "FrameSets")) {
-            throw new ComponentNotFoundException(
-                    frameSet.getBrandName(), frameSet.getSerialNumber()
-            );
-        }
-        // Check if any of the inputs is longer than permitted.
-        else if (
+        // Check if any of the inputs is longer than permitted, before writing anything.
+        if (
                 frameSet.getComponentName().length() > MAX_INPUT_LENGTH ||
                 frameSet.getGearSetName().length() > MAX_INPUT_LENGTH ||
                 frameSet.getForkSetName().length() > MAX_INPUT_LENGTH
         ) {
+            // A missing component is still reported as such (failure path only).
+            if (!componentExists(frameSet, "FrameSets")) {
+                throw new ComponentNotFoundException(
+                        frameSet.getBrandName(), frameSet.getSerialNumber()
+                );
+            }
             throw new InputTooLongException(MAX_INPUT_LENGTH);
         }
 
-        try {
-            openConnection();
+        // Update a DB record for a frame-set.
+        try (Connection connection = openConnection();
+             PreparedStatement sqlStatement = connection.prepareStatement(UPDATE_QUERY)) {
             connection.setAutoCommit(false);
 
-            // Update a DB record for a frame-set.
-            String sqlQuery = "UPDATE FrameSets " +
-                              "SET frameSetName = ?, forkSetName = ?, gearSetName = ?, " +
-                              "hasShocks = ?, size = ?, cost = ?, stock = ? " +
-                              "WHERE serialNumber = ? AND brandName = ?";
-            sqlStatement = connection.prepareStatement(sqlQuery);
-            sqlStatement.setString(1, frameSet.getComponentName());
-            sqlStatement.setString(2, frameSet.getForkSetName());
-            sqlStatement.setString(3, frameSet.getGearSetName());
-            sqlStatement.setBoolean(4, frameSet.isHasShocks());
-            sqlStatement.setBigDecimal(5, frameSet.getSize());
-            sqlStatement.setBigDecimal(6, frameSet.getCost());
-            sqlStatement.setInt(7, frameSet.getStock());
-            sqlStatement.setString(8, frameSet.getSerialNumber());
-            sqlStatement.setString(9, frameSet.getBrandName());
-            int result = sqlStatement.executeUpdate();
-
-            if (result == 1) {
-                connection.commit();
-                return true;
+            try {
+                sqlStatement.setString(1, frameSet.getComponentName());
+                sqlStatement.setString(2, frameSet.getForkSetName());
+                sqlStatement.setString(3, frameSet.getGearSetName());
+                sqlStatement.setBoolean(4, frameSet.isHasShocks());
+                sqlStatement.setBigDecimal(5, frameSet.getSize());
+                sqlStatement.setBigDecimal(6, frameSet.getCost());
+                sqlStatement.setInt(7, frameSet.getStock());
+                sqlStatement.setString(8, frameSet.getSerialNumber());
+                sqlStatement.setString(9, frameSet.getBrandName());
+                int result = sqlStatement.executeUpdate();
+
+                if (result == 1) {
+                    connection.commit();
+                    markModified();
+                    return true;
+                }
+                else {
+                    connection.rollback();
+                }
             }
-            else {
+            catch (SQLException e) {
                 connection.rollback();
-                return false;
+                throw e;
             }
         }
-        catch (SQLException e) {
-            connection.rollback();
-            throw e;
-        }
-        finally {
-            closeConnection();
-        }
+
+        // Nothing matched the primary key, i.e. the component does not exist.
+        throw new ComponentNotFoundException(
+                frameSet.getBrandName(), frameSet.getSerialNumber()
+        );
     }
 
     /**
@@ -285,17 +323,10 @@ public class FrameSetController extends ComponentController<FrameSet> {
      */
     public ArrayList<BigDecimal> getUniqueSizeSet() throws SQLException {
         ArrayList<BigDecimal> sizes = new ArrayList<>();
-        ResultSet result = null;
-
-        try {
-            openConnection();
-            String sqlQuery = "SELECT DISTINCT size " +
-                              "FROM FrameSets " +
-                              "WHERE stock > 0 " +
-                              "ORDER BY size ASC";
-            sqlStatement = connection.prepareStatement(sqlQuery);
-            result = sqlStatement.executeQuery();
 
+        try (Connection connection = openConnection();
+             PreparedStatement sqlStatement = connection.prepareStatement(UNIQUE_SIZES_QUERY);
+             ResultSet result = sqlStatement.executeQuery()) {
             while (result.next()) {
                 sizes.add(
                         result.getBigDecimal("size")
@@ -308,13 +339,6 @@ public class FrameSetController extends ComponentController<FrameSet> {
             e.printStackTrace();
             throw e;
         }
-        finally {
-            if (result != null) {
-                result.close();
-            }
-
-            closeConnection();
-        }
     }
 
     /**
@@ -328,74 +352,72 @@ public class FrameSetController extends ComponentController<FrameSet> {
     public ArrayList<FrameSet> filterFrameSets(BigDecimal fSize, Boolean fHasShocks)
             throws SQLException, NoComponentForFilterException {
         ArrayList<FrameSet> frameSets = new ArrayList<>();
-        ResultSet result = null;
-
-        try {
-            openConnection();
 
-            String sqlQuery = "SELECT * FROM FrameSets WHERE stock > 0 AND " +
-                              "hasShocks LIKE ? AND size LIKE ? " +
-                              "ORDER BY cost ASC";
-            sqlStatement = connection.prepareStatement(sqlQuery);
+        // Only the passed filters are added as conditions (some might be null).
+        String sqlQuery = "SELECT * FROM FrameSets WHERE stock > 0" +
+                          (fHasShocks != null ? " AND hasShocks = ?" : "") +
+                          (fSize != null ? " AND size = ?" : "") +
+                          " ORDER BY cost ASC";
 
-            // Handle different combinations of passed filters, since some might be null.
+        try (Connection connection = openConnection();
+             PreparedStatement sqlStatement = connection.prepareStatement(sqlQuery)) {
+            int paramIndex = 1;
             if (fHasShocks != null) {
-                sqlStatement.setBoolean(1, fHasShocks);
-            }
-            else {
-                sqlStatement.setString(1, "%");
+                sqlStatement.setBoolean(paramIndex++, fHasShocks);
             }
             if (fSize != null) {
-                sqlStatement.setBigDecimal(2, fSize);
+                sqlStatement.setBigDecimal(paramIndex, fSize);
             }
-            else {
-                sqlStatement.setString(2, "%");
-            }
-
-            result = sqlStatement.executeQuery();
 
-            while (result.next()) {
-                String serialNumber = result.getString("serialNumber");
-                String componentName = result.getString("frameSetName");
-                String brandName = result.getString("brandName");
-                String forkSetName = result.getString("forkSetName");
-                String gearSetName = result.getString("gearSetName");
-                BigDecimal cost = result.getBigDecimal("cost");
-                BigDecimal size = result.getBigDecimal("size");
-                boolean hasShocks = result.getBoolean("hasShocks");
-                int stock = result.getInt("stock");
-
-                FrameSet frameSet = new FrameSet(
-                        serialNumber,
-                        componentName,
-                        brandName,
-                        cost,
-                        stock,
-                        forkSetName,
-                        gearSetName,
-                        size,
-                        hasShocks
-                );
-                frameSets.add(frameSet);
-            }
-
-            if (frameSets.size() == 0) {
-                throw new NoComponentForFilterException("frame-set");
-            }
-            else {
-                return frameSets;
+            try (ResultSet result = sqlStatement.executeQuery()) {
+                while (result.next()) {
+                    String serialNumber = result.getString("serialNumber");
+                    String componentName = result.getString("frameSetName");
+                    String brandName = result.getString("brandName");
+                    String forkSetName = result.getString("forkSetName");
+                    String gearSetName = result.getString("gearSetName");
+                    BigDecimal cost = result.getBigDecimal("cost");
+                    BigDecimal size = result.getBigDecimal("size");
+                    boolean hasShocks = result.getBoolean("hasShocks");
+                    int stock = result.getInt("stock");
+
+                    FrameSet frameSet = new FrameSet(
+                            serialNumber,
+                            componentName,
+                            brandName,
+                            cost,
+                            stock,
+                            forkSetName,
+                            gearSetName,
+                            size,
+                            hasShocks
+                    );
+                    frameSets.add(frameSet);
+                }
+
+                if (frameSets.size() == 0) {
+                    throw new NoComponentForFilterException("frame-set");
+                }
+                else {
+                    return frameSets;
+                }
             }
         }
         catch (SQLException e) {
             e.printStackTrace();
             throw e;
         }
-        finally {
-            if (result != null) {
-                result.close();
-            }
+    }
 
-            closeConnection();
-        }
+    private static void setInsertParameters(PreparedStatement statement, FrameSet frameSet) throws SQLException {
+        statement.setString(1, frameSet.getSerialNumber());
+        statement.setString(2, frameSet.getBrandName());
+        statement.setString(3, frameSet.getComponentName());
+        statement.setString(4, frameSet.getForkSetName());
+        statement.setString(5, frameSet.getGearSetName());
+        statement.setBoolean(6, frameSet.isHasShocks());
+        statement.setBigDecimal(7, frameSet.getSize());
+        statement.setBigDecimal(8, frameSet.getCost());
+        statement.setInt(9, frameSet.getStock());
     }
 }
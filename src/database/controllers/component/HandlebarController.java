@@ -7,16 +7,56 @@
 
 package database.controllers.component;
 
+import database.StatementRegistry;
 import exceptions.*;
 import models.component.handlebar.Handlebar;
 import models.component.handlebar.HandlebarType;
 
 import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.List;
 
 public class HandlebarController extends ComponentController<Handlebar> {
+    private final static String FIND_BY_ID_QUERY = StatementRegistry.register(
+            "HandlebarController.findComponentById",
+            "SELECT * FROM Handlebars " +
+            "WHERE serialNumber = ? AND brandName = ?"
+    );
+
+    private final static String READ_ALL_QUERY = StatementRegistry.register(
+            "HandlebarController.readAllComponentsOfType",
+            "SELECT * FROM Handlebars"
+    );
+
+    private final static String READ_IN_STOCK_QUERY = StatementRegistry.register(
+            "HandlebarController.readAllComponentsOfType(inStock)",
+            "SELECT * FROM Handlebars WHERE stock > 0 ORDER BY cost ASC"
+    );
+
+    private final static String INSERT_QUERY = StatementRegistry.register(
+            "HandlebarController.createComponent",
+            "INSERT INTO Handlebars " +
+            "(serialNumber, handlebarName, brandName, type, cost, stock)\n" +
+            "\tVALUES (?, ?, ?, ?, ?, ?)"
+    );
+
+    private final static String UPDATE_QUERY = StatementRegistry.register(
+            "HandlebarController.updateComponent",
+            "UPDATE Handlebars " +
+            "SET handlebarName = ?, type = ?, cost = ?, stock = ? WHERE\n" +
+            "\tserialNumber = ? AND brandName = ?"
+    );
+
+    private final static String FILTER_QUERY = StatementRegistry.register(
+            "HandlebarController.filterHandlebars",
+            "SELECT * FROM Handlebars " +
+            "WHERE type = ? AND stock > 0"
+    );
+
     /**
      * Search for a unique handlebar instance in the database records.
      *
@@ -35,44 +75,32 @@ public class HandlebarController extends ComponentController<Handlebar> {
             throw new InputTooLongException(MAX_INPUT_LENGTH);
         }
 
-        ResultSet result = null;
-
-        try {
-            openConnection();
-
-            String sqlQuery = "SELECT * FROM Handlebars " +
-                    "WHERE serialNumber = ? AND brandName = ?";
-            sqlStatement = connection.prepareStatement(sqlQuery);
+        try (Connection connection = openConnection();
+             PreparedStatement sqlStatement = connection.prepareStatement(FIND_BY_ID_QUERY)) {
             sqlStatement.setString(1, serialNumber);
             sqlStatement.setString(2, brandName);
-            result = sqlStatement.executeQuery();
 
-            if (result.next()) {
-                String componentName = result.getString("handlebarName");
-                BigDecimal cost = result.getBigDecimal("cost");
-                int stock = result.getInt("stock");
-                HandlebarType type = HandlebarType.valueOf(result.getString("type"));
+            try (ResultSet result = sqlStatement.executeQuery()) {
+                if (result.next()) {
+                    String componentName = result.getString("handlebarName");
+                    BigDecimal cost = result.getBigDecimal("cost");
+                    int stock = result.getInt("stock");
+                    HandlebarType type = HandlebarType.valueOf(result.getString("type"));
 
-                Handlebar handlebar = new Handlebar(
-                        serialNumber,
-                        componentName,
-                        brandName,
-                        cost,
-                        stock,
-                        type
-                );
-                return handlebar;
-            }
-            else {
-                throw new ComponentNotFoundException(brandName, serialNumber);
-            }
-        }
-        finally {
-            if (result != null) {
-                result.close();
+                    Handlebar handlebar = new Handlebar(
+                            serialNumber,
+                            componentName,
+                            brandName,
+                            cost,
+                            stock,
+                            type
+                    );
+                    return handlebar;
+                }
+                else {
+                    throw new ComponentNotFoundException(brandName, serialNumber);
+                }
             }
-
-            closeConnection();
         }
     }
 
@@ -86,19 +114,13 @@ public class HandlebarController extends ComponentController<Handlebar> {
     @Override
     public ArrayList<Handlebar> readAllComponentsOfType(boolean fullAccess) throws SQLException {
         ArrayList<Handlebar> handlebars = new ArrayList<>();
-        ResultSet result = null;
-
-        try {
-            openConnection();
-            // Prepare query according to the user's access.
-            String sqlQuery = "SELECT * FROM Handlebars";
-            if (!fullAccess) {
-                sqlQuery += " WHERE stock > 0 ORDER BY cost ASC";
-            }
 
-            sqlStatement = connection.prepareStatement(sqlQuery);
-            result = sqlStatement.executeQuery();
+        // Prepare query according to the user's access.
+        String sqlQuery = (fullAccess ? READ_ALL_QUERY : READ_IN_STOCK_QUERY);
 
+        try (Connection connection = openConnection();
+             PreparedStatement sqlStatement = connection.prepareStatement(sqlQuery);
+             ResultSet result = sqlStatement.executeQuery()) {
             while (result.next()) {
                 String serialNumber = result.getString("serialNumber");
                 String componentName = result.getString("handlebarName");
@@ -124,13 +146,6 @@ public class HandlebarController extends ComponentController<Handlebar> {
             e.printStackTrace();
             throw e;
         }
-        finally {
-            if (result != null) {
-                result.close();
-            }
-
-            closeConnection();
-        }
     }
 
     /**
@@ -145,50 +160,73 @@ public class HandlebarController extends ComponentController<Handlebar> {
     @Override
     public boolean createComponent(Handlebar handlebar)
             throws SQLException, ComponentAlreadyExistsException, InputTooLongException {
-        // Check if the handlebar instance is not repeated in the records.
-        if (componentExists(handlebar, "Handlebars")) {
-            throw new ComponentAlreadyExistsException();
-        }
-        else if (
-                handlebar.getComponentName().length() > MAX_INPUT_LENGTH ||
-                handlebar.getBrandName().length() > MAX_INPUT_LENGTH ||
-                handlebar.getSerialNumber().length() > MAX_INPUT_LENGTH
-        ) {
+        // Check if any of the inputs are longer than permitted, before writing anything.
+        if (isInputTooLong(handlebar)) {
+            // An existing component is still reported as such (failure path only).
+            if (componentExists(handlebar, "Handlebars")) {
+                throw new ComponentAlreadyExistsException();
+            }
             throw new InputTooLongException(MAX_INPUT_LENGTH);
         }
 
-        try {
-            openConnection();
+        // Create a new DB record of a handlebar (its primary key refuses an existing one).
+        try (Connection connection = openConnection();
+             PreparedStatement sqlStatement = connection.prepareStatement(INSERT_QUERY)) {
             connection.setAutoCommit(false);
 
-            // Create a new DB record of a handlebar.
-            String sqlQuery = "INSERT INTO Handlebars " +
-                              "(serialNumber, handlebarName, brandName, type, cost, stock)\n" +
-                              "\tVALUES (?, ?, ?, ?, ?, ?)";
-            sqlStatement = connection.prepareStatement(sqlQuery);
-            sqlStatement.setString(1, handlebar.getSerialNumber());
-            sqlStatement.setString(2, handlebar.getComponentName());
-            sqlStatement.setString(3, handlebar.getBrandName());
-            sqlStatement.setString(4, String.valueOf(handlebar.getType()));
-            sqlStatement.setBigDecimal(5, handlebar.getCost());
-            sqlStatement.setInt(6, handlebar.getStock());
-            int result = sqlStatement.executeUpdate();
-
-            if (result == 1) {
-                connection.commit();
-                return true;
+            try {
+                setInsertParameters(sqlStatement, handlebar);
+                int result = sqlStatement.executeUpdate();
+
+                if (result == 1) {
+                    connection.commit();
+                    markModified();
+                    return true;
+                }
+                else {
+                    connection.rollback();
+                    return false;
+                }
             }
-            else {
+            catch (Exception e) {
                 connection.rollback();
-                return false;
+                if (isDuplicateKey(e)) {
+                    throw new ComponentAlreadyExistsException();
+                }
+                throw e;
             }
         }
-        catch (Exception e) {
-            connection.rollback();
-            throw e;
-        }
-        finally {
-            closeConnection();
+    }
+
+    /**
+     * Check if any of the inputs of a new handlebar is longer than permitted.
+     *
+     * @param handlebar - handlebar to be created.
+     * @return true if too long, false otherwise.
+     */
+    @Override
+    public boolean isInputTooLong(Handlebar handlebar) {
+        return handlebar.getComponentName().length() > MAX_INPUT_LENGTH ||
+               handlebar.getBrandName().length() > MAX_INPUT_LENGTH ||
+               handlebar.getSerialNumber().length() > MAX_INPUT_LENGTH;
+    }
+
+    /**
+     * Insert new handlebar records as a single batch, within a transaction of the caller.
+     *
+     * @param transaction - open transaction.
+     * @param handlebars - handlebar records to be created.
+     * @return update count of each record, in order.
+     * @throws SQLException (e.g. a BatchUpdateException if any of them already exists).
+     */
+    @Override
+    public int[] insertComponents(Connection transaction, List<Handlebar> handlebars) throws SQLException {
+        try (PreparedStatement statement = transaction.prepareStatement(INSERT_QUERY)) {
+            for (Handlebar handlebar : handlebars) {
+                setInsertParameters(statement, handlebar);
+                statement.addBatch();
+            }
+            return statement.executeBatch();
         }
     }
 
@@ -196,7 +234,7 @@ public class HandlebarController extends ComponentController<Handlebar> {
      * Update an existing handlebar record in the database.
      *
      * @param handlebar - handlebar instance to be updated.
-     * @return true if updated successfully, false otherwise.
+     * @return true if updated successfully.
      * @throws SQLException
      * @throws ComponentNotFoundException
      * @throws InputTooLongException
@@ -204,50 +242,50 @@ public class HandlebarController extends ComponentController<Handlebar> {
     @Override
     public boolean updateComponent(Handlebar handlebar)
             throws SQLException, ComponentNotFoundException, InputTooLongException {
-        // Check if the handlebar to be updated exists at all in records.
-        if (!componentExists(handlebar, "Handlebars")) {
-            throw new ComponentNotFoundException(
-                    handlebar.getBrandName(), handlebar.getSerialNumber()
-            );
-        }
-        // Check if the permitted String input is not too long.
-        else if (handlebar.getComponentName().length() > MAX_INPUT_LENGTH) {
+        // Check if the permitted String input is not too long, before writing anything.
+        if (handlebar.getComponentName().length() > MAX_INPUT_LENGTH) {
+            // A missing component is still reported as such (failure path only).
+            if (!componentExists(handlebar, "Handlebars")) {
+                throw new ComponentNotFoundException(
+                        handlebar.getBrandName(), handlebar.getSerialNumber()
+                );
+            }
             throw new InputTooLongException(MAX_INPUT_LENGTH);
         }
 
-        try {
-            openConnection();
+        // Update a DB record for a handlebar.
+        try (Connection connection = openConnection();
+             PreparedStatement sqlStatement = connection.prepareStatement(UPDATE_QUERY)) {
             connection.setAutoCommit(false);
 
-            // Update a DB record for a handlebar.
-            String sqlQuery = "UPDATE Handlebars " +
-                    "SET handlebarName = ?, type = ?, cost = ?, stock = ? WHERE\n" +
-                    "\tserialNumber = ? AND brandName = ?";
-            sqlStatement = connection.prepareStatement(sqlQuery);
-            sqlStatement.setString(1, handlebar.getComponentName());
-            sqlStatement.setString(2, String.valueOf(handlebar.getType()));
-            sqlStatement.setBigDecimal(3, handlebar.getCost());
-            sqlStatement.setInt(4, handlebar.getStock());
-            sqlStatement.setString(5, handlebar.getSerialNumber());
-            sqlStatement.setString(6, handlebar.getBrandName());
-            int result = sqlStatement.executeUpdate();
-
-            if (result == 1) {
-                connection.commit();
-                return true;
+            try {
+                sqlStatement.setString(1, handlebar.getComponentName());
+                sqlStatement.setString(2, String.valueOf(handlebar.getType()));
+                sqlStatement.setBigDecimal(3, handlebar.getCost());
+                sqlStatement.setInt(4, handlebar.getStock());
+                sqlStatement.setString(5, handlebar.getSerialNumber());
+                sqlStatement.setString(6, handlebar.getBrandName());
+                int result = sqlStatement.executeUpdate();
+
+                if (result == 1) {
+                    connection.commit();
+                    markModified();
+                    return true;
+                }
+                else {
+                    connection.rollback();
+                }
             }
-            else {
+            catch (Exception e) {
                 connection.rollback();
-                return false;
+                throw e;
             }
         }
-        catch (Exception e) {
-            connection.rollback();
-            throw e;
-        }
-        finally {
-            closeConnection();
-        }
+
+        // Nothing matched the primary key, i.e. the component does not exist.
+        throw new ComponentNotFoundException(
+                handlebar.getBrandName(), handlebar.getSerialNumber()
+        );
     }
 
     /**
@@ -260,52 +298,50 @@ public class HandlebarController extends ComponentController<Handlebar> {
     public ArrayList<Handlebar> filterHandlebars(HandlebarType fHandlebarType)
             throws SQLException, NoComponentForFilterException {
         ArrayList<Handlebar> handlebars = new ArrayList<>();
-        ResultSet result = null;
-
-        try {
-            openConnection();
-            String sqlQuery = "SELECT * FROM Handlebars " +
-                              "WHERE type = ? AND stock > 0";
-            sqlStatement = connection.prepareStatement(sqlQuery);
+        try (Connection connection = openConnection();
+             PreparedStatement sqlStatement = connection.prepareStatement(FILTER_QUERY)) {
             sqlStatement.setString(1, fHandlebarType.toString());
-            result = sqlStatement.executeQuery();
-
-            if (result == null) {
-                throw new NoComponentForFilterException("handlebar");
-            }
-            else {
-                while (result.next()) {
-                    String serialNumber = result.getString("serialNumber");
-                    String componentName = result.getString("handlebarName");
-                    String brandName = result.getString("brandName");
-                    HandlebarType type = HandlebarType.valueOf(result.getString("type"));
-                    BigDecimal cost = result.getBigDecimal("cost");
-                    int stock = result.getInt("stock");
 
-                    Handlebar handlebar = new Handlebar(
-                            serialNumber,
-                            componentName,
-                            brandName,
-                            cost,
-                            stock,
-                            type
-                    );
-                    handlebars.add(handlebar);
+            try (ResultSet result = sqlStatement.executeQuery()) {
+                if (result == null) {
+                    throw new NoComponentForFilterException("handlebar");
                 }
+                else {
+                    while (result.next()) {
+                        String serialNumber = result.getString("serialNumber");
+                        String componentName = result.getString("handlebarName");
+                        String brandName = result.getString("brandName");
+                        HandlebarType type = HandlebarType.valueOf(result.getString("type"));
+                        BigDecimal cost = result.getBigDecimal("cost");
+                        int stock = result.getInt("stock");
 
-                return handlebars;
+                        Handlebar handlebar = new Handlebar(
+                                serialNumber,
+                                componentName,
+                                brandName,
+                                cost,
+                                stock,
+                                type
+                        );
+                        handlebars.add(handlebar);
+                    }
+
+                    return handlebars;
+                }
             }
         }
         catch (SQLException e) {
             e.printStackTrace();
             throw e;
         }
-        finally {
-            if (result != null) {
-                result.close();
-            }
+    }
 
-            closeConnection();
-        }
+    private static void setInsertParameters(PreparedStatement statement, Handlebar handlebar) throws SQLException {
+        statement.setString(1, handlebar.getSerialNumber());
+        statement.setString(2, handlebar.getComponentName());
+        statement.setString(3, handlebar.getBrandName());
+        statement.setString(4, String.valueOf(handlebar.getType()));
+        statement.setBigDecimal(5, handlebar.getCost());
+        statement.setInt(6, handlebar.getStock());
     }
 }
@@ -7,17 +7,61 @@
 
 package database.controllers.component;
 
+import database.StatementRegistry;
 import exceptions.*;
 import models.component.pairofwheels.BrakeType;
 import models.component.pairofwheels.TyreType;
 import models.component.pairofwheels.PairOfWheels;
 
 import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.List;
 
 public class PairOfWheelsController extends ComponentController<PairOfWheels> {
+    private final static String FIND_BY_ID_QUERY = StatementRegistry.register(
+            "PairOfWheelsController.findComponentById",
+            "SELECT * FROM PairsOfWheels " +
+            "WHERE serialNumber = ? AND brandName = ?"
+    );
+
+    private final static String READ_ALL_QUERY = StatementRegistry.register(
+            "PairOfWheelsController.readAllComponentsOfType",
+            "SELECT * FROM PairsOfWheels"
+    );
+
+    private final static String READ_IN_STOCK_QUERY = StatementRegistry.register(
+            "PairOfWheelsController.readAllComponentsOfType(inStock)",
+            "SELECT * FROM PairsOfWheels WHERE stock > 0 ORDER BY cost ASC"
+    );
+
+    private final static String INSERT_QUERY = StatementRegistry.register(
+            "PairOfWheelsController.createComponent",
+            "INSERT INTO PairsOfWheels " +
+            "(serialNumber, pairOfWheelsName, brandName, diameter, " +
+            "tyreType, brakeType, cost, stock) \n" +
+            "\tVALUES (?, ?, ?, ?, ?, ?, ?, ?)"
+    );
+
+    private final static String UPDATE_QUERY = StatementRegistry.register(
+            "PairOfWheelsController.updateComponent",
+            "UPDATE PairsOfWheels " +
+            "SET pairOfWheelsName = ?, diameter = ?, tyreType = ?, " +
+            "brakeType = ?, cost = ?, stock = ? " +
+            "WHERE serialNumber = ? AND brandName = ?"
+    );
+
+    private final static String UNIQUE_DIAMETERS_QUERY = StatementRegistry.register(
+            "PairOfWheelsController.getUniqueDiameterSet",
+            "SELECT DISTINCT diameter " +
+            "FROM PairsOfWheels " +
+            "WHERE stock > 0 " +
+            "ORDER BY diameter ASC"
+    );
+
     /**
      * Search for a unique pair of wheels instance in the database records.
      *
@@ -36,48 +80,38 @@ public class PairOfWheelsController extends ComponentController<PairOfWheels> {
             throw new InputTooLongException(MAX_INPUT_LENGTH);
         }
 
-        ResultSet result = null;
 
-        try {
-            openConnection();
-            String sqlQuery = "SELECT * FROM PairsOfWheels " +
-                              "WHERE serialNumber = ? AND brandName = ?";
-            sqlStatement = connection.prepareStatement(sqlQuery);
+        try (Connection connection = openConnection();
+             PreparedStatement sqlStatement = connection.prepareStatement(FIND_BY_ID_QUERY)) {
             sqlStatement.setString(1, serialNumber);
             sqlStatement.setString(2, brandName);
-            result = sqlStatement.executeQuery();
 
-            if (result.next()) {
-                String pairName = result.getString("pairOfWheelsName");
-                BigDecimal cost = result.getBigDecimal("cost");
-                int stock = result.getInt("stock");
-                BigDecimal diameter = result.getBigDecimal("diameter");
-                TyreType tyreType = TyreType.valueOf(result.getString("tyreType"));
-                BrakeType brakeType = BrakeType.valueOf(result.getString("brakeType"));
-
-                PairOfWheels pairOfWheels = new PairOfWheels(
-                        serialNumber,
-                        pairName,
-                        brandName,
-                        cost,
-                        stock,
-                        diameter,
-                        tyreType,
-                        brakeType
-                );
-                return pairOfWheels;
-            }
-            else {
-                throw new ComponentNotFoundException(brandName, serialNumber);
+            try (ResultSet result = sqlStatement.executeQuery()) {
+                if (result.next()) {
+                    String pairName = result.getString("pairOfWheelsName");
+                    BigDecimal cost = result.getBigDecimal("cost");
+                    int stock = result.getInt("stock");
+                    BigDecimal diameter = result.getBigDecimal("diameter");
+                    TyreType tyreType = TyreType.valueOf(result.getString("tyreType"));
+                    BrakeType brakeType = BrakeType.valueOf(result.getString("brakeType"));
+
+                    PairOfWheels pairOfWheels = new PairOfWheels(
+                            serialNumber,
+                            pairName,
+                            brandName,
+                            cost,
+                            stock,
+                            diameter,
+                            tyreType,
+                            brakeType
+                    );
+                    return pairOfWheels;
+                }
+                else {
+                    throw new ComponentNotFoundException(brandName, serialNumber);
+                }
             }
         }
-        finally {
-            if (result != null) {
-                result.close();
-            }
-
-            closeConnection();
-        }
     }
 
     /**
@@ -90,19 +124,13 @@ public class PairOfWheelsController extends ComponentController<PairOfWheels> {
     @Override
     public ArrayList<PairOfWheels> readAllComponentsOfType(boolean fullAccess) throws SQLException {
         ArrayList<PairOfWheels> pairsOfWheels = new ArrayList<>();
-        ResultSet result = null;
-
-        try {
-            openConnection();
-            // Prepare query according to the user's access.
-            String sqlQuery = "SELECT * FROM PairsOfWheels";
-            if (!fullAccess) {
-                sqlQuery += " WHERE stock > 0 ORDER BY cost ASC";
-            }
 
-            sqlStatement = connection.prepareStatement(sqlQuery);
-            result = sqlStatement.executeQuery();
+        // Prepare query according to the user's access.
+        String sqlQuery = (fullAccess ? READ_ALL_QUERY : READ_IN_STOCK_QUERY);
 
+        try (Connection connection = openConnection();
+             PreparedStatement sqlStatement = connection.prepareStatement(sqlQuery);
+             ResultSet result = sqlStatement.executeQuery()) {
             while (result.next()) {
                 String serialNumber = result.getString("serialNumber");
                 String componentName = result.getString("pairOfWheelsName");
@@ -132,13 +160,6 @@ public class PairOfWheelsController extends ComponentController<PairOfWheels> {
             e.printStackTrace();
             throw e;
         }
-        finally {
-            if (result != null) {
-                result.close();
-            }
-
-            closeConnection();
-        }
     }
 
     /**
@@ -153,52 +174,73 @@ public class PairOfWheelsController extends ComponentController<PairOfWheels> {
     @Override
     public boolean createComponent(PairOfWheels pairOfWheels)
             throws SQLException, ComponentAlreadyExistsException, InputTooLongException {
-        if (componentExists(pairOfWheels, "PairsOfWheels")) {
-            throw new ComponentAlreadyExistsException();
-        }
-        else if (
-                pairOfWheels.getComponentName().length() > MAX_INPUT_LENGTH ||
-                        pairOfWheels.getBrandName().length() > MAX_INPUT_LENGTH ||
-                        pairOfWheels.getSerialNumber().length() > MAX_INPUT_LENGTH
-        ) {
+        // Check if any of the inputs are longer than permitted, before writing anything.
+        if (isInputTooLong(pairOfWheels)) {
+            // An existing component is still reported as such (failure path only).
+            if (componentExists(pairOfWheels, "PairsOfWheels")) {
+                throw new ComponentAlreadyExistsException();
+            }
             throw new InputTooLongException(MAX_INPUT_LENGTH);
         }
 
-        try {
-            openConnection();
+        // Create a new DB record of a wheel (its primary key refuses an existing one).
+        try (Connection connection = openConnection();
+             PreparedStatement sqlStatement = connection.prepareStatement(INSERT_QUERY)) {
             connection.setAutoCommit(false);
 
-            // Create a new DB record of a wheel.
-            String sqlQuery = "INSERT INTO PairsOfWheels " +
-                    "(serialNumber, pairOfWheelsName, brandName, diameter, " +
-                    "tyreType, brakeType, cost, stock) \n" +
-                    "\tVALUES (?, ?, ?, ?, ?, ?, ?, ?)";
-            sqlStatement = connection.prepareStatement(sqlQuery);
-            sqlStatement.setString(1, pairOfWheels.getSerialNumber());
-            sqlStatement.setString(2, pairOfWheels.getComponentName());
-            sqlStatement.setString(3, pairOfWheels.getBrandName());
-            sqlStatement.setBigDecimal(4, pairOfWheels.getDiameter());
-            sqlStatement.setString(5, String.valueOf(pairOfWheels.getTyreType()));
-            sqlStatement.setString(6, String.valueOf(pairOfWheels.getBrakeType()));
-            sqlStatement.setBigDecimal(7, pairOfWheels.getCost());
-            sqlStatement.setInt(8, pairOfWheels.getStock());
-            int result = sqlStatement.executeUpdate();
-
-            if (result == 1) {
-                connection.commit();
-                return true;
+            try {
+                setInsertParameters(sqlStatement, pairOfWheels);
+                int result = sqlStatement.executeUpdate();
+
+                if (result == 1) {
+                    connection.commit();
+                    markModified();
+                    return true;
+                }
+                else {
+                    connection.rollback();
+                    return false;
+                }
             }
-            else {
+            catch (Exception e) {
                 connection.rollback();
-                return false;
+                if (isDuplicateKey(e)) {
+                    throw new ComponentAlreadyExistsException();
+                }
+                throw e;
             }
         }
-        catch (Exception e) {
-            connection.rollback();
-            throw e;
-        }
-        finally {
-            closeConnection();
+    }
+
+    /**
+     * Check if any of the inputs of a new pair of wheels is longer than permitted.
+     *
+     * @param pairOfWheels - pair of wheels to be created.
+     * @return true if too long, false otherwise.
+     */
+    @Override
+    public boolean isInputTooLong(PairOfWheels pairOfWheels) {
+        return pairOfWheels.getComponentName().length() > MAX_INPUT_LENGTH ||
+               pairOfWheels.getBrandName().length() > MAX_INPUT_LENGTH ||
+               pairOfWheels.getSerialNumber().length() > MAX_INPUT_LENGTH;
+    }
+
+    /**
+     * Insert new pair of wheels records as a single batch, within a transaction of the caller.
+     *
+     * @param transaction - open transaction.
+     * @param pairsOfWheels - pair of wheels records to be created.
+     * @return update count of each record, in order.
+     * @throws SQLException (e.g. a BatchUpdateException if any of them already exists).
+     */
+    @Override
+    public int[] insertComponents(Connection transaction, List<PairOfWheels> pairsOfWheels) throws SQLException {
+        try (PreparedStatement statement = transaction.prepareStatement(INSERT_QUERY)) {
+            for (PairOfWheels pairOfWheels : pairsOfWheels) {
+                setInsertParameters(statement, pairOfWheels);
+                statement.addBatch();
+            }
+            return statement.executeBatch();
         }
     }
 
@@ -206,7 +248,7 @@ public class PairOfWheelsController extends ComponentController<PairOfWheels> {
      * Update an existing pair of wheels record in the database.
      *
      * @param pairOfWheels - an instance of a wheel to be updated.
-     * @return true if updated successfully, false otherwise.
+     * @return true if updated successfully.
      * @throws SQLException
      * @throws ComponentNotFoundException
      * @throws InputTooLongException
@@ -214,52 +256,52 @@ public class PairOfWheelsController extends ComponentController<PairOfWheels> {
     @Override
     public boolean updateComponent(PairOfWheels pairOfWheels)
             throws SQLException, ComponentNotFoundException, InputTooLongException {
-        // Check if the pair of wheels to be updated exists at all in records.
-        if (!componentExists(pairOfWheels, "PairsOfWheels")) {
-            throw new ComponentNotFoundException(
-                    pairOfWheels.getBrandName(), pairOfWheels.getSerialNumber()
-            );
-        }
-        else if (pairOfWheels.getComponentName().length() > MAX_INPUT_LENGTH) {
+        // Check if the permitted String input is not too long, before writing anything.
+        if (pairOfWheels.getComponentName().length() > MAX_INPUT_LENGTH) {
+            // A missing component is still reported as such (failure path only).
+            if (!componentExists(pairOfWheels, "PairsOfWheels")) {
+                throw new ComponentNotFoundException(
+                        pairOfWheels.getBrandName(), pairOfWheels.getSerialNumber()
+                );
+            }
             throw new InputTooLongException(MAX_INPUT_LENGTH);
         }
 
-        try {
-            openConnection();
+        // Update a DB record for a pair of wheels.
+        try (Connection connection = openConnection();
+             PreparedStatement sqlStatement = connection.prepareStatement(UPDATE_QUERY)) {
             connection.setAutoCommit(false);
 
-            // Update a DB record for a pair of wheels.
-            String sqlQuery = "UPDATE PairsOfWheels " +
-                    "SET pairOfWheelsName = ?, diameter = ?, tyreType = ?, " +
-                    "brakeType = ?, cost = ?, stock = ? " +
-                    "WHERE serialNumber = ? AND brandName = ?";
-            sqlStatement = connection.prepareStatement(sqlQuery);
-            sqlStatement.setString(1, pairOfWheels.getComponentName());
-            sqlStatement.setBigDecimal(2, pairOfWheels.getDiameter());
-            sqlStatement.setString(3, String.valueOf(pairOfWheels.getTyreType()));
-            sqlStatement.setString(4, String.valueOf(pairOfWheels.getBrakeType()));
-            sqlStatement.setBigDecimal(5, pairOfWheels.getCost());
-            sqlStatement.setInt(6, pairOfWheels.getStock());
-            sqlStatement.setString(7, pairOfWheels.getSerialNumber());
-            sqlStatement.setString(8, pairOfWheels.getBrandName());
-            int result = sqlStatement.executeUpdate();
-
-            if (result == 1) {
-                connection.commit();
-                return true;
+            try {
+                sqlStatement.setString(1, pairOfWheels.getComponentName());
+                sqlStatement.setBigDecimal(2, pairOfWheels.getDiameter());
+                sqlStatement.setString(3, String.valueOf(pairOfWheels.getTyreType()));
+                sqlStatement.setString(4, String.valueOf(pairOfWheels.getBrakeType()));
+                sqlStatement.setBigDecimal(5, pairOfWheels.getCost());
+                sqlStatement.setInt(6, pairOfWheels.getStock());
+                sqlStatement.setString(7, pairOfWheels.getSerialNumber());
+                sqlStatement.setString(8, pairOfWheels.getBrandName());
+                int result = sqlStatement.executeUpdate();
+
+                if (result == 1) {
+                    connection.commit();
+                    markModified();
+                    return true;
+                }
+                else {
+                    connection.rollback();
+                }
             }
-            else {
+            catch (SQLException e) {
                 connection.rollback();
-                return false;
+                throw e;
             }
         }
-        catch (SQLException e) {
-            connection.rollback();
-            throw e;
-        }
-        finally {
-            closeConnection();
-        }
+
+        // Nothing matched the primary key, i.e. the component does not exist.
+        throw new ComponentNotFoundException(
+                pairOfWheels.getBrandName(), pairOfWheels.getSerialNumber()
+        );
     }
 
     /**
@@ -270,17 +312,10 @@ public class PairOfWheelsController extends ComponentController<PairOfWheels> {
      */
     public ArrayList<BigDecimal> getUniqueDiameterSet() throws SQLException {
         ArrayList<BigDecimal> diameters = new ArrayList<>();
-        ResultSet result = null;
-
-        try {
-            openConnection();
-            String sqlQuery = "SELECT DISTINCT diameter " +
-                              "FROM PairsOfWheels " +
-                              "WHERE stock > 0 " +
-                              "ORDER BY diameter ASC";
-            sqlStatement = connection.prepareStatement(sqlQuery);
-            result = sqlStatement.executeQuery();
 
+        try (Connection connection = openConnection();
+             PreparedStatement sqlStatement = connection.prepareStatement(UNIQUE_DIAMETERS_QUERY);
+             ResultSet result = sqlStatement.executeQuery()) {
             while (result.next()) {
                 diameters.add(
                         result.getBigDecimal("diameter")
@@ -293,13 +328,6 @@ public class PairOfWheelsController extends ComponentController<PairOfWheels> {
             e.printStackTrace();
             throw e;
         }
-        finally {
-            if (result != null) {
-                result.close();
-            }
-
-            closeConnection();
-        }
     }
 
     /**
@@ -315,82 +343,73 @@ public class PairOfWheelsController extends ComponentController<PairOfWheels> {
     public ArrayList<PairOfWheels> filterWheels(TyreType fTyreType, BrakeType fBrakeType, BigDecimal fDiameter)
             throws SQLException, NoComponentForFilterException {
         ArrayList<PairOfWheels> pairsOfWheels = new ArrayList<>();
-        ResultSet result = null;
 
-        try {
-            openConnection();
+        // Only the passed filters are added as conditions (some might be null).
+        String sqlQuery = "SELECT * FROM PairsOfWheels WHERE stock > 0" +
+                          (fDiameter != null ? " AND diameter = ?" : "") +
+                          (fBrakeType != null ? " AND brakeType = ?" : "") +
+                          (fTyreType != null ? " AND tyreType = ?" : "") +
+                          " ORDER BY cost ASC";
 
-            // Use LIKE to avoid complicated if-else structure, in case some filter is null.
-            String sqlQuery = "SELECT * FROM PairsOfWheels WHERE " +
-                              "stock > 0 AND " +
-                              "diameter LIKE ? AND " +
-                              "brakeType LIKE ? AND " +
-                              "tyreType LIKE ? " +
-                              "ORDER BY cost ASC";
-            sqlStatement = connection.prepareStatement(sqlQuery);
-
-            // Handle different scenarios for passing filters (i.e. some might be passed as null).
+        try (Connection connection = openConnection();
+             PreparedStatement sqlStatement = connection.prepareStatement(sqlQuery)) {
+            int paramIndex = 1;
             if (fDiameter != null) {
-                sqlStatement.setBigDecimal(1, fDiameter);
-            }
-            else {
-                sqlStatement.setString(1, "%");
+                sqlStatement.setBigDecimal(paramIndex++, fDiameter);
             }
             if (fBrakeType != null) {
-                sqlStatement.setString(2, fBrakeType.toString());
-            }
-            else {
-                sqlStatement.setString(2, "%");
+                sqlStatement.setString(paramIndex++, fBrakeType.toString());
             }
             if (fTyreType != null) {
-                sqlStatement.setString(3, fTyreType.toString());
+                sqlStatement.setString(paramIndex, fTyreType.toString());
             }
-            else {
-                sqlStatement.setString(3, "%");
-            }
-
-            result = sqlStatement.executeQuery();
 
-            while (result.next()) {
-                String serialNumber = result.getString("serialNumber");
-                String componentName = result.getString("pairOfWheelsName");
-                String brandName = result.getString("brandName");
-                BigDecimal cost = result.getBigDecimal("cost");
-                int stock = result.getInt("stock");
-                BigDecimal diameter = result.getBigDecimal("diameter");
-                TyreType tyreType = TyreType.valueOf(result.getString("tyreType"));
-                BrakeType brakeType = BrakeType.valueOf(result.getString("brakeType"));
-
-                PairOfWheels pairOfWheels = new PairOfWheels(
-                        serialNumber,
-                        componentName,
-                        brandName,
-                        cost,
-                        stock,
-                        diameter,
-                        tyreType,
-                        brakeType
-                );
-                pairsOfWheels.add(pairOfWheels);
-            }
-
-            if (pairsOfWheels.size() == 0) {
-                throw new NoComponentForFilterException("pair of wheels");
-            }
-            else {
-                return pairsOfWheels;
+            try (ResultSet result = sqlStatement.executeQuery()) {
+                while (result.next()) {
+                    String serialNumber = result.getString("serialNumber");
+                    String componentName = result.getString("pairOfWheelsName");
+                    String brandName = result.getString("brandName");
+                    BigDecimal cost = result.getBigDecimal("cost");
+                    int stock = result.getInt("stock");
+                    BigDecimal diameter = result.getBigDecimal("diameter");
+                    TyreType tyreType = TyreType.valueOf(result.getString("tyreType"));
+                    BrakeType brakeType = BrakeType.valueOf(result.getString("brakeType"));
+
+                    PairOfWheels pairOfWheels = new PairOfWheels(
+                            serialNumber,
+                            componentName,
+                            brandName,
+                            cost,
+                            stock,
+                            diameter,
+                            tyreType,
+                            brakeType
+                    );
+                    pairsOfWheels.add(pairOfWheels);
+                }
+
+                if (pairsOfWheels.size() == 0) {
+                    throw new NoComponentForFilterException("pair of wheels");
+                }
+                else {
+                    return pairsOfWheels;
+                }
             }
         }
         catch (SQLException e) {
             e.printStackTrace();
             throw e;
         }
-        finally {
-            if (result != null) {
-                result.close();
-            }
+    }
 
-            closeConnection();
-        }
+    private static void setInsertParameters(PreparedStatement statement, PairOfWheels pairOfWheels) throws SQLException {
+        statement.setString(1, pairOfWheels.getSerialNumber());
+        statement.setString(2, pairOfWheels.getComponentName());
+        statement.setString(3, pairOfWheels.getBrandName());
+        statement.setBigDecimal(4, pairOfWheels.getDiameter());
+        statement.setString(5, String.valueOf(pairOfWheels.getTyreType()));
+        statement.setString(6, String.valueOf(pairOfWheels.getBrakeType()));
+        statement.setBigDecimal(7, pairOfWheels.getCost());
+        statement.setInt(8, pairOfWheels.getStock());
     }
 }
@@ -6,16 +6,31 @@
 
 package database.controllers.order;
 
+import database.StatementRegistry;
 import database.controllers.DatabaseController;
 import models.order.items.Item;
 import models.order.items.ItemType;
 
 import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 
 public class ItemController extends DatabaseController {
+    private final static String INSERT_QUERY = StatementRegistry.register(
+            "ItemController.insertOrderItems",
+            "INSERT INTO Items " +
+            "(serialNumber, quantity, cost, type, orderNumber, brandName) VALUES " +
+            "(?, ?, ?, ?, ?, ?)"
+    );
+
+    private final static String FIND_BY_ORDER_QUERY = StatementRegistry.register(
+            "ItemController.findOrderItems",
+            "SELECT * FROM Items WHERE orderNumber = ?"
+    );
+
     /**
      * Create order items records for the associated order.
      *
@@ -24,38 +39,45 @@ public class ItemController extends DatabaseController {
      * @throws SQLException
      */
     public boolean createOrderItems(ArrayList<Item> orderItems) throws SQLException {
-        try {
-            openConnection();
+        try (Connection connection = openConnection()) {
             connection.setAutoCommit(false);
 
-            // Create a new DB record of an order item.
-            String sqlQuery = "INSERT INTO Items " +
-                              "(serialNumber, quantity, cost, type, orderNumber, brandName) VALUES " +
-                              "(?, ?, ?, ?, ?, ?)";
-            sqlStatement = connection.prepareStatement(sqlQuery);
+            try {
+                insertOrderItems(connection, orderItems);
+                connection.commit();
+                return true;
+            }
+            catch (SQLException e) {
+                connection.rollback();
+                e.printStackTrace();
+                throw e;
+            }
+        }
+    }
 
+    /**
+     * Insert order items records as a single batch, using the caller's connection.
+     * The caller is responsible for committing (or rolling back) the transaction.
+     *
+     * @param transaction - open connection on which the items are inserted.
+     * @param orderItems - order items associated with an order.
+     * @throws SQLException
+     */
+    public void insertOrderItems(Connection transaction, ArrayList<Item> orderItems) throws SQLException {
+        // Create a new DB record of an order item.
+        try (PreparedStatement statement = transaction.prepareStatement(INSERT_QUERY)) {
             // Prepare all the variables in the query.
             for (Item item : orderItems) {
-                sqlStatement.setString(1, item.getItemId());
-                sqlStatement.setInt(2, item.getQuantity());
-                sqlStatement.setBigDecimal(3, item.getCost());
-                sqlStatement.setString(4, String.valueOf(item.getType()));
-                sqlStatement.setString(5, item.getOrderNumber());
-                sqlStatement.setString(6, item.getBrandName());
-                sqlStatement.addBatch();
+                statement.setString(1, item.getItemId());
+                statement.setInt(2, item.getQuantity());
+                statement.setBigDecimal(3, item.getCost());
+                statement.setString(4, String.valueOf(item.getType()));
+                statement.setString(5, item.getOrderNumber());
+                statement.setString(6, item.getBrandName());
+                statement.addBatch();
             }
 
-            sqlStatement.executeBatch();
-            connection.commit();
-            return true;
-        }
-        catch (SQLException e) {
-            connection.rollback();
-            e.printStackTrace();
-            throw e;
-        }
-        finally {
-            closeConnection();
+            statement.executeBatch();
         }
     }
 
@@ -68,41 +90,32 @@ public class ItemController extends DatabaseController {
      */
     public ArrayList<Item> findOrderItems(String orderNumber) throws SQLException {
         ArrayList<Item> orderItems = new ArrayList<>();
-        ResultSet result = null;
 
-        try {
-            openConnection();
-            String sqlQuery = "SELECT * FROM Items WHERE orderNumber = ?";
-            sqlStatement = connection.prepareStatement(sqlQuery);
+        try (Connection connection = openConnection();
+             PreparedStatement sqlStatement = connection.prepareStatement(FIND_BY_ORDER_QUERY)) {
             sqlStatement.setString(1, orderNumber);
-            result = sqlStatement.executeQuery();
 
-            while (result.next()) {
-                String itemId = result.getString("serialNumber");
-                String itemBrandName = result.getString("brandName");
-                ItemType itemType = ItemType.valueOf(result.getString("type"));
-                int quantity = result.getInt("quantity");
-                BigDecimal cost = result.getBigDecimal("cost");
+            try (ResultSet result = sqlStatement.executeQuery()) {
+                while (result.next()) {
+                    String itemId = result.getString("serialNumber");
+                    String itemBrandName = result.getString("brandName");
+                    ItemType itemType = ItemType.valueOf(result.getString("type"));
+                    int quantity = result.getInt("quantity");
+                    BigDecimal cost = result.getBigDecimal("cost");
 
-                Item currItem = new Item(
-                        itemId,
-                        itemBrandName,
-                        itemType,
-                        quantity,
-                        cost,
-                        orderNumber
-                );
-                orderItems.add(currItem);
-            }
+                    Item currItem = new Item(
+                            itemId,
+                            itemBrandName,
+                            itemType,
+                            quantity,
+                            cost,
+                            orderNumber
+                    );
+                    orderItems.add(currItem);
+                }
 
-            return orderItems;
-        }
-        finally {
-            if (result != null) {
-                result.close();
+                return orderItems;
             }
-
-            closeConnection();
         }
     }
 }
@@ -7,22 +7,97 @@
 
 package database.controllers.order;
 
+import database.StatementRegistry;
 import database.controllers.DatabaseController;
 import database.controllers.bicycle.BicycleController;
 import exceptions.*;
 import models.order.Order;
+import models.order.OrderCursor;
+import models.order.OrderPage;
 import models.order.OrderStatus;
 import models.order.items.Item;
+import models.order.items.ItemType;
 import models.user.customer.Customer;
 import models.user.staff.Staff;
 
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 
 public class OrderController extends DatabaseController {
     private final static ItemController iController = new ItemController();
     private final static BicycleController bController = new BicycleController();
+    // Orders joined with their items, so that a list of orders is read in one round trip.
+    private final static String ORDERS_WITH_ITEMS_COLUMNS =
+            "SELECT o.orderNumber, o.date, o.totalCost, o.status, o.staffUsername, " +
+            "o.serialNumber AS bicycleSerialNumber, o.customerId, " +
+            "i.serialNumber AS itemSerialNumber, i.brandName AS itemBrandName, " +
+            "i.type AS itemType, i.quantity AS itemQuantity, i.cost AS itemCost ";
+    private final static String ORDERS_WITH_ITEMS_QUERY = ORDERS_WITH_ITEMS_COLUMNS +
+            "FROM Orders o LEFT JOIN Items i ON i.orderNumber = o.orderNumber ";
+    // Newest orders first; the order number breaks the ties between orders of the same date.
+    private final static String PAGE_ORDER = "ORDER BY o.date DESC, o.orderNumber DESC";
+    private final static String PENDING_CONDITION = "o.status = 'PENDING' AND o.staffUsername IS NULL";
+    // Same as PENDING_CONDITION, for statements on the Orders table without an alias.
+    private final static String CLAIMABLE_CONDITION = "status = 'PENDING' AND staffUsername IS NULL";
+
+    private final static String EXISTS_QUERY = StatementRegistry.register(
+            "OrderController.orderExists",
+            "SELECT EXISTS(\n" +
+            "\tSELECT * FROM Orders WHERE \n" +
+            "\t\torderNumber = ?\n\t)"
+    );
+
+    private final static String INSERT_QUERY = StatementRegistry.register(
+            "OrderController.insertOrder",
+            "INSERT INTO Orders " +
+            "(orderNumber, date, totalCost, status, " +
+            "staffUsername, serialNumber, customerId) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)"
+    );
+
+    private final static String DELETE_ITEMS_QUERY = StatementRegistry.register(
+            "OrderController.deleteOrder(items)",
+            "DELETE FROM Items WHERE orderNumber = ?"
+    );
+
+    private final static String DELETE_QUERY = StatementRegistry.register(
+            "OrderController.deleteOrder",
+            "DELETE FROM Orders WHERE orderNumber = ?"
+    );
+
+    private final static String ASSIGN_QUERY = StatementRegistry.register(
+            "OrderController.assignStaffOrder",
+            "UPDATE Orders SET staffUsername = ? WHERE orderNumber = ? AND " + CLAIMABLE_CONDITION
+    );
+
+    private final static String CLAIM_CANDIDATES_QUERY = StatementRegistry.register(
+            "OrderController.claimPendingOrders",
+            "SELECT orderNumber FROM Orders WHERE " + CLAIMABLE_CONDITION + " " +
+            "ORDER BY date, orderNumber LIMIT ?"
+    );
+
+    private final static String CANCEL_QUERY = StatementRegistry.register(
+            "OrderController.cancelStaffOrder",
+            "UPDATE Orders SET staffUsername = NULL " +
+            "WHERE orderNumber = ? AND status = 'PENDING'"
+    );
+
+    private final static String TRANSITION_STATUS_QUERY = StatementRegistry.register(
+            "OrderController.transitionOrderStatus",
+            "UPDATE Orders SET status = ? WHERE orderNumber = ? AND status = ?"
+    );
+
+    private final static String UPDATE_STATUS_QUERY = StatementRegistry.register(
+            "OrderController.updateOrderStatus",
+            "UPDATE Orders SET status = ? WHERE orderNumber = ?"
+    );
 
     /**
      * Check if order with the provided number exists in the records.
@@ -32,28 +107,16 @@ public class OrderController extends DatabaseController {
      * @throws SQLException
      */
     public boolean orderExists(String orderNumber) throws SQLException {
-        ResultSet result = null;
-
-        try {
-            openConnection();
-
-            // Attempt to find the staff by the username.
-            String sqlQuery = "SELECT EXISTS(\n" +
-                              "\tSELECT * FROM Orders WHERE \n" +
-                              "\t\torderNumber = ?\n\t)";
-            sqlStatement = connection.prepareStatement(sqlQuery);
+        // Attempt to find the staff by the username.
+        try (Connection connection = openConnection();
+             PreparedStatement sqlStatement = connection.prepareStatement(EXISTS_QUERY)) {
             sqlStatement.setString(1, orderNumber);
-            result = sqlStatement.executeQuery();
-            result.next();
-            int exist = result.getInt(1);
-            return (exist == 1);
-        }
-        finally {
-            if (result != null) {
-                result.close();
-            }
 
-            closeConnection();
+            try (ResultSet result = sqlStatement.executeQuery()) {
+                result.next();
+                int exist = result.getInt(1);
+                return (exist == 1);
+            }
         }
     }
 
@@ -67,50 +130,13 @@ public class OrderController extends DatabaseController {
      */
     public Order findOrderById(String orderNumber)
             throws SQLException, InvalidOrderException, OrderNotFoundException {
-        ResultSet result = null;
-
-        try {
-            openConnection();
-            String sqlQuery = "SELECT * FROM Orders WHERE orderNumber = ?";
-            sqlStatement = connection.prepareStatement(sqlQuery);
-            sqlStatement.setString(1, orderNumber);
-            result = sqlStatement.executeQuery();
-
-            if (result.next()) {
-                Order order = new Order();
-                order.setOrderNumber(orderNumber);
-                order.setDate(
-                        result.getDate("date")
-                );
-                order.setTotalCost(
-                        result.getBigDecimal("totalCost")
-                );
-                order.setStatus(
-                        OrderStatus.valueOf(result.getString("status"))
-                );
-                order.setBicycleSerialNumber(
-                        result.getString("serialNumber")
-                );
-
-                // Get order items of the current order.
-                ArrayList<Item> currItems = iController.findOrderItems(orderNumber);
-                if (currItems.size() != 4) {
-                    throw new InvalidOrderException(orderNumber);
-                }
-
-                order.setOrderItems(currItems);
-                return order;
-            }
+        ArrayList<Order> orders = readOrdersWithItems("o.orderNumber = ?", orderNumber);
 
+        if (orders.isEmpty()) {
             throw new OrderNotFoundException(orderNumber);
         }
-        finally {
-            if (result != null) {
-                result.close();
-            }
 
-            closeConnection();
-        }
+        return orders.get(0);
     }
 
     /**
@@ -121,38 +147,46 @@ public class OrderController extends DatabaseController {
      * @throws SQLException
      */
     public boolean createOrder(Order order) throws SQLException, InvalidOrderException {
-        try {
-            openConnection();
+        try (Connection connection = openConnection()) {
             connection.setAutoCommit(false);
 
-            // Create a new DB record of an order.
-            String sqlQuery = "INSERT INTO Orders " +
-                    "(orderNumber, date, totalCost, status, " +
-                    "staffUsername, serialNumber, customerId) " +
-                    "VALUES (?, ?, ?, ?, ?, ?, ?)";
-            sqlStatement = connection.prepareStatement(sqlQuery);
-            sqlStatement.setString(1, order.getOrderNumber());
-            sqlStatement.setDate(2, new java.sql.Date(order.getDate().getTime()));
-            sqlStatement.setBigDecimal(3, order.getTotalCost());
-            sqlStatement.setString(4, String.valueOf(order.getStatus()));
-            sqlStatement.setString(5, order.getStaffUsername());
-            sqlStatement.setString(6, order.getBicycleSerialNumber());
-            sqlStatement.setString(7, order.getCustomerId());
-            int result = sqlStatement.executeUpdate();
-
-            if (result == 1) {
+            try {
+                // Create the order together with its items, all in one transaction.
+                insertOrder(connection, order);
+                iController.insertOrderItems(connection, order.getOrderItems());
                 connection.commit();
-                // If successful, create associated order items.
-                iController.createOrderItems(order.getOrderItems());
                 return true;
             }
-            else {
+            catch (SQLException | InvalidOrderException e) {
                 connection.rollback();
-                throw new InvalidOrderException(order.getOrderNumber());
+                throw e;
             }
         }
-        finally {
-            closeConnection();
+    }
+
+    /**
+     * Insert a new order record (without its items), using the caller's connection.
+     * The caller is responsible for committing (or rolling back) the transaction.
+     *
+     * @param transaction - open connection on which the order is inserted.
+     * @param order - order to be inserted.
+     * @throws SQLException
+     * @throws InvalidOrderException if the order record could not be inserted.
+     */
+    public void insertOrder(Connection transaction, Order order) throws SQLException, InvalidOrderException {
+        // Create a new DB record of an order.
+        try (PreparedStatement statement = transaction.prepareStatement(INSERT_QUERY)) {
+            statement.setString(1, order.getOrderNumber());
+            statement.setDate(2, new java.sql.Date(order.getDate().getTime()));
+            statement.setBigDecimal(3, order.getTotalCost());
+            statement.setString(4, String.valueOf(order.getStatus()));
+            statement.setString(5, order.getStaffUsername());
+            statement.setString(6, order.getBicycleSerialNumber());
+            statement.setString(7, order.getCustomerId());
+
+            if (statement.executeUpdate() != 1) {
+                throw new InvalidOrderException(order.getOrderNumber());
+            }
         }
     }
 
@@ -176,13 +210,27 @@ public class OrderController extends DatabaseController {
 
         try {
             if (bController.deleteBicycle(bicycleSerialNumber)) {
-                openConnection();
-                String sqlQuery = "DELETE Orders, Items  FROM Orders INNER JOIN Items " +
-                                  "WHERE Orders.orderNumber = Items.orderNumber AND Orders.orderNumber = ?";
-                sqlStatement = connection.prepareStatement(sqlQuery);
-                sqlStatement.setString(1, orderNumber);
-                sqlStatement.executeUpdate();
-                return true;
+                // Items first, as they reference the order (plain deletes work on any database).
+                String[] sqlQueries = { DELETE_ITEMS_QUERY, DELETE_QUERY };
+
+                try (Connection connection = openConnection()) {
+                    connection.setAutoCommit(false);
+
+                    try {
+                        for (String sqlQuery : sqlQueries) {
+                            try (PreparedStatement sqlStatement = connection.prepareStatement(sqlQuery)) {
+                                sqlStatement.setString(1, orderNumber);
+                                sqlStatement.executeUpdate();
+                            }
+                        }
+                        connection.commit();
+                        return true;
+                    }
+                    catch (SQLException e) {
+                        connection.rollback();
+                        throw e;
+                    }
+                }
             }
             return false;
         }
@@ -190,9 +238,6 @@ public class OrderController extends DatabaseController {
             e.printStackTrace();
             throw e;
         }
-        finally {
-            closeConnection();
-        }
     }
 
     /**
@@ -206,47 +251,13 @@ public class OrderController extends DatabaseController {
      */
     public ArrayList<Order> findCustomerOrders(Customer customer)
             throws SQLException, NoOrderForUserException, InvalidOrderException {
-        String customerId = customer.getCustomerId();
         String forename = customer.getForename();
         String surname = customer.getSurname();
-        ArrayList<Order> customerOrders = new ArrayList<>();
-        ResultSet result = null;
 
         try {
-            openConnection();
-            String sqlQuery = "SELECT * FROM Orders WHERE customerId = ?";
-            sqlStatement = connection.prepareStatement(sqlQuery);
-            sqlStatement.setString(1, customerId);
-            result = sqlStatement.executeQuery();
-
-            while (result.next()) {
-                // Set up the order object.
-                Order currOrder = new Order();
-                String orderNumber = result.getString("orderNumber");
-                currOrder.setOrderNumber(orderNumber);
-                currOrder.setDate(
-                        result.getDate("date")
-                );
-                currOrder.setTotalCost(
-                        result.getBigDecimal("totalCost")
-                );
-                currOrder.setStatus(
-                        OrderStatus.valueOf(result.getString("status"))
-                );
-                currOrder.setBicycleSerialNumber(
-                        result.getString("serialNumber")
-                );
-
-                // Get order items of the current order.
-                ArrayList<Item> currItems = iController.findOrderItems(orderNumber);
-                if (currItems.size() != 4) {
-                    throw new InvalidOrderException(orderNumber);
-                }
-                else {
-                    currOrder.setOrderItems(currItems);
-                    customerOrders.add(currOrder);
-                }
-            }
+            ArrayList<Order> customerOrders = readOrdersWithItems(
+                    "o.customerId = ?", customer.getCustomerId()
+            );
 
             if (customerOrders.size() > 0) {
                 return customerOrders;
@@ -259,122 +270,229 @@ public class OrderController extends DatabaseController {
             e.printStackTrace();
             throw e;
         }
-        finally {
-            if (result != null) {
-                result.close();
-            }
-
-            closeConnection();
-        }
     }
 
     /**
-     * Assign a pending order to a staff member.
+     * Assign a pending order to a staff member, unless another staff member has
+     * already taken it (the check and the update are a single atomic statement).
      *
      * @param orderNumber - order number to be assigned.
      * @param staffUsername - username of the staff who takes the order.
-     * @return true if done with success, false otherwise.
+     * @return true if done with success, false otherwise (e.g. the order is already assigned).
      * @throws SQLException
      */
     public boolean assignStaffOrder(String orderNumber, String staffUsername) throws SQLException {
-        try {
-            openConnection();
+        try (Connection connection = openConnection();
+             PreparedStatement sqlStatement = connection.prepareStatement(ASSIGN_QUERY)) {
             connection.setAutoCommit(false);
 
-            String sqlQuery = "UPDATE Orders SET staffUsername = ? WHERE orderNumber = ?";
-            sqlStatement = connection.prepareStatement(sqlQuery);
-            sqlStatement.setString(1, staffUsername);
-            sqlStatement.setString(2, orderNumber);
-            int result = sqlStatement.executeUpdate();
+            try {
+                sqlStatement.setString(1, staffUsername);
+                sqlStatement.setString(2, orderNumber);
+                int result = sqlStatement.executeUpdate();
 
-            if (result == 1) {
-                connection.commit();
-                return true;
+                if (result == 1) {
+                    connection.commit();
+                    return true;
+                }
+                else {
+                    connection.rollback();
+                    return false;
+                }
             }
-            else {
+            catch (SQLException e) {
                 connection.rollback();
-                return false;
+                throw e;
             }
         }
-        catch (SQLException e) {
-            connection.rollback();
-            throw e;
+    }
+
+    /**
+     * Claim up to a number of the oldest unassigned PENDING orders for a staff member,
+     * i.e. take them off the queue of pending orders.
+     *
+     * Every order is taken with a conditional update that only succeeds while the order
+     * is still unassigned, so concurrent claimers never get the same order: an order lost
+     * to another claimer is simply replaced by the next one in the queue.
+     *
+     * The claims and the read of the claimed orders are a single transaction, so if
+     * anything fails midway no order is left claimed without having been returned.
+     *
+     * @param staffUsername - username of the staff who takes the orders.
+     * @param count - maximum number of orders to be claimed.
+     * @return array list of the claimed orders, from the oldest (empty if none is pending).
+     * @throws SQLException
+     * @throws InvalidOrderException
+     * @throws IllegalArgumentException if the count is not positive.
+     */
+    public ArrayList<Order> claimPendingOrders(String staffUsername, int count)
+            throws SQLException, InvalidOrderException {
+        if (count < 1) {
+            throw new IllegalArgumentException("Number of orders to claim must be positive: " + count);
         }
-        finally {
-            closeConnection();
+
+        ArrayList<String> claimed = new ArrayList<>();
+
+        try (Connection connection = openConnection()) {
+            connection.setAutoCommit(false);
+
+            try {
+                ArrayList<Order> orders = new ArrayList<>();
+
+                try (PreparedStatement selectStatement = connection.prepareStatement(CLAIM_CANDIDATES_QUERY);
+                     PreparedStatement claimStatement = connection.prepareStatement(ASSIGN_QUERY)) {
+                    claimStatement.setString(1, staffUsername);
+
+                    while (claimed.size() < count) {
+                        ArrayList<String> candidates = new ArrayList<>();
+                        selectStatement.setInt(1, count - claimed.size());
+
+                        try (ResultSet result = selectStatement.executeQuery()) {
+                            while (result.next()) {
+                                candidates.add(result.getString("orderNumber"));
+                            }
+                        }
+                        if (candidates.isEmpty()) {
+                            break;
+                        }
+
+                        // Candidates taken by someone else in the meantime are skipped; the loop picks the next ones.
+                        for (String orderNumber : candidates) {
+                            claimStatement.setString(2, orderNumber);
+                            if (claimStatement.executeUpdate() == 1) {
+                                claimed.add(orderNumber);
+                            }
+                        }
+                    }
+                }
+
+                if (!claimed.isEmpty()) {
+                    String placeholders = String.join(", ", Collections.nCopies(claimed.size(), "?"));
+                    orders = readOrders(
+                            connection,
+                            ORDERS_WITH_ITEMS_QUERY + "WHERE o.orderNumber IN (" + placeholders + ") " +
+                            "ORDER BY o.date, o.orderNumber",
+                            claimed.toArray()
+                    );
+                }
+
+                connection.commit();
+                return orders;
+            }
+            catch (SQLException | InvalidOrderException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            }
         }
     }
 
     /**
-     * Cancel the order assignment to a staff member.
+     * Cancel the order assignment to a staff member. Only PENDING orders can be
+     * dis-assigned; the status is checked by the update itself.
      *
      * @param orderNumber - order number to be dis-assigned.
-     * @return true if done with success, false otherwise.
+     * @return true if done with success, false otherwise (e.g. the order is not PENDING).
      * @throws SQLException
      */
     public boolean cancelStaffOrder(String orderNumber) throws SQLException {
-        try {
-            openConnection();
+        try (Connection connection = openConnection();
+             PreparedStatement sqlStatement = connection.prepareStatement(CANCEL_QUERY)) {
             connection.setAutoCommit(false);
 
-            String sqlQuery = "UPDATE Orders SET staffUsername = NULL, status = 'PENDING' " +
-                              "WHERE orderNumber = ?";
-            sqlStatement = connection.prepareStatement(sqlQuery);
-            sqlStatement.setString(1, orderNumber);
-            int result = sqlStatement.executeUpdate();
+            try {
+                sqlStatement.setString(1, orderNumber);
+                int result = sqlStatement.executeUpdate();
 
-            if (result == 1) {
-                connection.commit();
-                return true;
+                if (result == 1) {
+                    connection.commit();
+                    return true;
+                }
+                else {
+                    connection.rollback();
+                    return false;
+                }
             }
-            else {
+            catch (SQLException e) {
                 connection.rollback();
-                return false;
+                throw e;
             }
         }
-        catch (SQLException e) {
-            connection.rollback();
-            throw e;
+    }
+
+    /**
+     * Move an order to a new status, e.g. after payment confirmation, or finishing assembling.
+     * Or otherwise, when payment has been denied and status will be pending again.
+     *
+     * The update is a compare-and-set on the status the order is known to have, so a
+     * transition based on an outdated copy of the order fails instead of overwriting
+     * a change made meanwhile by another staff member. Transitions not allowed by
+     * OrderStatus.canTransitionTo() fail without reaching the database.
+     *
+     * @param order - order instance to be updated, holding its current status (updated on success).
+     * @param target - new status of the order.
+     * @return true if successfully updated.
+     * @throws SQLException
+     * @throws InvalidStatusTransitionException if the order cannot go from its status to the new one.
+     * @throws StaleOrderException if the order no longer has the status it is known to have (or no longer exists).
+     */
+    public boolean transitionOrderStatus(Order order, OrderStatus target)
+            throws SQLException, InvalidStatusTransitionException, StaleOrderException {
+        OrderStatus current = order.getStatus();
+
+        if (current == null || !current.canTransitionTo(target)) {
+            throw new InvalidStatusTransitionException(order.getOrderNumber(), current, target);
         }
-        finally {
-            closeConnection();
+
+        try (Connection connection = openConnection();
+             PreparedStatement sqlStatement = connection.prepareStatement(TRANSITION_STATUS_QUERY)) {
+            // A single statement, so it is atomic on its own.
+            connection.setAutoCommit(true);
+            sqlStatement.setString(1, String.valueOf(target));
+            sqlStatement.setString(2, order.getOrderNumber());
+            sqlStatement.setString(3, String.valueOf(current));
+
+            if (sqlStatement.executeUpdate() != 1) {
+                throw new StaleOrderException(order.getOrderNumber(), current);
+            }
         }
+
+        order.setStatus(target);
+        return true;
     }
 
     /**
-     * Update order status, e.g. after payment confirmation, or finishing assembling.
-     * Or otherwise, when payment has been denied and status will be pending again.
+     * Update order status, without checking the status the order has meanwhile.
      *
      * @param order - order instance to be updated.
      * @return true if successfully updated, false otherwise.
      * @throws SQLException
+     * @deprecated overwrites concurrent changes, use transitionOrderStatus() instead.
      */
+    @Deprecated
     public boolean updateOrderStatus(Order order) throws SQLException {
-        try {
-            openConnection();
+        try (Connection connection = openConnection();
+             PreparedStatement sqlStatement = connection.prepareStatement(UPDATE_STATUS_QUERY)) {
             connection.setAutoCommit(false);
-            String sqlQuery = "UPDATE Orders SET status = ? WHERE orderNumber = ?";
-            sqlStatement = connection.prepareStatement(sqlQuery);
-            sqlStatement.setString(1, String.valueOf(order.getStatus()));
-            sqlStatement.setString(2, order.getOrderNumber());
-            int result = sqlStatement.executeUpdate();
 
-            if (result == 1) {
-                connection.commit();
-                return true;
+            try {
+                sqlStatement.setString(1, String.valueOf(order.getStatus()));
+                sqlStatement.setString(2, order.getOrderNumber());
+                int result = sqlStatement.executeUpdate();
+
+                if (result == 1) {
+                    connection.commit();
+                    return true;
+                }
+                else {
+                    connection.rollback();
+                    return false;
+                }
             }
-            else {
+            catch (SQLException e) {
                 connection.rollback();
-                return false;
+                throw e;
             }
         }
-        catch (SQLException e) {
-            connection.rollback();
-            throw e;
-        }
-        finally {
-            closeConnection();
-        }
     }
 
     /**
@@ -388,47 +506,13 @@ public class OrderController extends DatabaseController {
      */
     public ArrayList<Order> findStaffOrders(Staff staff)
             throws SQLException, NoOrderForUserException, InvalidOrderException {
-        String staffUsername = staff.getUsername();
         String forename = staff.getForename();
         String surname = staff.getSurname();
-        ArrayList<Order> staffOrders = new ArrayList<>();
-        ResultSet result = null;
 
         try {
-            openConnection();
-            String sqlQuery = "SELECT * FROM Orders WHERE staffUsername = ?";
-            sqlStatement = connection.prepareStatement(sqlQuery);
-            sqlStatement.setString(1, staffUsername);
-            result = sqlStatement.executeQuery();
-
-            while (result.next()) {
-                Order currOrder = new Order();
-                String orderNumber = result.getString("orderNumber");
-                currOrder.setOrderNumber(orderNumber);
-                currOrder.setDate(
-                        result.getDate("date")
-                );
-                currOrder.setTotalCost(
-                        result.getBigDecimal("totalCost")
-                );
-                currOrder.setStatus(OrderStatus.valueOf(result.getString("status")));
-                currOrder.setBicycleSerialNumber(
-                        result.getString("serialNumber")
-                );
-                currOrder.setCustomerId(
-                        result.getString("customerId")
-                );
-
-                // Get order items of the current order.
-                ArrayList<Item> currItems = iController.findOrderItems(orderNumber);
-                if (currItems.size() != 4) {
-                    throw new InvalidOrderException(orderNumber);
-                }
-                else {
-                    currOrder.setOrderItems(currItems);
-                    staffOrders.add(currOrder);
-                }
-            }
+            ArrayList<Order> staffOrders = readOrdersWithItems(
+                    "o.staffUsername = ?", staff.getUsername()
+            );
 
             if (staffOrders.size() > 0) {
                 return staffOrders;
@@ -441,13 +525,6 @@ public class OrderController extends DatabaseController {
             e.printStackTrace();
             throw e;
         }
-        finally {
-            if (result != null) {
-                result.close();
-            }
-
-            closeConnection();
-        }
     }
 
     /**
@@ -457,57 +534,207 @@ public class OrderController extends DatabaseController {
      * @throws SQLException
      */
     public ArrayList<Order> readAllPendingOrders() throws SQLException, InvalidOrderException {
-        ArrayList<Order> pendingOrders = new ArrayList<>();
-        ResultSet result = null;
-
         try {
-            openConnection();
-
-            String sqlQuery = "SELECT * FROM Orders " +
-                              "WHERE status = 'PENDING' AND staffUsername IS NULL";
-            sqlStatement = connection.prepareStatement(sqlQuery);
-            result = sqlStatement.executeQuery();
-
-            while (result.next()) {
-                Order currOrder = new Order();
-                String orderNumber = result.getString("orderNumber");
-                currOrder.setOrderNumber(orderNumber);
-                currOrder.setDate(
-                        result.getDate("date")
-                );
-                currOrder.setTotalCost(
-                        result.getBigDecimal("totalCost")
-                );
-                currOrder.setStatus(OrderStatus.PENDING);
-                currOrder.setBicycleSerialNumber(
-                        result.getString("serialNumber")
-                );
-                currOrder.setCustomerId(
-                        result.getString("customerId"));
-
-                // Get order items of the current order.
-                ArrayList<Item> currItems = iController.findOrderItems(orderNumber);
-                if (currItems.size() != 4) {
-                    throw new InvalidOrderException(orderNumber);
-                }
-                else {
-                    currOrder.setOrderItems(currItems);
-                    pendingOrders.add(currOrder);
-                }
-            }
-
-            return pendingOrders;
+            return readOrdersWithItems(PENDING_CONDITION);
         }
         catch (SQLException e) {
             e.printStackTrace();
             throw e;
         }
-        finally {
-            if (result != null) {
-                result.close();
+    }
+
+    /**
+     * Read one page of the PENDING (i.e. unassigned) orders, from the newest to the oldest.
+     *
+     * @param pageSize - maximum number of orders in the page.
+     * @param cursor - cursor returned with the previous page (null for the first page).
+     * @return page of unassigned orders, with the cursor of the following page.
+     * @throws SQLException
+     * @throws InvalidOrderException
+     * @throws IllegalArgumentException if the page size is not positive or the cursor is invalid.
+     */
+    public OrderPage readPendingOrdersPage(int pageSize, String cursor)
+            throws SQLException, InvalidOrderException {
+        return readOrdersPage(PENDING_CONDITION, pageSize, cursor);
+    }
+
+    /**
+     * Read one page of the orders assigned to a staff member, from the newest to the oldest.
+     * Unlike findStaffOrders(), having no orders at all results in an empty page.
+     *
+     * @param staff - staff whose orders will be searched.
+     * @param pageSize - maximum number of orders in the page.
+     * @param cursor - cursor returned with the previous page (null for the first page).
+     * @return page of orders assigned to the staff member, with the cursor of the following page.
+     * @throws SQLException
+     * @throws InvalidOrderException
+     * @throws IllegalArgumentException if the page size is not positive or the cursor is invalid.
+     */
+    public OrderPage findStaffOrdersPage(Staff staff, int pageSize, String cursor)
+            throws SQLException, InvalidOrderException {
+        return readOrdersPage("o.staffUsername = ?", pageSize, cursor, staff.getUsername());
+    }
+
+    /**
+     * Read one page of the orders matching a condition, seeking past the cursor on
+     * (date, orderNumber) rather than skipping rows with an offset, so that every page
+     * costs the same however deep into the listing it is.
+     *
+     * @param condition - SQL condition over the Orders table (aliased as "o").
+     * @param pageSize - maximum number of orders in the page.
+     * @param cursor - cursor returned with the previous page (null for the first page).
+     * @param params - values bound, in order, to the placeholders of the condition.
+     * @return page of the found orders, with the cursor of the following page.
+     * @throws SQLException
+     * @throws InvalidOrderException if any of the orders does not have exactly 4 items.
+     */
+    private OrderPage readOrdersPage(String condition, int pageSize, String cursor, Object... params)
+            throws SQLException, InvalidOrderException {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("Page size must be positive: " + pageSize);
+        }
+
+        ArrayList<Object> pageParams = new ArrayList<>(Arrays.asList(params));
+        String pageCondition = condition;
+
+        if (cursor != null) {
+            OrderCursor after = OrderCursor.decode(cursor);
+            pageCondition = "(" + condition + ") AND " +
+                            "(o.date < ? OR (o.date = ? AND o.orderNumber < ?))";
+            pageParams.add(after.getDate());
+            pageParams.add(after.getDate());
+            pageParams.add(after.getOrderNumber());
+        }
+        // One order more than the page size tells whether there is a following page.
+        pageParams.add(pageSize + 1);
+
+        // Limit the orders before joining their items, as each order spans several rows.
+        String sqlQuery = ORDERS_WITH_ITEMS_COLUMNS +
+                "FROM (SELECT * FROM Orders o WHERE " + pageCondition + " " + PAGE_ORDER + " LIMIT ?) o " +
+                "LEFT JOIN Items i ON i.orderNumber = o.orderNumber " + PAGE_ORDER;
+
+        ArrayList<Order> orders = readOrders(sqlQuery, pageParams.toArray());
+
+        String nextCursor = null;
+        if (orders.size() > pageSize) {
+            orders.remove(pageSize);
+            nextCursor = OrderCursor.after(orders.get(pageSize - 1)).encode();
+        }
+
+        return new OrderPage(orders, nextCursor);
+    }
+
+    /**
+     * Read the orders matching a condition together with all of their items.
+     * A single join query is used, instead of one additional items query per order.
+     *
+     * @param condition - SQL condition over the Orders table (aliased as "o").
+     * @param params - values bound, in order, to the placeholders of the condition.
+     * @return array list of the found orders, each with its order items set.
+     * @throws SQLException
+     * @throws InvalidOrderException if any of the orders does not have exactly 4 items.
+     */
+    private ArrayList<Order> readOrdersWithItems(String condition, String... params)
+            throws SQLException, InvalidOrderException {
+        return readOrders(ORDERS_WITH_ITEMS_QUERY + "WHERE " + condition, (Object[]) params);
+    }
+
+    /**
+     * Run a query selecting the ORDERS_WITH_ITEMS_COLUMNS and build the orders from its rows.
+     *
+     * @param sqlQuery - query returning each order once per item (the rows of an order are
+     *                   grouped by order number, so they need not be adjacent).
+     * @param params - values bound, in order, to the placeholders of the query.
+     * @return array list of the found orders (in the order of their first rows), each with its order items set.
+     * @throws SQLException
+     * @throws InvalidOrderException if any of the orders does not have exactly 4 items.
+     */
+    private ArrayList<Order> readOrders(String sqlQuery, Object... params)
+            throws SQLException, InvalidOrderException {
+        try (Connection connection = openConnection()) {
+            return readOrders(connection, sqlQuery, params);
+        }
+    }
+
+    /**
+     * Run a query selecting the ORDERS_WITH_ITEMS_COLUMNS on the caller's connection
+     * (e.g. within its transaction), and build the orders from its rows.
+     *
+     * @param connection - open connection on which the query is run.
+     * @param sqlQuery - query returning each order once per item.
+     * @param params - values bound, in order, to the placeholders of the query.
+     * @return array list of the found orders (in the order of their first rows), each with its order items set.
+     * @throws SQLException
+     * @throws InvalidOrderException if any of the orders does not have exactly 4 items.
+     */
+    private ArrayList<Order> readOrders(Connection connection, String sqlQuery, Object... params)
+            throws SQLException, InvalidOrderException {
+        LinkedHashMap<String, Order> orders = new LinkedHashMap<>();
+
+        try (PreparedStatement sqlStatement = connection.prepareStatement(sqlQuery)) {
+            for (int i = 0; i < params.length; i++) {
+                sqlStatement.setObject(i + 1, params[i]);
+            }
+
+            try (ResultSet result = sqlStatement.executeQuery()) {
+                // Each order comes back once per item, so group the rows by the order number.
+                while (result.next()) {
+                    String orderNumber = result.getString("orderNumber");
+                    Order currOrder = orders.get(orderNumber);
+
+                    if (currOrder == null) {
+                        currOrder = new Order();
+                        currOrder.setOrderNumber(orderNumber);
+                        currOrder.setDate(
+                                result.getDate("date")
+                        );
+                        currOrder.setTotalCost(
+                                result.getBigDecimal("totalCost")
+                        );
+                        currOrder.setStatus(
+                                OrderStatus.valueOf(result.getString("status"))
+                        );
+                        currOrder.setStaffUsername(
+                                result.getString("staffUsername")
+                        );
+                        currOrder.setBicycleSerialNumber(
+                                result.getString("bicycleSerialNumber")
+                        );
+                        currOrder.setCustomerId(
+                                result.getString("customerId")
+                        );
+                        currOrder.setOrderItems(new ArrayList<>());
+                        orders.put(orderNumber, currOrder);
+                    }
+
+                    // An order without any items still yields a single row of NULL item columns.
+                    String itemId = result.getString("itemSerialNumber");
+                    if (itemId != null) {
+                        ItemType itemType = ItemType.valueOf(result.getString("itemType"));
+                        int quantity = result.getInt("itemQuantity");
+                        BigDecimal cost = result.getBigDecimal("itemCost");
+
+                        currOrder.getOrderItems().add(
+                                new Item(
+                                        itemId,
+                                        result.getString("itemBrandName"),
+                                        itemType,
+                                        quantity,
+                                        cost,
+                                        orderNumber
+                                )
+                        );
+                    }
+                }
             }
+        }
 
-            closeConnection();
+        for (Order order : orders.values()) {
+            if (order.getOrderItems().size() != 4) {
+                throw new InvalidOrderException(order.getOrderNumber());
+            }
         }
+
+        return new ArrayList<>(orders.values());
     }
 }
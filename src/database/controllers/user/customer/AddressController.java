@@ -6,17 +6,37 @@
 
 package database.controllers.user.customer;
 
+import database.StatementRegistry;
 import database.controllers.DatabaseController;
 import exceptions.InputTooLongException;
 import exceptions.InvalidAddressException;
 import models.user.customer.Address;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 
 public class AddressController extends DatabaseController {
     private final static int MAX_INPUT_LENGTH = 20;
 
+    private final static String FIND_BY_ID_QUERY = StatementRegistry.register(
+            "AddressController.findAddressById",
+            "SELECT * FROM Addresses WHERE houseNumber = ? AND postcode = ?"
+    );
+
+    private final static String INSERT_QUERY = StatementRegistry.register(
+            "AddressController.createAddress",
+            "INSERT INTO Addresses " +
+            "(houseNumber, postcode, roadName, cityName) \n" +
+            "\t VALUES (?, ?, ?, ?)"
+    );
+
+    private final static String DELETE_QUERY = StatementRegistry.register(
+            "AddressController.deleteAddress",
+            "DELETE FROM Addresses WHERE houseNumber = ? AND postcode = ?"
+    );
+
     /**
      * Find address by ID (i.e. composite of postcode and house number).
      *
@@ -25,35 +45,25 @@ public class AddressController extends DatabaseController {
      * @throws SQLException
      */
     public Address findAddressById(Address address) throws SQLException {
-        ResultSet result = null;
         String postcode = address.getPostcode();
         int houseNumber = address.getHouseNumber();
 
-        try {
-            openConnection();
-
-            // Attempt to find the address by composite ID.
-            String sqlQuery = "SELECT * FROM Addresses WHERE houseNumber = ? AND postcode = ?";
-            sqlStatement = connection.prepareStatement(sqlQuery);
+        // Attempt to find the address by composite ID.
+        try (Connection connection = openConnection();
+             PreparedStatement sqlStatement = connection.prepareStatement(FIND_BY_ID_QUERY)) {
             sqlStatement.setInt(1, houseNumber);
             sqlStatement.setString(2, postcode);
-            result = sqlStatement.executeQuery();
-
-            if (result.next()) {
-                String foundRoad = result.getString("roadName");
-                String foundCity = result.getString("cityName");
-                address.setRoad(foundRoad);
-                address.setCity(foundCity);
-                return address;
-            }
-            return null;
-        }
-        finally {
-            if (result != null) {
-                result.close();
-            }
 
-            closeConnection();
+            try (ResultSet result = sqlStatement.executeQuery()) {
+                if (result.next()) {
+                    String foundRoad = result.getString("roadName");
+                    String foundCity = result.getString("cityName");
+                    address.setRoad(foundRoad);
+                    address.setCity(foundCity);
+                    return address;
+                }
+                return null;
+            }
         }
     }
 
@@ -68,7 +78,6 @@ public class AddressController extends DatabaseController {
      */
     public boolean matchAddress(Address address)
             throws SQLException, InvalidAddressException, InputTooLongException {
-        ResultSet result = null;
         String postcode = address.getPostcode();
         int houseNumber = address.getHouseNumber();
         String city = address.getCity();
@@ -83,34 +92,25 @@ public class AddressController extends DatabaseController {
             throw new InputTooLongException(MAX_INPUT_LENGTH);
         }
 
-        try {
-            openConnection();
-
-            // Attempt to find the address by composite ID.
-            String sqlQuery = "SELECT * FROM Addresses WHERE houseNumber = ? AND postcode = ?";
-            sqlStatement = connection.prepareStatement(sqlQuery);
+        // Attempt to find the address by composite ID.
+        try (Connection connection = openConnection();
+             PreparedStatement sqlStatement = connection.prepareStatement(FIND_BY_ID_QUERY)) {
             sqlStatement.setInt(1, houseNumber);
             sqlStatement.setString(2, postcode);
-            result = sqlStatement.executeQuery();
 
-            // If found, check if the rest of the details of the address are coherent.
-            if (result.next()) {
-                String foundRoad = result.getString("roadName");
-                String foundCity = result.getString("cityName");
+            try (ResultSet result = sqlStatement.executeQuery()) {
+                // If found, check if the rest of the details of the address are coherent.
+                if (result.next()) {
+                    String foundRoad = result.getString("roadName");
+                    String foundCity = result.getString("cityName");
 
-                if ((!road.equals(foundRoad)) || (!city.equals(foundCity))) {
-                    throw new InvalidAddressException();
+                    if ((!road.equals(foundRoad)) || (!city.equals(foundCity))) {
+                        throw new InvalidAddressException();
+                    }
+                    return true;
                 }
-                return true;
-            }
-            return false;
-        }
-        finally {
-            if (result != null) {
-                result.close();
+                return false;
             }
-
-            closeConnection();
         }
     }
 
@@ -129,37 +129,32 @@ public class AddressController extends DatabaseController {
             throw new InvalidAddressException();
         }
 
-        try {
-            openConnection();
+        // Create a new DB record of an address.
+        try (Connection connection = openConnection();
+             PreparedStatement sqlStatement = connection.prepareStatement(INSERT_QUERY)) {
             connection.setAutoCommit(false);
 
-            // Create a new DB record of an address.
-            String sqlQuery = "INSERT INTO Addresses " +
-                              "(houseNumber, postcode, roadName, cityName) \n" +
-                              "\t VALUES (?, ?, ?, ?)";
-            sqlStatement = connection.prepareStatement(sqlQuery);
-            sqlStatement.setInt(1, address.getHouseNumber());
-            sqlStatement.setString(2, address.getPostcode());
-            sqlStatement.setString(3, address.getRoad());
-            sqlStatement.setString(4, address.getCity());
-            int result = sqlStatement.executeUpdate();
+            try {
+                sqlStatement.setInt(1, address.getHouseNumber());
+                sqlStatement.setString(2, address.getPostcode());
+                sqlStatement.setString(3, address.getRoad());
+                sqlStatement.setString(4, address.getCity());
+                int result = sqlStatement.executeUpdate();
 
-            if (result == 1) {
-                connection.commit();
-                return true;
+                if (result == 1) {
+                    connection.commit();
+                    return true;
+                }
+                else {
+                    connection.rollback();
+                    return false;
+                }
             }
-            else {
+            catch (SQLException e) {
                 connection.rollback();
-                return false;
+                throw e;
             }
         }
-        catch (SQLException e) {
-            connection.rollback();
-            throw e;
-        }
-        finally {
-            closeConnection();
-        }
     }
 
     /**
@@ -178,10 +173,8 @@ public class AddressController extends DatabaseController {
             throw new InvalidAddressException();
         }
 
-        try {
-            openConnection();
-            String sqlQuery = "DELETE FROM Addresses WHERE houseNumber = ? AND postcode = ?";
-            sqlStatement = connection.prepareStatement(sqlQuery);
+        try (Connection connection = openConnection();
+             PreparedStatement sqlStatement = connection.prepareStatement(DELETE_QUERY)) {
             sqlStatement.setInt(1, address.getHouseNumber());
             sqlStatement.setString(2, address.getPostcode());
             int result = sqlStatement.executeUpdate();
@@ -191,12 +184,9 @@ public class AddressController extends DatabaseController {
 
             return true;
         }
-        catch(Exception e) {
+        catch (Exception e) {
             e.printStackTrace();
             throw e;
         }
-        finally {
-            closeConnection();
-        }
     }
 }
@@ -7,6 +7,7 @@
 
 package database.controllers.user.customer;
 
+import database.StatementRegistry;
 import database.controllers.DatabaseController;
 import exceptions.InputTooLongException;
 import exceptions.InvalidAddressException;
@@ -14,6 +15,8 @@ import exceptions.UserNotFoundException;
 import models.user.customer.Address;
 import models.user.customer.Customer;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
@@ -22,6 +25,41 @@ public class CustomerController extends DatabaseController {
     private final static AddressController aController = new AddressController();
     private final static int MAX_INPUT_LENGTH = 20;
 
+    private final static String EXISTS_QUERY = StatementRegistry.register(
+            "CustomerController.customerExists",
+            "SELECT EXISTS(SELECT * FROM Customers WHERE customerId = ?)"
+    );
+
+    private final static String INSERT_QUERY = StatementRegistry.register(
+            "CustomerController.createCustomer",
+            "INSERT INTO Customers " +
+            "(customerId, forename, surname, houseNumber, postcode) " +
+            "VALUES (?, ?, ?, ?, ?)"
+    );
+
+    private final static String AUTHENTICATE_QUERY = StatementRegistry.register(
+            "CustomerController.authenticateCustomer",
+            "SELECT customerId FROM Customers " +
+            "WHERE forename = ? AND surname = ? AND postcode = ? AND houseNumber = ?"
+    );
+
+    private final static String UPDATE_WITH_ADDRESS_QUERY = StatementRegistry.register(
+            "CustomerController.updateDetails(address)",
+            "UPDATE Customers " +
+            "SET forename = ?, surname = ?, houseNumber = ?, postcode = ? " +
+            "WHERE customerId = ?"
+    );
+
+    private final static String UPDATE_NAME_QUERY = StatementRegistry.register(
+            "CustomerController.updateDetails",
+            "UPDATE Customers SET forename = ?, surname = ? WHERE customerId = ?"
+    );
+
+    private final static String READ_ALL_QUERY = StatementRegistry.register(
+            "CustomerController.readAllCustomers",
+            "SELECT * FROM Customers"
+    );
+
     /**
      * Verify if customer with the unique ID exists in the database.
      *
@@ -30,27 +68,16 @@ public class CustomerController extends DatabaseController {
      * @throws SQLException
      */
     public boolean customerExists(String customerId) throws SQLException {
-        ResultSet result = null;
-
-        try {
-            openConnection();
-
-            // Attempt to find the customer by their ID.
-            String sqlQuery = "SELECT EXISTS(SELECT * FROM Customers WHERE customerId = ?)";
-            sqlStatement = connection.prepareStatement(sqlQuery);
+        // Attempt to find the customer by their ID.
+        try (Connection connection = openConnection();
+             PreparedStatement sqlStatement = connection.prepareStatement(EXISTS_QUERY)) {
             sqlStatement.setString(1, customerId);
 
-            result = sqlStatement.executeQuery();
-            result.next();
-            int exist = result.getInt(1);
-            return (exist == 1);
-        }
-        finally {
-            if (result != null) {
-                result.close();
+            try (ResultSet result = sqlStatement.executeQuery()) {
+                result.next();
+                int exist = result.getInt(1);
+                return (exist == 1);
             }
-
-            closeConnection();
         }
     }
 
@@ -62,38 +89,33 @@ public class CustomerController extends DatabaseController {
      * @throws SQLException
      */
     public boolean createCustomer(Customer customer) throws SQLException {
-        try {
-            openConnection();
+        // Create a new DB record of a customer.
+        try (Connection connection = openConnection();
+             PreparedStatement sqlStatement = connection.prepareStatement(INSERT_QUERY)) {
             connection.setAutoCommit(false);
 
-            // Create a new DB record of a customer.
-            String sqlQuery = "INSERT INTO Customers " +
-                    "(customerId, forename, surname, houseNumber, postcode) " +
-                    "VALUES (?, ?, ?, ?, ?)";
-            sqlStatement = connection.prepareStatement(sqlQuery);
-            sqlStatement.setString(1, customer.getCustomerId());
-            sqlStatement.setString(2, customer.getForename());
-            sqlStatement.setString(3, customer.getSurname());
-            sqlStatement.setInt(4, customer.getAddress().getHouseNumber());
-            sqlStatement.setString(5, customer.getAddress().getPostcode());
-            int result = sqlStatement.executeUpdate();
+            try {
+                sqlStatement.setString(1, customer.getCustomerId());
+                sqlStatement.setString(2, customer.getForename());
+                sqlStatement.setString(3, customer.getSurname());
+                sqlStatement.setInt(4, customer.getAddress().getHouseNumber());
+                sqlStatement.setString(5, customer.getAddress().getPostcode());
+                int result = sqlStatement.executeUpdate();
 
-            if (result == 1) {
-                connection.commit();
-                return true;
+                if (result == 1) {
+                    connection.commit();
+                    return true;
+                }
+                else {
+                    connection.rollback();
+                    return false;
+                }
             }
-            else {
+            catch (SQLException e) {
                 connection.rollback();
-                return false;
+                throw e;
             }
         }
-        catch (SQLException e) {
-            connection.rollback();
-            throw e;
-        }
-        finally {
-            closeConnection();
-        }
     }
 
     /**
@@ -108,34 +130,23 @@ public class CustomerController extends DatabaseController {
      */
     public Customer authenticateCustomer(Customer customer)
             throws UserNotFoundException, InputTooLongException, SQLException {
-        ResultSet result = null;
-
-        try {
-            openConnection();
-            // Try to authenticate the customer by their forename, surname, postcode, house number.
-            String sqlQuery = "SELECT customerId FROM Customers " +
-                              "WHERE forename = ? AND surname = ? AND postcode = ? AND houseNumber = ?";
-            sqlStatement = connection.prepareStatement(sqlQuery);
+        // Try to authenticate the customer by their forename, surname, postcode, house number.
+        try (Connection connection = openConnection();
+             PreparedStatement sqlStatement = connection.prepareStatement(AUTHENTICATE_QUERY)) {
             sqlStatement.setString(1, customer.getForename());
             sqlStatement.setString(2, customer.getSurname());
             sqlStatement.setString(3, customer.getAddress().getPostcode());
             sqlStatement.setInt(4, customer.getAddress().getHouseNumber());
-            result = sqlStatement.executeQuery();
 
-            if (result.next()) {
-                String customerId = result.getString("customerId");
-                customer.setCustomerId(customerId);
-                return customer;
-            }
+            try (ResultSet result = sqlStatement.executeQuery()) {
+                if (result.next()) {
+                    String customerId = result.getString("customerId");
+                    customer.setCustomerId(customerId);
+                    return customer;
+                }
 
-            return null;
-        }
-        finally {
-            if (result != null) {
-                result.close();
+                return null;
             }
-
-            closeConnection();
         }
     }
 
@@ -147,16 +158,11 @@ public class CustomerController extends DatabaseController {
      */
     public ArrayList<Customer> readAllCustomers() throws SQLException {
         ArrayList<Customer> customers = new ArrayList<>();
-        ResultSet result = null;
-
-        try {
-            openConnection();
-
-            // Prepare query according to the user's access.
-            String sqlQuery = "SELECT * FROM Customers";
-            sqlStatement = connection.prepareStatement(sqlQuery);
-            result = sqlStatement.executeQuery();
 
+        // Prepare query according to the user's access.
+        try (Connection connection = openConnection();
+             PreparedStatement sqlStatement = connection.prepareStatement(READ_ALL_QUERY);
+             ResultSet result = sqlStatement.executeQuery()) {
             while (result.next()) {
                 String customerId = result.getString("customerId");
                 String forename = result.getString("forename");
@@ -185,13 +191,6 @@ public class CustomerController extends DatabaseController {
             e.printStackTrace();
             throw e;
         }
-        finally {
-            if (result != null) {
-                result.close();
-            }
-
-            closeConnection();
-        }
     }
 
     /**
@@ -217,49 +216,45 @@ public class CustomerController extends DatabaseController {
             throw new InputTooLongException(MAX_INPUT_LENGTH);
         }
 
-        try {
-            int result;
-            openConnection();
+        // Attempt to update together with a new address, if necessary.
+        boolean newAddress = !aController.matchAddress(customer.getAddress());
+        if (newAddress) {
+            aController.createAddress(customer.getAddress());
+        }
+
+        // Otherwise, update just the forename and surname of the customer.
+        String sqlQuery = (newAddress ? UPDATE_WITH_ADDRESS_QUERY : UPDATE_NAME_QUERY);
+
+        try (Connection connection = openConnection();
+             PreparedStatement sqlStatement = connection.prepareStatement(sqlQuery)) {
             connection.setAutoCommit(false);
 
-            // Attempt to update together with a new address, if necessary.
-            if (!aController.matchAddress(customer.getAddress())) {
-                aController.createAddress(customer.getAddress());
-                String sqlQuery = "UPDATE Customers " +
-                                  "SET forename = ?, surname = ?, houseNumber = ?, postcode = ? " +
-                                  "WHERE customerId = ?";
-                sqlStatement = connection.prepareStatement(sqlQuery);
+            try {
                 sqlStatement.setString(1, customer.getForename());
                 sqlStatement.setString(2, customer.getSurname());
-                sqlStatement.setInt(3, customer.getAddress().getHouseNumber());
-                sqlStatement.setString(4, customer.getAddress().getPostcode());
-                sqlStatement.setString(5, customer.getCustomerId());
-            }
-            // Otherwise, update just the forename and surname of the customer.
-            else {
-                String sqlQuery = "UPDATE Customers SET forename = ?, surname = ? WHERE customerId = ?";
-                sqlStatement = connection.prepareStatement(sqlQuery);
-                sqlStatement.setString(1, customer.getForename());
-                sqlStatement.setString(2, customer.getSurname());
-                sqlStatement.setString(3, customer.getCustomerId());
-            }
+                if (newAddress) {
+                    sqlStatement.setInt(3, customer.getAddress().getHouseNumber());
+                    sqlStatement.setString(4, customer.getAddress().getPostcode());
+                    sqlStatement.setString(5, customer.getCustomerId());
+                }
+                else {
+                    sqlStatement.setString(3, customer.getCustomerId());
+                }
 
-            result = sqlStatement.executeUpdate();
-            if (result == 1) {
-                connection.commit();
-                return true;
+                int result = sqlStatement.executeUpdate();
+                if (result == 1) {
+                    connection.commit();
+                    return true;
+                }
+                else {
+                    connection.rollback();
+                    return false;
+                }
             }
-            else {
+            catch (SQLException e) {
                 connection.rollback();
-                return false;
+                throw e;
             }
         }
-        catch (SQLException e) {
-            connection.rollback();
-            throw e;
-        }
-        finally {
-            closeConnection();
-        }
     }
 }
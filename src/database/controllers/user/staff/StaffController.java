@@ -2,99 +2,147 @@
  * StaffController.java
  *
  * Staff controller used for authentication of staff users.
+ *
+ * Passwords are verified in Java against the stored hash (see PasswordHasher),
+ * as salted hashes cannot be looked up with the password in the query. A log in
+ * takes a single query, reading the staff record together with the stored hash.
  */
 
 package database.controllers.user.staff;
 
+import database.StatementRegistry;
 import database.controllers.DatabaseController;
+import exceptions.IncorrectPasswordException;
+import exceptions.InvalidCredentialsException;
 import exceptions.UserNotFoundException;
 import models.user.staff.Staff;
+import services.LegacyPasswordHasher;
+import services.PasswordHasher;
+import services.Pbkdf2PasswordHasher;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 
 public class StaffController extends DatabaseController {
-    /**
-     * Verify if staff member with the provided username exists in records.
-     *
-     * @param username - attempted staff username.
-     * @return true/false (i.e. exists/not).
-     * @throws SQLException
-     */
-    private boolean staffExists(String username) throws SQLException {
-        ResultSet result = null;
+    private static final PasswordHasher legacyHasher = new LegacyPasswordHasher();
+    private final PasswordHasher passwordHasher;
 
-        try {
-            openConnection();
+    private final static String LOG_IN_QUERY = StatementRegistry.register(
+            "StaffController.attemptLogIn",
+            "SELECT forename, surname, password FROM Staff WHERE staffUsername = ?"
+    );
 
-            // Attempt to find the staff by the username.
-            String sqlQuery = "SELECT EXISTS(\n" +
-                    "\tSELECT * FROM Staff WHERE \n" +
-                    "\t\tstaffUsername = ?\n\t)";
-            sqlStatement = connection.prepareStatement(sqlQuery);
-            sqlStatement.setString(1, username);
+    private final static String REHASH_QUERY = StatementRegistry.register(
+            "StaffController.rehashPassword",
+            "UPDATE Staff SET password = ? WHERE staffUsername = ? AND password = ?"
+    );
 
-            result = sqlStatement.executeQuery();
-            result.next();
-            int exist = result.getInt(1);
-            return (exist == 1);
-        }
-        finally {
-            if (result != null) {
-                result.close();
-            }
+    /**
+     * Default constructor, hashing the passwords with the shared PBKDF2 hasher.
+     */
+    public StaffController() {
+        this(Pbkdf2PasswordHasher.getInstance());
+    }
 
-            closeConnection();
-        }
+    /**
+     * Constructor with parameters.
+     *
+     * @param passwordHasher - hasher of the passwords (old hashes are replaced with its hashes on log in).
+     */
+    public StaffController(PasswordHasher passwordHasher) {
+        this.passwordHasher = passwordHasher;
     }
 
     /**
      * Handle login attempt for a staff user account.
      *
-     * @param staff
-     * @return
-     * @throws UserNotFoundException
+     * Passwords stored with an outdated hash (e.g. the original single SHA-256 round,
+     * or fewer iterations than currently configured) are hashed again with the
+     * current hasher once the staff member logs in successfully.
+     *
+     * @param staff - staff member with the (encrypted) username set.
+     * @param password - raw password attempted.
+     * @return the staff member, with the forename and surname set.
+     * @throws UserNotFoundException if no staff member has the username.
+     * @throws IncorrectPasswordException if the password is wrong.
+     * @throws InvalidCredentialsException if the password is empty.
      * @throws SQLException
      */
-    public Staff attemptLogIn(Staff staff) throws UserNotFoundException, SQLException {
-        ResultSet result = null;
+    public Staff attemptLogIn(Staff staff, char[] password)
+            throws UserNotFoundException, IncorrectPasswordException, InvalidCredentialsException, SQLException {
+        if (password.length < 1) {
+            throw new InvalidCredentialsException("The password field cannot be empty!");
+        }
+
         String username = staff.getUsername();
-        String password = staff.getPassword();
+        String forename;
+        String surname;
+        String storedHash;
 
-        if (!staffExists(username)) {
-            throw new UserNotFoundException();
+        try (Connection connection = openConnection();
+             PreparedStatement sqlStatement = connection.prepareStatement(LOG_IN_QUERY)) {
+            sqlStatement.setString(1, username);
+
+            try (ResultSet result = sqlStatement.executeQuery()) {
+                if (!result.next()) {
+                    throw new UserNotFoundException();
+                }
+                forename = result.getString("forename");
+                surname = result.getString("surname");
+                storedHash = result.getString("password");
+            }
         }
 
-        try {
-            openConnection();
+        // Try to authenticate the staff user by their password, with the hasher of the stored hash.
+        PasswordHasher storedHasher = hasherOf(storedHash);
+        if (storedHasher == null || !storedHasher.verify(password, storedHash)) {
+            throw new IncorrectPasswordException();
+        }
 
-            // Try to authenticate the staff user by their password and username.
-            String sqlQuery = "SELECT forename, surname FROM Staff " +
-                              "WHERE staffUsername = ? AND password = ?";
-            sqlStatement = connection.prepareStatement(sqlQuery);
-            sqlStatement.setString(1, username);
-            sqlStatement.setString(2, password);
+        if (storedHasher != this.passwordHasher || this.passwordHasher.needsRehash(storedHash)) {
+            rehashPassword(username, storedHash, this.passwordHasher.hash(password));
+        }
 
-            result = sqlStatement.executeQuery();
-            result.next();
-            String forename = result.getString("forename");
-            String surname = result.getString("surname");
+        staff.setForename(forename);
+        staff.setSurname(surname);
+        return staff;
+    }
 
-            if (forename.equals("") || surname.equals("")) {
-                throw new SQLException();
-            }
-            else {
-                staff.setForename(forename);
-                staff.setSurname(surname);
-                return staff;
-            }
+    /**
+     * Find the hasher able to verify a stored hash.
+     *
+     * @param storedHash - stored password hash.
+     * @return current or legacy hasher, or null if none recognises the hash.
+     */
+    private PasswordHasher hasherOf(String storedHash) {
+        if (this.passwordHasher.recognizes(storedHash)) {
+            return this.passwordHasher;
         }
-        finally {
-            if (result != null) {
-                result.close();
-            }
+        if (legacyHasher.recognizes(storedHash)) {
+            return legacyHasher;
+        }
+        return null;
+    }
 
-            closeConnection();
+    /**
+     * Replace the stored password hash, unless it has been changed meanwhile
+     * (e.g. by a concurrent log in of the same staff member).
+     *
+     * @param username - (encrypted) username of the staff member.
+     * @param oldHash - hash verified on log in.
+     * @param newHash - hash replacing it.
+     * @throws SQLException
+     */
+    private void rehashPassword(String username, String oldHash, String newHash) throws SQLException {
+        try (Connection connection = openConnection();
+             PreparedStatement sqlStatement = connection.prepareStatement(REHASH_QUERY)) {
+            connection.setAutoCommit(true);
+            sqlStatement.setString(1, newHash);
+            sqlStatement.setString(2, username);
+            sqlStatement.setString(3, oldHash);
+            sqlStatement.executeUpdate();
         }
     }
 }
@@ -0,0 +1,30 @@
+-- fixtures.sql
+--
+-- Sample records loaded into a fresh embedded database, so that the app can be
+-- tried out offline. The staff member logs in as "staff" with password "password"
+-- (both stored encrypted, see EncryptionHandler).
+
+INSERT INTO Staff (staffUsername, forename, surname, password) VALUES
+  ('f59417d3d3d664c796f3b2b2763734683ba22b5479cf34eea4f1ccb0b2a448f0', 'Sample', 'Staff',
+   'b63c28db42f2fbcf785e99d28c32c98734b0387e80f9d1818959123542af1412');
+
+INSERT INTO Addresses (houseNumber, postcode, roadName, cityName) VALUES
+  (1, 'S1 4DP', 'Regent Court', 'Sheffield');
+
+INSERT INTO Customers (customerId, forename, surname, houseNumber, postcode) VALUES
+  ('10000000001', 'Sample', 'Customer', 1, 'S1 4DP');
+
+INSERT INTO FrameSets (serialNumber, brandName, frameSetName, forkSetName, gearSetName, hasShocks, size, cost, stock) VALUES
+  ('10000001', 'Ribble', 'Endurance', 'Carbon', 'Shimano 105', 0, 54.00, 650.00, 10),
+  ('10000002', 'Ribble', 'Trail', 'RockShox', 'SRAM NX', 1, 50.00, 720.00, 5),
+  ('10000003', 'Boardman', 'Hybrid', 'Alloy', 'Shimano Altus', 0, 56.00, 410.00, 8);
+
+INSERT INTO Handlebars (serialNumber, brandName, handlebarName, type, cost, stock) VALUES
+  ('1001', 'Deda', 'Zero100', 'DROPPED', 45.00, 20),
+  ('1002', 'Renthal', 'Fatbar', 'HIGH', 60.00, 12),
+  ('1003', 'Ritchey', 'Comp Flat', 'STRAIGHT', 30.00, 15);
+
+INSERT INTO PairsOfWheels (serialNumber, brandName, pairOfWheelsName, diameter, tyreType, brakeType, cost, stock) VALUES
+  ('10001', 'Mavic', 'Aksium', 28.00, 'ROAD', 'RIM', 250.00, 10),
+  ('10002', 'DT Swiss', 'M1900', 29.00, 'MOUNTAIN', 'DISK', 390.00, 6),
+  ('10003', 'Shimano', 'RS171', 28.00, 'HYBRID', 'DISK', 180.00, 9);
@@ -0,0 +1,251 @@
+/**
+ * ControllerMetrics.java
+ *
+ * Registry of the metrics of every controller method using the database, filled
+ * by the InstrumentedDataSource wrapped around the connection pool.
+ *
+ * The metrics are exposed through JMX (e.g. in JConsole, under "buildabike"), and
+ * summarised in a log line every db.metrics.logPeriodMs milliseconds, covering the
+ * calls made since the previous line. Statements slower than db.metrics.slowQueryMs
+ * are logged as they complete, with their bound parameters redacted.
+ *
+ * The hits and misses of the prepared statement cache (see StatementRegistry) are
+ * exposed through JMX next to them.
+ */
+
+package database.metrics;
+
+import database.DatabaseConfig;
+import database.StatementRegistry;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+public class ControllerMetrics implements ControllerMetricsMXBean {
+    public static final String ENABLED = "db.metrics.enabled";
+    public static final String LOG_PERIOD_MS = "db.metrics.logPeriodMs";
+    public static final String SLOW_QUERY_MS = "db.metrics.slowQueryMs";
+    private static final long DEFAULT_LOG_PERIOD_MS = 60000;
+    private static final long DEFAULT_SLOW_QUERY_MS = 500;
+    private static final String JMX_DOMAIN = "buildabike";
+    // Methods listed in each periodic log line, slowest in total first.
+    private static final int LOGGED_METHODS = 10;
+
+    private static final Logger LOGGER = Logger.getLogger(ControllerMetrics.class.getName());
+    private static volatile ControllerMetrics instance;
+
+    private final Map<String, MethodMetrics> methods = new ConcurrentHashMap<>();
+    private final Map<String, MethodMetrics.Snapshot> lastLogged = new HashMap<>();
+    private volatile long slowQueryNanos;
+    private volatile MBeanServer mBeanServer;
+
+    /**
+     * Constructor with parameters.
+     *
+     * @param slowQueryMs - statements slower than this are logged (0 logs them all, negative none).
+     */
+    public ControllerMetrics(long slowQueryMs) {
+        setSlowQueryThresholdMillis(slowQueryMs);
+    }
+
+    /**
+     * Check whether the controllers should be instrumented at all.
+     *
+     * @param config - database settings.
+     * @return true unless disabled with db.metrics.enabled=false.
+     */
+    public static boolean isEnabled(DatabaseConfig config) {
+        return Boolean.parseBoolean(config.get(ENABLED, "true").trim());
+    }
+
+    /**
+     * Accessor for the metrics shared by the whole application, registered with the
+     * platform MBean server and logged periodically on first use.
+     *
+     * @return shared metrics, configured from the database settings.
+     */
+    public static ControllerMetrics getInstance() {
+        if (instance == null) {
+            synchronized (ControllerMetrics.class) {
+                if (instance == null) {
+                    DatabaseConfig config = DatabaseConfig.load();
+                    ControllerMetrics metrics = new ControllerMetrics(
+                            config.getLong(SLOW_QUERY_MS, DEFAULT_SLOW_QUERY_MS)
+                    );
+                    metrics.registerMBeans(ManagementFactory.getPlatformMBeanServer());
+                    metrics.startLogging(config.getLong(LOG_PERIOD_MS, DEFAULT_LOG_PERIOD_MS));
+                    instance = metrics;
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Get the metrics of a method, creating them on its first call.
+     *
+     * @param method - name of the method, as Class.method.
+     * @return metrics of the method.
+     */
+    public MethodMetrics forMethod(String method) {
+        MethodMetrics metrics = this.methods.get(method);
+        if (metrics != null) {
+            return metrics;
+        }
+
+        MethodMetrics created = new MethodMetrics(method);
+        metrics = this.methods.putIfAbsent(method, created);
+        if (metrics != null) {
+            return metrics;
+        }
+
+        MBeanServer server = this.mBeanServer;
+        if (server != null) {
+            register(server, created, "type=ControllerMethod,name=" + ObjectName.quote(method));
+        }
+        return created;
+    }
+
+    /** Accessor for the slow query threshold, in nanoseconds (negative when disabled). */
+    long getSlowQueryThresholdNanos() {
+        return this.slowQueryNanos;
+    }
+
+    @Override
+    public long getSlowQueryThresholdMillis() {
+        return (this.slowQueryNanos < 0 ? -1 : TimeUnit.NANOSECONDS.toMillis(this.slowQueryNanos));
+    }
+
+    @Override
+    public void setSlowQueryThresholdMillis(long thresholdMillis) {
+        this.slowQueryNanos = (thresholdMillis < 0 ? -1 : TimeUnit.MILLISECONDS.toNanos(thresholdMillis));
+    }
+
+    @Override
+    public String[] getMethodNames() {
+        return this.methods.keySet().stream().sorted().toArray(String[]::new);
+    }
+
+    @Override
+    public String getSummary() {
+        StringBuilder summary = new StringBuilder();
+        for (MethodMetrics.Snapshot snapshot : slowestFirst(takeSnapshots())) {
+            summary.append(snapshot).append('\n');
+        }
+        return summary.toString();
+    }
+
+    @Override
+    public void reset() {
+        for (MethodMetrics metrics : this.methods.values()) {
+            metrics.reset();
+        }
+        synchronized (this.lastLogged) {
+            this.lastLogged.clear();
+        }
+    }
+
+    /**
+     * Log a single line summarising the calls made since the previous one, if any.
+     */
+    public void logSummary() {
+        List<MethodMetrics.Snapshot> interval = new ArrayList<>();
+
+        synchronized (this.lastLogged) {
+            for (MethodMetrics.Snapshot snapshot : takeSnapshots()) {
+                MethodMetrics.Snapshot sinceLast = snapshot.since(this.lastLogged.get(snapshot.getMethod()));
+                this.lastLogged.put(snapshot.getMethod(), snapshot);
+                if (sinceLast.getCalls() > 0) {
+                    interval.add(sinceLast);
+                }
+            }
+        }
+
+        if (interval.isEmpty()) {
+            return;
+        }
+
+        StringBuilder line = new StringBuilder("Controller calls since the last report: ");
+        List<MethodMetrics.Snapshot> slowest = slowestFirst(interval);
+        for (int i = 0; i < slowest.size() && i < LOGGED_METHODS; i++) {
+            line.append(i == 0 ? "" : "; ").append(slowest.get(i));
+        }
+        if (slowest.size() > LOGGED_METHODS) {
+            line.append("; and ").append(slowest.size() - LOGGED_METHODS).append(" more methods");
+        }
+        LOGGER.info(line.toString());
+    }
+
+    /**
+     * Register these metrics, and the ones of every method, as MXBeans.
+     *
+     * @param server - MBean server, e.g. the platform one.
+     */
+    void registerMBeans(MBeanServer server) {
+        this.mBeanServer = server;
+        register(server, this, "type=ControllerMetrics");
+        register(server, StatementRegistry.getInstance(), "type=StatementCache");
+        for (MethodMetrics metrics : this.methods.values()) {
+            register(server, metrics, "type=ControllerMethod,name=" + ObjectName.quote(metrics.getMethod()));
+        }
+    }
+
+    private void startLogging(long periodMs) {
+        if (periodMs <= 0) {
+            return;
+        }
+
+        ScheduledExecutorService logger = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "controller-metrics-logger");
+            thread.setDaemon(true);
+            return thread;
+        });
+        logger.scheduleAtFixedRate(() -> {
+            try {
+                logSummary();
+            }
+            catch (RuntimeException e) {
+                // Never let a failed report stop the following ones.
+                LOGGER.log(Level.WARNING, "Could not report the controller metrics", e);
+            }
+        }, periodMs, periodMs, TimeUnit.MILLISECONDS);
+    }
+
+    private List<MethodMetrics.Snapshot> takeSnapshots() {
+        List<MethodMetrics.Snapshot> snapshots = new ArrayList<>();
+        for (MethodMetrics metrics : this.methods.values()) {
+            snapshots.add(metrics.snapshot());
+        }
+        return snapshots;
+    }
+
+    private static List<MethodMetrics.Snapshot> slowestFirst(List<MethodMetrics.Snapshot> snapshots) {
+        snapshots.sort(Comparator.comparingLong(MethodMetrics.Snapshot::getTotalNanos).reversed());
+        return snapshots;
+    }
+
+    private static void register(MBeanServer server, Object mBean, String properties) {
+        try {
+            ObjectName name = new ObjectName(JMX_DOMAIN + ":" + properties);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(mBean, name);
+            }
+        }
+        catch (Exception e) {
+            // Metrics are still collected and logged without JMX.
+            LOGGER.log(Level.WARNING, "Could not register the metrics MBean " + properties, e);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+/**
+ * ControllerMetricsMXBean.java
+ *
+ * JMX view of the controller metrics as a whole (see ControllerMetrics). The
+ * metrics of each method are exposed as a MethodMetricsMXBean of their own.
+ */
+
+package database.metrics;
+
+public interface ControllerMetricsMXBean {
+    /** Names of all the methods with metrics, as Class.method. */
+    String[] getMethodNames();
+
+    /** Statements slower than this are logged (0 logs them all, negative none). */
+    long getSlowQueryThresholdMillis();
+
+    /** Change the slow query threshold at run time, e.g. while investigating an issue. */
+    void setSlowQueryThresholdMillis(long thresholdMillis);
+
+    /** One line per method, slowest in total first. */
+    String getSummary();
+
+    /** Set the metrics of all the methods back to zero. */
+    void reset();
+}
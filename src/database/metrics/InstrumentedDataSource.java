@@ -0,0 +1,371 @@
+/**
+ * InstrumentedDataSource.java
+ *
+ * DataSource wrapper measuring, for each controller method, the calls it makes:
+ * latency, connections borrowed, statements executed and rows read (see
+ * ControllerMetrics). It also logs the statements slower than the configured
+ * threshold, with their SQL but without the values bound to their parameters
+ * (only their types), so that no customer or staff data reaches the logs.
+ *
+ * A call starts when a connection is borrowed and ends when it is closed; the
+ * connections borrowed meanwhile by the same thread count towards the same call.
+ * Each call is attributed to the method which borrowed the connection, found on the
+ * stack: the outermost method of the first class outside the database layer, so
+ * that private helpers count towards the public controller method calling them.
+ */
+
+package database.metrics;
+
+import database.controllers.DatabaseController;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+public class InstrumentedDataSource implements DataSource {
+    private static final Logger LOGGER = Logger.getLogger(InstrumentedDataSource.class.getName());
+
+    private final DataSource delegate;
+    private final ControllerMetrics metrics;
+    private final ThreadLocal<Call> currentCall = new ThreadLocal<>();
+
+    /**
+     * Constructor with parameters.
+     *
+     * @param delegate - data source actually providing the connections, e.g. the pool.
+     * @param metrics - metrics to be filled.
+     */
+    public InstrumentedDataSource(DataSource delegate, ControllerMetrics metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Call call = this.currentCall.get();
+        if (call == null) {
+            call = new Call(this.metrics.forMethod(findCaller()));
+            this.currentCall.set(call);
+        }
+
+        Connection target;
+        try {
+            target = this.delegate.getConnection();
+        }
+        catch (SQLException e) {
+            call.failed = true;
+            endIfIdle(call);
+            throw e;
+        }
+        call.connections++;
+        call.openConnections++;
+
+        Call owner = call;
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class },
+                new ConnectionHandler(target, owner)
+        );
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return this.delegate.getConnection(username, password);
+    }
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException {
+        return this.delegate.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException {
+        this.delegate.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException {
+        this.delegate.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException {
+        return this.delegate.getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() {
+        return LOGGER;
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        return this.delegate.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || this.delegate.isWrapperFor(iface);
+    }
+
+    /**
+     * Find the method borrowing a connection on the current thread.
+     *
+     * @return name of the method, as Class.method.
+     */
+    private static String findCaller() {
+        StackTraceElement[] stack = new Throwable().getStackTrace();
+
+        int first = 0;
+        // Data sources wrapping this one (e.g. in tests) are skipped as well.
+        while (first < stack.length && (isDatabaseLayer(stack[first].getClassName())
+                                        || stack[first].getMethodName().equals("getConnection"))) {
+            first++;
+        }
+        if (first == stack.length) {
+            return "unknown";
+        }
+
+        // Walk out to the outermost method of the same class, e.g. the public one.
+        String className = stack[first].getClassName();
+        int outermost = first;
+        for (int i = first + 1; i < stack.length && stack[i].getClassName().equals(className); i++) {
+            outermost = i;
+        }
+
+        String method = stack[outermost].getMethodName();
+        // A lambda (e.g. lambda$claimPendingOrders$0) counts towards the method declaring it.
+        if (method.startsWith("lambda$")) {
+            int end = method.indexOf('$', 7);
+            method = method.substring(7, end > 7 ? end : method.length());
+        }
+        return className.substring(className.lastIndexOf('.') + 1) + "." + method;
+    }
+
+    private static boolean isDatabaseLayer(String className) {
+        return className.startsWith("database.metrics.")
+               || className.equals(DatabaseController.class.getName())
+               || className.startsWith("java.")
+               || className.startsWith("javax.")
+               || className.startsWith("sun.")
+               || className.startsWith("com.sun.proxy.")
+               || className.startsWith("jdk.");
+    }
+
+    private void endIfIdle(Call call) {
+        if (call.openConnections > 0) {
+            return;
+        }
+        if (this.currentCall.get() == call) {
+            this.currentCall.remove();
+        }
+        call.metrics.recordCall(
+                System.nanoTime() - call.startedAt, call.connections, call.statements, call.rows, call.failed
+        );
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        }
+        catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Redact a bound parameter for the slow query log.
+     *
+     * @param value - value bound to a parameter.
+     * @return its type only (and length, for text), never the value itself.
+     */
+    static String redact(Object value) {
+        if (value == null) {
+            return "null";
+        }
+        if (value instanceof CharSequence) {
+            return "String(" + ((CharSequence) value).length() + ")";
+        }
+        return value.getClass().getSimpleName();
+    }
+
+    /**
+     * Redact the literal values embedded in SQL for the slow query log.
+     *
+     * @param sql - SQL of a plain (not prepared) statement.
+     * @return the SQL with every text and number literal replaced by a placeholder.
+     */
+    static String redactLiterals(String sql) {
+        return sql.replaceAll("'(?:[^']|'')*'", "?").replaceAll("\\b\\d+(?:\\.\\d+)?\\b", "?");
+    }
+
+    /**
+     * Database work of one controller method call. Confined to the borrowing thread,
+     * as are the connections themselves.
+     */
+    private static class Call {
+        private final MethodMetrics metrics;
+        private final long startedAt = System.nanoTime();
+        private int connections;
+        private int openConnections;
+        private int statements;
+        private long rows;
+        private boolean failed;
+
+        Call(MethodMetrics metrics) {
+            this.metrics = metrics;
+        }
+    }
+
+    /**
+     * Connection proxy instrumenting the statements it creates, and ending the call once closed.
+     */
+    private class ConnectionHandler implements InvocationHandler {
+        private final Connection target;
+        private final Call call;
+        private boolean closed;
+
+        ConnectionHandler(Connection target, Call call) {
+            this.target = target;
+            this.call = call;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+
+            if (name.equals("close")) {
+                try {
+                    return InstrumentedDataSource.invoke(this.target, method, args);
+                }
+                finally {
+                    if (!this.closed) {
+                        this.closed = true;
+                        this.call.openConnections--;
+                        endIfIdle(this.call);
+                    }
+                }
+            }
+            if (name.equals("unwrap") && ((Class<?>) args[0]).isInstance(proxy)) {
+                return proxy;
+            }
+
+            Object result = InstrumentedDataSource.invoke(this.target, method, args);
+            if (result instanceof Statement) {
+                Class<?> type = (result instanceof CallableStatement ? CallableStatement.class
+                                 : result instanceof PreparedStatement ? PreparedStatement.class
+                                 : Statement.class);
+                String sql = (args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : null);
+
+                return Proxy.newProxyInstance(
+                        type.getClassLoader(),
+                        new Class<?>[] { type },
+                        new StatementHandler((Statement) result, this.call, sql)
+                );
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Statement proxy timing every execution, and counting the rows read from its results.
+     */
+    private class StatementHandler implements InvocationHandler {
+        private final Statement target;
+        private final Call call;
+        private final String preparedSql;
+        private final Map<Integer, String> parameters = new TreeMap<>();
+
+        StatementHandler(Statement target, Call call, String preparedSql) {
+            this.target = target;
+            this.call = call;
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+
+            if (name.startsWith("execute")) {
+                return execute(method, args);
+            }
+            // E.g. setString(1, ...), setNull(2, Types.DATE): only kept for the slow query log.
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer
+                    && metrics.getSlowQueryThresholdNanos() >= 0) {
+                this.parameters.put((Integer) args[0], name.equals("setNull") ? "null" : redact(args[1]));
+            }
+            else if (name.equals("clearParameters")) {
+                this.parameters.clear();
+            }
+
+            Object result = InstrumentedDataSource.invoke(this.target, method, args);
+            if (result instanceof ResultSet && name.equals("getResultSet")) {
+                return countRows((ResultSet) result);
+            }
+            return result;
+        }
+
+        private Object execute(Method method, Object[] args) throws Throwable {
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = InstrumentedDataSource.invoke(this.target, method, args);
+            }
+            catch (SQLException e) {
+                this.call.failed = true;
+                throw e;
+            }
+            finally {
+                this.call.statements++;
+                long elapsed = System.nanoTime() - start;
+                long threshold = metrics.getSlowQueryThresholdNanos();
+                if (threshold >= 0 && elapsed >= threshold) {
+                    logSlowQuery(elapsed, args);
+                }
+            }
+
+            return (result instanceof ResultSet ? countRows((ResultSet) result) : result);
+        }
+
+        private void logSlowQuery(long elapsedNanos, Object[] args) {
+            // The SQL of a plain statement may embed values, which are redacted as well.
+            String sql = (args != null && args.length > 0 && args[0] instanceof String
+                          ? redactLiterals((String) args[0]) : this.preparedSql);
+            LOGGER.warning(String.format(
+                    "Slow query (%d ms) in %s: %s %s",
+                    TimeUnit.NANOSECONDS.toMillis(elapsedNanos), this.call.metrics.getMethod(),
+                    sql, this.parameters.values()
+            ));
+        }
+
+        private ResultSet countRows(ResultSet result) {
+            return (ResultSet) Proxy.newProxyInstance(
+                    ResultSet.class.getClassLoader(),
+                    new Class<?>[] { ResultSet.class },
+                    (proxy, method, args) -> {
+                        Object value = InstrumentedDataSource.invoke(result, method, args);
+                        if (method.getName().equals("next") && Boolean.TRUE.equals(value)) {
+                            this.call.rows++;
+                        }
+                        return value;
+                    }
+            );
+        }
+    }
+}
@@ -0,0 +1,279 @@
+/**
+ * MethodMetrics.java
+ *
+ * Metrics of a single controller method: number of calls and errors, connections
+ * borrowed, statements executed, rows read, and a histogram of the call latencies.
+ *
+ * The latencies are counted in fixed buckets (from 100 us up to 5 s and above), so
+ * recording a call never allocates, and percentiles are estimated as the upper
+ * bound of the bucket they fall in.
+ */
+
+package database.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+public class MethodMetrics implements MethodMetricsMXBean {
+    private static final long[] BUCKET_BOUNDS_MICROS = {
+            100, 250, 500, 1000, 2500, 5000, 10000, 25000, 50000,
+            100000, 250000, 500000, 1000000, 2500000, 5000000
+    };
+
+    private final String method;
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder connections = new LongAdder();
+    private final LongAdder statements = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_BOUNDS_MICROS.length + 1);
+
+    /**
+     * Constructor with parameters.
+     *
+     * @param method - name of the method, as Class.method.
+     */
+    public MethodMetrics(String method) {
+        this.method = method;
+    }
+
+    /**
+     * Record a finished call of the method.
+     *
+     * @param elapsedNanos - latency of the call.
+     * @param connectionCount - connections borrowed by the call.
+     * @param statementCount - statements executed by the call.
+     * @param rowCount - rows read by the call.
+     * @param failed - whether the call failed with an SQLException.
+     */
+    public void recordCall(long elapsedNanos, int connectionCount, int statementCount, long rowCount,
+                           boolean failed) {
+        this.calls.increment();
+        if (failed) {
+            this.errors.increment();
+        }
+        this.connections.add(connectionCount);
+        this.statements.add(statementCount);
+        this.rows.add(rowCount);
+        this.totalNanos.add(elapsedNanos);
+        this.maxNanos.accumulateAndGet(elapsedNanos, Math::max);
+        this.buckets.incrementAndGet(bucketOf(TimeUnit.NANOSECONDS.toMicros(elapsedNanos)));
+    }
+
+    /**
+     * Take a consistent enough copy of the counters, e.g. to compare with a later one.
+     *
+     * @return current values of the counters.
+     */
+    public Snapshot snapshot() {
+        long[] histogram = new long[this.buckets.length()];
+        for (int i = 0; i < histogram.length; i++) {
+            histogram[i] = this.buckets.get(i);
+        }
+
+        return new Snapshot(
+                this.method, this.calls.sum(), this.errors.sum(), this.connections.sum(),
+                this.statements.sum(), this.rows.sum(), this.totalNanos.sum(), histogram
+        );
+    }
+
+    /** Set all the counters back to zero. */
+    public void reset() {
+        this.calls.reset();
+        this.errors.reset();
+        this.connections.reset();
+        this.statements.reset();
+        this.rows.reset();
+        this.totalNanos.reset();
+        this.maxNanos.set(0);
+        for (int i = 0; i < this.buckets.length(); i++) {
+            this.buckets.set(i, 0);
+        }
+    }
+
+    @Override
+    public String getMethod() {
+        return this.method;
+    }
+
+    @Override
+    public long getCalls() {
+        return this.calls.sum();
+    }
+
+    @Override
+    public long getErrors() {
+        return this.errors.sum();
+    }
+
+    @Override
+    public long getConnectionsOpened() {
+        return this.connections.sum();
+    }
+
+    @Override
+    public long getStatementsExecuted() {
+        return this.statements.sum();
+    }
+
+    @Override
+    public long getRowsRead() {
+        return this.rows.sum();
+    }
+
+    @Override
+    public double getMeanLatencyMillis() {
+        return snapshot().getMeanMillis();
+    }
+
+    @Override
+    public double getMaxLatencyMillis() {
+        return this.maxNanos.get() / 1e6;
+    }
+
+    @Override
+    public double getP50LatencyMillis() {
+        return snapshot().getPercentileMillis(50);
+    }
+
+    @Override
+    public double getP95LatencyMillis() {
+        return snapshot().getPercentileMillis(95);
+    }
+
+    @Override
+    public double getP99LatencyMillis() {
+        return snapshot().getPercentileMillis(99);
+    }
+
+    @Override
+    public long[] getLatencyHistogram() {
+        return snapshot().histogram;
+    }
+
+    @Override
+    public long[] getLatencyBucketBoundsMicros() {
+        return BUCKET_BOUNDS_MICROS.clone();
+    }
+
+    private static int bucketOf(long micros) {
+        for (int i = 0; i < BUCKET_BOUNDS_MICROS.length; i++) {
+            if (micros <= BUCKET_BOUNDS_MICROS[i]) {
+                return i;
+            }
+        }
+        return BUCKET_BOUNDS_MICROS.length;
+    }
+
+    /**
+     * Values of the counters of a method at one point in time.
+     */
+    public static class Snapshot {
+        private final String method;
+        private final long calls;
+        private final long errors;
+        private final long connections;
+        private final long statements;
+        private final long rows;
+        private final long totalNanos;
+        private final long[] histogram;
+
+        private Snapshot(String method, long calls, long errors, long connections, long statements,
+                         long rows, long totalNanos, long[] histogram) {
+            this.method = method;
+            this.calls = calls;
+            this.errors = errors;
+            this.connections = connections;
+            this.statements = statements;
+            this.rows = rows;
+            this.totalNanos = totalNanos;
+            this.histogram = histogram;
+        }
+
+        /**
+         * Counters accumulated since an earlier snapshot of the same method.
+         *
+         * @param earlier - earlier snapshot (null for all since the start).
+         * @return difference between both snapshots.
+         */
+        public Snapshot since(Snapshot earlier) {
+            if (earlier == null) {
+                return this;
+            }
+
+            long[] difference = new long[this.histogram.length];
+            for (int i = 0; i < difference.length; i++) {
+                difference[i] = this.histogram[i] - earlier.histogram[i];
+            }
+
+            return new Snapshot(
+                    this.method, this.calls - earlier.calls, this.errors - earlier.errors,
+                    this.connections - earlier.connections, this.statements - earlier.statements,
+                    this.rows - earlier.rows, this.totalNanos - earlier.totalNanos, difference
+            );
+        }
+
+        /** Accessor for the name of the method. */
+        public String getMethod() {
+            return this.method;
+        }
+
+        /** Accessor for the number of calls. */
+        public long getCalls() {
+            return this.calls;
+        }
+
+        /** Accessor for the total time spent in the calls, in nanoseconds. */
+        public long getTotalNanos() {
+            return this.totalNanos;
+        }
+
+        /** Accessor for the mean latency of a call, in milliseconds. */
+        public double getMeanMillis() {
+            return (this.calls == 0 ? 0 : this.totalNanos / 1e6 / this.calls);
+        }
+
+        /**
+         * Estimate a latency percentile from the histogram.
+         *
+         * @param percentile - percentile, between 0 and 100.
+         * @return upper bound of the bucket holding the percentile, in milliseconds
+         *         (the highest bound for the unbounded last bucket, 0 without calls).
+         */
+        public double getPercentileMillis(double percentile) {
+            long total = 0;
+            for (long count : this.histogram) {
+                total += count;
+            }
+            if (total == 0) {
+                return 0;
+            }
+
+            long rank = (long) Math.ceil(total * percentile / 100);
+            long seen = 0;
+            for (int i = 0; i < BUCKET_BOUNDS_MICROS.length; i++) {
+                seen += this.histogram[i];
+                if (seen >= rank) {
+                    return BUCKET_BOUNDS_MICROS[i] / 1000.0;
+                }
+            }
+            return BUCKET_BOUNDS_MICROS[BUCKET_BOUNDS_MICROS.length - 1] / 1000.0;
+        }
+
+        @Override
+        public String toString() {
+            double perCall = Math.max(this.calls, 1);
+            return String.format(
+                    "%s calls=%d errors=%d mean=%.2fms p95=%.2fms p99=%.2fms " +
+                    "conns/call=%.1f stmts/call=%.1f rows/call=%.1f",
+                    this.method, this.calls, this.errors, getMeanMillis(),
+                    getPercentileMillis(95), getPercentileMillis(99),
+                    this.connections / perCall, this.statements / perCall, this.rows / perCall
+            );
+        }
+    }
+}
@@ -0,0 +1,48 @@
+/**
+ * MethodMetricsMXBean.java
+ *
+ * JMX view of the metrics of a single controller method (see MethodMetrics).
+ */
+
+package database.metrics;
+
+public interface MethodMetricsMXBean {
+    /** Name of the method, as Class.method. */
+    String getMethod();
+
+    /** Number of calls (i.e. units of database work) made by the method. */
+    long getCalls();
+
+    /** Number of calls that failed with an SQLException. */
+    long getErrors();
+
+    /** Number of connections borrowed by all the calls. */
+    long getConnectionsOpened();
+
+    /** Number of statements executed (round trips) by all the calls. */
+    long getStatementsExecuted();
+
+    /** Number of result set rows read by all the calls. */
+    long getRowsRead();
+
+    /** Mean latency of a call, in milliseconds. */
+    double getMeanLatencyMillis();
+
+    /** Highest latency of a call, in milliseconds. */
+    double getMaxLatencyMillis();
+
+    /** Median latency of a call, in milliseconds (upper bound of its histogram bucket). */
+    double getP50LatencyMillis();
+
+    /** 95th percentile latency of a call, in milliseconds (upper bound of its histogram bucket). */
+    double getP95LatencyMillis();
+
+    /** 99th percentile latency of a call, in milliseconds (upper bound of its histogram bucket). */
+    double getP99LatencyMillis();
+
+    /** Number of calls in each latency bucket (see getLatencyBucketBoundsMicros). */
+    long[] getLatencyHistogram();
+
+    /** Upper bound of each latency bucket but the last (unbounded) one, in microseconds. */
+    long[] getLatencyBucketBoundsMicros();
+}
@@ -0,0 +1,7 @@
+-- V001__widen_staff_password.sql
+--
+-- Widens the staff password column of an existing database for the PBKDF2
+-- hashes (about 90 characters). The original SHA-256 hashes still fit, and
+-- are replaced on the next log in of each staff member.
+
+ALTER TABLE Staff MODIFY password VARCHAR(255) DEFAULT NULL;
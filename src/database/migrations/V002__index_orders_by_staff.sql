@@ -0,0 +1,8 @@
+-- V002__index_orders_by_staff.sql
+--
+-- Serves the order listings of the staff: the unassigned PENDING orders (staff
+-- username NULL) and the orders of a staff member, both newest first and paged on
+-- (date, orderNumber), as well as the oldest-first claiming of pending orders.
+-- Also replaces the index of the staff username foreign key, as its prefix.
+
+CREATE INDEX idx_orders_staff_status_date ON Orders (staffUsername, status, date, orderNumber);
@@ -0,0 +1,6 @@
+-- V003__index_customers_by_name.sql
+--
+-- Covers the look up of a customer by name and address, which returns its ID
+-- (part of every secondary index) without reading the table.
+
+CREATE INDEX idx_customers_name_address ON Customers (surname, forename, postcode, houseNumber);
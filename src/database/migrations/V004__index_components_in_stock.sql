@@ -0,0 +1,14 @@
+-- V004__index_components_in_stock.sql
+--
+-- Serves the in-stock component listings of the bicycle builder (stock > 0,
+-- cheapest first), the handlebars of a type, the frame-sets of a size and the
+-- wheels of a diameter, as well as the distinct sizes and diameters offered.
+
+CREATE INDEX idx_handlebars_stock_cost ON Handlebars (stock, cost);
+CREATE INDEX idx_handlebars_type_stock ON Handlebars (type, stock);
+
+CREATE INDEX idx_framesets_stock_cost ON FrameSets (stock, cost);
+CREATE INDEX idx_framesets_size_stock ON FrameSets (size, stock);
+
+CREATE INDEX idx_pairsofwheels_stock_cost ON PairsOfWheels (stock, cost);
+CREATE INDEX idx_pairsofwheels_diameter_stock ON PairsOfWheels (diameter, stock);
@@ -0,0 +1,21 @@
+-- V005__create_reservations.sql
+--
+-- Holds taken on the stock of the components at checkout (see
+-- StockReservationService), shared by every running instance of the app. The
+-- primary key serves the units held of a component, subtracted from its stock by
+-- the order's stock decrement; the indexes serve the deletion of a reservation's
+-- holds and the sweep of the expired ones. The expiry is set and compared on the
+-- database's clock, so that the instances' clocks need not agree.
+
+CREATE TABLE IF NOT EXISTS Reservations (
+  tableName VARCHAR(20) NOT NULL,
+  serialNumber VARCHAR(20) NOT NULL,
+  brandName VARCHAR(30) NOT NULL,
+  reservationId VARCHAR(36) NOT NULL,
+  units INT NOT NULL,
+  expiresAt DATETIME(3) NOT NULL,
+  PRIMARY KEY (tableName, serialNumber, brandName, reservationId)
+);
+
+CREATE INDEX idx_reservations_id ON Reservations (reservationId);
+CREATE INDEX idx_reservations_expires ON Reservations (expiresAt);
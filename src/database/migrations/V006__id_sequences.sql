@@ -0,0 +1,11 @@
+-- V006__id_sequences.sql
+--
+-- Next free value of each kind of generated ID (order numbers, bicycle serial
+-- numbers and customer IDs), leased in blocks by IdAllocator. The primary key
+-- serves the lock of a sequence's row taken by each lease.
+
+CREATE TABLE IF NOT EXISTS IdSequences (
+  name VARCHAR(30) NOT NULL,
+  nextValue BIGINT NOT NULL,
+  PRIMARY KEY (name)
+);
@@ -0,0 +1,15 @@
+-- V007__index_components_by_cost.sql
+--
+-- Replaces the (stock, cost) indexes of V004: after the range on stock they could
+-- not return the rows by cost, so the in-stock listings (stock > 0, cheapest first)
+-- still sorted every row. Led by cost, the index is read in the listing's order,
+-- and the stock condition is checked on the index entries.
+
+DROP INDEX idx_handlebars_stock_cost ON Handlebars;
+CREATE INDEX idx_handlebars_cost_stock ON Handlebars (cost, stock);
+
+DROP INDEX idx_framesets_stock_cost ON FrameSets;
+CREATE INDEX idx_framesets_cost_stock ON FrameSets (cost, stock);
+
+DROP INDEX idx_pairsofwheels_stock_cost ON PairsOfWheels;
+CREATE INDEX idx_pairsofwheels_cost_stock ON PairsOfWheels (cost, stock);
@@ -0,0 +1,26 @@
+-- V008__seed_id_sequences.sql
+--
+-- Creates the row of each ID sequence of V006, so that IdAllocator only ever
+-- locks an existing row: on a new database, two instances leasing the first
+-- block at once could otherwise both find the row missing and both insert it,
+-- which deadlocks. Each sequence starts after the highest ID of its length
+-- already stored (and never below 10...0); a row IdAllocator created before
+-- this migration is kept.
+
+INSERT INTO IdSequences (name, nextValue)
+SELECT 'orderNumber', seed.nextValue
+FROM (SELECT GREATEST(10000000000, COALESCE(CAST(MAX(orderNumber) AS DECIMAL(20)) + 1, 0)) AS nextValue
+      FROM Orders WHERE LENGTH(orderNumber) = 11) seed
+WHERE NOT EXISTS (SELECT * FROM IdSequences WHERE name = 'orderNumber');
+
+INSERT INTO IdSequences (name, nextValue)
+SELECT 'bicycleSerialNumber', seed.nextValue
+FROM (SELECT GREATEST(100000000000, COALESCE(CAST(MAX(serialNumber) AS DECIMAL(20)) + 1, 0)) AS nextValue
+      FROM Bicycles WHERE LENGTH(serialNumber) = 12) seed
+WHERE NOT EXISTS (SELECT * FROM IdSequences WHERE name = 'bicycleSerialNumber');
+
+INSERT INTO IdSequences (name, nextValue)
+SELECT 'customerId', seed.nextValue
+FROM (SELECT GREATEST(10000000000, COALESCE(CAST(MAX(customerId) AS DECIMAL(20)) + 1, 0)) AS nextValue
+      FROM Customers WHERE LENGTH(customerId) = 11) seed
+WHERE NOT EXISTS (SELECT * FROM IdSequences WHERE name = 'customerId');
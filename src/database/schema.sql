@@ -0,0 +1,125 @@
+-- schema.sql
+--
+-- Schema of the Build-a-Bike database, matching the live tables as used by the
+-- controllers. Written in the MySQL dialect understood by the embedded (H2, MySQL
+-- mode) profile too, and safe to run again on an existing database.
+
+CREATE TABLE IF NOT EXISTS Addresses (
+  houseNumber INT NOT NULL DEFAULT 0,
+  postcode VARCHAR(20) NOT NULL DEFAULT '',
+  roadName VARCHAR(60) DEFAULT NULL,
+  cityName VARCHAR(40) DEFAULT NULL,
+  PRIMARY KEY (houseNumber, postcode)
+);
+
+CREATE TABLE IF NOT EXISTS Customers (
+  customerId VARCHAR(11) NOT NULL,
+  forename VARCHAR(20) DEFAULT NULL,
+  surname VARCHAR(20) DEFAULT NULL,
+  houseNumber INT DEFAULT NULL,
+  postcode VARCHAR(20) DEFAULT NULL,
+  PRIMARY KEY (customerId),
+  CONSTRAINT fk_address FOREIGN KEY (houseNumber, postcode)
+    REFERENCES Addresses (houseNumber, postcode) ON DELETE SET NULL
+);
+
+CREATE TABLE IF NOT EXISTS Staff (
+  staffUsername VARCHAR(64) NOT NULL DEFAULT '',
+  forename VARCHAR(20) DEFAULT NULL,
+  surname VARCHAR(20) DEFAULT NULL,
+  password VARCHAR(255) DEFAULT NULL,
+  PRIMARY KEY (staffUsername)
+);
+
+CREATE TABLE IF NOT EXISTS FrameSets (
+  serialNumber VARCHAR(20) NOT NULL,
+  brandName VARCHAR(20) NOT NULL,
+  frameSetName VARCHAR(20) DEFAULT NULL,
+  forkSetName VARCHAR(20) DEFAULT NULL,
+  gearSetName VARCHAR(20) DEFAULT NULL,
+  hasShocks TINYINT DEFAULT NULL,
+  size DECIMAL(10,2) DEFAULT NULL,
+  cost DECIMAL(10,2) DEFAULT NULL,
+  stock INT DEFAULT NULL,
+  PRIMARY KEY (serialNumber, brandName)
+);
+
+CREATE TABLE IF NOT EXISTS Handlebars (
+  serialNumber VARCHAR(20) NOT NULL,
+  brandName VARCHAR(20) NOT NULL,
+  handlebarName VARCHAR(20) DEFAULT NULL,
+  type ENUM('DROPPED','HIGH','STRAIGHT') DEFAULT NULL,
+  cost DECIMAL(10,2) DEFAULT NULL,
+  stock INT DEFAULT NULL,
+  PRIMARY KEY (brandName, serialNumber)
+);
+
+CREATE TABLE IF NOT EXISTS PairsOfWheels (
+  serialNumber VARCHAR(20) NOT NULL,
+  brandName VARCHAR(20) NOT NULL,
+  pairOfWheelsName VARCHAR(20) DEFAULT NULL,
+  diameter DECIMAL(10,2) DEFAULT NULL,
+  tyreType ENUM('HYBRID','MOUNTAIN','ROAD') DEFAULT NULL,
+  brakeType ENUM('DISK','RIM') DEFAULT NULL,
+  cost DECIMAL(10,2) DEFAULT NULL,
+  stock INT DEFAULT NULL,
+  PRIMARY KEY (serialNumber, brandName)
+);
+
+CREATE TABLE IF NOT EXISTS Bicycles (
+  serialNumber VARCHAR(12) NOT NULL,
+  customName VARCHAR(20) DEFAULT NULL,
+  brandName VARCHAR(30) DEFAULT NULL,
+  handlebarSerialNumber VARCHAR(20) DEFAULT NULL,
+  handlebarBrandName VARCHAR(20) DEFAULT NULL,
+  frameSetSerialNumber VARCHAR(20) DEFAULT NULL,
+  frameSetBrandName VARCHAR(20) DEFAULT NULL,
+  pairOfWheelsSerialNumber VARCHAR(20) DEFAULT NULL,
+  pairOfWheelsBrandName VARCHAR(20) DEFAULT NULL,
+  PRIMARY KEY (serialNumber)
+);
+
+CREATE TABLE IF NOT EXISTS Orders (
+  orderNumber VARCHAR(11) NOT NULL,
+  date DATE DEFAULT NULL,
+  totalCost DECIMAL(10,2) DEFAULT NULL,
+  status ENUM('CONFIRMED','FULFILLED','PENDING') DEFAULT NULL,
+  staffUsername VARCHAR(64) DEFAULT NULL,
+  serialNumber VARCHAR(12) DEFAULT NULL,
+  customerId VARCHAR(11) DEFAULT NULL,
+  PRIMARY KEY (orderNumber),
+  CONSTRAINT fk_customerId FOREIGN KEY (customerId)
+    REFERENCES Customers (customerId) ON DELETE CASCADE,
+  CONSTRAINT fk_serialNumber FOREIGN KEY (serialNumber)
+    REFERENCES Bicycles (serialNumber) ON DELETE SET NULL,
+  CONSTRAINT fk_staffUsername FOREIGN KEY (staffUsername)
+    REFERENCES Staff (staffUsername) ON DELETE SET NULL
+);
+
+CREATE TABLE IF NOT EXISTS Items (
+  orderNumber VARCHAR(11) NOT NULL,
+  type ENUM('BICYCLE','FRAMESET','HANDLEBAR','PAIROFWHEELS') NOT NULL,
+  serialNumber VARCHAR(20) NOT NULL,
+  brandName VARCHAR(30) DEFAULT NULL,
+  quantity INT DEFAULT NULL,
+  cost DECIMAL(10,2) DEFAULT NULL,
+  PRIMARY KEY (orderNumber, type, serialNumber),
+  CONSTRAINT fk_orderNumber FOREIGN KEY (orderNumber)
+    REFERENCES Orders (orderNumber)
+);
+
+CREATE TABLE IF NOT EXISTS Reservations (
+  tableName VARCHAR(20) NOT NULL,
+  serialNumber VARCHAR(20) NOT NULL,
+  brandName VARCHAR(30) NOT NULL,
+  reservationId VARCHAR(36) NOT NULL,
+  units INT NOT NULL,
+  expiresAt DATETIME(3) NOT NULL,
+  PRIMARY KEY (tableName, serialNumber, brandName, reservationId)
+);
+
+CREATE TABLE IF NOT EXISTS IdSequences (
+  name VARCHAR(30) NOT NULL,
+  nextValue BIGINT NOT NULL,
+  PRIMARY KEY (name)
+);
@@ -0,0 +1,9 @@
+package exceptions;
+
+public class IncorrectPasswordException extends Exception {
+    private static final String ERROR_MESSAGE = "The password is incorrect!";
+
+    public IncorrectPasswordException() {
+        super(ERROR_MESSAGE);
+    }
+}
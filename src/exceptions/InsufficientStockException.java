@@ -0,0 +1,22 @@
+package exceptions;
+
+public class InsufficientStockException extends Exception {
+    private static final String ERROR_MESSAGE = "The component with brand %s and serial number %s " +
+                                                "is out of stock (%s available, %s requested)!";
+    private final String brandName;
+    private final String serialNumber;
+
+    public InsufficientStockException(String brandName, String serialNumber, int available, int requested) {
+        super(String.format(ERROR_MESSAGE, brandName, serialNumber, available, requested));
+        this.brandName = brandName;
+        this.serialNumber = serialNumber;
+    }
+
+    public String getBrandName() {
+        return this.brandName;
+    }
+
+    public String getSerialNumber() {
+        return this.serialNumber;
+    }
+}
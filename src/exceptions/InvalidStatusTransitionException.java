@@ -0,0 +1,11 @@
+package exceptions;
+
+import models.order.OrderStatus;
+
+public class InvalidStatusTransitionException extends Exception {
+    private static final String ERROR_MESSAGE = "The order with the number %s cannot go from %s to %s!";
+
+    public InvalidStatusTransitionException(String orderNumber, OrderStatus from, OrderStatus to) {
+        super(String.format(ERROR_MESSAGE, orderNumber, from, to));
+    }
+}
@@ -0,0 +1,12 @@
+package exceptions;
+
+import models.order.OrderStatus;
+
+public class StaleOrderException extends Exception {
+    private static final String ERROR_MESSAGE = "The order with the number %s is no longer %s " +
+                                                "(it has been changed or deleted meanwhile). Please reload it!";
+
+    public StaleOrderException(String orderNumber, OrderStatus expected) {
+        super(String.format(ERROR_MESSAGE, orderNumber, expected));
+    }
+}
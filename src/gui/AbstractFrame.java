@@ -1,6 +1,7 @@
 package gui;
 
 import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 
 public abstract class AbstractFrame extends JFrame {
@@ -16,6 +17,9 @@ public abstract class AbstractFrame extends JFrame {
     protected Font f3 = new Font(Font.SANS_SERIF, Font.PLAIN, xWidth/50);
     protected Font f4 = new Font(Font.SANS_SERIF, Font.PLAIN, xWidth/60);
 
+    // Loads the data of the screen off the Event Dispatch Thread (cancelled on dispose).
+    protected final DataLoader loader = new DataLoader(this::setLoading);
+
     public AbstractFrame(){
         setSize(xWidth, yHeight);
         setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
@@ -23,6 +27,33 @@ public abstract class AbstractFrame extends JFrame {
         setResizable(false);
     }
 
+    /**
+     * Shows whether data is being loaded, with a busy cursor.
+     *
+     * @param loading - true while any load of the screen is in flight.
+     */
+    protected void setLoading(boolean loading) {
+        setCursor(Cursor.getPredefinedCursor(loading ? Cursor.WAIT_CURSOR : Cursor.DEFAULT_CURSOR));
+    }
+
+    /**
+     * Placeholder table content shown until the real rows are loaded.
+     *
+     * @return table model with a single "Loading..." row.
+     */
+    protected static DefaultTableModel loadingTableModel() {
+        return new DefaultTableModel(new Object[][] {{"Loading..."}}, new Object[] {""});
+    }
+
+    /**
+     * Cancel the loads still in flight, whose results nobody would see anymore.
+     */
+    @Override
+    public void dispose() {
+        loader.cancelAll();
+        super.dispose();
+    }
+
     /**
      * Makes a custom popup with suitable size for different screen sizes
      */
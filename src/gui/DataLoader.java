@@ -0,0 +1,130 @@
+/**
+ * DataLoader.java
+ *
+ * Loads data for a screen in the background (with SwingWorker), so that database
+ * round trips never freeze the Event Dispatch Thread.
+ *
+ * The callbacks always run on the Event Dispatch Thread, hence they can update the
+ * Swing components directly. Loads still in flight when the screen is disposed
+ * are cancelled, and their results are dropped.
+ */
+
+package gui;
+
+import javax.swing.*;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+
+public class DataLoader {
+    private final Set<SwingWorker<?, ?>> inFlight = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final LoadingListener loadingListener;
+    private boolean cancelled;
+
+    /**
+     * Constructor with parameters.
+     *
+     * @param loadingListener - notified (on the EDT) when loading starts and when all loads are done.
+     */
+    public DataLoader(LoadingListener loadingListener) {
+        this.loadingListener = loadingListener;
+    }
+
+    /**
+     * Run a task in the background and pass its result, or its failure, to a callback
+     * on the Event Dispatch Thread. Must be called on the Event Dispatch Thread.
+     *
+     * @param task - task loading the data, e.g. calling a controller.
+     * @param onLoaded - callback receiving the loaded data.
+     * @param onFailed - callback receiving the exception thrown by the task.
+     * @return worker running the task, e.g. to cancel it on its own.
+     */
+    public <T> SwingWorker<T, Void> load(Task<T> task, Callback<T> onLoaded, Callback<Exception> onFailed) {
+        SwingWorker<T, Void> worker = new SwingWorker<T, Void>() {
+            @Override
+            protected T doInBackground() throws Exception {
+                return task.load();
+            }
+
+            @Override
+            protected void done() {
+                finished(this);
+                if (isCancelled()) {
+                    return;
+                }
+
+                T result;
+                try {
+                    result = get();
+                }
+                catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    onFailed.accept(cause instanceof Exception ? (Exception) cause : e);
+                    return;
+                }
+                catch (InterruptedException | CancellationException e) {
+                    return;
+                }
+                onLoaded.accept(result);
+            }
+        };
+
+        // A disposed screen starts no new loads.
+        if (this.cancelled) {
+            worker.cancel(false);
+            return worker;
+        }
+
+        if (this.inFlight.isEmpty()) {
+            this.loadingListener.loadingChanged(true);
+        }
+        this.inFlight.add(worker);
+        worker.execute();
+        return worker;
+    }
+
+    /**
+     * Cancel all the loads in flight and any future ones (e.g. when the screen is disposed).
+     * Must be called on the Event Dispatch Thread.
+     */
+    public void cancelAll() {
+        this.cancelled = true;
+        for (SwingWorker<?, ?> worker : this.inFlight.toArray(new SwingWorker<?, ?>[0])) {
+            worker.cancel(true);
+        }
+    }
+
+    /** Accessor for whether any load is still in flight. */
+    public boolean isLoading() {
+        return !this.inFlight.isEmpty();
+    }
+
+    private void finished(SwingWorker<?, ?> worker) {
+        if (this.inFlight.remove(worker) && this.inFlight.isEmpty()) {
+            this.loadingListener.loadingChanged(false);
+        }
+    }
+
+    /**
+     * Background part of a load, allowed to throw any checked exception.
+     */
+    public interface Task<T> {
+        T load() throws Exception;
+    }
+
+    /**
+     * Part of a load run on the Event Dispatch Thread.
+     */
+    public interface Callback<T> {
+        void accept(T value);
+    }
+
+    /**
+     * Listener of the loading state of a screen.
+     */
+    public interface LoadingListener {
+        void loadingChanged(boolean loading);
+    }
+}
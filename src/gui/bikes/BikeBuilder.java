@@ -9,11 +9,11 @@ import java.awt.event.ItemListener;
 import java.math.BigDecimal;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Map;
+import java.util.function.Function;
 
-import database.controllers.component.FrameSetController;
-import database.controllers.component.HandlebarController;
-import database.controllers.component.PairOfWheelsController;
 import exceptions.IncompleteBicycleException;
+import exceptions.InsufficientStockException;
 import exceptions.NoComponentForFilterException;
 import gui.AbstractFrame;
 import gui.MainDashboard;
@@ -25,6 +25,8 @@ import models.component.handlebar.HandlebarType;
 import models.component.pairofwheels.BrakeType;
 import models.component.pairofwheels.TyreType;
 import models.component.pairofwheels.PairOfWheels;
+import services.ComponentCatalog;
+import services.StockReservationService;
 
 public class BikeBuilder extends AbstractFrame {
     private JPanel mainPanel;
@@ -34,24 +36,24 @@ public class BikeBuilder extends AbstractFrame {
     private JButton btnOrder;
     private JLabel lblTotal;
     private JPanel bottomPanel;
-    private JComboBox comboFrameSetName;
-    private JComboBox comboFrameSetSize;
-    private JComboBox comboFrameSetShocks;
-    private JComboBox comboHandlebarName;
-    private JComboBox comboHandlebarType;
-    private JComboBox comboPairOfWheelsName;
-    private JComboBox comboWheelBrakeType;
-    private JComboBox comboWheelTyreType;
-    private JComboBox comboWheelDiameter;
+    private JComboBox<String> comboFrameSetName;
+    private JComboBox<String> comboFrameSetSize;
+    private JComboBox<String> comboFrameSetShocks;
+    private JComboBox<String> comboHandlebarName;
+    private JComboBox<String> comboHandlebarType;
+    private JComboBox<String> comboPairOfWheelsName;
+    private JComboBox<String> comboWheelBrakeType;
+    private JComboBox<String> comboWheelTyreType;
+    private JComboBox<String> comboWheelDiameter;
     private JButton btnFrameSetDetails;
     private JButton btnHandlebarDetails;
     private JButton btnPairOfWheelsDetails;
     private ArrayList<FrameSet> frameSets;
     private ArrayList<Handlebar> handlebars;
     private ArrayList<PairOfWheels> pairOfWheels;
-    private final FrameSetController fsController = new FrameSetController();
-    private final HandlebarController hController = new HandlebarController();
-    private final PairOfWheelsController powController = new PairOfWheelsController();
+    // Components are served from memory, so changing filters needs no database round trip.
+    private final ComponentCatalog catalog = ComponentCatalog.getInstance();
+    private final StockReservationService reservations = StockReservationService.getInstance();
     private FrameSet currSelectedFrameSet;
     private Handlebar currSelectedHandlebar;
     private PairOfWheels currSelectedPairOfWheels;
@@ -67,18 +69,24 @@ public class BikeBuilder extends AbstractFrame {
         setTitle("Build Your Bike");
         contentPanel.setBorder(new EmptyBorder(20, 40, 20, 40));
 
-        // Generate the ComboBoxes for all component types.
-        try {
-            frameSets = fsController.readAllComponentsOfType(false);
-            handlebars = hController.readAllComponentsOfType(false);
-            pairOfWheels = powController.readAllComponentsOfType(false);
-            generateDefaultCombos();
-        }
-        catch (Exception e) {
-            showPopup("An error occurred. Please try to enter the form again.");
-        }
-
-        repaint();
+        // Open at once and generate the ComboBoxes for all component types once the
+        // catalog is loaded; the first read loads all the components at once.
+        loader.load(
+                () -> catalog.getFrameSets(false),
+                loadedFrameSets -> {
+                    try {
+                        frameSets = loadedFrameSets;
+                        handlebars = catalog.getHandlebars(false);
+                        pairOfWheels = catalog.getPairsOfWheels(false);
+                        generateDefaultCombos();
+                    }
+                    catch (Exception e) {
+                        showPopup("An error occurred. Please try to enter the form again.");
+                    }
+                    initComboListeners();
+                },
+                e -> showPopup("An error occurred. Please try to enter the form again.")
+        );
 
         btnOrder.addActionListener(new ActionListener() {
             @Override
@@ -86,13 +94,20 @@ public class BikeBuilder extends AbstractFrame {
                 String bicycleName = String.valueOf(tfBikeName.getText());
                 try {
                     Bicycle bicycle = buildBicycle(bicycleName);
-                    BikeOrder bikeOrder = new BikeOrder(bicycle);
+                    // Hold the components while the customer fills in their details.
+                    StockReservationService.Reservation reservation = reservations.reserve(
+                            bicycle.getHandlebar(), bicycle.getFrameSet(), bicycle.getPairOfWheels()
+                    );
+                    BikeOrder bikeOrder = new BikeOrder(bicycle, reservation);
                     bikeOrder.setVisible(true);
                     dispose();
                 }
                 catch (IncompleteBicycleException ex) {
                     showPopup(ex.getMessage());
                 }
+                catch (InsufficientStockException ex) {
+                    showPopup(ex.getMessage());
+                }
                 catch (Exception ex) {
                     showPopup("An unexpected error occurred. Please try again!");
                 }
@@ -123,7 +138,7 @@ public class BikeBuilder extends AbstractFrame {
                 if (currSelectedFrameSet != null) {
                     JOptionPane.showMessageDialog(
                             null,
-                            currSelectedFrameSet.toString()
+                            describeAvailability(currSelectedFrameSet)
                     );
                 }
             }
@@ -134,7 +149,7 @@ public class BikeBuilder extends AbstractFrame {
                 if (currSelectedHandlebar != null) {
                     JOptionPane.showMessageDialog(
                             null,
-                            currSelectedHandlebar.toString()
+                            describeAvailability(currSelectedHandlebar)
                     );
                 }
             }
@@ -145,12 +160,18 @@ public class BikeBuilder extends AbstractFrame {
                 if (currSelectedPairOfWheels != null) {
                     JOptionPane.showMessageDialog(
                             null,
-                            currSelectedPairOfWheels.toString()
+                            describeAvailability(currSelectedPairOfWheels)
                     );
                 }
             }
         });
+    }
 
+    /**
+     * Set up the filter and result combos to react to the user's selections. Only
+     * done once the combos are filled, so that filling them triggers no updates.
+     */
+    private void initComboListeners() {
         // Update frame-set results according to size and shocks inclusion filters.
         comboFrameSetName.addItemListener((new ItemListener() {
             @Override
@@ -256,9 +277,60 @@ public class BikeBuilder extends AbstractFrame {
         initFrameSetCombos();
         initHandlebarCombos();
         initWheelCombos();
+        initFacetCounts();
         calculateCurrCost();
     }
 
+    /**
+     * Show next to every filter option how many components it would leave,
+     * given the other filters currently selected.
+     */
+    private void initFacetCounts() {
+        comboFrameSetSize.setRenderer(new FacetCountRenderer(
+                () -> catalog.getFrameSetFacetCounts(
+                        ComponentCatalog.FRAME_SET_SIZE, null, toHasShocks(selectedOf(comboFrameSetShocks))
+                ),
+                BikeBuilder::toSize
+        ));
+        comboFrameSetShocks.setRenderer(new FacetCountRenderer(
+                () -> catalog.getFrameSetFacetCounts(
+                        ComponentCatalog.FRAME_SET_SHOCKS, toSize(selectedOf(comboFrameSetSize)), null
+                ),
+                BikeBuilder::toHasShocks
+        ));
+        comboHandlebarType.setRenderer(new FacetCountRenderer(
+                () -> catalog.getHandlebarFacetCounts(ComponentCatalog.HANDLEBAR_TYPE, null),
+                BikeBuilder::toHandlebarType
+        ));
+        comboWheelDiameter.setRenderer(new FacetCountRenderer(
+                () -> catalog.getWheelFacetCounts(
+                        ComponentCatalog.WHEEL_DIAMETER,
+                        toTyreType(selectedOf(comboWheelTyreType)),
+                        toBrakeType(selectedOf(comboWheelBrakeType)),
+                        null
+                ),
+                BikeBuilder::toDiameter
+        ));
+        comboWheelTyreType.setRenderer(new FacetCountRenderer(
+                () -> catalog.getWheelFacetCounts(
+                        ComponentCatalog.WHEEL_TYRE_TYPE,
+                        null,
+                        toBrakeType(selectedOf(comboWheelBrakeType)),
+                        toDiameter(selectedOf(comboWheelDiameter))
+                ),
+                BikeBuilder::toTyreType
+        ));
+        comboWheelBrakeType.setRenderer(new FacetCountRenderer(
+                () -> catalog.getWheelFacetCounts(
+                        ComponentCatalog.WHEEL_BRAKE_TYPE,
+                        toTyreType(selectedOf(comboWheelTyreType)),
+                        null,
+                        toDiameter(selectedOf(comboWheelDiameter))
+                ),
+                BikeBuilder::toBrakeType
+        ));
+    }
+
     /**
      * Initialize the frame-set combos and their filters.
      *
@@ -266,7 +338,7 @@ public class BikeBuilder extends AbstractFrame {
      */
     private void initFrameSetCombos() throws SQLException {
         // Set up the filter for size.
-        ArrayList<BigDecimal> sizes = fsController.getUniqueSizeSet();
+        ArrayList<BigDecimal> sizes = catalog.getUniqueSizeSet();
         comboFrameSetSize.addItem("SIZE (CM): ANY");
         for (BigDecimal s : sizes) {
             comboFrameSetSize.addItem(String.valueOf(s));
@@ -333,7 +405,7 @@ public class BikeBuilder extends AbstractFrame {
         }
 
         // Set up diameter filters.
-        ArrayList<BigDecimal> diameters = powController.getUniqueDiameterSet();
+        ArrayList<BigDecimal> diameters = catalog.getUniqueDiameterSet();
         comboWheelDiameter.addItem("DIAMETER (CM): ANY");
         for (BigDecimal d : diameters) {
             comboWheelDiameter.addItem(String.valueOf(d));
@@ -360,24 +432,17 @@ public class BikeBuilder extends AbstractFrame {
         comboFrameSetName.removeAllItems();
 
         // Convert filters to suitable types.
-        BigDecimal fSize = (fSizeStr.equals("SIZE (CM): ANY") ? null : new BigDecimal(fSizeStr));
-        Boolean fHasShocks;
-        if (fHasShocksStr.equals("SHOCKS: YES")) {
-            fHasShocks = true;
-        } else if ((fHasShocksStr.equals("SHOCKS: NO"))) {
-            fHasShocks = false;
-        } else {
-            fHasShocks = null;
-        }
+        BigDecimal fSize = toSize(fSizeStr);
+        Boolean fHasShocks = toHasShocks(fHasShocksStr);
 
         try {
             // If no filters, read all instances following the user's access.
             if (fHasShocks == null && fSize == null) {
-                frameSets = fsController.readAllComponentsOfType(false);
+                frameSets = catalog.getFrameSets(false);
             }
             // Otherwise, call the specific method for applying the filters.
             else {
-                frameSets = fsController.filterFrameSets(fSize, fHasShocks);
+                frameSets = catalog.filterFrameSets(fSize, fHasShocks);
             }
 
             // Set up the currently selected frame-set.
@@ -413,10 +478,10 @@ public class BikeBuilder extends AbstractFrame {
 
         try {
             if (hType.equals("HANDLEBAR TYPE: ANY")) {
-                 handlebars = hController.readAllComponentsOfType(false);
+                 handlebars = catalog.getHandlebars(false);
             }
             else {
-                handlebars = hController.filterHandlebars(HandlebarType.valueOf(hType));
+                handlebars = catalog.filterHandlebars(toHandlebarType(hType));
             }
 
             // Set up the currently selected handlebar.
@@ -452,24 +517,18 @@ public class BikeBuilder extends AbstractFrame {
         comboPairOfWheelsName.removeAllItems();
 
         // Convert filters to suitable types.
-        BigDecimal fDiameter = (
-                fDiameterStr.equals("DIAMETER (CM): ANY") ? null : new BigDecimal(fDiameterStr)
-        );
-        TyreType fTyreType = (
-                fTyreTypeStr.equals("TYRE TYPE: ANY") ? null : TyreType.valueOf(fTyreTypeStr)
-        );
-        BrakeType fBrakeType = (
-                fBrakeTypeStr.equals("BRAKE TYPE: ANY") ? null : BrakeType.valueOf(fBrakeTypeStr)
-        );
+        BigDecimal fDiameter = toDiameter(fDiameterStr);
+        TyreType fTyreType = toTyreType(fTyreTypeStr);
+        BrakeType fBrakeType = toBrakeType(fBrakeTypeStr);
 
         try {
             // If no filters, read all instances following the user's access.
             if (fDiameter == null && fTyreType == null && fBrakeType == null) {
-                pairOfWheels = powController.readAllComponentsOfType(false);
+                pairOfWheels = catalog.getPairsOfWheels(false);
             }
             // Otherwise, call the specific method for applying the filters.
             else {
-                pairOfWheels = powController.filterWheels(fTyreType, fBrakeType, fDiameter);
+                pairOfWheels = catalog.filterWheels(fTyreType, fBrakeType, fDiameter);
             }
 
             // Set up the currently selected wheel.
@@ -491,6 +550,44 @@ public class BikeBuilder extends AbstractFrame {
         }
     }
 
+    /*
+     * Conversions of the filter combo options to filter values (null = any).
+     */
+
+    private static String selectedOf(JComboBox<String> combo) {
+        return String.valueOf(combo.getSelectedItem());
+    }
+
+    private static BigDecimal toSize(String fSizeStr) {
+        return (fSizeStr.equals("SIZE (CM): ANY") ? null : new BigDecimal(fSizeStr));
+    }
+
+    private static Boolean toHasShocks(String fHasShocksStr) {
+        if (fHasShocksStr.equals("SHOCKS: YES")) {
+            return true;
+        } else if (fHasShocksStr.equals("SHOCKS: NO")) {
+            return false;
+        } else {
+            return null;
+        }
+    }
+
+    private static HandlebarType toHandlebarType(String fHandlebarTypeStr) {
+        return (fHandlebarTypeStr.equals("HANDLEBAR TYPE: ANY") ? null : HandlebarType.valueOf(fHandlebarTypeStr));
+    }
+
+    private static BigDecimal toDiameter(String fDiameterStr) {
+        return (fDiameterStr.equals("DIAMETER (CM): ANY") ? null : new BigDecimal(fDiameterStr));
+    }
+
+    private static TyreType toTyreType(String fTyreTypeStr) {
+        return (fTyreTypeStr.equals("TYRE TYPE: ANY") ? null : TyreType.valueOf(fTyreTypeStr));
+    }
+
+    private static BrakeType toBrakeType(String fBrakeTypeStr) {
+        return (fBrakeTypeStr.equals("BRAKE TYPE: ANY") ? null : BrakeType.valueOf(fBrakeTypeStr));
+    }
+
     /**
      * Prettify a component's description that appears in the combo using the format:
      * "componentName - brandName (cost GBP)"
@@ -509,6 +606,17 @@ public class BikeBuilder extends AbstractFrame {
         return prettifiedResult;
     }
 
+    /**
+     * Describe a component for its details popup, with the stock shoppers can
+     * still order (the units held by other customers are taken off).
+     *
+     * @param component - selected component.
+     * @return description of the component.
+     */
+    private String describeAvailability(Component component) {
+        return component.toString() + "\n" + "Available: " + catalog.getAvailableStock(component);
+    }
+
     /**
      * Dynamically calculate the bike cost, which is determined by the
      * currently selected items. Note: wheel cost has to be multiplied by 2.
@@ -587,4 +695,46 @@ public class BikeBuilder extends AbstractFrame {
         comboWheelTyreType.setFont(f3);
         tfBikeName.setFont(f3);
     }
+
+    /**
+     * Source of the facet counts of a filter combo (see ComponentCatalog).
+     */
+    private interface FacetCounter {
+        Map<Object, Integer> count() throws SQLException;
+    }
+
+    /**
+     * Combo renderer appending to every filter option the number of components
+     * it would leave, e.g. "HIGH (3)". The "ANY" options are shown unchanged.
+     */
+    private static class FacetCountRenderer extends DefaultListCellRenderer {
+        private static final long serialVersionUID = 1L;
+
+        private final FacetCounter counter;
+        private final Function<String, Object> toValue;
+
+        FacetCountRenderer(FacetCounter counter, Function<String, Object> toValue) {
+            this.counter = counter;
+            this.toValue = toValue;
+        }
+
+        @Override
+        public java.awt.Component getListCellRendererComponent(
+                JList<?> list, Object option, int index, boolean isSelected, boolean cellHasFocus) {
+            String label = String.valueOf(option);
+            Object value = (option == null ? null : toValue.apply(label));
+
+            if (value != null) {
+                try {
+                    Integer count = counter.count().get(value);
+                    label += " (" + (count == null ? 0 : count) + ")";
+                }
+                catch (SQLException e) {
+                    // Counts are only a hint, show the plain option instead.
+                }
+            }
+
+            return super.getListCellRendererComponent(list, label, index, isSelected, cellHasFocus);
+        }
+    }
 }
@@ -1,10 +1,9 @@
 package gui.bikes;
 
-import database.controllers.bicycle.BicycleController;
-import database.controllers.order.OrderController;
 import database.controllers.user.customer.AddressController;
 import database.controllers.user.customer.CustomerController;
 import exceptions.InputTooLongException;
+import exceptions.InsufficientStockException;
 import exceptions.InvalidAddressException;
 import exceptions.UserNotFoundException;
 import gui.AbstractFrame;
@@ -13,6 +12,8 @@ import models.bicycle.Bicycle;
 import models.order.Order;
 import models.user.customer.Address;
 import models.user.customer.Customer;
+import services.OrderPlacementService;
+import services.StockReservationService.Reservation;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
@@ -34,11 +35,11 @@ public class BikeOrder extends AbstractFrame {
     private JLabel lblMessage;
     private final AddressController aController = new AddressController();
     private Address address;
-    private final BicycleController bController = new BicycleController();
     private final CustomerController cController = new CustomerController();
     private Customer customer;
-    private final OrderController oController = new OrderController();
+    private final OrderPlacementService placementService = new OrderPlacementService();
     private Order order;
+    private final Reservation reservation;
     private JTextField tfHouseNumber;
     private JTextField tfCity;
     private JTextField tfRoad;
@@ -51,7 +52,8 @@ public class BikeOrder extends AbstractFrame {
     private JLabel lblPostcode;
     private JButton btnLogin;
 
-    public BikeOrder(Bicycle bicycle) {
+    public BikeOrder(Bicycle bicycle, Reservation reservation) {
+        this.reservation = reservation;
         add(mainPanel);
         setTitle("Fill Your Details and Place an Order");
         contentPanel.setBorder(new EmptyBorder(10, 80, 10, 80));
@@ -68,6 +70,8 @@ public class BikeOrder extends AbstractFrame {
                 );
 
                 if (dialogResult == 0) {
+                        // Give the components back before they are offered again.
+                        reservation.release();
                         BikeBuilder bikeBuilder = new BikeBuilder();
                         bikeBuilder.setVisible(true);
                         dispose();
@@ -111,10 +115,7 @@ public class BikeOrder extends AbstractFrame {
                                         customer.getCustomerId(),
                                         bicycle
                                 );
-                                boolean bicycleCreated = bController.createBicycle(bicycle);
-                                boolean orderCreated = oController.createOrder(order);
-
-                                if (bicycleCreated && orderCreated) {
+                                if (placementService.placeOrder(order, bicycle, reservation)) {
                                     // Show order summary and redirect to menu.
                                     JOptionPane.showMessageDialog(
                                             null,
@@ -144,6 +145,9 @@ public class BikeOrder extends AbstractFrame {
                         showPopup(ex.getMessage());
 
                     }
+                    catch (InsufficientStockException ex) {
+                        showPopup(ex.getMessage());
+                    }
                     catch (Exception ex) {
                         showPopup("An external error occurred. Please try again!");
                     }
@@ -202,10 +206,7 @@ public class BikeOrder extends AbstractFrame {
                                     customer.getCustomerId(),
                                     bicycle
                             );
-                            boolean bicycleCreated = bController.createBicycle(bicycle);
-                            boolean orderCreated = oController.createOrder(order);
-
-                            if (bicycleCreated && orderCreated) {
+                            if (placementService.placeOrder(order, bicycle, reservation)) {
                                 // Show order summary and redirect to menu.r summary.
                                 JOptionPane.showMessageDialog(
                                         null,
@@ -227,6 +228,9 @@ public class BikeOrder extends AbstractFrame {
                     catch (InvalidAddressException ex) {
                         showPopup(ex.getMessage());
                     }
+                    catch (InsufficientStockException ex) {
+                        showPopup(ex.getMessage());
+                    }
                     catch (Exception ex) {
                         showPopup("An external error occurred. Please try again!");
                     }
@@ -238,6 +242,16 @@ public class BikeOrder extends AbstractFrame {
         });
     }
 
+    /**
+     * Release the hold on the components if the order has not been placed (e.g.
+     * the window is closed), rather than waiting for it to expire.
+     */
+    @Override
+    public void dispose() {
+        reservation.release();
+        super.dispose();
+    }
+
     /**
      * Check if the provided user details are complete.
      *
@@ -1,9 +1,11 @@
 package gui.orders;
 
+import database.controllers.bicycle.BicycleController;
 import database.controllers.order.OrderController;
 import exceptions.*;
 import gui.AbstractFrame;
 import gui.MainDashboard;
+import models.bicycle.Bicycle;
 import models.order.Order;
 import models.order.OrderStatus;
 import models.user.customer.Customer;
@@ -15,6 +17,9 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 
 public class CustomerOrders extends AbstractFrame {
 
@@ -28,6 +33,10 @@ public class CustomerOrders extends AbstractFrame {
     private JButton btnBack;
     private JButton btnCancel;
     private OrderController oController = new OrderController();
+    private BicycleController bController = new BicycleController();
+    // Orders shown in the table, by row, and their bicycles by serial number.
+    private ArrayList<Order> orders = new ArrayList<>();
+    private Map<String, Bicycle> bicycles = new HashMap<>();
 
     public CustomerOrders(Customer customer) {
         add(mainPanel);
@@ -35,24 +44,9 @@ public class CustomerOrders extends AbstractFrame {
         contentPanel.setBorder(new EmptyBorder(10, 80, 10, 80));
         setFonts();
 
-        try {
-            generateOrdersTable(oController.findCustomerOrders(customer));
-        } catch (NoOrderForUserException e) {
-            JOptionPane.showMessageDialog(
-                    null,
-                    e.getMessage()
-            );
-        } catch (InvalidOrderException e) {
-            JOptionPane.showMessageDialog(
-                    null,
-                    e.getMessage()
-            );
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(
-                    null,
-                    "An external error occurred. Please try again!"
-            );
-        }
+        // Open at once and fill in the table when the orders arrive.
+        tableOrders.setModel(loadingTableModel());
+        loadOrdersTable(customer);
 
         btnBack.addActionListener(new ActionListener() {
             @Override
@@ -82,11 +76,10 @@ public class CustomerOrders extends AbstractFrame {
                 try {
                     order = oController.findOrderById(orderNumber);
 
-                    generateOrdersTable(oController.findCustomerOrders(customer));
-                    tableOrders.repaint();
                     if (order.getStatus() == OrderStatus.PENDING) {
                         oController.deleteOrder(order);
                     }
+                    loadOrdersTable(customer);
                 } catch (InvalidOrderException ex) {
                     showPopup(ex.getMessage());
                 } catch (OrderNotFoundException ex) {
@@ -97,8 +90,6 @@ public class CustomerOrders extends AbstractFrame {
                     showPopup(ex.getMessage());
                 } catch (InputTooLongException ex) {
                     showPopup(ex.getMessage());
-                } catch (NoOrderForUserException ex) {
-                    showPopup(ex.getMessage());
                 } catch (SQLException ex) {
                     showPopup("An external error occurred. Please try again!");
                 }
@@ -109,41 +100,84 @@ public class CustomerOrders extends AbstractFrame {
             @Override
             public void actionPerformed(ActionEvent e) {
                 int row = tableOrders.getSelectedRow();
-                String orderNumber = tableOrders.getModel().getValueAt(row, 0).toString();
+                if (row < 0 || row >= orders.size()) {
+                    return;
+                }
 
-                SingleOrder singleOrder = null;
-                try {
-                    singleOrder = new SingleOrder(oController.findOrderById(orderNumber));
-                    singleOrder.setVisible(true);
-                    dispose();
-                } catch (InvalidOrderException ex) {
-                    showPopup(ex.getMessage());
-                } catch (OrderNotFoundException ex) {
-                    showPopup(ex.getMessage());
-                } catch (Exception ex) {
-                    showPopup("An external error occurred. Please try again!");
+                // The order and its bicycle were loaded with the table.
+                Order order = orders.get(row);
+                if (order.getBicycleSerialNumber() == null) {
+                    showPopup(new InvalidOrderException(order.getOrderNumber()).getMessage());
+                    return;
                 }
+
+                SingleOrder singleOrder = new SingleOrder(order, bicycles.get(order.getBicycleSerialNumber()));
+                singleOrder.setVisible(true);
+                dispose();
             }
         });
     }
 
+    /**
+     * Load the customer's orders, and the bicycles of all of them with a single query,
+     * into the table in the background.
+     *
+     * @param customer - customer whose orders are shown.
+     */
+    private void loadOrdersTable(Customer customer) {
+        loader.load(
+                () -> {
+                    ArrayList<Order> customerOrders = oController.findCustomerOrders(customer);
+                    ArrayList<String> serialNumbers = new ArrayList<>();
+                    for (Order order : customerOrders) {
+                        if (order.getBicycleSerialNumber() != null) {
+                            serialNumbers.add(order.getBicycleSerialNumber());
+                        }
+                    }
+                    return new OrderListing(customerOrders, bController.findBicyclesByIds(serialNumbers));
+                },
+                this::generateOrdersTable,
+                e -> {
+                    orders = new ArrayList<>();
+                    bicycles = Collections.emptyMap();
+                    tableOrders.setModel(new DefaultTableModel());
+                    if (e instanceof NoOrderForUserException || e instanceof InvalidOrderException) {
+                        JOptionPane.showMessageDialog(
+                                null,
+                                e.getMessage()
+                        );
+                    } else {
+                        JOptionPane.showMessageDialog(
+                                null,
+                                "An external error occurred. Please try again!"
+                        );
+                    }
+                }
+        );
+    }
+
+    private void generateOrdersTable(OrderListing listing) {
+        orders = listing.orders;
+        bicycles = listing.bicycles;
 
-    private void generateOrdersTable(ArrayList<Order> orders) {
         DefaultTableModel model = new DefaultTableModel();
         model.addColumn("Order No.");
         model.addColumn("Date");
         model.addColumn("Cost");
         model.addColumn("Status");
         model.addColumn("Serial No.");
+        model.addColumn("Bicycle");
 
-        Object[] rowData = new Object[5];
+        Object[] rowData = new Object[6];
         for (int i = 0; i < orders.size(); i++) {
             Order order = orders.get(i);
+            Bicycle bicycle = bicycles.get(order.getBicycleSerialNumber());
             rowData[0] = order.getOrderNumber();
             rowData[1] = order.getDate();
             rowData[2] = order.getTotalCost();
             rowData[3] = order.getStatus();
             rowData[4] = order.getBicycleSerialNumber();
+            rowData[5] = bicycle != null ? bicycle.getCustomName() : "";
 
             model.addRow(rowData);
         }
@@ -158,4 +192,17 @@ public class CustomerOrders extends AbstractFrame {
         btnBack.setFont(f3);
         tableOrders.setFont(f3);
     }
+
+    /**
+     * Orders of the customer together with their bicycles, loaded at once.
+     */
+    private static final class OrderListing {
+        private final ArrayList<Order> orders;
+        private final Map<String, Bicycle> bicycles;
+
+        private OrderListing(ArrayList<Order> orders, Map<String, Bicycle> bicycles) {
+            this.orders = orders;
+            this.bicycles = bicycles;
+        }
+    }
 }
@@ -40,6 +40,17 @@ public class SingleOrder extends AbstractFrame {
     private OrderController oController = new OrderController();
 
     public SingleOrder (Order order) {
+        this(order, null);
+    }
+
+    /**
+     * Constructor with parameters, for an order whose bicycle is already loaded
+     * (e.g. with the rest of a list of orders).
+     *
+     * @param order - order shown.
+     * @param bicycle - bicycle of the order, or null to look it up.
+     */
+    public SingleOrder (Order order, Bicycle bicycle) {
         this.order = order;
 
         add(mainPanel);
@@ -47,7 +58,7 @@ public class SingleOrder extends AbstractFrame {
         contentPanel.setBorder(new EmptyBorder(10, 80, 20, 80));
 
         lblOrderNumber.setText("Order No." + order.getOrderNumber());
-        orderSummary(order);
+        orderSummary(order, bicycle);
         setFonts();
 
         btnHome.addActionListener(new ActionListener() {
@@ -96,18 +107,17 @@ public class SingleOrder extends AbstractFrame {
         });
     }
 
-    private void orderSummary(Order order) {
-        Bicycle bicycle = null;
-        try {
-            bicycle = bController.findBicycleById(order.getBicycleSerialNumber());
-        } catch (InputTooLongException e) {
-            showPopup(e.getMessage());
-        } catch (BicycleNotFoundException e) {
-            showPopup(e.getMessage());
-        } catch (ComponentNotFoundException e) {
-            showPopup(e.getMessage());
-        } catch (Exception e) {
-            showPopup("An external error occurred. Please try again!");
+    private void orderSummary(Order order, Bicycle bicycle) {
+        if (bicycle == null) {
+            try {
+                bicycle = bController.findBicycleById(order.getBicycleSerialNumber());
+            } catch (BicycleNotFoundException e) {
+                showPopup(e.getMessage());
+            } catch (ComponentNotFoundException e) {
+                showPopup(e.getMessage());
+            } catch (Exception e) {
+                showPopup("An external error occurred. Please try again!");
+            }
         }
 
         if (bicycle != null) {
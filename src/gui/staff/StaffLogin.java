@@ -1,5 +1,6 @@
 package gui.staff;
 import database.controllers.user.staff.StaffController;
+import exceptions.IncorrectPasswordException;
 import exceptions.InvalidCredentialsException;
 import exceptions.UserNotFoundException;
 import gui.AbstractFrame;
@@ -10,6 +11,7 @@ import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.util.Arrays;
 
 public class StaffLogin extends AbstractFrame {
     private JButton btnLogin;
@@ -38,34 +40,41 @@ public class StaffLogin extends AbstractFrame {
                 String username = tfUsername.getText();
                 char[] password = tfPassword.getPassword();
 
-                // Try setting up the password and username.
-                try {
-                    staff.setUsername(username);
-                    staff.setPassword(password);
+                // Hashing the password takes a while - authenticate in the background.
+                btnLogin.setEnabled(false);
+                loader.load(
+                        () -> {
+                            try {
+                                staff.setUsername(username);
+                                return staffController.attemptLogIn(staff, password);
+                            }
+                            finally {
+                                // Do not keep the raw password in memory.
+                                Arrays.fill(password, '\0');
+                            }
+                        },
+                        authStaff -> {
+                            btnLogin.setEnabled(true);
+                            if (authStaff != null) {
+                                showPopup("Successfully logged in!");
 
-                    // Try to authenticate the staff user.
-                    try {
-                        Staff authStaff = staffController.attemptLogIn(staff);
-
-                        if (authStaff != null) {
-                            showPopup("Successfully logged in!");
-
-                            // Redirect to the staff menu.
-                            StaffMenu staffMenu = new StaffMenu(staff);
-                            staffMenu.setVisible(true);
-                            dispose();
+                                // Redirect to the staff menu.
+                                StaffMenu staffMenu = new StaffMenu(staff);
+                                staffMenu.setVisible(true);
+                                dispose();
+                            }
+                        },
+                        ex -> {
+                            btnLogin.setEnabled(true);
+                            if (ex instanceof UserNotFoundException || ex instanceof IncorrectPasswordException ||
+                                    ex instanceof InvalidCredentialsException) {
+                                showPopup(ex.getMessage());
+                            }
+                            else {
+                                showPopup("An external error occurred. Please try again!");
+                            }
                         }
-                    }
-                    catch (UserNotFoundException ex) {
-                        showPopup(ex.getMessage());
-                    }
-                }
-                catch (InvalidCredentialsException ex) {
-                    showPopup(ex.getMessage());
-                }
-                catch (Exception ex) {
-                    showPopup("An external error occurred. Please try again!");
-                }
+                );
             }
         });
 
@@ -35,13 +35,16 @@ public class StaffCustomers extends AbstractFrame {
         setTitle("Staff Users");
         setFonts();
 
-        ArrayList<Customer> customers = new ArrayList<>();
-
-        try {
-            generateCustomersTable(cController.readAllCustomers());
-        } catch (Exception e) {
-            showPopup("An external error occurred. Please try again!");
-        }
+        // Open at once and fill in the table when the customers arrive.
+        tableUsers.setModel(loadingTableModel());
+        loader.load(
+                cController::readAllCustomers,
+                this::generateCustomersTable,
+                e -> {
+                    tableUsers.setModel(new DefaultTableModel());
+                    showPopup("An external error occurred. Please try again!");
+                }
+        );
 
         btnBack.addActionListener(new ActionListener() {
             @Override
@@ -0,0 +1,132 @@
+/**
+ * PagedOrderTableModel.java
+ *
+ * Table model listing orders one page at a time: the first page is loaded up
+ * front, and the following ones in the background as the table is scrolled
+ * close to the last loaded row, so that long listings open as fast as short ones.
+ */
+
+package gui.staff.orders;
+
+import gui.DataLoader;
+import models.order.Order;
+import models.order.OrderPage;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+
+public class PagedOrderTableModel extends AbstractTableModel {
+    private static final long serialVersionUID = 1L;
+    private static final String[] COLUMNS = {"Order No.", "Date", "Cost", "Status", "Serial No.", "Customer ID"};
+    // How close to the last loaded row the table may get before the next page is requested.
+    private static final int PREFETCH_ROWS = 10;
+
+    private final ArrayList<Order> orders = new ArrayList<>();
+    private final DataLoader loader;
+    private final PageSource source;
+    private final DataLoader.Callback<Exception> onFailed;
+    private String nextCursor;
+    private boolean lastPageLoaded;
+    private boolean loading;
+    private boolean failed;
+
+    /**
+     * Constructor with parameters.
+     *
+     * @param loader - loader of the screen showing the table, running the page loads.
+     * @param source - source of the pages, e.g. a paginated controller method.
+     * @param onFailed - callback receiving the exception of a failed page load (no more pages are loaded then).
+     */
+    public PagedOrderTableModel(DataLoader loader, PageSource source, DataLoader.Callback<Exception> onFailed) {
+        this.loader = loader;
+        this.source = source;
+        this.onFailed = onFailed;
+    }
+
+    /**
+     * Load the following page in the background, unless a load is already in flight
+     * or all the pages are loaded. Must be called on the Event Dispatch Thread.
+     */
+    public void loadNextPage() {
+        if (this.loading || this.lastPageLoaded || this.failed) {
+            return;
+        }
+
+        this.loading = true;
+        String cursor = this.nextCursor;
+        this.loader.load(() -> this.source.load(cursor), this::appendPage, ex -> {
+            this.loading = false;
+            this.failed = true;
+            this.onFailed.accept(ex);
+        });
+    }
+
+    /**
+     * Get the order shown in a row.
+     *
+     * @param row - index of the row.
+     * @return order of the row.
+     */
+    public Order getOrderAt(int row) {
+        return this.orders.get(row);
+    }
+
+    /** Accessor for whether all the pages are loaded. */
+    public boolean isFullyLoaded() {
+        return this.lastPageLoaded;
+    }
+
+    @Override
+    public int getRowCount() {
+        return this.orders.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        // Rows are only asked for when shown, so this is where scrolling is noticed.
+        if (row >= this.orders.size() - PREFETCH_ROWS) {
+            loadNextPage();
+        }
+
+        Order order = this.orders.get(row);
+        switch (column) {
+            case 0: return order.getOrderNumber();
+            case 1: return order.getDate();
+            case 2: return order.getTotalCost();
+            case 3: return order.getStatus();
+            case 4: return order.getBicycleSerialNumber();
+            case 5: return order.getCustomerId();
+            default: return null;
+        }
+    }
+
+    private void appendPage(OrderPage page) {
+        this.loading = false;
+        this.nextCursor = page.getNextCursor();
+        this.lastPageLoaded = !page.hasNext();
+
+        if (!page.getOrders().isEmpty()) {
+            int firstRow = this.orders.size();
+            this.orders.addAll(page.getOrders());
+            fireTableRowsInserted(firstRow, this.orders.size() - 1);
+        }
+    }
+
+    /**
+     * Loads a page of orders, given the cursor returned with the previous page
+     * (null for the first page).
+     */
+    public interface PageSource {
+        OrderPage load(String cursor) throws Exception;
+    }
+}
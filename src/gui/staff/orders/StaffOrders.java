@@ -8,18 +8,17 @@ import gui.AbstractFrame;
 import gui.MainDashboard;
 import gui.staff.StaffMenu;
 import models.order.Order;
-import models.order.OrderStatus;
 import models.order.items.Item;
 import models.user.staff.Staff;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.sql.SQLException;
 import java.util.ArrayList;
 
 public class StaffOrders extends AbstractFrame {
+    private static final int PAGE_SIZE = 50;
     private final Staff staff;
     private JPanel mainPanel;
     private JTable tableMyOrders;
@@ -48,16 +47,8 @@ public class StaffOrders extends AbstractFrame {
         setTitle("Staff Orders");
         setFonts();
 
-        try {
-            generateUnassignedTable(oController.readAllPendingOrders());
-            generateMyOrdersTable(oController.findStaffOrders(staff));
-        } catch (InvalidOrderException ex) {
-            showPopup(ex.getMessage());
-        } catch (NoOrderForUserException ex) {
-            showPopup(ex.getMessage());
-        } catch (Exception ex) {
-            showPopup("An external error occurred. Please try again!");
-        }
+        // Open at once and fill in the tables page by page as the orders arrive.
+        loadOrderTables();
 
         btnLogout.addActionListener(new ActionListener() {
             @Override
@@ -108,12 +99,10 @@ public class StaffOrders extends AbstractFrame {
                 String orderNumber = tableUnassigned.getModel().getValueAt(row, 0).toString();
 
                 try {
-                    oController.assignStaffOrder(orderNumber, staff.getUsername());
-
-                    generateUnassignedTable(oController.readAllPendingOrders());
-                    generateMyOrdersTable(oController.findStaffOrders(staff));
-                    tableUnassigned.repaint();
-                    tableMyOrders.repaint();
+                    if (!oController.assignStaffOrder(orderNumber, staff.getUsername())) {
+                        showPopup("This order has already been assigned to another staff member");
+                    }
+                    loadOrderTables();
                 } catch (Exception ex) {
                     showPopup("An external error occurred. Please try again!");
                 }
@@ -127,23 +116,12 @@ public class StaffOrders extends AbstractFrame {
                 String orderNumber = tableMyOrders.getModel().getValueAt(row, 0).toString();
 
                 try {
-                    Order order = oController.findOrderById(orderNumber);
-                    if (order.getStatus() == OrderStatus.PENDING) {
-                        oController.cancelStaffOrder(orderNumber);
-
-                        generateUnassignedTable(oController.readAllPendingOrders());
-                        generateMyOrdersTable(oController.findStaffOrders(staff));
-                        tableUnassigned.repaint();
-                        tableMyOrders.repaint();
+                    // Only PENDING orders are dis-assigned, which the update itself checks.
+                    if (oController.cancelStaffOrder(orderNumber)) {
+                        loadOrderTables();
                     } else {
                         showPopup("You cannot unassigned an order that's not PENDING");
                     }
-                } catch (OrderNotFoundException ex) {
-                    showPopup(ex.getMessage());
-                } catch (InvalidOrderException ex) {
-                    showPopup(ex.getMessage());
-                } catch (NoOrderForUserException ex) {
-                    showPopup(ex.getMessage());
                 } catch (Exception ex) {
                     showPopup("An external error occurred. Please try again!");
                 }
@@ -167,8 +145,7 @@ public class StaffOrders extends AbstractFrame {
                         Order order = oController.findOrderById(orderNumber);
                         oController.deleteOrder(order);
 
-                        generateUnassignedTable(oController.readAllPendingOrders());
-                        tableUnassigned.repaint();
+                        tableUnassigned.setModel(unassignedOrdersModel());
                     } catch (InvalidOrderException ex) {
                         showPopup(ex.getMessage());
                     } catch (OrderNotFoundException ex) {
@@ -211,63 +188,54 @@ public class StaffOrders extends AbstractFrame {
     }
 
     /**
-     * Generates a table with all orders assigned to the staff member
+     * Reload both order tables in the background.
+     */
+    private void loadOrderTables() {
+        tableUnassigned.setModel(unassignedOrdersModel());
+        tableMyOrders.setModel(myOrdersModel());
+    }
+
+    /**
+     * Report a failed load to the staff member.
      *
-     * @param orders
+     * @param ex - exception thrown while loading.
      */
-    public void generateMyOrdersTable(ArrayList<Order> orders) {
-        DefaultTableModel model = new DefaultTableModel();
-        model.addColumn("Order No.");
-        model.addColumn("Date");
-        model.addColumn("Cost");
-        model.addColumn("Status");
-        model.addColumn("Serial No.");
-        model.addColumn("Customer ID");
-
-        Object[] rowData = new Object[6];
-        for (int i = 0; i < orders.size(); i++) {
-            Order order = orders.get(i);
-            rowData[0] = order.getOrderNumber();
-            rowData[1] = order.getDate();
-            rowData[2] = order.getTotalCost();
-            rowData[3] = order.getStatus();
-            rowData[4] = order.getBicycleSerialNumber();
-            rowData[5] = order.getCustomerId();
-
-            model.addRow(rowData);
+    private void showLoadError(Exception ex) {
+        if (ex instanceof InvalidOrderException || ex instanceof IllegalArgumentException) {
+            showPopup(ex.getMessage());
+        } else {
+            showPopup("An external error occurred. Please try again!");
         }
-
-        tableMyOrders.setModel(model);
     }
 
     /**
-     * Generates the table with all unassigned orders
+     * Creates the table model with all orders assigned to the staff member, and starts loading its first page
      *
-     * @param orders
+     * @return
      */
-    public void generateUnassignedTable(ArrayList<Order> orders) {
-        DefaultTableModel model = new DefaultTableModel();
-        model.addColumn("Order No.");
-        model.addColumn("Date");
-        model.addColumn("Cost");
-        model.addColumn("Status");
-        model.addColumn("Serial No.");
-        model.addColumn("Customer ID");
-
-        Object[] rowData = new Object[6];
-        for (int i = 0; i < orders.size(); i++) {
-            Order order = orders.get(i);
-            rowData[0] = order.getOrderNumber();
-            rowData[1] = order.getDate();
-            rowData[2] = order.getTotalCost();
-            rowData[3] = order.getStatus();
-            rowData[4] = order.getBicycleSerialNumber();
-            rowData[5] = order.getCustomerId();
-
-            model.addRow(rowData);
-        }
+    private PagedOrderTableModel myOrdersModel() {
+        PagedOrderTableModel model = new PagedOrderTableModel(
+                loader,
+                cursor -> oController.findStaffOrdersPage(staff, PAGE_SIZE, cursor),
+                this::showLoadError
+        );
+        model.loadNextPage();
+        return model;
+    }
 
-        tableUnassigned.setModel(model);
+    /**
+     * Creates the table model with all unassigned orders, and starts loading its first page
+     *
+     * @return
+     */
+    private PagedOrderTableModel unassignedOrdersModel() {
+        PagedOrderTableModel model = new PagedOrderTableModel(
+                loader,
+                cursor -> oController.readPendingOrdersPage(PAGE_SIZE, cursor),
+                this::showLoadError
+        );
+        model.loadNextPage();
+        return model;
     }
 
     /**
@@ -4,7 +4,9 @@ import database.controllers.order.OrderController;
 import exceptions.BicycleNotFoundException;
 import exceptions.ComponentNotFoundException;
 import exceptions.InputTooLongException;
+import exceptions.InvalidStatusTransitionException;
 import exceptions.OrderNotFoundException;
+import exceptions.StaleOrderException;
 import gui.AbstractFrame;
 import gui.MainDashboard;
 import models.order.Order;
@@ -68,8 +70,7 @@ public class StaffUpdateOrder extends AbstractFrame {
         btnUpdate.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                String status = String.valueOf(comboStatus.getSelectedItem());
-                order.setStatus(OrderStatus.valueOf(status));
+                OrderStatus status = OrderStatus.valueOf(String.valueOf(comboStatus.getSelectedItem()));
 
                 int dialogResult = JOptionPane.showConfirmDialog(null,
                         "Are you sure?",
@@ -79,11 +80,15 @@ public class StaffUpdateOrder extends AbstractFrame {
 
                 if (dialogResult == 0) {
                     try {
-                        oController.updateOrderStatus(order);
+                        oController.transitionOrderStatus(order, status);
 
                         StaffOrders staffOrders = new StaffOrders(staff);
                         staffOrders.setVisible(true);
                         dispose();
+                    } catch (InvalidStatusTransitionException ex) {
+                        showPopup(ex.getMessage());
+                    } catch (StaleOrderException ex) {
+                        showPopup(ex.getMessage());
                     } catch (Exception ex) {
                         ex.printStackTrace();
                         showPopup("An external error occurred. Please try again!");
@@ -49,6 +49,7 @@ public class StaffStock extends AbstractFrame {
     private FrameSetController fController;
     private HandlebarController hController;
     private PairOfWheelsController powController;
+    private boolean loadErrorShown;
 
     public StaffStock(Staff staff) {
         this.staff = staff;
@@ -61,13 +62,13 @@ public class StaffStock extends AbstractFrame {
         hController = new HandlebarController();
         powController = new PairOfWheelsController();
 
-        try {
-            generateFramesetTable(fController.readAllComponentsOfType(true));
-            generateHandlebarTable(hController.readAllComponentsOfType(true));
-            generatePairOfWheelsTable(powController.readAllComponentsOfType(true));
-        } catch (Exception ex) {
-            showPopup("An external error occurred. Please try again!");
-        }
+        // Open at once and fill in each table when its components arrive.
+        tableFrameset.setModel(loadingTableModel());
+        tableHandlebar.setModel(loadingTableModel());
+        tablePairsOfWheels.setModel(loadingTableModel());
+        loadFramesetTable();
+        loadHandlebarTable();
+        loadPairOfWheelsTable();
 
         btnLogout.addActionListener(new ActionListener() {
             @Override
@@ -142,8 +143,7 @@ public class StaffStock extends AbstractFrame {
                         // Makes sure that the staff input something in the popup
                         if (frameSet != null) {
                             fController.deleteComponent(frameSet, "FrameSets");
-                            generateFramesetTable(fController.readAllComponentsOfType(true));
-                            tableFrameset.repaint();
+                            loadFramesetTable();
                         }
                     } catch (ComponentNotFoundException ex) {
                         showPopup(ex.getMessage());
@@ -215,8 +215,7 @@ public class StaffStock extends AbstractFrame {
 
                         if (handlebar != null) {
                             hController.deleteComponent(handlebar, "Handlebars");
-                            generateHandlebarTable(hController.readAllComponentsOfType(true));
-                            tableHandlebar.repaint();
+                            loadHandlebarTable();
                         }
                     } catch (ComponentNotFoundException ex) {
                         showPopup(ex.getMessage());
@@ -282,8 +281,7 @@ public class StaffStock extends AbstractFrame {
 
                         if (wheels != null) {
                             powController.deleteComponent(wheels, "PairsOfWheels");
-                            generatePairOfWheelsTable(powController.readAllComponentsOfType(true));
-                            tablePairsOfWheels.repaint();
+                            loadPairOfWheelsTable();
                         }
                     } catch (ComponentNotFoundException ex) {
                         showPopup(ex.getMessage());
@@ -297,6 +295,37 @@ public class StaffStock extends AbstractFrame {
         });
     }
 
+    /**
+     * Reload the frame-set table in the background.
+     */
+    private void loadFramesetTable() {
+        loader.load(() -> fController.readAllComponentsOfType(true), this::generateFramesetTable, this::showLoadError);
+    }
+
+    /**
+     * Reload the handlebar table in the background.
+     */
+    private void loadHandlebarTable() {
+        loader.load(() -> hController.readAllComponentsOfType(true), this::generateHandlebarTable, this::showLoadError);
+    }
+
+    /**
+     * Reload the pair of wheels table in the background.
+     */
+    private void loadPairOfWheelsTable() {
+        loader.load(
+                () -> powController.readAllComponentsOfType(true), this::generatePairOfWheelsTable, this::showLoadError
+        );
+    }
+
+    private void showLoadError(Exception ex) {
+        // The tables load independently, but a failure is reported only once.
+        if (!loadErrorShown) {
+            loadErrorShown = true;
+            showPopup("An external error occurred. Please try again!");
+        }
+    }
+
     /**
      * Generates a table containing all framesets in the DB
      *
@@ -5,7 +5,6 @@ import exceptions.ComponentNotFoundException;
 import exceptions.InputTooLongException;
 import gui.AbstractFrame;
 import gui.MainDashboard;
-import jdk.jfr.internal.tool.Main;
 import models.component.frameset.FrameSet;
 import models.user.staff.Staff;
 
@@ -6,11 +6,10 @@
 
 package models.bicycle;
 
-import database.controllers.bicycle.BicycleController;
 import models.component.frameset.FrameSet;
 import models.component.handlebar.Handlebar;
 import models.component.pairofwheels.PairOfWheels;
-import services.IdGenerator;
+import services.IdAllocator;
 
 import java.math.BigDecimal;
 import java.sql.SQLException;
@@ -44,22 +43,9 @@ public class Bicycle {
 
     /** Generate a unique serial number for the bicycle using the service class. */
     public void generateSerialNumber() {
-        String id = IdGenerator.generateId(12);
-
-        // Make sure that the unique ID is not repeated.
+        // IDs are allocated from leased blocks, unique without checking the records.
         try {
-            BicycleController bc = new BicycleController();
-            boolean idExists  = bc.bicycleExists(id);
-
-            if (!idExists) {
-                this.serialNumber = id;
-            }
-            else {
-                // Recursive call to find a new unique serial number.
-                // The probability of entering this part of the program
-                // ever is very low but still has to be considered.
-                generateSerialNumber();
-            }
+            this.serialNumber = IdAllocator.getInstance().nextBicycleSerialNumber();
         }
         catch (SQLException e) {
             e.printStackTrace();
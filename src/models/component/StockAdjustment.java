@@ -0,0 +1,116 @@
+/**
+ * StockAdjustment.java
+ *
+ * StockAdjustment model class: a change of the stock of one component (e.g. a line
+ * of a delivery note or a stock-take), identified by its table, serial number and
+ * brand name.
+ */
+
+package models.component;
+
+import models.component.frameset.FrameSet;
+import models.component.handlebar.Handlebar;
+import models.component.pairofwheels.PairOfWheels;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class StockAdjustment {
+    // Tables holding the stock of the components.
+    public final static List<String> TABLE_NAMES = Collections.unmodifiableList(
+            Arrays.asList("Handlebars", "FrameSets", "PairsOfWheels")
+    );
+
+    private final String tableName;
+    private final String serialNumber;
+    private final String brandName;
+    private final int delta;
+    private final Component component;
+
+    /**
+     * Constructor with parameters.
+     *
+     * @param tableName - table of the component (any of TABLE_NAMES).
+     * @param serialNumber - serial number of the component.
+     * @param brandName - brand name of the component.
+     * @param delta - amount to change the stock by (negative to take stock out).
+     * @throws IllegalArgumentException if the table is not one of the component tables.
+     */
+    public StockAdjustment(String tableName, String serialNumber, String brandName, int delta) {
+        this(tableName, serialNumber, brandName, delta, null);
+    }
+
+    /**
+     * Constructor with parameters, based on a component instance. The instance's
+     * stock is brought in line once the adjustment has been applied.
+     *
+     * @param component - component whose stock is changed.
+     * @param delta - amount to change the stock by (negative to take stock out).
+     */
+    public StockAdjustment(Component component, int delta) {
+        this(tableNameOf(component), component.getSerialNumber(), component.getBrandName(), delta, component);
+    }
+
+    private StockAdjustment(String tableName, String serialNumber, String brandName, int delta, Component component) {
+        // The table name ends up in the SQL, so only the component tables are accepted.
+        if (!TABLE_NAMES.contains(tableName)) {
+            throw new IllegalArgumentException("Not a component table: " + tableName);
+        }
+        this.tableName = tableName;
+        this.serialNumber = serialNumber;
+        this.brandName = brandName;
+        this.delta = delta;
+        this.component = component;
+    }
+
+    /**
+     * Get the table holding the records of a component.
+     *
+     * @param component - any instance of a component.
+     * @return name of the component's table.
+     */
+    public static String tableNameOf(Component component) {
+        if (component instanceof Handlebar) {
+            return "Handlebars";
+        }
+        else if (component instanceof FrameSet) {
+            return "FrameSets";
+        }
+        else if (component instanceof PairOfWheels) {
+            return "PairsOfWheels";
+        }
+        throw new IllegalArgumentException("Unknown component type: " + component.getClass().getSimpleName());
+    }
+
+    /** Accessor for the table name. */
+    public String getTableName() {
+        return this.tableName;
+    }
+
+    /** Accessor for the serial number. */
+    public String getSerialNumber() {
+        return this.serialNumber;
+    }
+
+    /** Accessor for the brand name. */
+    public String getBrandName() {
+        return this.brandName;
+    }
+
+    /** Accessor for the amount to change the stock by. */
+    public int getDelta() {
+        return this.delta;
+    }
+
+    /** Accessor for the component instance (null if built from its identifiers). */
+    public Component getComponent() {
+        return this.component;
+    }
+
+    @Override
+    public String toString() {
+        return this.tableName + " " + this.brandName + " " + this.serialNumber + " " +
+               (this.delta >= 0 ? "+" : "") + this.delta;
+    }
+}
@@ -6,11 +6,10 @@
 
 package models.order;
 
-import database.controllers.order.OrderController;
 import models.bicycle.Bicycle;
 import models.order.items.Item;
 import models.order.items.ItemType;
-import services.IdGenerator;
+import services.IdAllocator;
 
 import java.math.BigDecimal;
 import java.sql.SQLException;
@@ -109,22 +108,9 @@ public class Order {
 
     /** Generate a unique order number for the new order using the service class. */
     public void generateOrderNumber() {
-        String id = IdGenerator.generateId(11);
-
-        // Make sure that the unique ID is not repeated.
+        // IDs are allocated from leased blocks, unique without checking the records.
         try {
-            OrderController oc = new OrderController();
-            boolean idExists = oc.orderExists(id);
-
-            if (!idExists) {
-                this.orderNumber = id;
-            }
-            else {
-                // Recursive call to find a new unique order number.
-                // The probability of entering this part of the program
-                // ever is very low but still has to be considered.
-                generateOrderNumber();
-            }
+            this.orderNumber = IdAllocator.getInstance().nextOrderNumber();
         }
         catch (SQLException e) {
             e.printStackTrace();
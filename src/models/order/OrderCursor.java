@@ -0,0 +1,91 @@
+/**
+ * OrderCursor.java
+ *
+ * Position in a listing of orders sorted from the newest to the oldest, i.e. the
+ * (date, order number) of the last order of a page. A page continues strictly
+ * after its cursor, so that orders inserted meanwhile never shift the pages.
+ *
+ * Cursors are handed to the callers as opaque strings (see encode/decode).
+ */
+
+package models.order;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.util.Base64;
+
+public class OrderCursor {
+    private static final String VERSION = "1";
+    private static final String SEPARATOR = "|";
+
+    private final Date date;
+    private final String orderNumber;
+
+    /**
+     * Constructor with parameters.
+     *
+     * @param date - date of the last order of the page.
+     * @param orderNumber - number of the last order of the page.
+     */
+    public OrderCursor(Date date, String orderNumber) {
+        this.date = date;
+        this.orderNumber = orderNumber;
+    }
+
+    /**
+     * Create the cursor pointing right after an order.
+     *
+     * @param order - last order of a page.
+     * @return cursor of the page following the order.
+     */
+    public static OrderCursor after(Order order) {
+        return new OrderCursor(new Date(order.getDate().getTime()), order.getOrderNumber());
+    }
+
+    /**
+     * Decode a cursor previously returned by encode().
+     *
+     * @param cursor - opaque cursor string.
+     * @return decoded cursor.
+     * @throws IllegalArgumentException if the string is not a valid cursor.
+     */
+    public static OrderCursor decode(String cursor) {
+        String[] parts;
+        Date date;
+
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            parts = decoded.split("\\" + SEPARATOR, -1);
+            date = (parts.length == 3 ? Date.valueOf(parts[1]) : null);
+        }
+        catch (IllegalArgumentException e) {
+            // Both malformed Base64 and malformed dates end up here.
+            throw new IllegalArgumentException("Invalid order page cursor: " + cursor, e);
+        }
+
+        if (date == null || !VERSION.equals(parts[0]) || parts[2].isEmpty()) {
+            throw new IllegalArgumentException("Invalid order page cursor: " + cursor);
+        }
+        return new OrderCursor(date, parts[2]);
+    }
+
+    /**
+     * Encode the cursor as an opaque, URL-safe string.
+     *
+     * @return cursor string to be passed back for the next page.
+     */
+    public String encode() {
+        String plain = VERSION + SEPARATOR + this.date + SEPARATOR + this.orderNumber;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(plain.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** Accessor for the date of the last order of the page. */
+    public Date getDate() {
+        return this.date;
+    }
+
+    /** Accessor for the number of the last order of the page. */
+    public String getOrderNumber() {
+        return this.orderNumber;
+    }
+}
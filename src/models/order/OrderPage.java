@@ -0,0 +1,41 @@
+/**
+ * OrderPage.java
+ *
+ * Single page of a keyset-paginated listing of orders, together with the
+ * cursor of the following page.
+ */
+
+package models.order;
+
+import java.util.ArrayList;
+
+public class OrderPage {
+    private final ArrayList<Order> orders;
+    private final String nextCursor;
+
+    /**
+     * Constructor with parameters.
+     *
+     * @param orders - orders of the page, from the newest to the oldest.
+     * @param nextCursor - cursor of the following page (null if this is the last page).
+     */
+    public OrderPage(ArrayList<Order> orders, String nextCursor) {
+        this.orders = orders;
+        this.nextCursor = nextCursor;
+    }
+
+    /** Accessor for the orders of the page. */
+    public ArrayList<Order> getOrders() {
+        return this.orders;
+    }
+
+    /** Accessor for the cursor of the following page (null if this is the last page). */
+    public String getNextCursor() {
+        return this.nextCursor;
+    }
+
+    /** Accessor for whether there is a following page. */
+    public boolean hasNext() {
+        return this.nextCursor != null;
+    }
+}
@@ -2,6 +2,9 @@
  * OrderStatus.java
  *
  * Enum class for the order status.
+ *
+ * An order moves forward PENDING -> CONFIRMED -> FULFILLED, and may only be
+ * rolled back by one step (e.g. to PENDING again when the payment is denied).
  */
 
 package models.order;
@@ -9,5 +12,24 @@ package models.order;
 public enum OrderStatus {
     CONFIRMED,
     FULFILLED,
-    PENDING
+    PENDING;
+
+    /**
+     * Check whether an order may go from this status to another one.
+     *
+     * @param target - new status of the order.
+     * @return true if the transition is allowed, false otherwise (including to the same status).
+     */
+    public boolean canTransitionTo(OrderStatus target) {
+        switch (this) {
+            case PENDING:
+                return target == CONFIRMED;
+            case CONFIRMED:
+                return target == FULFILLED || target == PENDING;
+            case FULFILLED:
+                return target == CONFIRMED;
+            default:
+                return false;
+        }
+    }
 }
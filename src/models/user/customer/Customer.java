@@ -6,9 +6,8 @@
 
 package models.user.customer;
 
-import database.controllers.user.customer.CustomerController;
 import models.user.User;
-import services.IdGenerator;
+import services.IdAllocator;
 
 import java.sql.SQLException;
 
@@ -30,22 +29,9 @@ public class Customer extends User {
 
     /** Generate a unique ID for the customer using the service class. */
     public void generateCustomerId() {
-        String id = IdGenerator.generateId(11);
-
-        // Make sure that the ID was never used before.
+        // IDs are allocated from leased blocks, unique without checking the records.
         try {
-            CustomerController cc = new CustomerController();
-            boolean idExists = cc.customerExists(id);
-
-            if (!idExists) {
-                this.customerId = id;
-            }
-            else {
-                // Recursive call to find a new unique serial number.
-                // The probability of entering this part of the program
-                // ever is extremely low but still has to be considered.
-                generateCustomerId();
-            }
+            this.customerId = IdAllocator.getInstance().nextCustomerId();
         }
         catch (SQLException e) {
             e.printStackTrace();
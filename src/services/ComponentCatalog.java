@@ -0,0 +1,431 @@
+/**
+ * ComponentCatalog.java
+ *
+ * In-memory cache of all frame-sets, handlebars and pairs of wheels, used to serve
+ * the bike builder's listings and filters without a database round trip.
+ *
+ * The records are loaded once into an immutable snapshot. The snapshot is reloaded
+ * when any component has been changed since (see ComponentController.markModified),
+ * and optionally once it is older than the configured TTL ("db.catalog.ttlMs",
+ * 0 = never expires), which picks up changes made by other instances of the app.
+ *
+ * Filters are answered by a FacetIndex per component type, which also provides the
+ * number of components each filter option would leave (facet counts).
+ *
+ * Shoppers are only offered components with stock left once the units held by live
+ * reservations are taken off (see StockReservationService). The units held are read
+ * from the service's in-memory count, so they apply at once, without reloading the
+ * records; the holds of other instances apply as of the service's last sweep.
+ */
+
+package services;
+
+import database.DatabaseConfig;
+import database.controllers.component.ComponentController;
+import database.controllers.component.FrameSetController;
+import database.controllers.component.HandlebarController;
+import database.controllers.component.PairOfWheelsController;
+import exceptions.NoComponentForFilterException;
+import models.component.Component;
+import models.component.frameset.FrameSet;
+import models.component.handlebar.Handlebar;
+import models.component.handlebar.HandlebarType;
+import models.component.pairofwheels.BrakeType;
+import models.component.pairofwheels.PairOfWheels;
+import models.component.pairofwheels.TyreType;
+import services.StockReservationService.ComponentKey;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ComponentCatalog {
+    public static final String TTL_MS = "db.catalog.ttlMs";
+
+    // Names of the facets the components can be filtered (and counted) by.
+    public static final String FRAME_SET_SIZE = "size";
+    public static final String FRAME_SET_SHOCKS = "hasShocks";
+    public static final String HANDLEBAR_TYPE = "type";
+    public static final String WHEEL_TYRE_TYPE = "tyreType";
+    public static final String WHEEL_BRAKE_TYPE = "brakeType";
+    public static final String WHEEL_DIAMETER = "diameter";
+
+    private static volatile ComponentCatalog instance;
+
+    private final FrameSetController fsController = new FrameSetController();
+    private final HandlebarController hController = new HandlebarController();
+    private final PairOfWheelsController powController = new PairOfWheelsController();
+    private final long ttlMs;
+    private final StockReservationService reservations;
+    private volatile Snapshot snapshot;
+
+    /**
+     * Constructor with parameters, taking the reservations of the whole application into account.
+     *
+     * @param ttlMs - maximum age of the cached records in milliseconds (0 = no expiry).
+     */
+    public ComponentCatalog(long ttlMs) {
+        this(ttlMs, StockReservationService.getInstance());
+    }
+
+    /**
+     * Constructor with parameters.
+     *
+     * @param ttlMs - maximum age of the cached records in milliseconds (0 = no expiry).
+     * @param reservations - holds taken off the stock offered to shoppers.
+     */
+    public ComponentCatalog(long ttlMs, StockReservationService reservations) {
+        this.ttlMs = ttlMs;
+        this.reservations = reservations;
+    }
+
+    /**
+     * Accessor for the catalog shared by the whole application.
+     *
+     * @return shared catalog, configured from the database settings.
+     */
+    public static ComponentCatalog getInstance() {
+        if (instance == null) {
+            synchronized (ComponentCatalog.class) {
+                if (instance == null) {
+                    instance = new ComponentCatalog(DatabaseConfig.load().getLong(TTL_MS, 0));
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Read all frame-sets.
+     *
+     * @param fullAccess - if false, only the ones available (in stock, not all reserved) are
+     *                     returned, cheapest first.
+     * @return array list of frame-sets.
+     * @throws SQLException
+     */
+    public ArrayList<FrameSet> getFrameSets(boolean fullAccess) throws SQLException {
+        Snapshot cached = current();
+        return (fullAccess ? new ArrayList<>(cached.frameSets)
+                           : cached.frameSetIndex.select(noFilter(), reserved(cached.frameSetIndex, "FrameSets")));
+    }
+
+    /**
+     * Read all handlebars.
+     *
+     * @param fullAccess - if false, only the ones available (in stock, not all reserved) are
+     *                     returned, cheapest first.
+     * @return array list of handlebars.
+     * @throws SQLException
+     */
+    public ArrayList<Handlebar> getHandlebars(boolean fullAccess) throws SQLException {
+        Snapshot cached = current();
+        return (fullAccess ? new ArrayList<>(cached.handlebars)
+                           : cached.handlebarIndex.select(noFilter(), reserved(cached.handlebarIndex, "Handlebars")));
+    }
+
+    /**
+     * Read all pairs of wheels.
+     *
+     * @param fullAccess - if false, only the ones available (in stock, not all reserved) are
+     *                     returned, cheapest first.
+     * @return array list of pairs of wheels.
+     * @throws SQLException
+     */
+    public ArrayList<PairOfWheels> getPairsOfWheels(boolean fullAccess) throws SQLException {
+        Snapshot cached = current();
+        return (fullAccess ? new ArrayList<>(cached.pairsOfWheels)
+                           : cached.wheelIndex.select(noFilter(), reserved(cached.wheelIndex, "PairsOfWheels")));
+    }
+
+    /**
+     * Apply frame-set filter by their sizes and inclusion of shocks in the setup.
+     * Same results as FrameSetController.filterFrameSets,
+     * less the components whose whole stock is reserved.
+     *
+     * @param fSize - desired size of the frame-set (null = any).
+     * @param fHasShocks - boolean denoting whether shocks should be included (null = any).
+     * @return array list of available frame-sets fulfilling the filter requirements, cheapest first.
+     * @throws SQLException
+     * @throws NoComponentForFilterException if no frame-set matches.
+     */
+    public ArrayList<FrameSet> filterFrameSets(BigDecimal fSize, Boolean fHasShocks)
+            throws SQLException, NoComponentForFilterException {
+        FacetIndex<FrameSet> index = current().frameSetIndex;
+        ArrayList<FrameSet> frameSets = index.select(frameSetFilter(fSize, fHasShocks), reserved(index, "FrameSets"));
+
+        if (frameSets.isEmpty()) {
+            throw new NoComponentForFilterException("frame-set");
+        }
+        return frameSets;
+    }
+
+    /**
+     * Apply handlebar filter by their type.
+     *
+     * @param fHandlebarType - desired type of the handlebar (null = any).
+     * @return array list of available handlebars fulfilling the filter requirements, cheapest first.
+     * @throws SQLException
+     * @throws NoComponentForFilterException if no handlebar matches.
+     */
+    public ArrayList<Handlebar> filterHandlebars(HandlebarType fHandlebarType)
+            throws SQLException, NoComponentForFilterException {
+        FacetIndex<Handlebar> index = current().handlebarIndex;
+        ArrayList<Handlebar> handlebars = index.select(
+                handlebarFilter(fHandlebarType), reserved(index, "Handlebars")
+        );
+
+        if (handlebars.isEmpty()) {
+            throw new NoComponentForFilterException("handlebar");
+        }
+        return handlebars;
+    }
+
+    /**
+     * Apply pair of wheels filter by their tyre type, brake type and diameter.
+     *
+     * @param fTyreType - desired tyre type (null = any).
+     * @param fBrakeType - desired brake type (null = any).
+     * @param fDiameter - desired diameter (null = any).
+     * @return array list of available pairs of wheels fulfilling the filter requirements, cheapest first.
+     * @throws SQLException
+     * @throws NoComponentForFilterException if no pair of wheels matches.
+     */
+    public ArrayList<PairOfWheels> filterWheels(TyreType fTyreType, BrakeType fBrakeType, BigDecimal fDiameter)
+            throws SQLException, NoComponentForFilterException {
+        FacetIndex<PairOfWheels> index = current().wheelIndex;
+        ArrayList<PairOfWheels> pairsOfWheels = index.select(
+                wheelFilter(fTyreType, fBrakeType, fDiameter), reserved(index, "PairsOfWheels")
+        );
+
+        if (pairsOfWheels.isEmpty()) {
+            throw new NoComponentForFilterException("pair of wheels");
+        }
+        return pairsOfWheels;
+    }
+
+    /**
+     * Get the distinct sizes of the frame-sets in stock.
+     *
+     * @return array list of sizes in ascending order.
+     * @throws SQLException
+     */
+    public ArrayList<BigDecimal> getUniqueSizeSet() throws SQLException {
+        FacetIndex<FrameSet> index = current().frameSetIndex;
+        return inStockValues(index.count(FRAME_SET_SIZE, noFilter(), reserved(index, "FrameSets")));
+    }
+
+    /**
+     * Get the distinct diameters of the pairs of wheels in stock.
+     *
+     * @return array list of diameters in ascending order.
+     * @throws SQLException
+     */
+    public ArrayList<BigDecimal> getUniqueDiameterSet() throws SQLException {
+        FacetIndex<PairOfWheels> index = current().wheelIndex;
+        return inStockValues(index.count(WHEEL_DIAMETER, noFilter(), reserved(index, "PairsOfWheels")));
+    }
+
+    /**
+     * Count the frame-sets available each option of a filter would leave, given the
+     * other filters currently applied.
+     *
+     * @param facet - FRAME_SET_SIZE or FRAME_SET_SHOCKS.
+     * @param fSize - currently applied size filter (null = any).
+     * @param fHasShocks - currently applied shocks filter (null = any).
+     * @return number of frame-sets per option of the facet.
+     * @throws SQLException
+     */
+    public Map<Object, Integer> getFrameSetFacetCounts(String facet, BigDecimal fSize, Boolean fHasShocks)
+            throws SQLException {
+        FacetIndex<FrameSet> index = current().frameSetIndex;
+        return index.count(facet, frameSetFilter(fSize, fHasShocks), reserved(index, "FrameSets"));
+    }
+
+    /**
+     * Count the handlebars available each option of a filter would leave.
+     *
+     * @param facet - HANDLEBAR_TYPE.
+     * @param fHandlebarType - currently applied type filter (null = any).
+     * @return number of handlebars per option of the facet.
+     * @throws SQLException
+     */
+    public Map<Object, Integer> getHandlebarFacetCounts(String facet, HandlebarType fHandlebarType)
+            throws SQLException {
+        FacetIndex<Handlebar> index = current().handlebarIndex;
+        return index.count(facet, handlebarFilter(fHandlebarType), reserved(index, "Handlebars"));
+    }
+
+    /**
+     * Count the pairs of wheels available each option of a filter would leave, given
+     * the other filters currently applied.
+     *
+     * @param facet - WHEEL_TYRE_TYPE, WHEEL_BRAKE_TYPE or WHEEL_DIAMETER.
+     * @param fTyreType - currently applied tyre type filter (null = any).
+     * @param fBrakeType - currently applied brake type filter (null = any).
+     * @param fDiameter - currently applied diameter filter (null = any).
+     * @return number of pairs of wheels per option of the facet.
+     * @throws SQLException
+     */
+    public Map<Object, Integer> getWheelFacetCounts(
+            String facet, TyreType fTyreType, BrakeType fBrakeType, BigDecimal fDiameter) throws SQLException {
+        FacetIndex<PairOfWheels> index = current().wheelIndex;
+        return index.count(facet, wheelFilter(fTyreType, fBrakeType, fDiameter), reserved(index, "PairsOfWheels"));
+    }
+
+    /**
+     * Get the stock of a component which shoppers can still order.
+     *
+     * @param component - any instance of a component, with its current stock.
+     * @return stock less the units held by live reservations.
+     */
+    public int getAvailableStock(Component component) {
+        return this.reservations.getAvailableStock(component);
+    }
+
+    /** Drop the cached records, so that they are reloaded on the next read. */
+    public void invalidate() {
+        this.snapshot = null;
+    }
+
+    /**
+     * Get the cached records, reloading them first if they are stale.
+     *
+     * @return up-to-date snapshot of the records.
+     * @throws SQLException
+     */
+    private Snapshot current() throws SQLException {
+        Snapshot cached = this.snapshot;
+        if (isFresh(cached)) {
+            return cached;
+        }
+
+        synchronized (this) {
+            // Another thread may have reloaded the records in the meantime.
+            cached = this.snapshot;
+            if (isFresh(cached)) {
+                return cached;
+            }
+
+            // Read the version first, so that changes made during the load trigger another one.
+            long version = ComponentController.getModificationCount();
+            cached = new Snapshot(
+                    version,
+                    System.currentTimeMillis(),
+                    fsController.readAllComponentsOfType(true),
+                    hController.readAllComponentsOfType(true),
+                    powController.readAllComponentsOfType(true)
+            );
+            this.snapshot = cached;
+            return cached;
+        }
+    }
+
+    private boolean isFresh(Snapshot cached) {
+        return cached != null
+               && cached.version == ComponentController.getModificationCount()
+               && (this.ttlMs <= 0 || System.currentTimeMillis() - cached.loadedAt < this.ttlMs);
+    }
+
+    /**
+     * Find the indexed components whose whole stock is held by live reservations.
+     * Only the reserved components are looked at, not the whole index.
+     *
+     * @param index - index of the components of a table.
+     * @param tableName - table of the indexed components.
+     * @return positions of the components no longer available.
+     */
+    private BitSet reserved(FacetIndex<?> index, String tableName) {
+        BitSet reserved = new BitSet();
+        for (Map.Entry<ComponentKey, Integer> held : this.reservations.getHeldUnits().entrySet()) {
+            ComponentKey key = held.getKey();
+            if (!key.getTableName().equals(tableName)) {
+                continue;
+            }
+
+            int position = index.indexOf(key.getSerialNumber(), key.getBrandName());
+            if (position >= 0 && index.get(position).getStock() <= held.getValue()) {
+                reserved.set(position);
+            }
+        }
+        return reserved;
+    }
+
+    private static Map<String, Object> noFilter() {
+        return Collections.emptyMap();
+    }
+
+    private static Map<String, Object> frameSetFilter(BigDecimal fSize, Boolean fHasShocks) {
+        Map<String, Object> filter = new HashMap<>();
+        filter.put(FRAME_SET_SIZE, fSize);
+        filter.put(FRAME_SET_SHOCKS, fHasShocks);
+        return filter;
+    }
+
+    private static Map<String, Object> handlebarFilter(HandlebarType fHandlebarType) {
+        Map<String, Object> filter = new HashMap<>();
+        filter.put(HANDLEBAR_TYPE, fHandlebarType);
+        return filter;
+    }
+
+    private static Map<String, Object> wheelFilter(TyreType fTyreType, BrakeType fBrakeType, BigDecimal fDiameter) {
+        Map<String, Object> filter = new HashMap<>();
+        filter.put(WHEEL_TYRE_TYPE, fTyreType);
+        filter.put(WHEEL_BRAKE_TYPE, fBrakeType);
+        filter.put(WHEEL_DIAMETER, fDiameter);
+        return filter;
+    }
+
+    /**
+     * Keep the facet values selecting at least one component.
+     *
+     * @param counts - facet counts, in ascending order of the values.
+     * @return array list of the values, in ascending order.
+     */
+    private static ArrayList<BigDecimal> inStockValues(Map<Object, Integer> counts) {
+        ArrayList<BigDecimal> values = new ArrayList<>();
+        for (Map.Entry<Object, Integer> count : counts.entrySet()) {
+            if (count.getValue() > 0) {
+                values.add((BigDecimal) count.getKey());
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Immutable set of all component records loaded at once, with their indexes.
+     */
+    private static class Snapshot {
+        private final long version;
+        private final long loadedAt;
+        private final List<FrameSet> frameSets;
+        private final List<Handlebar> handlebars;
+        private final List<PairOfWheels> pairsOfWheels;
+        private final FacetIndex<FrameSet> frameSetIndex;
+        private final FacetIndex<Handlebar> handlebarIndex;
+        private final FacetIndex<PairOfWheels> wheelIndex;
+
+        Snapshot(long version, long loadedAt, List<FrameSet> frameSets,
+                 List<Handlebar> handlebars, List<PairOfWheels> pairsOfWheels) {
+            this.version = version;
+            this.loadedAt = loadedAt;
+            this.frameSets = Collections.unmodifiableList(frameSets);
+            this.handlebars = Collections.unmodifiableList(handlebars);
+            this.pairsOfWheels = Collections.unmodifiableList(pairsOfWheels);
+
+            this.frameSetIndex = new FacetIndex<>(frameSets)
+                    .addFacet(FRAME_SET_SIZE, FrameSet::getSize)
+                    .addFacet(FRAME_SET_SHOCKS, FrameSet::isHasShocks);
+            this.handlebarIndex = new FacetIndex<>(handlebars)
+                    .addFacet(HANDLEBAR_TYPE, Handlebar::getType);
+            this.wheelIndex = new FacetIndex<>(pairsOfWheels)
+                    .addFacet(WHEEL_TYRE_TYPE, PairOfWheels::getTyreType)
+                    .addFacet(WHEEL_BRAKE_TYPE, PairOfWheels::getBrakeType)
+                    .addFacet(WHEEL_DIAMETER, PairOfWheels::getDiameter);
+        }
+    }
+}
@@ -0,0 +1,471 @@
+/**
+ * ComponentImportService.java
+ *
+ * Service class importing new components (e.g. a supplier's catalog) from a CSV file
+ * into the database, for thousands of records at once rather than one by one through
+ * the stock screens.
+ *
+ * The file is streamed record by record, so it is never held in memory as a whole.
+ * The first record names the columns (in any order, extra columns are ignored):
+ *
+ *   - HANDLEBAR: serialNumber, brandName, handlebarName, type, cost, stock;
+ *   - FRAMESET: serialNumber, brandName, frameSetName, forkSetName, gearSetName,
+ *               hasShocks, size, cost, stock;
+ *   - PAIROFWHEELS: serialNumber, brandName, pairOfWheelsName, diameter, tyreType,
+ *                   brakeType, cost, stock.
+ *
+ * Each record is validated as createComponent would (MAX_INPUT_LENGTH, types, no
+ * negative cost or stock), and the valid ones are written in JDBC batches of
+ * "db.import.batchSize" records, one transaction per batch. If a batch is refused
+ * (e.g. a component already exists), its records are written one by one in the same
+ * transaction, so that only the offending ones are left out. Every record left out
+ * is reported with its line and the reason, together with the overall throughput.
+ *
+ * Usage: java services.ComponentImportService <HANDLEBAR|FRAMESET|PAIROFWHEELS> <file.csv>
+ */
+
+package services;
+
+import database.DatabaseConfig;
+import database.controllers.DatabaseController;
+import database.controllers.component.ComponentController;
+import database.controllers.component.FrameSetController;
+import database.controllers.component.HandlebarController;
+import database.controllers.component.PairOfWheelsController;
+import exceptions.InputTooLongException;
+import models.component.Component;
+import models.component.frameset.FrameSet;
+import models.component.handlebar.Handlebar;
+import models.component.handlebar.HandlebarType;
+import models.component.pairofwheels.BrakeType;
+import models.component.pairofwheels.PairOfWheels;
+import models.component.pairofwheels.TyreType;
+import models.order.items.ItemType;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+public class ComponentImportService {
+    public static final String BATCH_SIZE = "db.import.batchSize";
+    private static final int DEFAULT_BATCH_SIZE = 500;
+    // Row errors listed in a report; any further ones are only counted.
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    private final int batchSize;
+
+    /**
+     * Constructor with the batch size of the database settings.
+     */
+    public ComponentImportService() {
+        this(DatabaseConfig.load().getInt(BATCH_SIZE, DEFAULT_BATCH_SIZE));
+    }
+
+    /**
+     * Constructor with parameters.
+     *
+     * @param batchSize - number of records written per batch (and transaction).
+     */
+    public ComponentImportService(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("The import batch size must be positive.");
+        }
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Import new components from CSV text.
+     *
+     * @param csv - CSV text, starting with a header record.
+     * @param type - type of all the components of the text.
+     * @return report of the import, listing the records left out.
+     * @throws IOException if the text cannot be read.
+     * @throws SQLException if a batch could not be written for another reason than its records.
+     * @throws IllegalArgumentException if the type cannot be imported, or a column is missing.
+     */
+    public ImportReport importComponents(Reader csv, ItemType type) throws IOException, SQLException {
+        switch (type) {
+            case HANDLEBAR:
+                return importComponents(csv, new HandlebarController(), ComponentImportService::readHandlebar,
+                                        "serialNumber", "brandName", "handlebarName", "type", "cost", "stock");
+            case FRAMESET:
+                return importComponents(csv, new FrameSetController(), ComponentImportService::readFrameSet,
+                                        "serialNumber", "brandName", "frameSetName", "forkSetName",
+                                        "gearSetName", "hasShocks", "size", "cost", "stock");
+            case PAIROFWHEELS:
+                return importComponents(csv, new PairOfWheelsController(), ComponentImportService::readPairOfWheels,
+                                        "serialNumber", "brandName", "pairOfWheelsName", "diameter",
+                                        "tyreType", "brakeType", "cost", "stock");
+            default:
+                throw new IllegalArgumentException("Components of type " + type + " cannot be imported.");
+        }
+    }
+
+    private <T extends Component> ImportReport importComponents(
+            Reader csv, ComponentController<T> controller, RecordReader<T> recordReader, String... columns)
+            throws IOException, SQLException {
+        ImportReport report = new ImportReport();
+        CsvReader reader = new CsvReader(csv);
+
+        List<String> header = reader.readRecord();
+        if (header == null) {
+            throw new IllegalArgumentException("The CSV file is empty.");
+        }
+        Map<String, Integer> indexes = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            indexes.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        for (String column : columns) {
+            if (!indexes.containsKey(column.toLowerCase(Locale.ROOT))) {
+                throw new IllegalArgumentException("The CSV file has no " + column + " column.");
+            }
+        }
+
+        List<T> batch = new ArrayList<>(this.batchSize);
+        List<Integer> batchLines = new ArrayList<>(this.batchSize);
+        List<String> record;
+        while ((record = reader.readRecord()) != null) {
+            // Blank lines are not records.
+            if (record.size() == 1 && record.get(0).trim().isEmpty()) {
+                continue;
+            }
+            report.rowsRead++;
+
+            T component;
+            try {
+                component = recordReader.read(new Fields(record, indexes));
+            }
+            catch (IllegalArgumentException e) {
+                report.addError(reader.getLineNumber(), e.getMessage());
+                continue;
+            }
+            if (controller.isInputTooLong(component)) {
+                report.addError(reader.getLineNumber(),
+                                new InputTooLongException(ComponentController.MAX_INPUT_LENGTH).getMessage());
+                continue;
+            }
+
+            batch.add(component);
+            batchLines.add(reader.getLineNumber());
+            if (batch.size() == this.batchSize) {
+                writeBatch(controller, batch, batchLines, report);
+            }
+        }
+        if (!batch.isEmpty()) {
+            writeBatch(controller, batch, batchLines, report);
+        }
+
+        report.elapsedNanos = System.nanoTime() - report.startedAt;
+        return report;
+    }
+
+    /**
+     * Write a batch of components in a single transaction, and empty it.
+     */
+    private <T extends Component> void writeBatch(
+            ComponentController<T> controller, List<T> batch, List<Integer> batchLines, ImportReport report)
+            throws SQLException {
+        try (Connection transaction = DatabaseController.getDataSource().getConnection()) {
+            transaction.setAutoCommit(false);
+
+            try {
+                controller.insertComponents(transaction, batch);
+                transaction.commit();
+                report.rowsImported += batch.size();
+            }
+            catch (SQLException e) {
+                transaction.rollback();
+                if (!isRecordError(e)) {
+                    throw e;
+                }
+                // Failure path only: find out which records were refused.
+                writeOneByOne(transaction, controller, batch, batchLines, report);
+            }
+        }
+        finally {
+            batch.clear();
+            batchLines.clear();
+        }
+        ComponentController.markModified();
+    }
+
+    private <T extends Component> void writeOneByOne(
+            Connection transaction, ComponentController<T> controller,
+            List<T> batch, List<Integer> batchLines, ImportReport report)
+            throws SQLException {
+        int imported = 0;
+        try {
+            for (int i = 0; i < batch.size(); i++) {
+                try {
+                    controller.insertComponents(transaction, Collections.singletonList(batch.get(i)));
+                    imported++;
+                }
+                catch (SQLException e) {
+                    if (!isRecordError(e)) {
+                        throw e;
+                    }
+                    report.addError(batchLines.get(i), DatabaseController.isDuplicateKey(e)
+                                                       ? "The component already exists." : e.getMessage());
+                }
+            }
+            transaction.commit();
+            report.rowsImported += imported;
+        }
+        catch (SQLException | RuntimeException e) {
+            transaction.rollback();
+            throw e;
+        }
+    }
+
+    /**
+     * Check if a write failed because of the records themselves, i.e. an integrity
+     * constraint (SQL state class 23) or an invalid value (class 22).
+     */
+    private static boolean isRecordError(SQLException e) {
+        // Some drivers only give the cause of a failed batch in the chained exception.
+        if (e instanceof BatchUpdateException && e.getSQLState() == null && e.getNextException() != null) {
+            return isRecordError(e.getNextException());
+        }
+        String state = e.getSQLState();
+        return DatabaseController.isDuplicateKey(e)
+               || (state != null && (state.startsWith("23") || state.startsWith("22")));
+    }
+
+    private static Handlebar readHandlebar(Fields fields) {
+        return new Handlebar(
+                fields.text("serialNumber"),
+                fields.text("handlebarName"),
+                fields.text("brandName"),
+                fields.amount("cost"),
+                fields.count("stock"),
+                fields.option("type", HandlebarType.class)
+        );
+    }
+
+    private static FrameSet readFrameSet(Fields fields) {
+        return new FrameSet(
+                fields.text("serialNumber"),
+                fields.text("frameSetName"),
+                fields.text("brandName"),
+                fields.amount("cost"),
+                fields.count("stock"),
+                fields.text("forkSetName"),
+                fields.text("gearSetName"),
+                fields.amount("size"),
+                fields.flag("hasShocks")
+        );
+    }
+
+    private static PairOfWheels readPairOfWheels(Fields fields) {
+        return new PairOfWheels(
+                fields.text("serialNumber"),
+                fields.text("pairOfWheelsName"),
+                fields.text("brandName"),
+                fields.amount("cost"),
+                fields.count("stock"),
+                fields.amount("diameter"),
+                fields.option("tyreType", TyreType.class),
+                fields.option("brakeType", BrakeType.class)
+        );
+    }
+
+    /**
+     * Import a CSV file from the command line, printing its report.
+     *
+     * @param args - type of the components, and path of the CSV file.
+     */
+    public static void main(String[] args) throws IOException, SQLException {
+        if (args.length != 2) {
+            System.out.println("Usage: java services.ComponentImportService "
+                               + "<HANDLEBAR|FRAMESET|PAIROFWHEELS> <file.csv>");
+            return;
+        }
+
+        ItemType type = ItemType.valueOf(args[0].toUpperCase(Locale.ROOT));
+        try (Reader reader = Files.newBufferedReader(Paths.get(args[1]), StandardCharsets.UTF_8)) {
+            ImportReport report = new ComponentImportService().importComponents(reader, type);
+            for (RowError error : report.getErrors()) {
+                System.out.println(error);
+            }
+            System.out.println(report);
+        }
+    }
+
+    /**
+     * Function building a component from the fields of a record.
+     */
+    private interface RecordReader<T> {
+        T read(Fields fields);
+    }
+
+    /**
+     * Fields of a record, by column name, parsed into the types of the components.
+     * Every parse method throws an IllegalArgumentException describing an invalid value.
+     */
+    private static class Fields {
+        private final List<String> record;
+        private final Map<String, Integer> indexes;
+
+        Fields(List<String> record, Map<String, Integer> indexes) {
+            this.record = record;
+            this.indexes = indexes;
+        }
+
+        String text(String column) {
+            int index = this.indexes.get(column.toLowerCase(Locale.ROOT));
+            String value = (index < this.record.size() ? this.record.get(index).trim() : "");
+            if (value.isEmpty()) {
+                throw new IllegalArgumentException("Missing " + column + ".");
+            }
+            return value;
+        }
+
+        BigDecimal amount(String column) {
+            String value = text(column);
+            try {
+                BigDecimal amount = new BigDecimal(value);
+                if (amount.signum() < 0) {
+                    throw new IllegalArgumentException("Negative " + column + ": " + value);
+                }
+                return amount;
+            }
+            catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid " + column + ": " + value);
+            }
+        }
+
+        int count(String column) {
+            String value = text(column);
+            try {
+                int count = Integer.parseInt(value);
+                if (count < 0) {
+                    throw new IllegalArgumentException("Negative " + column + ": " + value);
+                }
+                return count;
+            }
+            catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid " + column + ": " + value);
+            }
+        }
+
+        boolean flag(String column) {
+            String value = text(column).toLowerCase(Locale.ROOT);
+            switch (value) {
+                case "true": case "yes": case "1":
+                    return true;
+                case "false": case "no": case "0":
+                    return false;
+                default:
+                    throw new IllegalArgumentException("Invalid " + column + ": " + value);
+            }
+        }
+
+        <E extends Enum<E>> E option(String column, Class<E> options) {
+            String value = text(column);
+            try {
+                return Enum.valueOf(options, value.toUpperCase(Locale.ROOT));
+            }
+            catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid " + column + ": " + value);
+            }
+        }
+    }
+
+    /**
+     * Record left out of an import, with the reason.
+     */
+    public static class RowError {
+        private final int line;
+        private final String message;
+
+        RowError(int line, String message) {
+            this.line = line;
+            this.message = message;
+        }
+
+        /** Accessor for the line of the CSV file on which the record starts. */
+        public int getLine() {
+            return this.line;
+        }
+
+        /** Accessor for the reason the record was left out. */
+        public String getMessage() {
+            return this.message;
+        }
+
+        @Override
+        public String toString() {
+            return "Line " + this.line + ": " + this.message;
+        }
+    }
+
+    /**
+     * Outcome of an import: records read, imported and left out, and throughput.
+     */
+    public static class ImportReport {
+        private final long startedAt = System.nanoTime();
+        private final List<RowError> errors = new ArrayList<>();
+        private long elapsedNanos;
+        private int rowsRead;
+        private int rowsImported;
+        private int rowsFailed;
+
+        private void addError(int line, String message) {
+            this.rowsFailed++;
+            if (this.errors.size() < MAX_REPORTED_ERRORS) {
+                this.errors.add(new RowError(line, message));
+            }
+        }
+
+        /** Accessor for the number of records read (excluding the header). */
+        public int getRowsRead() {
+            return this.rowsRead;
+        }
+
+        /** Accessor for the number of components created. */
+        public int getRowsImported() {
+            return this.rowsImported;
+        }
+
+        /** Accessor for the number of records left out. */
+        public int getRowsFailed() {
+            return this.rowsFailed;
+        }
+
+        /** Accessor for the records left out, with their reasons (the first 1000 only). */
+        public List<RowError> getErrors() {
+            return Collections.unmodifiableList(this.errors);
+        }
+
+        /** Accessor for the duration of the import, in milliseconds. */
+        public long getElapsedMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(this.elapsedNanos);
+        }
+
+        /** Accessor for the number of records read per second over the whole import. */
+        public double getRowsPerSecond() {
+            return (this.elapsedNanos == 0 ? 0 : this.rowsRead * 1e9 / this.elapsedNanos);
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                    "Imported %d of %d records (%d left out) in %d ms, %.0f records/s.",
+                    this.rowsImported, this.rowsRead, this.rowsFailed, getElapsedMillis(), getRowsPerSecond()
+            );
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/**
+ * CsvReader.java
+ *
+ * Streaming reader of comma-separated values (RFC 4180): fields may be quoted, and
+ * quoted fields may contain commas, doubled quotes ("") and line breaks. Records are
+ * read one at a time, so a file of any size is never held in memory as a whole.
+ */
+
+package services;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+public class CsvReader implements Closeable {
+    private final BufferedReader reader;
+    private final StringBuilder field = new StringBuilder();
+    private int nextLine = 1;
+    private int recordLine;
+
+    /**
+     * Constructor with parameters.
+     *
+     * @param reader - source of the CSV text.
+     */
+    public CsvReader(Reader reader) {
+        this.reader = (reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader));
+    }
+
+    /**
+     * Read the next record.
+     *
+     * @return fields of the record, or null at the end of the text.
+     * @throws IOException if the text cannot be read, or ends within a quoted field.
+     */
+    public List<String> readRecord() throws IOException {
+        int c = this.reader.read();
+        if (c == -1) {
+            return null;
+        }
+
+        this.recordLine = this.nextLine;
+        List<String> fields = new ArrayList<>();
+        boolean quoted = false;
+        this.field.setLength(0);
+
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    throw new IOException("Unterminated quoted field starting on line " + this.recordLine + ".");
+                }
+                if (c == '"') {
+                    c = this.reader.read();
+                    if (c != '"') {
+                        // Closing quote: the character after it is handled as unquoted.
+                        quoted = false;
+                        continue;
+                    }
+                }
+                else if (c == '\n') {
+                    this.nextLine++;
+                }
+                this.field.append((char) c);
+            }
+            else if (c == '"' && this.field.length() == 0) {
+                quoted = true;
+            }
+            else if (c == ',') {
+                fields.add(this.field.toString());
+                this.field.setLength(0);
+            }
+            else if (c == '\r' || c == '\n' || c == -1) {
+                if (c == '\r') {
+                    this.reader.mark(1);
+                    if (this.reader.read() != '\n') {
+                        this.reader.reset();
+                    }
+                }
+                if (c != -1) {
+                    this.nextLine++;
+                }
+                fields.add(this.field.toString());
+                return fields;
+            }
+            else {
+                this.field.append((char) c);
+            }
+            c = this.reader.read();
+        }
+    }
+
+    /** Accessor for the line on which the last record read starts (from 1). */
+    public int getLineNumber() {
+        return this.recordLine;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.reader.close();
+    }
+}
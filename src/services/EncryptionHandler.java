@@ -4,6 +4,9 @@
  * Service class used to encrypt data using SHA-256.
  *
  * The algorithm is an example of one-way encryption system (i.e. cannot be decrypted).
+ *
+ * Safe to call from any number of threads at once: every thread hashes with its
+ * own digest instance, created once and reused for all its later calls.
  */
 
 package services;
@@ -13,10 +16,12 @@ import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 
 public class EncryptionHandler {
-    private static MessageDigest mdEncryptor;
+    private static final ThreadLocal<MessageDigest> mdEncryptors = new ThreadLocal<>();
     private static final String MD_ALGORITHM = "SHA-256";
     private final static int DATA_MAX_LENGTH = 20;
     private final static char SALT = '$';
+    // Two characters per byte value, e.g. "3f" for 0x3f and "$a" for 0x0a (salt instead of the leading zero).
+    private final static char[] HEX_TABLE = createHexTable();
 
     /**
      * First step of performing encryption - add salt to data.
@@ -25,7 +30,8 @@ public class EncryptionHandler {
      * @return "salted" data that has maximum allowed length.
      */
     private static String addSalt(String rawData) {
-        StringBuilder salted = new StringBuilder(rawData);
+        StringBuilder salted = new StringBuilder(DATA_MAX_LENGTH);
+        salted.append(rawData);
 
         while(salted.length() < DATA_MAX_LENGTH){
             salted.append(SALT);
@@ -42,7 +48,14 @@ public class EncryptionHandler {
      * @throws NoSuchAlgorithmException
      */
     private static byte[] digestData(String saltedData) throws NoSuchAlgorithmException {
-        mdEncryptor = MessageDigest.getInstance(MD_ALGORITHM);
+        MessageDigest mdEncryptor = mdEncryptors.get();
+
+        if (mdEncryptor == null) {
+            mdEncryptor = MessageDigest.getInstance(MD_ALGORITHM);
+            mdEncryptors.set(mdEncryptor);
+        }
+
+        // digest() also resets the instance, ready for the next call of the thread.
         byte[] dataAsBytes = saltedData.getBytes(StandardCharsets.UTF_8);
         return mdEncryptor.digest(dataAsBytes);
     }
@@ -54,19 +67,33 @@ public class EncryptionHandler {
      * @return encrypted data expressed as String.
      */
     private static String convertHashToStr(byte[] hashData) {
-        StringBuilder hexStr = new StringBuilder();
+        char[] hexStr = new char[hashData.length * 2];
+
+        for (int i = 0; i < hashData.length; i++) {
+            int tableIndex = (0xff & hashData[i]) * 2;
+            hexStr[i * 2] = HEX_TABLE[tableIndex];
+            hexStr[i * 2 + 1] = HEX_TABLE[tableIndex + 1];
+        }
 
-        for (byte hByte : hashData) {
-            String hex = Integer.toHexString(0xff & hByte);
+        return new String(hexStr);
+    }
 
-            if (hex.length() == 1) {
-                hexStr.append(SALT);
-            }
+    /**
+     * Build the table used to convert bytes to hexadecimal characters, where the
+     * leading zero of the values below 0x10 is replaced by salt (as the hash has
+     * always been stored like that).
+     *
+     * @return two characters for every byte value, from 0x00 to 0xff.
+     */
+    private static char[] createHexTable() {
+        char[] table = new char[256 * 2];
 
-            hexStr.append(hex);
+        for (int value = 0; value < 256; value++) {
+            table[value * 2] = (value < 0x10 ? SALT : Character.forDigit(value >> 4, 16));
+            table[value * 2 + 1] = Character.forDigit(value & 0xf, 16);
         }
 
-        return hexStr.toString();
+        return table;
     }
 
     /**
@@ -0,0 +1,201 @@
+/**
+ * FacetIndex.java
+ *
+ * In-memory index over a list of components, keeping one bitset per value of each
+ * facet (e.g. one bitset for every frame-set size). Any combination of filters is
+ * answered by AND-ing the bitsets of the selected values.
+ *
+ * The components are ordered by cost once, when the index is built, so bit i is
+ * the i-th cheapest component and the results come out already sorted by cost.
+ * Only components in stock are ever selected or counted; callers may exclude
+ * more of them per query (e.g. the ones whose stock is all reserved).
+ *
+ * The index is filled once with addFacet() and must not be changed after it has
+ * been shared between threads.
+ */
+
+package services;
+
+import models.component.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+public class FacetIndex<T extends Component> {
+    // Facet values are compared naturally, so e.g. BigDecimal 80.5 and 80.50 are the same value.
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static final Comparator<Object> VALUE_ORDER = (a, b) -> ((Comparable) a).compareTo(b);
+
+    private final List<T> components;
+    private final BitSet inStock;
+    // Position of each component, by serial number and brand name.
+    private final Map<List<String>, Integer> positions = new HashMap<>();
+    private final Map<String, TreeMap<Object, BitSet>> facets = new HashMap<>();
+
+    /**
+     * Constructor with parameters.
+     *
+     * @param components - components to be indexed (the list itself is not modified).
+     */
+    public FacetIndex(List<T> components) {
+        ArrayList<T> byCost = new ArrayList<>(components);
+        byCost.sort(Comparator.comparing(Component::getCost));
+        this.components = Collections.unmodifiableList(byCost);
+
+        this.inStock = new BitSet(byCost.size());
+        for (int i = 0; i < byCost.size(); i++) {
+            if (byCost.get(i).getStock() > 0) {
+                this.inStock.set(i);
+            }
+            this.positions.put(Arrays.asList(byCost.get(i).getSerialNumber(), byCost.get(i).getBrandName()), i);
+        }
+    }
+
+    /**
+     * Find the position of a component in the index (its bit in the bitsets).
+     *
+     * @param serialNumber - serial number of the component.
+     * @param brandName - brand name of the component.
+     * @return position of the component, or -1 if not indexed.
+     */
+    public int indexOf(String serialNumber, String brandName) {
+        Integer position = this.positions.get(Arrays.asList(serialNumber, brandName));
+        return (position == null ? -1 : position);
+    }
+
+    /**
+     * Accessor for the component at a position of the index.
+     *
+     * @param position - position of the component (see indexOf).
+     * @return indexed component.
+     */
+    public T get(int position) {
+        return this.components.get(position);
+    }
+
+    /**
+     * Index a facet of the components.
+     *
+     * @param facet - name of the facet.
+     * @param extractor - function reading the (comparable) facet value of a component.
+     * @return this index, for chaining.
+     */
+    public FacetIndex<T> addFacet(String facet, Function<? super T, ?> extractor) {
+        TreeMap<Object, BitSet> values = new TreeMap<>(VALUE_ORDER);
+        for (int i = 0; i < this.components.size(); i++) {
+            Object value = extractor.apply(this.components.get(i));
+            if (value != null) {
+                values.computeIfAbsent(value, v -> new BitSet(this.components.size())).set(i);
+            }
+        }
+
+        this.facets.put(facet, values);
+        return this;
+    }
+
+    /**
+     * Select the components in stock matching all the selected facet values.
+     *
+     * @param selections - selected value per facet name (missing or null value = any).
+     * @return array list of the matching components, cheapest first.
+     */
+    public ArrayList<T> select(Map<String, ?> selections) {
+        return select(selections, null);
+    }
+
+    /**
+     * Select the components in stock matching all the selected facet values,
+     * leaving out the excluded ones.
+     *
+     * @param selections - selected value per facet name (missing or null value = any).
+     * @param excluded - positions of the components to be left out (null = none).
+     * @return array list of the matching components, cheapest first.
+     */
+    public ArrayList<T> select(Map<String, ?> selections, BitSet excluded) {
+        BitSet matches = match(selections, null, excluded);
+
+        ArrayList<T> selected = new ArrayList<>(matches.cardinality());
+        for (int i = matches.nextSetBit(0); i >= 0; i = matches.nextSetBit(i + 1)) {
+            selected.add(this.components.get(i));
+        }
+        return selected;
+    }
+
+    /**
+     * Count how many components in stock each value of a facet would select,
+     * combined with the other selections (the facet's own selection is ignored).
+     *
+     * @param facet - name of the facet to be counted.
+     * @param selections - selected value per facet name (missing or null value = any).
+     * @return number of matching components per facet value, in ascending order of the values.
+     */
+    public Map<Object, Integer> count(String facet, Map<String, ?> selections) {
+        return count(facet, selections, null);
+    }
+
+    /**
+     * Count how many components in stock each value of a facet would select,
+     * combined with the other selections, leaving out the excluded components.
+     *
+     * @param facet - name of the facet to be counted.
+     * @param selections - selected value per facet name (missing or null value = any).
+     * @param excluded - positions of the components to be left out (null = none).
+     * @return number of matching components per facet value, in ascending order of the values.
+     */
+    public Map<Object, Integer> count(String facet, Map<String, ?> selections, BitSet excluded) {
+        BitSet others = match(selections, facet, excluded);
+
+        Map<Object, Integer> counts = new TreeMap<>(VALUE_ORDER);
+        for (Map.Entry<Object, BitSet> value : facetValues(facet).entrySet()) {
+            BitSet matches = (BitSet) value.getValue().clone();
+            matches.and(others);
+            counts.put(value.getKey(), matches.cardinality());
+        }
+        return counts;
+    }
+
+    /**
+     * AND together the in-stock bitset and the bitsets of the selected values.
+     *
+     * @param selections - selected value per facet name.
+     * @param ignoredFacet - facet whose selection is skipped (null = none).
+     * @param excluded - positions of the components to be left out (null = none).
+     * @return new bitset of the matching components.
+     */
+    private BitSet match(Map<String, ?> selections, String ignoredFacet, BitSet excluded) {
+        BitSet matches = (BitSet) this.inStock.clone();
+        if (excluded != null) {
+            matches.andNot(excluded);
+        }
+
+        for (Map.Entry<String, ?> selection : selections.entrySet()) {
+            if (selection.getValue() == null || selection.getKey().equals(ignoredFacet)) {
+                continue;
+            }
+
+            BitSet valueBits = facetValues(selection.getKey()).get(selection.getValue());
+            if (valueBits == null) {
+                matches.clear();
+                break;
+            }
+            matches.and(valueBits);
+        }
+        return matches;
+    }
+
+    private TreeMap<Object, BitSet> facetValues(String facet) {
+        TreeMap<Object, BitSet> values = this.facets.get(facet);
+        if (values == null) {
+            throw new IllegalArgumentException("Unknown facet: " + facet);
+        }
+        return values;
+    }
+}
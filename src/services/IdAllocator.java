@@ -0,0 +1,254 @@
+/**
+ * IdAllocator.java
+ *
+ * Service class allocating unique, fixed-length numeric IDs (order numbers,
+ * bicycle serial numbers and customer IDs) without a database lookup per ID.
+ *
+ * Each kind of ID is a sequence whose next free value is kept in the IdSequences
+ * table (created by migration V006, its rows seeded by V008). An allocator leases a whole block of values
+ * at once (one short transaction locking the sequence's row) and then hands them
+ * out from memory, so IDs never collide, not even between several instances of the
+ * app sharing the database.
+ * Values of an unused block are simply skipped. A lease that fails on a deadlock
+ * or on a row inserted at the same time by another instance is retried.
+ *
+ * A sequence starts after the highest ID of the same length already stored, and
+ * never below 10...0, so the IDs keep their length without leading zeros.
+ */
+
+package services;
+
+import database.DatabaseConfig;
+import database.StatementRegistry;
+import database.controllers.DatabaseController;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+public class IdAllocator {
+    public static final String BLOCK_SIZE = "db.id.blockSize";
+    private static final int DEFAULT_BLOCK_SIZE = 50;
+    private static final int LEASE_ATTEMPTS = 3;
+    private static volatile IdAllocator instance;
+
+    private static final String LOCK_QUERY = StatementRegistry.register(
+            "IdAllocator.lockNextValue",
+            "SELECT nextValue FROM IdSequences WHERE name = ? FOR UPDATE"
+    );
+
+    private static final String INSERT_QUERY = StatementRegistry.register(
+            "IdAllocator.lockNextValue(insert)",
+            "INSERT INTO IdSequences (name, nextValue) VALUES (?, ?)"
+    );
+
+    private static final String LEASE_QUERY = StatementRegistry.register(
+            "IdAllocator.lease",
+            "UPDATE IdSequences SET nextValue = ? WHERE name = ?"
+    );
+
+    private final DataSource dataSource;
+    private final int blockSize;
+    private final Sequence orderNumbers = new Sequence("orderNumber", "Orders", "orderNumber", 11);
+    private final Sequence bicycleSerialNumbers = new Sequence("bicycleSerialNumber", "Bicycles", "serialNumber", 12);
+    private final Sequence customerIds = new Sequence("customerId", "Customers", "customerId", 11);
+
+    /**
+     * Constructor with parameters.
+     *
+     * @param dataSource - database holding the sequences.
+     * @param blockSize - number of IDs leased at once.
+     */
+    public IdAllocator(DataSource dataSource, int blockSize) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("The ID block size must be positive.");
+        }
+        this.dataSource = dataSource;
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Accessor for the allocator shared by the whole application.
+     *
+     * @return shared allocator, configured from the database settings.
+     */
+    public static IdAllocator getInstance() {
+        if (instance == null) {
+            synchronized (IdAllocator.class) {
+                if (instance == null) {
+                    instance = new IdAllocator(
+                            DatabaseController.getDataSource(),
+                            DatabaseConfig.load().getInt(BLOCK_SIZE, DEFAULT_BLOCK_SIZE)
+                    );
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Allocate a new order number.
+     *
+     * @return unique 11-digit order number.
+     * @throws SQLException if a new block of IDs could not be leased.
+     */
+    public String nextOrderNumber() throws SQLException {
+        return next(orderNumbers);
+    }
+
+    /**
+     * Allocate a new bicycle serial number.
+     *
+     * @return unique 12-digit serial number.
+     * @throws SQLException if a new block of IDs could not be leased.
+     */
+    public String nextBicycleSerialNumber() throws SQLException {
+        return next(bicycleSerialNumbers);
+    }
+
+    /**
+     * Allocate a new customer ID.
+     *
+     * @return unique 11-digit customer ID.
+     * @throws SQLException if a new block of IDs could not be leased.
+     */
+    public String nextCustomerId() throws SQLException {
+        return next(customerIds);
+    }
+
+    private String next(Sequence sequence) throws SQLException {
+        synchronized (sequence) {
+            if (sequence.nextValue >= sequence.blockEnd) {
+                lease(sequence);
+            }
+            return String.valueOf(sequence.nextValue++);
+        }
+    }
+
+    /**
+     * Lease the next block of values of a sequence (called with the sequence locked),
+     * retrying a lease that conflicts with one of another instance.
+     *
+     * @param sequence - sequence whose block is used up.
+     * @throws SQLException
+     */
+    private void lease(Sequence sequence) throws SQLException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                leaseOnce(sequence);
+                return;
+            }
+            catch (SQLException e) {
+                if (attempt == LEASE_ATTEMPTS || !isLeaseConflict(e)) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private void leaseOnce(Sequence sequence) throws SQLException {
+        try (Connection transaction = dataSource.getConnection()) {
+            transaction.setAutoCommit(false);
+
+            try {
+                long blockStart = lockNextValue(transaction, sequence);
+                long blockEnd = blockStart + blockSize;
+                if (blockEnd - 1 > sequence.maxValue) {
+                    throw new SQLException("All " + sequence.length + "-digit IDs of " + sequence.name + " are used up.");
+                }
+
+                try (PreparedStatement update = transaction.prepareStatement(LEASE_QUERY)) {
+                    update.setLong(1, blockEnd);
+                    update.setString(2, sequence.name);
+                    update.executeUpdate();
+                }
+                transaction.commit();
+
+                sequence.nextValue = blockStart;
+                sequence.blockEnd = blockEnd;
+            }
+            catch (SQLException | RuntimeException e) {
+                transaction.rollback();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Check if a lease failed only because of a concurrent one, i.e. a deadlock or
+     * lock timeout (SQL state class 40) or the sequence's row inserted by another
+     * instance (class 23).
+     */
+    private static boolean isLeaseConflict(SQLException e) {
+        String state = e.getSQLState();
+        return DatabaseController.isDuplicateKey(e)
+               || (state != null && (state.startsWith("40") || state.startsWith("23")));
+    }
+
+    /**
+     * Read (and lock until commit) the next free value of a sequence, creating
+     * its row first if it is missing (i.e. on a database not migrated to V008).
+     *
+     * @param transaction - open transaction.
+     * @param sequence - sequence to be read.
+     * @return next free value.
+     * @throws SQLException
+     */
+    private long lockNextValue(Connection transaction, Sequence sequence) throws SQLException {
+        try (PreparedStatement select = transaction.prepareStatement(LOCK_QUERY)) {
+            select.setString(1, sequence.name);
+            try (ResultSet result = select.executeQuery()) {
+                if (result.next()) {
+                    return result.getLong("nextValue");
+                }
+            }
+
+            // Start above every ID generated before the sequence existed.
+            long firstValue = sequence.minValue;
+            String maxQuery = "SELECT MAX(" + sequence.column + ") FROM " + sequence.table +
+                              " WHERE LENGTH(" + sequence.column + ") = ?";
+            try (PreparedStatement max = transaction.prepareStatement(maxQuery)) {
+                max.setInt(1, sequence.length);
+                try (ResultSet result = max.executeQuery()) {
+                    if (result.next() && result.getString(1) != null) {
+                        firstValue = Math.max(firstValue, Long.parseLong(result.getString(1).trim()) + 1);
+                    }
+                }
+            }
+
+            // Fails if another instance has just created the row; the lease is then retried.
+            try (PreparedStatement insert = transaction.prepareStatement(INSERT_QUERY)) {
+                insert.setString(1, sequence.name);
+                insert.setLong(2, firstValue);
+                insert.executeUpdate();
+            }
+
+            return firstValue;
+        }
+    }
+
+    /**
+     * State of one kind of ID; guarded by its own monitor.
+     */
+    private static class Sequence {
+        private final String name;
+        private final String table;
+        private final String column;
+        private final int length;
+        private final long minValue;
+        private final long maxValue;
+        private long nextValue;
+        private long blockEnd;
+
+        Sequence(String name, String table, String column, int length) {
+            this.name = name;
+            this.table = table;
+            this.column = column;
+            this.length = length;
+            this.minValue = (long) Math.pow(10, length - 1);
+            this.maxValue = (long) Math.pow(10, length) - 1;
+        }
+    }
+}
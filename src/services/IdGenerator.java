@@ -3,13 +3,17 @@
  *
  * Service class used to generate IDs of specific length,
  * e.g. for bicycle serial number, or order number, etc.
+ *
+ * Random IDs are not guaranteed to be unique; records use IdAllocator instead.
  */
 
 package services;
 
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 
 public class IdGenerator {
+    private static final char[] DIGITS = "0123456789".toCharArray();
+
     /**
      * Static method to generate ID of a specific length.
      *
@@ -17,17 +21,13 @@ public class IdGenerator {
      * @return generated ID.
      */
     public static String generateId(int idLength) {
-        char[] digits = "0123456789".toCharArray();
-        Random rnd = new Random();
-        StringBuilder idStrBuilder = new StringBuilder((100000 + rnd.nextInt(900000)));
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        char[] id = new char[idLength];
 
         for (int i = 0; i < idLength; i++) {
-            idStrBuilder.append(
-                    digits[rnd.nextInt(digits.length)]
-            );
+            id[i] = DIGITS[rnd.nextInt(DIGITS.length)];
         }
 
-        String id = idStrBuilder.toString();
-        return id;
+        return new String(id);
     }
 }
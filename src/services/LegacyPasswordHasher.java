@@ -0,0 +1,48 @@
+/**
+ * LegacyPasswordHasher.java
+ *
+ * Password hasher of the hashes stored originally: a single SHA-256 round with
+ * the fixed salt of EncryptionHandler. Kept only to verify such hashes, which
+ * are always due for a rehash with a stronger hasher.
+ */
+
+package services;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.regex.Pattern;
+
+public class LegacyPasswordHasher implements PasswordHasher {
+    // 32 bytes as 2 characters each, where the leading zero of small bytes is replaced by salt.
+    private static final Pattern LEGACY_HASH = Pattern.compile("[0-9a-f$]{64}");
+
+    @Override
+    public String hash(char[] password) {
+        try {
+            return EncryptionHandler.encryptData(String.valueOf(password));
+        }
+        catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    @Override
+    public boolean verify(char[] password, String encodedHash) {
+        // Constant-time comparison, not to tell how much of the hash matched.
+        return MessageDigest.isEqual(
+                hash(password).getBytes(StandardCharsets.UTF_8),
+                encodedHash.getBytes(StandardCharsets.UTF_8)
+        );
+    }
+
+    @Override
+    public boolean recognizes(String encodedHash) {
+        return encodedHash != null && LEGACY_HASH.matcher(encodedHash).matches();
+    }
+
+    @Override
+    public boolean needsRehash(String encodedHash) {
+        return true;
+    }
+}
@@ -0,0 +1,105 @@
+/**
+ * OrderPlacementService.java
+ *
+ * Service class used to place a customer's order atomically: the bicycle record,
+ * the order record, its items and the stock decrement of every component are
+ * all written on a single connection, within a single transaction.
+ *
+ * Either the whole order is stored, or nothing is (no partially placed orders).
+ * The customer's stock reservation (if any) is converted within the same
+ * transaction: its units are not taken off the stock available to the order, and
+ * its holds are deleted, since the order's stock decrement takes their place.
+ */
+
+package services;
+
+import database.controllers.DatabaseController;
+import database.controllers.bicycle.BicycleController;
+import database.controllers.component.ComponentController;
+import database.controllers.order.ItemController;
+import database.controllers.order.OrderController;
+import exceptions.ComponentNotFoundException;
+import exceptions.InsufficientStockException;
+import exceptions.InvalidOrderException;
+import models.bicycle.Bicycle;
+import models.order.Order;
+import services.StockReservationService.Reservation;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+public class OrderPlacementService {
+    private final BicycleController bController = new BicycleController();
+    private final OrderController oController = new OrderController();
+    private final ItemController iController = new ItemController();
+
+    /**
+     * Place a prepared order for the bicycle assembled by the customer.
+     *
+     * @param order - order prepared for the bicycle (see Order.prepareOrder).
+     * @param bicycle - bicycle to be created and ordered.
+     * @return true if the order was placed with success, false otherwise.
+     * @throws SQLException
+     * @throws InvalidOrderException if the order record could not be created.
+     * @throws ComponentNotFoundException if any of the bicycle's components does not exist.
+     * @throws InsufficientStockException if any of the bicycle's components is out of stock.
+     */
+    public boolean placeOrder(Order order, Bicycle bicycle)
+            throws SQLException, InvalidOrderException, ComponentNotFoundException, InsufficientStockException {
+        return placeOrder(order, bicycle, null);
+    }
+
+    /**
+     * Place a prepared order for the bicycle assembled by the customer, converting
+     * the hold taken on its components at checkout.
+     *
+     * @param order - order prepared for the bicycle (see Order.prepareOrder).
+     * @param bicycle - bicycle to be created and ordered.
+     * @param reservation - hold on the bicycle's components (null = none). Left as it
+     *                    is if the order is not placed.
+     * @return true if the order was placed with success, false otherwise.
+     * @throws SQLException
+     * @throws InvalidOrderException if the order record could not be created.
+     * @throws ComponentNotFoundException if any of the bicycle's components does not exist.
+     * @throws InsufficientStockException if any of the bicycle's components is out of stock.
+     */
+    public boolean placeOrder(Order order, Bicycle bicycle, Reservation reservation)
+            throws SQLException, InvalidOrderException, ComponentNotFoundException, InsufficientStockException {
+        try (Connection transaction = DatabaseController.getDataSource().getConnection()) {
+            transaction.setAutoCommit(false);
+
+            try {
+                if (!bController.insertBicycle(transaction, bicycle)) {
+                    transaction.rollback();
+                    return false;
+                }
+
+                oController.insertOrder(transaction, order);
+                iController.insertOrderItems(transaction, order.getOrderItems());
+                bController.adjustComponentStock(
+                        transaction, bicycle, -1, (reservation != null ? reservation.getId() : null)
+                );
+                if (reservation != null) {
+                    reservation.convert(transaction);
+                }
+                transaction.commit();
+            }
+            catch (SQLException | InvalidOrderException | ComponentNotFoundException
+                   | InsufficientStockException | RuntimeException e) {
+                transaction.rollback();
+                throw e;
+            }
+        }
+
+        // The order is committed, so only the in-memory state is updated from here on.
+        if (reservation != null) {
+            // Taken off the display cache before the catalog reloads, so that the unit is never counted twice.
+            reservation.confirm();
+        }
+        ComponentController.markModified();
+
+        // Keep the in-memory components in line with the committed stock.
+        BicycleController.applyStockChange(bicycle, -1);
+        return true;
+    }
+}
@@ -0,0 +1,47 @@
+/**
+ * PasswordHasher.java
+ *
+ * Interface of the algorithms used to hash the staff passwords.
+ *
+ * Hashes are stored self-describing (i.e. with the algorithm and its parameters),
+ * so a hasher can tell its own hashes apart and whether they are weaker than the
+ * ones it currently produces.
+ */
+
+package services;
+
+public interface PasswordHasher {
+    /**
+     * Hash a password with the current parameters.
+     *
+     * @param password - raw password.
+     * @return encoded hash, to be stored.
+     */
+    String hash(char[] password);
+
+    /**
+     * Check a password against a stored hash.
+     *
+     * @param password - raw password attempted.
+     * @param encodedHash - stored hash, recognised by this hasher.
+     * @return true if the password matches, false otherwise.
+     */
+    boolean verify(char[] password, String encodedHash);
+
+    /**
+     * Check whether a stored hash has been produced by this hasher.
+     *
+     * @param encodedHash - stored hash.
+     * @return true if this hasher can verify it, false otherwise.
+     */
+    boolean recognizes(String encodedHash);
+
+    /**
+     * Check whether a stored hash should be replaced, e.g. as it has been produced
+     * with a lower cost than the current one.
+     *
+     * @param encodedHash - stored hash, recognised by this hasher.
+     * @return true if the password should be hashed again.
+     */
+    boolean needsRehash(String encodedHash);
+}
@@ -0,0 +1,171 @@
+/**
+ * Pbkdf2PasswordHasher.java
+ *
+ * Password hasher using PBKDF2 (HMAC-SHA256) with a random salt per password.
+ *
+ * Hashes are encoded as "pbkdf2-sha256$<iterations>$<salt>$<hash>" (salt and hash
+ * in Base64), so that they stay verifiable after the number of iterations changes.
+ *
+ * The number of iterations (i.e. the work factor) is set with db.staff.passwordIterations,
+ * or otherwise calibrated on start-up so that hashing a password takes about
+ * db.staff.passwordTargetMs milliseconds on the running machine.
+ */
+
+package services;
+
+import database.DatabaseConfig;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+public class Pbkdf2PasswordHasher implements PasswordHasher {
+    public static final String ITERATIONS = "db.staff.passwordIterations";
+    public static final String TARGET_MS = "db.staff.passwordTargetMs";
+    public static final int MIN_ITERATIONS = 10000;
+
+    private static final String ID = "pbkdf2-sha256";
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final String SEPARATOR = "$";
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+    private static final int CALIBRATION_ITERATIONS = 20000;
+    private static final int CALIBRATION_ROUNDS = 50;
+    private static final long CALIBRATION_NANOS = 1000000000L;
+    private static final long DEFAULT_TARGET_MS = 250;
+
+    private static final SecureRandom random = new SecureRandom();
+    private static volatile Pbkdf2PasswordHasher instance;
+
+    private final int iterations;
+
+    /**
+     * Constructor with parameters.
+     *
+     * @param iterations - number of iterations of the new hashes.
+     * @throws IllegalArgumentException if below MIN_ITERATIONS.
+     */
+    public Pbkdf2PasswordHasher(int iterations) {
+        if (iterations < MIN_ITERATIONS) {
+            throw new IllegalArgumentException("At least " + MIN_ITERATIONS + " iterations are needed: " + iterations);
+        }
+        this.iterations = iterations;
+    }
+
+    /**
+     * Accessor for the hasher shared by the whole application.
+     *
+     * @return shared hasher, configured from the database settings (calibrated if not set).
+     */
+    public static Pbkdf2PasswordHasher getInstance() {
+        if (instance == null) {
+            synchronized (Pbkdf2PasswordHasher.class) {
+                if (instance == null) {
+                    DatabaseConfig config = DatabaseConfig.load();
+                    int iterations = config.getInt(ITERATIONS, 0);
+
+                    if (iterations == 0) {
+                        iterations = calibrate(config.getLong(TARGET_MS, DEFAULT_TARGET_MS));
+                    }
+                    instance = new Pbkdf2PasswordHasher(iterations);
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Find the number of iterations for which hashing a password takes about the
+     * target time on this machine (the cost grows linearly with the iterations).
+     * Measured within about a second; on a busy or single-core machine, where the JIT
+     * compiler has little time, the result may be low - fix the iterations there instead.
+     *
+     * @param targetMs - wished duration of hashing a password.
+     * @return number of iterations, at least MIN_ITERATIONS.
+     */
+    public static int calibrate(long targetMs) {
+        char[] probe = "calibration".toCharArray();
+        byte[] salt = new byte[SALT_BYTES];
+
+        // The first call loads the provider; the early rounds run before the JIT compiler
+        // kicks in, so keep the fastest round.
+        derive(probe, salt, MIN_ITERATIONS);
+        long bestNanos = Long.MAX_VALUE;
+        long deadline = System.nanoTime() + CALIBRATION_NANOS;
+        for (int i = 0; i < CALIBRATION_ROUNDS && (i < 3 || System.nanoTime() < deadline); i++) {
+            long start = System.nanoTime();
+            derive(probe, salt, CALIBRATION_ITERATIONS);
+            bestNanos = Math.min(bestNanos, System.nanoTime() - start);
+        }
+
+        long iterations = CALIBRATION_ITERATIONS * targetMs * 1000000L / Math.max(bestNanos, 1);
+        // Round down to thousands, so that the setting reads well in the stored hashes.
+        iterations = iterations / 1000 * 1000;
+        return (int) Math.max(MIN_ITERATIONS, Math.min(iterations, Integer.MAX_VALUE / 2));
+    }
+
+    /** Accessor for the number of iterations of the new hashes. */
+    public int getIterations() {
+        return this.iterations;
+    }
+
+    @Override
+    public String hash(char[] password) {
+        byte[] salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+
+        Base64.Encoder encoder = Base64.getEncoder().withoutPadding();
+        return ID + SEPARATOR + this.iterations + SEPARATOR +
+               encoder.encodeToString(salt) + SEPARATOR +
+               encoder.encodeToString(derive(password, salt, this.iterations));
+    }
+
+    @Override
+    public boolean verify(char[] password, String encodedHash) {
+        String[] parts = split(encodedHash);
+        Base64.Decoder decoder = Base64.getDecoder();
+
+        byte[] salt = decoder.decode(parts[2]);
+        byte[] expected = decoder.decode(parts[3]);
+        byte[] actual = derive(password, salt, Integer.parseInt(parts[1]));
+
+        // Constant-time comparison, not to tell how much of the hash matched.
+        return MessageDigest.isEqual(expected, actual);
+    }
+
+    @Override
+    public boolean recognizes(String encodedHash) {
+        return encodedHash != null && encodedHash.startsWith(ID + SEPARATOR);
+    }
+
+    @Override
+    public boolean needsRehash(String encodedHash) {
+        return Integer.parseInt(split(encodedHash)[1]) < this.iterations;
+    }
+
+    private static String[] split(String encodedHash) {
+        String[] parts = encodedHash.split("\\" + SEPARATOR);
+
+        if (parts.length != 4 || !ID.equals(parts[0])) {
+            throw new IllegalArgumentException("Not a " + ID + " hash.");
+        }
+        return parts;
+    }
+
+    private static byte[] derive(char[] password, byte[] salt, int iterations) {
+        PBEKeySpec spec = new PBEKeySpec(password, salt, iterations, HASH_BITS);
+
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        }
+        catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " is not available", e);
+        }
+        finally {
+            spec.clearPassword();
+        }
+    }
+}
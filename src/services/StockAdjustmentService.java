@@ -0,0 +1,229 @@
+/**
+ * StockAdjustmentService.java
+ *
+ * Service class used to adjust the stock of many components at once (e.g. a
+ * delivery or a stock-take): the adjustments are applied as one JDBC batch per
+ * component table, within a single transaction, and reported line by line.
+ *
+ * An adjustment which would drive a stock below zero (or below the units held
+ * by reservations, see StockReservationService), or which matches no component,
+ * is rejected on its own; the other adjustments are still applied.
+ */
+
+package services;
+
+import database.controllers.DatabaseController;
+import database.controllers.component.ComponentController;
+import exceptions.ComponentNotFoundException;
+import exceptions.InsufficientStockException;
+import models.component.Component;
+import models.component.StockAdjustment;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class StockAdjustmentService {
+    /**
+     * Apply stock adjustments of components of any type, in a single transaction.
+     * Adjustments of the same component are applied cumulatively, in order.
+     *
+     * @param adjustments - stock adjustments to be applied.
+     * @return result of each adjustment, in the same order.
+     * @throws SQLException if the adjustments could not be written (none is applied then).
+     */
+    public List<AdjustmentResult> applyAdjustments(List<StockAdjustment> adjustments) throws SQLException {
+        if (adjustments.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        // Group the adjustments by table, remembering their position in the list.
+        Map<String, List<Integer>> indexesByTable = new LinkedHashMap<>();
+        for (int i = 0; i < adjustments.size(); i++) {
+            indexesByTable.computeIfAbsent(adjustments.get(i).getTableName(), tableName -> new ArrayList<>()).add(i);
+        }
+
+        AdjustmentResult[] results = new AdjustmentResult[adjustments.size()];
+        boolean anyApplied = false;
+
+        try (Connection transaction = DatabaseController.getDataSource().getConnection()) {
+            transaction.setAutoCommit(false);
+
+            try {
+                for (Map.Entry<String, List<Integer>> entry : indexesByTable.entrySet()) {
+                    String tableName = entry.getKey();
+                    List<Integer> indexes = entry.getValue();
+                    List<StockAdjustment> tableAdjustments = new ArrayList<>(indexes.size());
+                    for (int index : indexes) {
+                        tableAdjustments.add(adjustments.get(index));
+                    }
+
+                    // No reservation ID is ever empty, so "" lets no decrement take held units.
+                    int[] counts = ComponentController.adjustUnreservedStock(
+                            transaction, tableName, tableAdjustments, ""
+                    );
+
+                    for (int i = 0; i < counts.length; i++) {
+                        if (counts[i] != 0 && counts[i] != 1) {
+                            // E.g. Statement.SUCCESS_NO_INFO: the lines cannot be told apart.
+                            throw new SQLException(
+                                    "Unexpected update count " + counts[i] + " for the adjustment " +
+                                    tableAdjustments.get(i)
+                            );
+                        }
+                    }
+
+                    for (int i = 0; i < counts.length; i++) {
+                        StockAdjustment adjustment = tableAdjustments.get(i);
+                        if (counts[i] == 1) {
+                            results[indexes.get(i)] = new AdjustmentResult(adjustment, Status.APPLIED, null);
+                            anyApplied = true;
+                        }
+                        else {
+                            // Rejected - find out why (failure path only).
+                            Integer stock = ComponentController.readUnreservedStock(
+                                    transaction, tableName, adjustment.getSerialNumber(), adjustment.getBrandName()
+                            );
+                            if (stock != null) {
+                                // Read after the whole batch: take off the later lines of the same component.
+                                stock -= appliedDeltaAfter(tableAdjustments, counts, i);
+                            }
+                            results[indexes.get(i)] = new AdjustmentResult(
+                                    adjustment,
+                                    (stock == null ? Status.NOT_FOUND : Status.INSUFFICIENT_STOCK),
+                                    (stock == null ? null : Math.max(stock, 0))
+                            );
+                        }
+                    }
+                }
+
+                transaction.commit();
+            }
+            catch (SQLException | RuntimeException e) {
+                transaction.rollback();
+                throw e;
+            }
+        }
+
+        if (anyApplied) {
+            ComponentController.markModified();
+        }
+
+        // Keep the in-memory components in line with the committed stock.
+        for (AdjustmentResult result : results) {
+            Component component = result.getAdjustment().getComponent();
+            if (result.isApplied() && component != null) {
+                component.setStock(component.getStock() + result.getAdjustment().getDelta());
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Sum the deltas of the applied adjustments of the same component as a given one,
+     * which come after it in the batch.
+     *
+     * @param adjustments - stock adjustments of components of one table, in batch order.
+     * @param counts - update count of each adjustment.
+     * @param index - position of the given adjustment.
+     * @return stock change made by the later adjustments of the same component.
+     */
+    private static int appliedDeltaAfter(List<StockAdjustment> adjustments, int[] counts, int index) {
+        StockAdjustment adjustment = adjustments.get(index);
+        int delta = 0;
+        for (int i = index + 1; i < adjustments.size(); i++) {
+            StockAdjustment later = adjustments.get(i);
+            if (counts[i] == 1
+                    && later.getSerialNumber().equals(adjustment.getSerialNumber())
+                    && later.getBrandName().equals(adjustment.getBrandName())) {
+                delta += later.getDelta();
+            }
+        }
+        return delta;
+    }
+
+    /**
+     * Adjust the stock of a single component (e.g. from a staff stock screen).
+     *
+     * @param component - component whose stock is changed.
+     * @param delta - amount to change the stock by (negative to take stock out).
+     * @return result of the adjustment.
+     * @throws SQLException
+     */
+    public AdjustmentResult adjustStock(Component component, int delta) throws SQLException {
+        return applyAdjustments(Collections.singletonList(new StockAdjustment(component, delta))).get(0);
+    }
+
+    /** Outcome of a stock adjustment. */
+    public enum Status {
+        APPLIED,
+        NOT_FOUND,
+        INSUFFICIENT_STOCK
+    }
+
+    /**
+     * Result of one stock adjustment.
+     */
+    public static class AdjustmentResult {
+        private final StockAdjustment adjustment;
+        private final Status status;
+        private final Integer availableStock;
+
+        private AdjustmentResult(StockAdjustment adjustment, Status status, Integer availableStock) {
+            this.adjustment = adjustment;
+            this.status = status;
+            this.availableStock = availableStock;
+        }
+
+        /** Accessor for the adjustment. */
+        public StockAdjustment getAdjustment() {
+            return this.adjustment;
+        }
+
+        /** Accessor for the outcome of the adjustment. */
+        public Status getStatus() {
+            return this.status;
+        }
+
+        /** True if the stock was changed, false if the adjustment was rejected. */
+        public boolean isApplied() {
+            return this.status == Status.APPLIED;
+        }
+
+        /** Accessor for the stock available when rejected for insufficient stock (null otherwise). */
+        public Integer getAvailableStock() {
+            return this.availableStock;
+        }
+
+        /**
+         * Get a message describing the outcome (e.g. for a popup).
+         *
+         * @return same message as the exception of a rejected adjustment, or a confirmation.
+         */
+        public String getMessage() {
+            String brandName = this.adjustment.getBrandName();
+            String serialNumber = this.adjustment.getSerialNumber();
+
+            switch (this.status) {
+                case NOT_FOUND:
+                    return new ComponentNotFoundException(brandName, serialNumber).getMessage();
+                case INSUFFICIENT_STOCK:
+                    return new InsufficientStockException(
+                            brandName, serialNumber, this.availableStock, -this.adjustment.getDelta()
+                    ).getMessage();
+                default:
+                    return "The stock was adjusted (" + this.adjustment + ").";
+            }
+        }
+
+        @Override
+        public String toString() {
+            return this.status + ": " + this.adjustment;
+        }
+    }
+}
@@ -0,0 +1,558 @@
+/**
+ * StockReservationService.java
+ *
+ * Time-bounded holds on the stock of the components a customer has chosen: when
+ * they proceed from the bike builder to checkout, one unit of each component is
+ * held for db.reservation.ttlMs milliseconds, so that other shoppers are not
+ * offered (and cannot sell out) the last units meanwhile.
+ *
+ * The holds are rows of the Reservations table, so every running instance of the
+ * app sees them, and the conditional stock decrement of an order leaves the units
+ * held by others alone (see ComponentController.adjustUnreservedStockQuery). Their
+ * expiry is set and compared on the database's clock, so that the instances'
+ * clocks need not agree.
+ *
+ * A hold is converted when its order is placed (deleted within the order's
+ * transaction, which decrements the stock itself), released when the customer
+ * goes back, or deleted by the sweeper once expired. The sweeper runs every
+ * db.reservation.sweepPeriodMs milliseconds, so an expired hold may still count
+ * for up to that long.
+ *
+ * The units held per component are also counted in memory, so that the catalog
+ * can leave out the reserved components without querying the database. That count
+ * is only a display cache: it follows the holds of this instance straight away,
+ * and the ones of the other instances as of the last sweep. Its lock is only held
+ * to update it, never while the database is written or read.
+ */
+
+package services;
+
+import database.DatabaseConfig;
+import database.StatementRegistry;
+import database.controllers.DatabaseController;
+import database.controllers.component.ComponentController;
+import exceptions.InsufficientStockException;
+import models.component.Component;
+import models.component.StockAdjustment;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+public class StockReservationService {
+    public static final String TTL_MS = "db.reservation.ttlMs";
+    public static final String SWEEP_PERIOD_MS = "db.reservation.sweepPeriodMs";
+    private static final long DEFAULT_TTL_MS = 10 * 60 * 1000;
+    private static final long DEFAULT_SWEEP_PERIOD_MS = 5 * 1000;
+    private static final Logger LOGGER = Logger.getLogger(StockReservationService.class.getName());
+
+    // Components are locked in the order of their tables, as by the order's stock decrement.
+    private static final Comparator<ComponentKey> LOCK_ORDER = Comparator
+            .comparingInt((ComponentKey key) -> StockAdjustment.TABLE_NAMES.indexOf(key.getTableName()))
+            .thenComparing(ComponentKey::getSerialNumber)
+            .thenComparing(ComponentKey::getBrandName);
+
+    // Stock left unheld of a component of each table, locking the component's row.
+    private static final Map<String, String> AVAILABLE_QUERIES = new HashMap<>();
+
+    static {
+        for (String tableName : StockAdjustment.TABLE_NAMES) {
+            AVAILABLE_QUERIES.put(tableName, StatementRegistry.register(
+                    "StockReservationService.reserve(" + tableName + ")",
+                    "SELECT stock - " + ComponentController.heldUnitsOfOthers(tableName) + " AS available " +
+                    "FROM " + tableName + " WHERE serialNumber = ? AND brandName = ? FOR UPDATE"
+            ));
+        }
+    }
+
+    private static final String INSERT_QUERY = StatementRegistry.register(
+            "StockReservationService.reserve(insert)",
+            "INSERT INTO Reservations (tableName, serialNumber, brandName, reservationId, units, expiresAt) " +
+            "VALUES (?, ?, ?, ?, ?, TIMESTAMPADD(MICROSECOND, ?, CURRENT_TIMESTAMP(3)))"
+    );
+
+    private static final String DELETE_QUERY = StatementRegistry.register(
+            "StockReservationService.deleteHolds",
+            "DELETE FROM Reservations WHERE reservationId = ?"
+    );
+
+    private static final String DELETE_EXPIRED_QUERY = StatementRegistry.register(
+            "StockReservationService.releaseExpired",
+            "DELETE FROM Reservations WHERE expiresAt <= CURRENT_TIMESTAMP(3)"
+    );
+
+    private static final String READ_HOLDS_QUERY = StatementRegistry.register(
+            "StockReservationService.refreshHeldUnits",
+            "SELECT tableName, serialNumber, brandName, reservationId, units FROM Reservations"
+    );
+
+    private static volatile StockReservationService instance;
+
+    // Prefix of the IDs of the reservations of this instance, told apart from the
+    // ones of the other instances when the display cache is refreshed.
+    private final String instanceId = UUID.randomUUID().toString().substring(0, 18);
+    private final AtomicLong reservationCount = new AtomicLong();
+    // Display cache of the units held per component. Read without locking, only
+    // changed (or replaced) holding the service's lock.
+    private volatile Map<ComponentKey, Integer> heldUnits = new ConcurrentHashMap<>();
+    // Reservations of this instance counted in heldUnits, by ID (guarded by the service's lock).
+    private final Map<String, Reservation> liveReservations = new HashMap<>();
+    // Bumped as each refresh starts reading the holds (guarded by the service's lock).
+    private long refreshCount;
+    // Refreshes are run one at a time, without holding the service's lock.
+    private final Object refreshLock = new Object();
+    private final long ttlMs;
+    private ScheduledExecutorService sweeper;
+
+    /**
+     * Constructor with parameters.
+     *
+     * @param ttlMs - time after which a hold expires, in milliseconds.
+     */
+    public StockReservationService(long ttlMs) {
+        this.ttlMs = ttlMs;
+    }
+
+    /**
+     * Accessor for the reservations shared by the whole application, swept in the background.
+     *
+     * @return shared service, configured from the database settings.
+     */
+    public static StockReservationService getInstance() {
+        if (instance == null) {
+            synchronized (StockReservationService.class) {
+                if (instance == null) {
+                    DatabaseConfig config = DatabaseConfig.load();
+                    StockReservationService service = new StockReservationService(
+                            config.getLong(TTL_MS, DEFAULT_TTL_MS)
+                    );
+                    service.startSweeper(config.getLong(SWEEP_PERIOD_MS, DEFAULT_SWEEP_PERIOD_MS));
+                    instance = service;
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Hold one unit of each component, unless any of them has no unit left which
+     * is not already held (by any instance of the app).
+     *
+     * The components' rows are locked while their holds are checked and written, in
+     * a single transaction, so that concurrent reservations and orders of the same
+     * components wait for each other. The reservations of other components do not.
+     *
+     * @param components - components chosen by the customer.
+     * @return reservation holding the units.
+     * @throws SQLException
+     * @throws InsufficientStockException if any of the components is not available (or no longer exists).
+     */
+    public Reservation reserve(Component... components) throws SQLException, InsufficientStockException {
+        Map<ComponentKey, Integer> units = new TreeMap<>(LOCK_ORDER);
+        for (Component component : components) {
+            units.merge(ComponentKey.of(component), 1, Integer::sum);
+        }
+        Reservation reservation = new Reservation(
+                this.instanceId + "-" + Long.toString(this.reservationCount.incrementAndGet(), 36), units
+        );
+
+        try (Connection transaction = DatabaseController.getDataSource().getConnection()) {
+            transaction.setAutoCommit(false);
+
+            try {
+                // Check all the components first, so that nothing is held on failure.
+                for (Map.Entry<ComponentKey, Integer> requested : units.entrySet()) {
+                    int available = readAvailableStock(transaction, requested.getKey());
+                    if (available < requested.getValue()) {
+                        throw new InsufficientStockException(
+                                requested.getKey().getBrandName(), requested.getKey().getSerialNumber(),
+                                Math.max(available, 0), requested.getValue()
+                        );
+                    }
+                }
+
+                try (PreparedStatement sqlStatement = transaction.prepareStatement(INSERT_QUERY)) {
+                    for (Map.Entry<ComponentKey, Integer> requested : units.entrySet()) {
+                        sqlStatement.setString(1, requested.getKey().getTableName());
+                        sqlStatement.setString(2, requested.getKey().getSerialNumber());
+                        sqlStatement.setString(3, requested.getKey().getBrandName());
+                        sqlStatement.setString(4, reservation.id);
+                        sqlStatement.setInt(5, requested.getValue());
+                        sqlStatement.setLong(6, TimeUnit.MILLISECONDS.toMicros(this.ttlMs));
+                        sqlStatement.addBatch();
+                    }
+                    sqlStatement.executeBatch();
+                }
+
+                transaction.commit();
+            }
+            catch (SQLException | InsufficientStockException | RuntimeException e) {
+                transaction.rollback();
+                throw e;
+            }
+        }
+
+        synchronized (this) {
+            // Committed before any refresh reading from now on starts, so seen by it.
+            reservation.refreshCount = this.refreshCount;
+            for (Map.Entry<ComponentKey, Integer> requested : units.entrySet()) {
+                this.heldUnits.merge(requested.getKey(), requested.getValue(), Integer::sum);
+            }
+            this.liveReservations.put(reservation.id, reservation);
+        }
+        return reservation;
+    }
+
+    /**
+     * Delete the holds which have expired (of any instance of the app), then bring
+     * the display cache in line with the holds left.
+     *
+     * @return number of component holds deleted.
+     * @throws SQLException
+     */
+    public int releaseExpired() throws SQLException {
+        int released;
+
+        try (Connection connection = DatabaseController.getDataSource().getConnection();
+             PreparedStatement sqlStatement = connection.prepareStatement(DELETE_EXPIRED_QUERY)) {
+            connection.setAutoCommit(true);
+            released = sqlStatement.executeUpdate();
+        }
+
+        refreshHeldUnits();
+        return released;
+    }
+
+    /**
+     * Reload the display cache of the units held from the database, e.g. to pick up
+     * the holds of the other instances of the app. The reservations of this instance
+     * whose holds are gone (i.e. swept once expired) are no longer held.
+     *
+     * @throws SQLException
+     */
+    public void refreshHeldUnits() throws SQLException {
+        synchronized (this.refreshLock) {
+            long readCount;
+            synchronized (this) {
+                readCount = ++this.refreshCount;
+            }
+
+            Map<ComponentKey, Integer> otherUnits = new HashMap<>();
+            Set<String> ownIds = new HashSet<>();
+
+            try (Connection connection = DatabaseController.getDataSource().getConnection();
+                 PreparedStatement sqlStatement = connection.prepareStatement(READ_HOLDS_QUERY);
+                 ResultSet result = sqlStatement.executeQuery()) {
+                while (result.next()) {
+                    String reservationId = result.getString("reservationId");
+                    if (reservationId.startsWith(this.instanceId)) {
+                        // Counted from the live reservations below, even if reserved or dropped meanwhile.
+                        ownIds.add(reservationId);
+                        continue;
+                    }
+
+                    ComponentKey key = new ComponentKey(
+                            result.getString("tableName"), result.getString("serialNumber"),
+                            result.getString("brandName")
+                    );
+                    otherUnits.merge(key, result.getInt("units"), Integer::sum);
+                }
+            }
+
+            synchronized (this) {
+                Map<ComponentKey, Integer> units = new ConcurrentHashMap<>(otherUnits);
+                Iterator<Reservation> reservations = this.liveReservations.values().iterator();
+                while (reservations.hasNext()) {
+                    Reservation reservation = reservations.next();
+                    // Committed before the read started, so gone from the database means swept.
+                    if (reservation.refreshCount < readCount && !ownIds.contains(reservation.id)) {
+                        reservation.held = false;
+                        reservations.remove();
+                        continue;
+                    }
+
+                    for (Map.Entry<ComponentKey, Integer> held : reservation.units.entrySet()) {
+                        units.merge(held.getKey(), held.getValue(), Integer::sum);
+                    }
+                }
+                this.heldUnits = units;
+            }
+        }
+    }
+
+    /**
+     * Get the number of units of a component currently held, as of the display cache.
+     *
+     * @param component - any instance of a component.
+     * @return units held by live reservations.
+     */
+    public int getHeldUnits(Component component) {
+        return this.heldUnits.getOrDefault(ComponentKey.of(component), 0);
+    }
+
+    /**
+     * Get the stock of a component which shoppers can still order, as of the display cache.
+     *
+     * @param component - any instance of a component, with its current stock.
+     * @return stock less the units held (never below zero).
+     */
+    public int getAvailableStock(Component component) {
+        return Math.max(component.getStock() - getHeldUnits(component), 0);
+    }
+
+    /**
+     * Accessor for the units held of every component with a live reservation.
+     *
+     * @return read-only view of the display cache of the units held per component.
+     */
+    public Map<ComponentKey, Integer> getHeldUnits() {
+        return Collections.unmodifiableMap(this.heldUnits);
+    }
+
+    /** Accessor for the number of live reservations of this instance. */
+    public synchronized int getReservationCount() {
+        return this.liveReservations.size();
+    }
+
+    /**
+     * Start releasing the expired reservations in the background.
+     *
+     * @param periodMs - time between two sweeps, in milliseconds (0 = never).
+     */
+    public synchronized void startSweeper(long periodMs) {
+        if (periodMs <= 0 || this.sweeper != null) {
+            return;
+        }
+
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "stock-reservation-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.sweeper.scheduleWithFixedDelay(() -> {
+            try {
+                releaseExpired();
+            }
+            catch (SQLException | RuntimeException e) {
+                // Tried again on the next sweep; a thrown exception would cancel them all.
+                LOGGER.log(Level.WARNING, "Could not release the expired stock reservations", e);
+            }
+        }, periodMs, periodMs, TimeUnit.MILLISECONDS);
+    }
+
+    /** Stop the background sweeps, if started. */
+    public synchronized void stopSweeper() {
+        if (this.sweeper != null) {
+            this.sweeper.shutdownNow();
+            this.sweeper = null;
+        }
+    }
+
+    /**
+     * Read the stock of a component left once the units held are taken off, locking
+     * its row until the end of the transaction.
+     *
+     * @param transaction - open transaction.
+     * @param key - key of the component.
+     * @return stock left unheld (0 if the component does not exist).
+     * @throws SQLException
+     */
+    private static int readAvailableStock(Connection transaction, ComponentKey key) throws SQLException {
+        String sqlQuery = AVAILABLE_QUERIES.get(key.getTableName());
+
+        try (PreparedStatement sqlStatement = transaction.prepareStatement(sqlQuery)) {
+            // No reservation ID is ever empty, so "" leaves none out.
+            sqlStatement.setString(1, "");
+            sqlStatement.setString(2, key.getSerialNumber());
+            sqlStatement.setString(3, key.getBrandName());
+
+            try (ResultSet result = sqlStatement.executeQuery()) {
+                return (result.next() ? result.getInt("available") : 0);
+            }
+        }
+    }
+
+    /**
+     * Take the units of a reservation off the display cache, unless already done.
+     *
+     * @param reservation - converted or released reservation.
+     * @return true if its units were still counted, false otherwise.
+     */
+    private synchronized boolean drop(Reservation reservation) {
+        reservation.held = false;
+        if (this.liveReservations.remove(reservation.id) == null) {
+            return false;
+        }
+
+        for (Map.Entry<ComponentKey, Integer> units : reservation.units.entrySet()) {
+            // Drop the entry once no unit is held, so that the map only holds reserved components.
+            this.heldUnits.computeIfPresent(
+                    units.getKey(), (key, held) -> (held > units.getValue() ? held - units.getValue() : null)
+            );
+        }
+        return true;
+    }
+
+    /**
+     * Hold on one unit of each component chosen by a customer.
+     */
+    public class Reservation {
+        private final String id;
+        private final Map<ComponentKey, Integer> units;
+        // Only changed holding the service's lock.
+        private volatile boolean held = true;
+        // Refreshes started before the reservation was counted (guarded by the service's lock).
+        private long refreshCount;
+
+        private Reservation(String id, Map<ComponentKey, Integer> units) {
+            this.id = id;
+            this.units = Collections.unmodifiableMap(units);
+        }
+
+        /**
+         * Delete the holds within the transaction of the order taking their place
+         * (i.e. decrementing the stock itself). Once committed, confirm() takes them
+         * off the display cache too.
+         *
+         * @param transaction - open transaction of the order.
+         * @throws SQLException
+         */
+        void convert(Connection transaction) throws SQLException {
+            try (PreparedStatement sqlStatement = transaction.prepareStatement(DELETE_QUERY)) {
+                sqlStatement.setString(1, this.id);
+                sqlStatement.executeUpdate();
+            }
+        }
+
+        /**
+         * Take the converted holds off the display cache, once their order has been
+         * committed. No database statement is run.
+         *
+         * @return true if the units were still counted, false if released or expired meanwhile.
+         */
+        public boolean confirm() {
+            return drop(this);
+        }
+
+        /**
+         * Release the hold (e.g. the customer went back to the bike builder). Should
+         * the holds not be deleted, they are left to expire.
+         *
+         * @return true if the units were given back, false if converted, expired or not deleted.
+         */
+        public boolean release() {
+            if (!this.held) {
+                return false;
+            }
+
+            try (Connection connection = DatabaseController.getDataSource().getConnection()) {
+                connection.setAutoCommit(true);
+                convert(connection);
+            }
+            catch (SQLException e) {
+                LOGGER.log(Level.WARNING, "Could not release the stock reservation " + this.id, e);
+                return false;
+            }
+            return drop(this);
+        }
+
+        /**
+         * True while the units are held, i.e. neither converted, released nor swept
+         * once expired (as of this instance's last sweep).
+         */
+        public boolean isHeld() {
+            return this.held;
+        }
+
+        /** Accessor for the ID of the reservation, shared by all of its holds. */
+        public String getId() {
+            return this.id;
+        }
+
+        /** Accessor for the units held per component. */
+        public Map<ComponentKey, Integer> getUnits() {
+            return this.units;
+        }
+    }
+
+    /**
+     * Identity of a component across the catalog's reloads: table, serial number and brand name.
+     */
+    public static final class ComponentKey {
+        private final String tableName;
+        private final String serialNumber;
+        private final String brandName;
+
+        public ComponentKey(String tableName, String serialNumber, String brandName) {
+            this.tableName = tableName;
+            this.serialNumber = serialNumber;
+            this.brandName = brandName;
+        }
+
+        /**
+         * Get the key of a component.
+         *
+         * @param component - any instance of a component.
+         * @return key of the component.
+         */
+        public static ComponentKey of(Component component) {
+            return new ComponentKey(
+                    StockAdjustment.tableNameOf(component), component.getSerialNumber(), component.getBrandName()
+            );
+        }
+
+        /** Accessor for the table name. */
+        public String getTableName() {
+            return this.tableName;
+        }
+
+        /** Accessor for the serial number. */
+        public String getSerialNumber() {
+            return this.serialNumber;
+        }
+
+        /** Accessor for the brand name. */
+        public String getBrandName() {
+            return this.brandName;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof ComponentKey)) {
+                return false;
+            }
+            ComponentKey key = (ComponentKey) other;
+            return this.tableName.equals(key.tableName)
+                   && this.serialNumber.equals(key.serialNumber)
+                   && this.brandName.equals(key.brandName);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(this.tableName, this.serialNumber, this.brandName);
+        }
+
+        @Override
+        public String toString() {
+            return this.tableName + " " + this.brandName + " " + this.serialNumber;
+        }
+    }
+}
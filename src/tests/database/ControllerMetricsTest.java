@@ -0,0 +1,196 @@
+/**
+ * ControllerMetricsTest.java
+ *
+ * Tests of the per controller method metrics collected by the InstrumentedDataSource:
+ * attribution of the calls to the public controller methods, counts of connections,
+ * statements and rows, the slow query log (with its parameters redacted), the
+ * periodic summary and the JMX exposure.
+ */
+
+package tests.database;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import database.controllers.DatabaseController;
+import database.controllers.component.HandlebarController;
+import database.controllers.order.OrderController;
+import database.metrics.ControllerMetrics;
+import database.metrics.InstrumentedDataSource;
+import database.metrics.MethodMetrics;
+import org.junit.jupiter.api.*;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.sql.DataSource;
+import java.lang.management.ManagementFactory;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class ControllerMetricsTest {
+    private static DataSource original;
+    private static ControllerMetrics metrics;
+    private static HandlebarController hController;
+
+    @BeforeAll
+    public static void setUp() {
+        original = DatabaseController.getDataSource();
+        metrics = new ControllerMetrics(-1);
+        DatabaseController.setDataSource(new InstrumentedDataSource(original, metrics));
+        hController = new HandlebarController();
+        System.out.println("Performing controller metrics tests...");
+    }
+
+    @BeforeEach
+    public void resetMetrics() {
+        metrics.reset();
+        metrics.setSlowQueryThresholdMillis(-1);
+    }
+
+    @Test
+    @Order(1)
+    public void testCallCounts() throws Exception {
+        hController.findComponentById("1001", "Deda");
+        hController.findComponentById("1002", "Renthal");
+
+        MethodMetrics method = metrics.forMethod("HandlebarController.findComponentById");
+        assertEquals(2, method.getCalls());
+        assertEquals(0, method.getErrors());
+        assertEquals(2, method.getConnectionsOpened());
+        assertEquals(2, method.getStatementsExecuted());
+        assertEquals(2, method.getRowsRead());
+        assertEquals(2, Arrays.stream(method.getLatencyHistogram()).sum());
+        assertTrue(method.getMaxLatencyMillis() > 0);
+    }
+
+    @Test
+    @Order(2)
+    public void testPrivateHelpersCountTowardsPublicMethod() throws Exception {
+        new OrderController().readPendingOrdersPage(10, null);
+
+        List<String> names = Arrays.asList(metrics.getMethodNames());
+        assertTrue(names.contains("OrderController.readPendingOrdersPage"), names.toString());
+        assertFalse(names.contains("OrderController.readOrders"), names.toString());
+    }
+
+    @Test
+    @Order(3)
+    public void testNestedConnectionsMakeOneCall() throws Exception {
+        try (Connection connection = DatabaseController.getDataSource().getConnection()) {
+            hController.findComponentById("1001", "Deda");
+        }
+
+        MethodMetrics method = metrics.forMethod("ControllerMetricsTest.testNestedConnectionsMakeOneCall");
+        assertEquals(1, method.getCalls());
+        assertEquals(2, method.getConnectionsOpened());
+        assertEquals(1, method.getStatementsExecuted());
+        assertEquals(0, metrics.forMethod("HandlebarController.findComponentById").getCalls());
+    }
+
+    @Test
+    @Order(4)
+    public void testFailedCall() throws Exception {
+        try (Connection connection = DatabaseController.getDataSource().getConnection();
+             Statement statement = connection.createStatement()) {
+            assertThrows(SQLException.class, () -> statement.executeQuery("SELECT * FROM MissingTable"));
+        }
+
+        MethodMetrics method = metrics.forMethod("ControllerMetricsTest.testFailedCall");
+        assertEquals(1, method.getCalls());
+        assertEquals(1, method.getErrors());
+    }
+
+    @Test
+    @Order(5)
+    public void testSlowQueryLogRedactsParameters() throws Exception {
+        List<String> messages = captureLog(InstrumentedDataSource.class, () -> {
+            metrics.setSlowQueryThresholdMillis(0);
+            hController.findComponentById("1001", "Deda");
+
+            try (Connection connection = DatabaseController.getDataSource().getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.executeQuery("SELECT * FROM Handlebars WHERE brandName = 'Deda' AND stock > 5").close();
+            }
+        });
+
+        assertEquals(2, messages.size(), messages.toString());
+        assertTrue(messages.get(0).contains("HandlebarController.findComponentById"));
+        assertTrue(messages.get(0).contains("SELECT * FROM Handlebars WHERE serialNumber = ? AND brandName = ?"));
+        assertTrue(messages.get(0).contains("[String(4), String(4)]"));
+        assertTrue(messages.get(1).contains("WHERE brandName = ? AND stock > ?"));
+        for (String message : messages) {
+            assertFalse(message.contains("Deda") || message.contains("1001"), message);
+        }
+    }
+
+    @Test
+    @Order(6)
+    public void testPeriodicSummary() throws Exception {
+        hController.findComponentById("1001", "Deda");
+
+        List<String> first = captureLog(ControllerMetrics.class, metrics::logSummary);
+        assertEquals(1, first.size());
+        assertTrue(first.get(0).contains("HandlebarController.findComponentById calls=1 "), first.get(0));
+
+        // Nothing new since the last report.
+        assertTrue(captureLog(ControllerMetrics.class, metrics::logSummary).isEmpty());
+    }
+
+    @Test
+    @Order(7)
+    public void testJmx() throws Exception {
+        // The shared metrics, filled by the data source of the controllers.
+        hController.findComponentById("1001", "Deda");
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+        assertTrue(server.isRegistered(new ObjectName("buildabike:type=ControllerMetrics")));
+        ObjectName method = new ObjectName(
+                "buildabike:type=ControllerMethod,name=" + ObjectName.quote("HandlebarController.findComponentById")
+        );
+        assertTrue((Long) server.getAttribute(method, "Calls") > 0);
+        assertTrue((Long) server.getAttribute(method, "RowsRead") > 0);
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        DatabaseController.setDataSource(original);
+        System.out.println("All tests done.");
+    }
+
+    private static List<String> captureLog(Class<?> source, LoggedAction action) throws Exception {
+        List<String> messages = new ArrayList<>();
+        Handler handler = new Handler() {
+            @Override
+            public void publish(LogRecord record) {
+                messages.add(record.getMessage());
+            }
+
+            @Override
+            public void flush() {}
+
+            @Override
+            public void close() {}
+        };
+
+        Logger logger = Logger.getLogger(source.getName());
+        logger.addHandler(handler);
+        try {
+            action.run();
+        }
+        finally {
+            logger.removeHandler(handler);
+        }
+        return messages;
+    }
+
+    private interface LoggedAction {
+        void run() throws Exception;
+    }
+}
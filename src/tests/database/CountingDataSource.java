@@ -0,0 +1,108 @@
+/**
+ * CountingDataSource.java
+ *
+ * Test helper wrapping a DataSource to count the connections borrowed
+ * and the statements prepared through it.
+ */
+
+package tests.database;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+public class CountingDataSource implements DataSource {
+    private final DataSource delegate;
+    private final AtomicInteger connections = new AtomicInteger();
+    private final AtomicInteger statements = new AtomicInteger();
+
+    public CountingDataSource(DataSource delegate) {
+        this.delegate = delegate;
+    }
+
+    /** Reset both counters to zero. */
+    public void reset() {
+        connections.set(0);
+        statements.set(0);
+    }
+
+    /** Accessor for the number of connections borrowed since the last reset. */
+    public int getConnectionCount() {
+        return connections.get();
+    }
+
+    /** Accessor for the number of statements prepared since the last reset. */
+    public int getStatementCount() {
+        return statements.get();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        connections.incrementAndGet();
+        Connection target = delegate.getConnection();
+
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class },
+                (proxy, method, args) -> {
+                    String name = method.getName();
+                    if (name.equals("prepareStatement") || name.equals("createStatement")
+                            || name.equals("prepareCall")) {
+                        statements.incrementAndGet();
+                    }
+
+                    try {
+                        return method.invoke(target, args);
+                    }
+                    catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                }
+        );
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return delegate.getConnection(username, password);
+    }
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException {
+        return delegate.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException {
+        delegate.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException {
+        delegate.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException {
+        return delegate.getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() {
+        return Logger.getLogger(CountingDataSource.class.getName());
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        return delegate.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return delegate.isWrapperFor(iface);
+    }
+}
@@ -0,0 +1,127 @@
+/**
+ * MigrationRunnerTest.java
+ *
+ * Unit tests for the MigrationRunner, verifying that the shipped migrations are
+ * applied (on start-up of the embedded profile) exactly once, and that a changed
+ * migration is refused.
+ */
+
+package tests.database;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import database.MigrationRunner;
+import database.controllers.DatabaseController;
+import org.junit.jupiter.api.*;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class MigrationRunnerTest {
+    private static DataSource dataSource;
+
+    @BeforeAll
+    public static void setUp() {
+        dataSource = DatabaseController.getDataSource();
+        System.out.println("Performing tests for MigrationRunner...");
+    }
+
+    @Test
+    @Order(1)
+    public void testLoadMigrations() {
+        List<MigrationRunner.Migration> migrations = MigrationRunner.loadMigrations();
+
+        assertFalse(migrations.isEmpty());
+        for (int i = 1; i < migrations.size(); i++) {
+            assertTrue(migrations.get(i - 1).getVersion() < migrations.get(i).getVersion());
+        }
+    }
+
+    @Test
+    @Order(2)
+    public void testAllMigrationsApplied() throws SQLException {
+        Map<Integer, String> history = readHistory();
+
+        for (MigrationRunner.Migration migration : MigrationRunner.loadMigrations()) {
+            assertEquals(migration.getChecksum(), history.get(migration.getVersion()), migration.toString());
+        }
+    }
+
+    @Test
+    @Order(3)
+    public void testMigrateAgain() throws SQLException {
+        assertTrue(MigrationRunner.migrate(dataSource).isEmpty());
+    }
+
+    @Test
+    @Order(4)
+    public void testChangedMigration() throws SQLException {
+        String checksum = readHistory().get(1);
+
+        updateChecksum("changed");
+        try {
+            assertThrows(
+                    IllegalStateException.class, () -> {
+                        MigrationRunner.migrate(dataSource);
+                    }
+            );
+        }
+        finally {
+            updateChecksum(checksum);
+        }
+    }
+
+    @Test
+    @Order(5)
+    public void testChecksumIgnoresLineEndings() {
+        String unixScript = "-- sample\nCREATE INDEX a ON B (c);\n";
+        String windowsScript = "-- sample\r\nCREATE INDEX a ON B (c);\r\n";
+
+        assertEquals(
+                new MigrationRunner.Migration(1, "sample", unixScript).getChecksum(),
+                new MigrationRunner.Migration(1, "sample", windowsScript).getChecksum()
+        );
+        assertNotEquals(
+                new MigrationRunner.Migration(1, "sample", unixScript).getChecksum(),
+                new MigrationRunner.Migration(1, "sample", unixScript.replace("c", "d")).getChecksum()
+        );
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        System.out.println("All tests done.");
+    }
+
+    private static Map<Integer, String> readHistory() throws SQLException {
+        Map<Integer, String> history = new HashMap<>();
+
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement sqlStatement = connection.prepareStatement(
+                     "SELECT version, checksum FROM SchemaMigrations"
+             );
+             ResultSet result = sqlStatement.executeQuery()) {
+            while (result.next()) {
+                history.put(result.getInt("version"), result.getString("checksum"));
+            }
+        }
+
+        return history;
+    }
+
+    private static void updateChecksum(String checksum) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement sqlStatement = connection.prepareStatement(
+                     "UPDATE SchemaMigrations SET checksum = ? WHERE version = 1"
+             )) {
+            sqlStatement.setString(1, checksum);
+            assertEquals(1, sqlStatement.executeUpdate());
+        }
+    }
+}
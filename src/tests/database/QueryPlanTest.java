@@ -0,0 +1,249 @@
+/**
+ * QueryPlanTest.java
+ *
+ * Runs the frequent controller queries (order listings, customer and staff log in,
+ * component listings and filters, look ups by ID) against the migrated schema,
+ * captures the EXPLAIN plan of every statement they prepare, and fails on any
+ * full table scan, i.e. a query left without an index by the schema migrations.
+ * The in-stock component listings must also be returned cheapest first by their
+ * index, without sorting the rows.
+ *
+ * Listings of a whole table (e.g. the stock screens of the staff) scan by design,
+ * and are not run here.
+ */
+
+package tests.database;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import database.controllers.DatabaseController;
+import database.controllers.bicycle.BicycleController;
+import database.controllers.component.FrameSetController;
+import database.controllers.component.HandlebarController;
+import database.controllers.component.PairOfWheelsController;
+import database.controllers.order.OrderController;
+import database.controllers.user.customer.CustomerController;
+import database.controllers.user.staff.StaffController;
+import models.component.handlebar.HandlebarType;
+import models.component.pairofwheels.BrakeType;
+import models.component.pairofwheels.TyreType;
+import models.order.OrderCursor;
+import models.user.customer.Address;
+import models.user.customer.Customer;
+import models.user.staff.Staff;
+import org.junit.jupiter.api.*;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class QueryPlanTest {
+    private static DataSource original;
+    private static RecordingDataSource recording;
+
+    @BeforeAll
+    public static void setUp() {
+        original = DatabaseController.getDataSource();
+        recording = new RecordingDataSource(original);
+        DatabaseController.setDataSource(recording);
+        System.out.println("Performing query plan tests...");
+    }
+
+    @Test
+    @Order(1)
+    public void testOrderQueries() throws Exception {
+        OrderController oController = new OrderController();
+        Staff staff = new Staff("samplePlanStaff", "sample", "staff", null);
+        Customer customer = new Customer("10000000001", "Sample", "Customer", null);
+        String cursor = new OrderCursor(Date.valueOf("2030-01-01"), "99999999999").encode();
+
+        assertNoTableScans(
+                () -> oController.readPendingOrdersPage(50, null),
+                () -> oController.readPendingOrdersPage(50, cursor),
+                () -> oController.findStaffOrdersPage(staff, 50, null),
+                () -> oController.findStaffOrdersPage(staff, 50, cursor),
+                () -> oController.readAllPendingOrders(),
+                () -> oController.findStaffOrders(staff),
+                () -> oController.findCustomerOrders(customer),
+                () -> oController.findOrderById("99999999999"),
+                () -> oController.claimPendingOrders("samplePlanStaff", 1),
+                () -> oController.assignStaffOrder("99999999999", "samplePlanStaff"),
+                () -> oController.cancelStaffOrder("99999999999")
+        );
+    }
+
+    @Test
+    @Order(2)
+    public void testUserQueries() throws Exception {
+        Customer customer = new Customer(
+                null, "Sample", "Customer", new Address(1, "Regent Court", "S1 4DP", "Sheffield")
+        );
+        Staff staff = new Staff();
+        staff.setUsername("samplePlanStaff");
+
+        assertNoTableScans(
+                () -> new CustomerController().authenticateCustomer(customer),
+                () -> new CustomerController().customerExists("10000000001"),
+                () -> new StaffController().attemptLogIn(staff, "password".toCharArray())
+        );
+    }
+
+    @Test
+    @Order(3)
+    public void testComponentQueries() throws Exception {
+        HandlebarController hController = new HandlebarController();
+        FrameSetController fController = new FrameSetController();
+        PairOfWheelsController powController = new PairOfWheelsController();
+
+        assertNoTableScans(
+                () -> hController.readAllComponentsOfType(false),
+                () -> hController.filterHandlebars(HandlebarType.HIGH),
+                () -> hController.findComponentById("1001", "Deda"),
+                () -> fController.readAllComponentsOfType(false),
+                () -> fController.getUniqueSizeSet(),
+                () -> fController.filterFrameSets(BigDecimal.valueOf(54), true),
+                () -> fController.filterFrameSets(BigDecimal.valueOf(54), null),
+                () -> fController.findComponentById("10000001", "Ribble"),
+                () -> powController.readAllComponentsOfType(false),
+                () -> powController.getUniqueDiameterSet(),
+                () -> powController.filterWheels(TyreType.ROAD, BrakeType.RIM, BigDecimal.valueOf(28)),
+                () -> powController.filterWheels(null, null, BigDecimal.valueOf(28)),
+                () -> powController.findComponentById("10001", "Mavic"),
+                () -> new BicycleController().findBicycleById("999999999999")
+        );
+    }
+
+    @Test
+    @Order(4)
+    public void testInStockListingsSortedByIndex() throws Exception {
+        HandlebarController hController = new HandlebarController();
+        FrameSetController fController = new FrameSetController();
+        PairOfWheelsController powController = new PairOfWheelsController();
+
+        // Stock > 0, ORDER BY cost: an index led by stock could not serve the order.
+        assertSortedByIndex(
+                () -> hController.readAllComponentsOfType(false),
+                () -> fController.readAllComponentsOfType(false),
+                () -> fController.filterFrameSets(null, null),
+                () -> powController.readAllComponentsOfType(false),
+                () -> powController.filterWheels(null, null, null)
+        );
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        DatabaseController.setDataSource(original);
+        System.out.println("All tests done.");
+    }
+
+    /**
+     * Run controller calls, then EXPLAIN every statement they prepared with the same
+     * parameters, and fail on any full table scan.
+     */
+    private static void assertNoTableScans(ControllerCall... calls) throws SQLException {
+        recording.reset();
+        for (ControllerCall call : calls) {
+            try {
+                call.run();
+            }
+            catch (SQLException e) {
+                throw e;
+            }
+            catch (Exception e) {
+                // E.g. nothing found for the sample values: the queries have run anyway.
+            }
+        }
+
+        List<String> scans = new ArrayList<>();
+        List<RecordingDataSource.RecordedStatement> statements = recording.getStatements();
+        assertFalse(statements.isEmpty());
+
+        try (Connection connection = original.getConnection()) {
+            for (RecordingDataSource.RecordedStatement statement : statements) {
+                String plan = explain(connection, statement);
+                if (isTableScan(plan)) {
+                    scans.add(statement + "\n" + plan);
+                }
+            }
+        }
+
+        assertTrue(scans.isEmpty(), "Full table scans:\n" + String.join("\n\n", scans));
+    }
+
+    /**
+     * Run controller calls, then EXPLAIN every statement they prepared with the same
+     * parameters, and fail on any that sorts its rows instead of reading them in order.
+     */
+    private static void assertSortedByIndex(ControllerCall... calls) throws SQLException {
+        recording.reset();
+        for (ControllerCall call : calls) {
+            try {
+                call.run();
+            }
+            catch (SQLException e) {
+                throw e;
+            }
+            catch (Exception e) {
+                // E.g. nothing found for the sample values: the queries have run anyway.
+            }
+        }
+
+        List<String> sorts = new ArrayList<>();
+        List<RecordingDataSource.RecordedStatement> statements = recording.getStatements();
+        assertFalse(statements.isEmpty());
+
+        try (Connection connection = original.getConnection()) {
+            for (RecordingDataSource.RecordedStatement statement : statements) {
+                String plan = explain(connection, statement);
+                if (isSorted(plan)) {
+                    sorts.add(statement + "\n" + plan);
+                }
+            }
+        }
+
+        assertTrue(sorts.isEmpty(), "Rows sorted after reading:\n" + String.join("\n\n", sorts));
+    }
+
+    private static String explain(Connection connection, RecordingDataSource.RecordedStatement statement)
+            throws SQLException {
+        StringBuilder plan = new StringBuilder();
+
+        try (PreparedStatement explain = connection.prepareStatement("EXPLAIN " + statement.getSql())) {
+            statement.bindTo(explain);
+
+            try (ResultSet result = explain.executeQuery()) {
+                ResultSetMetaData metaData = result.getMetaData();
+                // H2 returns the plan as text, MySQL a row per table with columns such as "type".
+                while (result.next()) {
+                    for (int i = 1; i <= metaData.getColumnCount(); i++) {
+                        plan.append(metaData.getColumnLabel(i)).append('=').append(result.getString(i)).append(' ');
+                    }
+                    plan.append('\n');
+                }
+            }
+        }
+
+        return plan.toString();
+    }
+
+    private static boolean isTableScan(String plan) {
+        return plan.contains(".tableScan") || plan.contains("type=ALL ");
+    }
+
+    private static boolean isSorted(String plan) {
+        // H2 notes when the index returns the rows in order; MySQL when it does not.
+        return (plan.contains("ORDER BY") && !plan.contains("index sorted")) || plan.contains("Using filesort");
+    }
+
+    private interface ControllerCall {
+        void run() throws Exception;
+    }
+}
@@ -0,0 +1,156 @@
+/**
+ * RecordingDataSource.java
+ *
+ * Test helper wrapping a DataSource to record every statement prepared through it,
+ * together with the parameters bound to it, so that it can be run again (e.g. EXPLAINed).
+ */
+
+package tests.database;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.logging.Logger;
+
+public class RecordingDataSource implements DataSource {
+    private final DataSource delegate;
+    private final List<RecordedStatement> statements = Collections.synchronizedList(new ArrayList<>());
+
+    public RecordingDataSource(DataSource delegate) {
+        this.delegate = delegate;
+    }
+
+    /** Forget all the statements recorded so far. */
+    public void reset() {
+        statements.clear();
+    }
+
+    /** Accessor for the statements prepared since the last reset, in order. */
+    public List<RecordedStatement> getStatements() {
+        synchronized (statements) {
+            return new ArrayList<>(statements);
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Connection target = delegate.getConnection();
+
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class },
+                (proxy, method, args) -> {
+                    Object result = invoke(target, method, args);
+
+                    if (method.getName().equals("prepareStatement")) {
+                        RecordedStatement recorded = new RecordedStatement((String) args[0]);
+                        statements.add(recorded);
+                        return recordParameters((PreparedStatement) result, recorded);
+                    }
+                    return result;
+                }
+        );
+    }
+
+    private static PreparedStatement recordParameters(PreparedStatement target, RecordedStatement recorded) {
+        return (PreparedStatement) Proxy.newProxyInstance(
+                PreparedStatement.class.getClassLoader(),
+                new Class<?>[] { PreparedStatement.class },
+                (proxy, method, args) -> {
+                    // E.g. setString(1, "..."), setObject(2, ...), setNull(3, Types.VARCHAR).
+                    if (method.getName().startsWith("set") && args != null && args.length >= 2
+                            && args[0] instanceof Integer) {
+                        recorded.parameters.put((Integer) args[0], method.getName().equals("setNull") ? null : args[1]);
+                    }
+                    return invoke(target, method, args);
+                }
+        );
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        }
+        catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return delegate.getConnection(username, password);
+    }
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException {
+        return delegate.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException {
+        delegate.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException {
+        delegate.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException {
+        return delegate.getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() {
+        return Logger.getLogger(RecordingDataSource.class.getName());
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        return delegate.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return delegate.isWrapperFor(iface);
+    }
+
+    /**
+     * SQL of a prepared statement, with the last value bound to each parameter.
+     */
+    public static class RecordedStatement {
+        private final String sql;
+        private final TreeMap<Integer, Object> parameters = new TreeMap<>();
+
+        RecordedStatement(String sql) {
+            this.sql = sql;
+        }
+
+        /** Accessor for the SQL of the statement. */
+        public String getSql() {
+            return sql;
+        }
+
+        /** Bind the recorded parameters to another statement with the same placeholders. */
+        public void bindTo(PreparedStatement statement) throws SQLException {
+            for (Integer index : parameters.keySet()) {
+                statement.setObject(index, parameters.get(index));
+            }
+        }
+
+        @Override
+        public String toString() {
+            return sql + " " + parameters.values();
+        }
+    }
+}
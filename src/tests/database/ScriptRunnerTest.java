@@ -0,0 +1,65 @@
+/**
+ * ScriptRunnerTest.java
+ *
+ * Unit tests for the ScriptRunner, verifying how SQL scripts are split into
+ * statements and that the shipped schema script is found on the classpath.
+ */
+
+package tests.database;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import database.ScriptRunner;
+import org.junit.jupiter.api.*;
+
+import java.util.Arrays;
+import java.util.List;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class ScriptRunnerTest {
+    @BeforeAll
+    public static void setUp() {
+        System.out.println("Performing tests for ScriptRunner...");
+    }
+
+    @Test
+    @Order(1)
+    public void testSplitStatements() {
+        String script = "-- comment line\n" +
+                        "CREATE TABLE A (\n" +
+                        "  id INT\n" +
+                        ");\n" +
+                        "\n" +
+                        "INSERT INTO A VALUES (1);\n" +
+                        "INSERT INTO A VALUES (2)";
+
+        List<String> statements = ScriptRunner.splitStatements(script);
+
+        // The last statement does not need a semicolon.
+        assertEquals(
+                Arrays.asList("CREATE TABLE A (\nid INT\n)", "INSERT INTO A VALUES (1)", "INSERT INTO A VALUES (2)"),
+                statements
+        );
+    }
+
+    @Test
+    @Order(2)
+    public void testSplitEmptyScript() {
+        assertTrue(ScriptRunner.splitStatements("-- nothing to run\n\n").isEmpty());
+    }
+
+    @Test
+    @Order(3)
+    public void testMissingScript() {
+        assertThrows(
+                IllegalStateException.class, () -> {
+                    ScriptRunner.run(null, "/database/missing.sql");
+                }
+        );
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        System.out.println("All tests done.");
+    }
+}
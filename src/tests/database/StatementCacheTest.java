@@ -0,0 +1,210 @@
+/**
+ * StatementCacheTest.java
+ *
+ * Tests of the prepared statement cache of the ConnectionPool: reuse of the
+ * statements across borrows, least recently used eviction, isolation of the
+ * borrowers of a statement, and the hit/miss counters of the StatementRegistry.
+ */
+
+package tests.database;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import database.ConnectionPool;
+import database.DatabaseConfig;
+import database.StatementRegistry;
+import database.controllers.component.HandlebarController;
+import org.junit.jupiter.api.*;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class StatementCacheTest {
+    private static final String SELECT_QUERY = "SELECT name FROM Things WHERE id = ?";
+
+    @BeforeAll
+    public static void setUp() {
+        System.out.println("Performing statement cache tests...");
+    }
+
+    @Test
+    @Order(1)
+    public void testControllerStatementsReused() throws Exception {
+        String name = "HandlebarController.findComponentById";
+        StatementRegistry registry = StatementRegistry.getInstance();
+        long hits = registry.getHits(name);
+        long misses = registry.getMisses(name);
+
+        HandlebarController hController = new HandlebarController();
+        int calls = 20;
+        for (int i = 0; i < calls; i++) {
+            hController.findComponentById("1001", "Deda");
+        }
+
+        assertEquals(calls, registry.getHits(name) - hits + registry.getMisses(name) - misses);
+        // At most one miss per pooled connection.
+        assertTrue(registry.getMisses(name) - misses <= DatabaseConfig.load().getPoolMaxSize());
+        assertTrue(registry.getHitRatio() > 0);
+    }
+
+    @Test
+    @Order(2)
+    public void testLeastRecentlyUsedEvicted() throws SQLException {
+        ConnectionPool pool = createPool("lru", 2);
+        try {
+            execute(pool, "SELECT 1");
+            execute(pool, "SELECT 2");
+            execute(pool, "SELECT 1");
+            // Evicts SELECT 2, the least recently used.
+            execute(pool, "SELECT 3");
+            assertEquals(1, pool.getStatementCacheHits());
+            assertEquals(3, pool.getStatementCacheMisses());
+
+            execute(pool, "SELECT 1");
+            assertEquals(2, pool.getStatementCacheHits());
+            execute(pool, "SELECT 2");
+            assertEquals(2, pool.getStatementCacheHits());
+            assertEquals(4, pool.getStatementCacheMisses());
+        }
+        finally {
+            pool.close();
+        }
+    }
+
+    @Test
+    @Order(3)
+    public void testClosedStatementRefused() throws SQLException {
+        ConnectionPool pool = createPool("closed", 4);
+        try (Connection connection = pool.getConnection()) {
+            PreparedStatement statement = connection.prepareStatement(SELECT_QUERY);
+            statement.close();
+
+            assertTrue(statement.isClosed());
+            assertThrows(SQLException.class, statement::executeQuery);
+
+            // The next borrower gets the statement without the parameters of the previous one.
+            try (PreparedStatement reused = connection.prepareStatement(SELECT_QUERY)) {
+                assertFalse(reused.isClosed());
+                assertEquals(1, pool.getStatementCacheHits());
+                assertThrows(SQLException.class, reused::executeQuery);
+            }
+        }
+        finally {
+            pool.close();
+        }
+    }
+
+    @Test
+    @Order(4)
+    public void testStatementInUseNotShared() throws SQLException {
+        ConnectionPool pool = createPool("nested", 4);
+        try (Connection connection = pool.getConnection();
+             PreparedStatement outer = connection.prepareStatement(SELECT_QUERY);
+             PreparedStatement inner = connection.prepareStatement(SELECT_QUERY)) {
+            outer.setInt(1, 1);
+            inner.setInt(1, 2);
+
+            assertEquals("first", readName(outer));
+            assertEquals("second", readName(inner));
+            assertEquals(0, pool.getStatementCacheHits());
+        }
+        finally {
+            pool.close();
+        }
+    }
+
+    @Test
+    @Order(5)
+    public void testStatementsClosedWithConnection() throws SQLException {
+        ConnectionPool pool = createPool("returned", 4);
+        try {
+            PreparedStatement statement;
+            try (Connection connection = pool.getConnection()) {
+                statement = connection.prepareStatement(SELECT_QUERY);
+            }
+            assertTrue(statement.isClosed());
+
+            // Left open by its borrower, but still back in the cache.
+            try (Connection connection = pool.getConnection();
+                 PreparedStatement reused = connection.prepareStatement(SELECT_QUERY)) {
+                reused.setInt(1, 1);
+                assertEquals("first", readName(reused));
+                assertEquals(1, pool.getStatementCacheHits());
+            }
+        }
+        finally {
+            pool.close();
+        }
+    }
+
+    @Test
+    @Order(6)
+    public void testCacheDisabled() throws SQLException {
+        ConnectionPool pool = createPool("disabled", 0);
+        try {
+            execute(pool, "SELECT 1");
+            execute(pool, "SELECT 1");
+            assertEquals(0, pool.getStatementCacheHits());
+            assertEquals(0, pool.getStatementCacheMisses());
+        }
+        finally {
+            pool.close();
+        }
+    }
+
+    @Test
+    @Order(7)
+    public void testRegisterConflict() {
+        assertEquals("SELECT 10", StatementRegistry.register("StatementCacheTest.conflict", "SELECT 10"));
+        // Declaring the same statement again is harmless.
+        assertEquals("SELECT 10", StatementRegistry.register("StatementCacheTest.conflict", "SELECT 10"));
+        assertThrows(IllegalStateException.class,
+                     () -> StatementRegistry.register("StatementCacheTest.conflict", "SELECT 11"));
+        assertEquals("StatementCacheTest.conflict", StatementRegistry.getInstance().nameOf("SELECT 10"));
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        System.out.println("All tests done.");
+    }
+
+    /**
+     * Create a pool of a single connection to a database of its own, with a small table.
+     */
+    private static ConnectionPool createPool(String databaseName, int statementCacheSize) throws SQLException {
+        Properties properties = new Properties();
+        properties.setProperty(DatabaseConfig.URL, "jdbc:h2:mem:statementcache-" + databaseName + ";DB_CLOSE_DELAY=-1");
+        properties.setProperty(DatabaseConfig.USER, "sa");
+        properties.setProperty(DatabaseConfig.PASSWORD, "");
+        properties.setProperty(DatabaseConfig.POOL_MAX_SIZE, "1");
+        properties.setProperty(DatabaseConfig.POOL_STATEMENT_CACHE_SIZE, String.valueOf(statementCacheSize));
+        ConnectionPool pool = new ConnectionPool(new DatabaseConfig(properties));
+
+        try (Connection connection = pool.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS Things (id INT PRIMARY KEY, name VARCHAR(20))");
+            statement.execute("MERGE INTO Things KEY (id) VALUES (1, 'first'), (2, 'second')");
+        }
+        return pool;
+    }
+
+    private static void execute(ConnectionPool pool, String sql) throws SQLException {
+        try (Connection connection = pool.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql);
+             ResultSet result = statement.executeQuery()) {
+            assertTrue(result.next());
+        }
+    }
+
+    private static String readName(PreparedStatement statement) throws SQLException {
+        try (ResultSet result = statement.executeQuery()) {
+            assertTrue(result.next());
+            return result.getString("name");
+        }
+    }
+}
@@ -0,0 +1,214 @@
+/**
+ * ControllerConcurrencyTest.java
+ *
+ * Stress tests sharing single controller instances between many threads, making
+ * sure that concurrent calls neither mix up each other's results nor leak
+ * connections, and that concurrent stock changes are never lost.
+ */
+
+package tests.database.controllers;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import database.ConnectionPool;
+import database.controllers.DatabaseController;
+import database.controllers.bicycle.BicycleController;
+import database.controllers.component.FrameSetController;
+import database.controllers.component.HandlebarController;
+import database.controllers.component.PairOfWheelsController;
+import exceptions.*;
+import models.bicycle.Bicycle;
+import models.component.frameset.FrameSet;
+import models.component.handlebar.Handlebar;
+import models.component.handlebar.HandlebarType;
+import models.component.pairofwheels.BrakeType;
+import models.component.pairofwheels.PairOfWheels;
+import models.component.pairofwheels.TyreType;
+import org.junit.jupiter.api.*;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class ControllerConcurrencyTest {
+    private static final int THREADS = 8;
+    private static final int ITERATIONS = 25;
+    private static final int INITIAL_STOCK = 1000;
+
+    // Single instances shared by all the threads.
+    private static HandlebarController hController;
+    private static FrameSetController fController;
+    private static PairOfWheelsController powController;
+    private static BicycleController bController;
+    private static Handlebar[] handlebars;
+    private static FrameSet sampleFrameSet;
+    private static PairOfWheels samplePairOfWheels;
+
+    @BeforeAll
+    public static void setUp() {
+        hController = new HandlebarController();
+        fController = new FrameSetController();
+        powController = new PairOfWheelsController();
+        bController = new BicycleController();
+
+        handlebars = new Handlebar[THREADS];
+        for (int i = 0; i < THREADS; i++) {
+            handlebars[i] = new Handlebar(
+                    "10" + i,
+                    "concurrency " + i,
+                    "concurrency test",
+                    BigDecimal.valueOf(100 + i),
+                    INITIAL_STOCK,
+                    HandlebarType.values()[i % HandlebarType.values().length]
+            );
+        }
+        sampleFrameSet = new FrameSet(
+                "100",
+                "concurrency sample",
+                "concurrency test",
+                BigDecimal.valueOf(300),
+                INITIAL_STOCK,
+                "nice gears",
+                "nice forks",
+                BigDecimal.valueOf(80.50),
+                true
+        );
+        samplePairOfWheels = new PairOfWheels(
+                "100",
+                "concurrency sample",
+                "concurrency test",
+                BigDecimal.valueOf(50),
+                INITIAL_STOCK,
+                BigDecimal.valueOf(55),
+                TyreType.HYBRID,
+                BrakeType.DISK
+        );
+
+        System.out.println("Performing controller concurrency tests...");
+    }
+
+    @Test
+    @Order(1)
+    public void testCreateComponents()
+            throws SQLException, ComponentAlreadyExistsException, InputTooLongException {
+        for (Handlebar handlebar : handlebars) {
+            assertTrue(hController.createComponent(handlebar));
+        }
+        assertTrue(fController.createComponent(sampleFrameSet));
+        assertTrue(powController.createComponent(samplePairOfWheels));
+    }
+
+    @Test
+    @Order(2)
+    public void testConcurrentReadsNotMixedUp() throws Exception {
+        // Every thread reads its own handlebar through the shared controller.
+        runConcurrently(threadIndex -> {
+            Handlebar expected = handlebars[threadIndex];
+            for (int i = 0; i < ITERATIONS; i++) {
+                Handlebar found = hController.findComponentById(
+                        expected.getSerialNumber(), expected.getBrandName()
+                );
+                assertEquals(expected.getComponentName(), found.getComponentName());
+                assertEquals(expected.getType(), found.getType());
+                assertTrue(hController.componentExists(expected, "Handlebars"));
+                assertFalse(fController.readAllComponentsOfType(true).isEmpty());
+            }
+        });
+    }
+
+    @Test
+    @Order(3)
+    public void testConcurrentStockChangesNotLost() throws Exception {
+        // Each thread takes and returns the components of its own bicycle; all share the frame-set and wheels.
+        runConcurrently(threadIndex -> {
+            for (int i = 0; i < ITERATIONS; i++) {
+                Bicycle bicycle = new Bicycle(
+                        "concurrency bike",
+                        handlebars[threadIndex],
+                        sampleFrameSet,
+                        samplePairOfWheels,
+                        "concurrency"
+                );
+                bController.changeStock(bicycle, -1);
+                bController.changeStock(bicycle, 1);
+            }
+        });
+
+        assertEquals(
+                INITIAL_STOCK,
+                fController.findComponentById(
+                        sampleFrameSet.getSerialNumber(), sampleFrameSet.getBrandName()
+                ).getStock()
+        );
+        assertEquals(
+                INITIAL_STOCK,
+                powController.findComponentById(
+                        samplePairOfWheels.getSerialNumber(), samplePairOfWheels.getBrandName()
+                ).getStock()
+        );
+    }
+
+    @Test
+    @Order(4)
+    public void testNoConnectionLeaked() throws SQLException {
+        ConnectionPool pool = DatabaseController.getDataSource().unwrap(ConnectionPool.class);
+        assertEquals(0, pool.getActiveCount());
+    }
+
+    @Test
+    @Order(5)
+    public void testDeleteComponents() throws SQLException, ComponentNotFoundException {
+        for (Handlebar handlebar : handlebars) {
+            assertTrue(hController.deleteComponent(handlebar, "Handlebars"));
+        }
+        assertTrue(fController.deleteComponent(sampleFrameSet, "FrameSets"));
+        assertTrue(powController.deleteComponent(samplePairOfWheels, "PairsOfWheels"));
+    }
+
+    /**
+     * Run the same task on all the threads, started at once, and rethrow any failure.
+     *
+     * @param task - task receiving the index of its thread.
+     * @throws Exception
+     */
+    private static void runConcurrently(ThreadTask task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int threadIndex = t;
+                futures.add(executor.submit((Callable<Void>) () -> {
+                    start.await();
+                    task.run(threadIndex);
+                    return null;
+                }));
+            }
+
+            start.countDown();
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    private interface ThreadTask {
+        void run(int threadIndex) throws Exception;
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        System.out.println("All tests done.");
+    }
+}
@@ -9,6 +9,7 @@ package tests.database.controllers.bicycle;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import database.controllers.DatabaseController;
 import database.controllers.bicycle.BicycleController;
 import database.controllers.component.FrameSetController;
 import database.controllers.component.HandlebarController;
@@ -17,6 +18,7 @@ import exceptions.BicycleNotFoundException;
 import exceptions.ComponentAlreadyExistsException;
 import exceptions.ComponentNotFoundException;
 import exceptions.InputTooLongException;
+import exceptions.InsufficientStockException;
 import models.bicycle.Bicycle;
 import models.component.frameset.FrameSet;
 import models.component.handlebar.Handlebar;
@@ -25,8 +27,14 @@ import models.component.pairofwheels.BrakeType;
 import models.component.pairofwheels.PairOfWheels;
 import models.component.pairofwheels.TyreType;
 import org.junit.jupiter.api.*;
+import tests.database.CountingDataSource;
+
+import javax.sql.DataSource;
 import java.math.BigDecimal;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
 
 @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
 class BicycleControllerTest {
@@ -110,7 +118,8 @@ class BicycleControllerTest {
     @Test
     @Order(2)
     public void test1CreateBicycle()
-            throws SQLException, InputTooLongException, ComponentNotFoundException, ComponentAlreadyExistsException {
+            throws SQLException, InputTooLongException, ComponentNotFoundException,
+            ComponentAlreadyExistsException, InsufficientStockException {
         // Make sure a correct sample is created.
         assertTrue(
                 bController.createBicycle(correctBicycle)
@@ -143,16 +152,76 @@ class BicycleControllerTest {
 
     @Test
     @Order(4)
-    public void test1DeleteBicycle()
-            throws SQLException, BicycleNotFoundException, InputTooLongException, ComponentNotFoundException {
-        // Should successfully delete bicycle from records.
-        assertTrue(
-                bController.deleteBicycle(correctBicycle.getSerialNumber())
+    public void testFindBicycleById()
+            throws SQLException, BicycleNotFoundException, ComponentNotFoundException {
+        // The bicycle is read together with all its components.
+        Bicycle foundBicycle = bController.findBicycleById(correctBicycle.getSerialNumber());
+        assertEquals(correctBicycle.getCustomName(), foundBicycle.getCustomName());
+        assertEquals(correctHandlebar.getType(), foundBicycle.getHandlebar().getType());
+        assertEquals(correctFrameSet.getStock(), foundBicycle.getFrameSet().getStock());
+        assertEquals(
+                0, correctPairOfWheels.getDiameter().compareTo(foundBicycle.getPairOfWheels().getDiameter())
+        );
+        assertThrows(
+                BicycleNotFoundException.class, () -> {
+                    bController.findBicycleById("missing bike");
+                }
         );
     }
 
     @Test
     @Order(5)
+    public void testFindBicyclesByIds() throws SQLException, ComponentNotFoundException {
+        DataSource originalDataSource = DatabaseController.getDataSource();
+        CountingDataSource countingDataSource = new CountingDataSource(originalDataSource);
+        DatabaseController.setDataSource(countingDataSource);
+        Map<String, Bicycle> foundBicycles;
+        try {
+            // Bicycles not found are left out, and repeated IDs are read once.
+            foundBicycles = bController.findBicyclesByIds(Arrays.asList(
+                    correctBicycle.getSerialNumber(), "missing bike", correctBicycle.getSerialNumber()
+            ));
+        }
+        finally {
+            DatabaseController.setDataSource(originalDataSource);
+        }
+
+        // All the bicycles and their components are read with a single query.
+        assertEquals(1, countingDataSource.getConnectionCount());
+        assertEquals(1, countingDataSource.getStatementCount());
+        assertEquals(1, foundBicycles.size());
+        Bicycle foundBicycle = foundBicycles.get(correctBicycle.getSerialNumber());
+        assertEquals(correctBicycle.getCustomName(), foundBicycle.getCustomName());
+        assertEquals(correctHandlebar.getType(), foundBicycle.getHandlebar().getType());
+        assertEquals(correctFrameSet.getComponentName(), foundBicycle.getFrameSet().getComponentName());
+        assertEquals(correctPairOfWheels.getBrakeType(), foundBicycle.getPairOfWheels().getBrakeType());
+
+        assertTrue(bController.findBicyclesByIds(new ArrayList<>()).isEmpty());
+    }
+
+    @Test
+    @Order(6)
+    public void test1DeleteBicycle()
+            throws SQLException, BicycleNotFoundException, InputTooLongException, ComponentNotFoundException {
+        DataSource originalDataSource = DatabaseController.getDataSource();
+        CountingDataSource countingDataSource = new CountingDataSource(originalDataSource);
+        DatabaseController.setDataSource(countingDataSource);
+        try {
+            // Should successfully delete bicycle from records.
+            assertTrue(
+                    bController.deleteBicycle(correctBicycle.getSerialNumber())
+            );
+        }
+        finally {
+            DatabaseController.setDataSource(originalDataSource);
+        }
+
+        // Read, deleted and returned to stock on a single connection.
+        assertEquals(1, countingDataSource.getConnectionCount());
+    }
+
+    @Test
+    @Order(7)
     public void test2DeleteBicycle()
             throws SQLException, BicycleNotFoundException, InputTooLongException, ComponentNotFoundException {
         // Should not succeed to delete a bike again, since it does not exist anymore.
@@ -164,7 +233,7 @@ class BicycleControllerTest {
     }
 
     @Test
-    @Order(6)
+    @Order(8)
     public void test2CheckStock() throws SQLException, ComponentNotFoundException, InputTooLongException {
         // Make sure that the stock of each component is incremented.
         correctFrameSet.setStock(correctFrameSet.getStock() + 1);
@@ -191,7 +260,7 @@ class BicycleControllerTest {
     }
 
     @Test
-    @Order(7)
+    @Order(9)
     public void testDeleteAllComponents() throws SQLException, ComponentNotFoundException {
         // Make sure that all previously created component records are deleted.
         assertTrue(
@@ -206,7 +275,7 @@ class BicycleControllerTest {
     }
 
     @Test
-    @Order(8)
+    @Order(10)
     public void testFindComponentsById() throws SQLException {
         // Make sure that the deleted components cannot be found anymore.
         assertFalse(
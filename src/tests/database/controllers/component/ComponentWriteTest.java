@@ -0,0 +1,179 @@
+/**
+ * ComponentWriteTest.java
+ *
+ * Regression tests making sure that component writes (create, update, delete)
+ * rely on the primary key and the affected rows, i.e. take a single connection
+ * and statement each, without checking beforehand if the component exists.
+ */
+
+package tests.database.controllers.component;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import database.controllers.DatabaseController;
+import database.controllers.component.FrameSetController;
+import database.controllers.component.HandlebarController;
+import database.controllers.component.PairOfWheelsController;
+import exceptions.*;
+import models.component.frameset.FrameSet;
+import models.component.handlebar.Handlebar;
+import models.component.handlebar.HandlebarType;
+import models.component.pairofwheels.BrakeType;
+import models.component.pairofwheels.PairOfWheels;
+import models.component.pairofwheels.TyreType;
+import org.junit.jupiter.api.*;
+import tests.database.CountingDataSource;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.SQLException;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class ComponentWriteTest {
+    private static DataSource originalDataSource;
+    private static CountingDataSource countingDataSource;
+    private static HandlebarController hController;
+    private static FrameSetController fController;
+    private static PairOfWheelsController powController;
+    private static Handlebar sampleHandlebar;
+    private static FrameSet sampleFrameSet;
+    private static PairOfWheels samplePairOfWheels;
+
+    @BeforeAll
+    public static void setUp() {
+        hController = new HandlebarController();
+        fController = new FrameSetController();
+        powController = new PairOfWheelsController();
+
+        // Route all the controllers through a data source counting the statements.
+        originalDataSource = DatabaseController.getDataSource();
+        countingDataSource = new CountingDataSource(originalDataSource);
+        DatabaseController.setDataSource(countingDataSource);
+
+        sampleHandlebar = new Handlebar(
+                "0011",
+                "write sample",
+                "test sample 1",
+                BigDecimal.valueOf(100),
+                10,
+                HandlebarType.HIGH
+        );
+        sampleFrameSet = new FrameSet(
+                "00000011",
+                "write sample",
+                "test sample 1",
+                BigDecimal.valueOf(300),
+                10,
+                "nice gears",
+                "nice forks",
+                BigDecimal.valueOf(80.50),
+                true
+        );
+        samplePairOfWheels = new PairOfWheels(
+                "00011",
+                "write sample",
+                "test sample 1",
+                BigDecimal.valueOf(50),
+                10,
+                BigDecimal.valueOf(55),
+                TyreType.HYBRID,
+                BrakeType.DISK
+        );
+
+        System.out.println("Performing component write tests...");
+    }
+
+    @Test
+    @Order(1)
+    public void testCreateSingleStatement()
+            throws SQLException, ComponentAlreadyExistsException, InputTooLongException {
+        countingDataSource.reset();
+        assertTrue(hController.createComponent(sampleHandlebar));
+        assertTrue(fController.createComponent(sampleFrameSet));
+        assertTrue(powController.createComponent(samplePairOfWheels));
+
+        assertEquals(3, countingDataSource.getConnectionCount());
+        assertEquals(3, countingDataSource.getStatementCount());
+    }
+
+    @Test
+    @Order(2)
+    public void testCreateExistingSingleStatement() {
+        countingDataSource.reset();
+        // The duplicate primary key is reported as an existing component.
+        assertThrows(ComponentAlreadyExistsException.class, () -> hController.createComponent(sampleHandlebar));
+        assertThrows(ComponentAlreadyExistsException.class, () -> fController.createComponent(sampleFrameSet));
+        assertThrows(
+                ComponentAlreadyExistsException.class, () -> powController.createComponent(samplePairOfWheels)
+        );
+
+        assertEquals(3, countingDataSource.getConnectionCount());
+        assertEquals(3, countingDataSource.getStatementCount());
+    }
+
+    @Test
+    @Order(3)
+    public void testUpdateSingleStatement()
+            throws SQLException, ComponentNotFoundException, InputTooLongException {
+        countingDataSource.reset();
+        sampleHandlebar.setStock(20);
+        assertTrue(hController.updateComponent(sampleHandlebar));
+
+        assertEquals(1, countingDataSource.getConnectionCount());
+        assertEquals(1, countingDataSource.getStatementCount());
+        assertEquals(20, hController.findComponentById(
+                sampleHandlebar.getSerialNumber(), sampleHandlebar.getBrandName()
+        ).getStock());
+    }
+
+    @Test
+    @Order(4)
+    public void testUpdateMissingSingleStatement() {
+        Handlebar missingHandlebar = new Handlebar(
+                "0012",
+                "write sample",
+                "test sample 1",
+                BigDecimal.valueOf(100),
+                10,
+                HandlebarType.HIGH
+        );
+
+        countingDataSource.reset();
+        // No record matched the primary key.
+        assertThrows(ComponentNotFoundException.class, () -> hController.updateComponent(missingHandlebar));
+
+        assertEquals(1, countingDataSource.getConnectionCount());
+        assertEquals(1, countingDataSource.getStatementCount());
+    }
+
+    @Test
+    @Order(5)
+    public void testDeleteSingleStatement() throws SQLException, ComponentNotFoundException {
+        countingDataSource.reset();
+        assertTrue(hController.deleteComponent(sampleHandlebar, "Handlebars"));
+        assertTrue(fController.deleteComponent(sampleFrameSet, "FrameSets"));
+        assertTrue(powController.deleteComponent(samplePairOfWheels, "PairsOfWheels"));
+
+        assertEquals(3, countingDataSource.getConnectionCount());
+        assertEquals(3, countingDataSource.getStatementCount());
+    }
+
+    @Test
+    @Order(6)
+    public void testDeleteMissingSingleStatement() {
+        countingDataSource.reset();
+        // Already deleted, so nothing matches the primary key any more.
+        assertThrows(
+                ComponentNotFoundException.class, () -> hController.deleteComponent(sampleHandlebar, "Handlebars")
+        );
+
+        assertEquals(1, countingDataSource.getConnectionCount());
+        assertEquals(1, countingDataSource.getStatementCount());
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        DatabaseController.setDataSource(originalDataSource);
+        System.out.println("All tests done.");
+    }
+}
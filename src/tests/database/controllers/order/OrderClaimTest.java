@@ -0,0 +1,240 @@
+/**
+ * OrderClaimTest.java
+ *
+ * Tests of claiming pending orders, making sure that staff members claiming
+ * orders at the same time never get the same order, and that an order once
+ * claimed cannot be assigned again.
+ */
+
+package tests.database.controllers.order;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import database.controllers.DatabaseController;
+import database.controllers.component.FrameSetController;
+import database.controllers.component.HandlebarController;
+import database.controllers.component.PairOfWheelsController;
+import database.controllers.order.OrderController;
+import exceptions.*;
+import models.bicycle.Bicycle;
+import models.component.frameset.FrameSet;
+import models.component.handlebar.Handlebar;
+import models.component.handlebar.HandlebarType;
+import models.component.pairofwheels.BrakeType;
+import models.component.pairofwheels.PairOfWheels;
+import models.component.pairofwheels.TyreType;
+import org.junit.jupiter.api.*;
+import services.OrderPlacementService;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class OrderClaimTest {
+    private static final int CLAIMERS = 4;
+    private static final int SAMPLE_ORDERS = 10;
+    private static final String STAFF_PREFIX = "sampleClaimTestStaff";
+    private static OrderController oController;
+    private static HandlebarController hController;
+    private static FrameSetController fController;
+    private static PairOfWheelsController powController;
+    private static Handlebar sampleHandlebar;
+    private static FrameSet sampleFrameSet;
+    private static PairOfWheels samplePairOfWheels;
+    private static ArrayList<models.order.Order> sampleOrders;
+    // Claimed order number -> username of the claimer.
+    private static Map<String, String> claims;
+
+    @BeforeAll
+    public static void setUp() {
+        oController = new OrderController();
+        hController = new HandlebarController();
+        fController = new FrameSetController();
+        powController = new PairOfWheelsController();
+
+        sampleHandlebar = new Handlebar(
+                "0008",
+                "claim sample",
+                "test sample 1",
+                BigDecimal.valueOf(100),
+                100,
+                HandlebarType.HIGH
+        );
+        sampleFrameSet = new FrameSet(
+                "00000008",
+                "claim sample",
+                "test sample 1",
+                BigDecimal.valueOf(300),
+                100,
+                "nice gears",
+                "nice forks",
+                BigDecimal.valueOf(80.50),
+                true
+        );
+        samplePairOfWheels = new PairOfWheels(
+                "00008",
+                "claim sample",
+                "test sample 1",
+                BigDecimal.valueOf(50),
+                100,
+                BigDecimal.valueOf(55),
+                TyreType.HYBRID,
+                BrakeType.DISK
+        );
+        sampleOrders = new ArrayList<>();
+        claims = new HashMap<>();
+
+        System.out.println("Performing order claim tests...");
+    }
+
+    @Test
+    @Order(1)
+    public void testCreateSampleOrders() throws Exception {
+        assertTrue(fController.createComponent(sampleFrameSet));
+        assertTrue(hController.createComponent(sampleHandlebar));
+        assertTrue(powController.createComponent(samplePairOfWheels));
+
+        for (int i = 0; i < CLAIMERS; i++) {
+            executeStaffUpdate("INSERT INTO Staff (staffUsername, forename, surname) VALUES (?, 'claim', 'staff')", i);
+        }
+
+        for (int i = 0; i < SAMPLE_ORDERS; i++) {
+            Bicycle bicycle = new Bicycle(
+                    "claim bike", sampleHandlebar, sampleFrameSet, samplePairOfWheels, null
+            );
+            models.order.Order order = new models.order.Order();
+            order.prepareOrder(null, bicycle);
+            assertTrue(new OrderPlacementService().placeOrder(order, bicycle));
+            sampleOrders.add(order);
+        }
+    }
+
+    @Test
+    @Order(2)
+    public void testInvalidClaimCount() {
+        assertThrows(
+                IllegalArgumentException.class, () -> {
+                    oController.claimPendingOrders(STAFF_PREFIX + 0, 0);
+                }
+        );
+    }
+
+    @Test
+    @Order(3)
+    public void testConcurrentClaimsAreDisjoint() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(CLAIMERS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<List<models.order.Order>>> futures = new ArrayList<>();
+
+        try {
+            // Every claimer keeps taking two orders at a time until the queue is empty.
+            for (int i = 0; i < CLAIMERS; i++) {
+                String staffUsername = STAFF_PREFIX + i;
+                futures.add(executor.submit(() -> {
+                    List<models.order.Order> claimed = new ArrayList<>();
+                    start.await();
+
+                    ArrayList<models.order.Order> batch;
+                    do {
+                        batch = oController.claimPendingOrders(staffUsername, 2);
+                        assertTrue(batch.size() <= 2);
+                        claimed.addAll(batch);
+                    } while (!batch.isEmpty());
+                    return claimed;
+                }));
+            }
+            start.countDown();
+
+            for (int i = 0; i < CLAIMERS; i++) {
+                for (models.order.Order order : futures.get(i).get()) {
+                    assertEquals(STAFF_PREFIX + i, order.getStaffUsername());
+                    assertNull(claims.put(order.getOrderNumber(), order.getStaffUsername()),
+                            "Order " + order.getOrderNumber() + " claimed twice");
+                }
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+
+        for (models.order.Order order : sampleOrders) {
+            String claimer = claims.get(order.getOrderNumber());
+            assertNotNull(claimer);
+            assertEquals(claimer, oController.findOrderById(order.getOrderNumber()).getStaffUsername());
+        }
+        assertTrue(oController.readAllPendingOrders().isEmpty());
+    }
+
+    @Test
+    @Order(4)
+    public void testAssignClaimedOrder() throws SQLException {
+        String orderNumber = sampleOrders.get(0).getOrderNumber();
+        String otherStaff = STAFF_PREFIX + ((claims.get(orderNumber).endsWith("0")) ? 1 : 0);
+
+        assertFalse(oController.assignStaffOrder(orderNumber, otherStaff));
+    }
+
+    @Test
+    @Order(5)
+    public void testFailedClaimClaimsNothing() throws SQLException {
+        // Put an order back in the queue, with items missing so that it cannot be read.
+        models.order.Order brokenOrder = sampleOrders.get(0);
+        assertTrue(oController.cancelStaffOrder(brokenOrder.getOrderNumber()));
+        executeOrderUpdate("DELETE FROM Items WHERE orderNumber = ?", brokenOrder.getOrderNumber());
+
+        assertThrows(
+                InvalidOrderException.class, () -> {
+                    oController.claimPendingOrders(STAFF_PREFIX + 0, 1);
+                }
+        );
+
+        // The claim is rolled back with the failed read, so the order can still be taken.
+        assertTrue(oController.assignStaffOrder(brokenOrder.getOrderNumber(), STAFF_PREFIX + 1));
+    }
+
+    @Test
+    @Order(6)
+    public void testDeleteSampleOrders() throws SQLException, OrderNotFoundException, InputTooLongException,
+            ComponentNotFoundException, BicycleNotFoundException {
+        // Put back any other pending order taken from the queue by the claimers.
+        for (String orderNumber : claims.keySet()) {
+            oController.cancelStaffOrder(orderNumber);
+        }
+        for (models.order.Order order : sampleOrders) {
+            assertTrue(oController.deleteOrder(order));
+        }
+        for (int i = 0; i < CLAIMERS; i++) {
+            executeStaffUpdate("DELETE FROM Staff WHERE staffUsername = ?", i);
+        }
+        assertTrue(powController.deleteComponent(samplePairOfWheels, "PairsOfWheels"));
+        assertTrue(hController.deleteComponent(sampleHandlebar, "Handlebars"));
+        assertTrue(fController.deleteComponent(sampleFrameSet, "FrameSets"));
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        System.out.println("All tests done.");
+    }
+
+    private static void executeStaffUpdate(String sqlQuery, int claimer) throws SQLException {
+        executeOrderUpdate(sqlQuery, STAFF_PREFIX + claimer);
+    }
+
+    private static void executeOrderUpdate(String sqlQuery, String key) throws SQLException {
+        try (Connection connection = DatabaseController.getDataSource().getConnection();
+             PreparedStatement sqlStatement = connection.prepareStatement(sqlQuery)) {
+            sqlStatement.setString(1, key);
+            sqlStatement.executeUpdate();
+        }
+    }
+}
@@ -126,7 +126,8 @@ class OrderControllerTest {
     @Test
     @Order(2)
     public void testCreateBicycle()
-            throws SQLException, InputTooLongException, ComponentNotFoundException, ComponentAlreadyExistsException {
+            throws SQLException, InputTooLongException, ComponentNotFoundException,
+            ComponentAlreadyExistsException, InsufficientStockException {
         // Make sure a correct bicycle sample is created.
         assertTrue(
                 bController.createBicycle(correctBicycle)
@@ -178,12 +179,13 @@ class OrderControllerTest {
 
     @Test
     @Order(6)
-    public void testUpdateOrderStatus() throws SQLException {
+    public void testUpdateOrderStatus()
+            throws SQLException, InvalidStatusTransitionException, StaleOrderException {
         // Attempt to update an order status.
-        correctOrder.setStatus(OrderStatus.CONFIRMED);
         assertTrue(
-                oController.updateOrderStatus(correctOrder)
+                oController.transitionOrderStatus(correctOrder, OrderStatus.CONFIRMED)
         );
+        assertEquals(OrderStatus.CONFIRMED, correctOrder.getStatus());
     }
 
     @Test
@@ -0,0 +1,214 @@
+/**
+ * OrderLoadingTest.java
+ *
+ * Regression tests making sure that the OrderController loads lists of orders
+ * together with their items in a single statement, i.e. without issuing one
+ * additional items query per order found (N+1 problem).
+ */
+
+package tests.database.controllers.order;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import database.controllers.DatabaseController;
+import database.controllers.bicycle.BicycleController;
+import database.controllers.component.FrameSetController;
+import database.controllers.component.HandlebarController;
+import database.controllers.component.PairOfWheelsController;
+import database.controllers.order.OrderController;
+import exceptions.*;
+import models.bicycle.Bicycle;
+import models.component.frameset.FrameSet;
+import models.component.handlebar.Handlebar;
+import models.component.handlebar.HandlebarType;
+import models.component.pairofwheels.BrakeType;
+import models.component.pairofwheels.PairOfWheels;
+import models.component.pairofwheels.TyreType;
+import models.user.customer.Customer;
+import models.user.staff.Staff;
+import org.junit.jupiter.api.*;
+import tests.database.CountingDataSource;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class OrderLoadingTest {
+    private static final String STAFF_USERNAME = "sampleLoadingTestStaff";
+    private static final String CUSTOMER_ID = "00000000001";
+
+    private static DataSource originalDataSource;
+    private static CountingDataSource countingDataSource;
+    private static OrderController oController;
+    private static BicycleController bController;
+    private static HandlebarController hController;
+    private static FrameSetController fController;
+    private static PairOfWheelsController powController;
+    private static Handlebar sampleHandlebar;
+    private static FrameSet sampleFrameSet;
+    private static PairOfWheels samplePairOfWheels;
+    private static Bicycle sampleBicycle;
+    private static models.order.Order sampleOrder;
+
+    @BeforeAll
+    public static void setUp() {
+        oController = new OrderController();
+        bController = new BicycleController();
+        hController = new HandlebarController();
+        fController = new FrameSetController();
+        powController = new PairOfWheelsController();
+
+        // Route all the controllers through a data source counting the statements.
+        originalDataSource = DatabaseController.getDataSource();
+        countingDataSource = new CountingDataSource(originalDataSource);
+        DatabaseController.setDataSource(countingDataSource);
+
+        sampleHandlebar = new Handlebar(
+                "0001",
+                "loading sample",
+                "test sample 1",
+                BigDecimal.valueOf(100),
+                100,
+                HandlebarType.HIGH
+        );
+        sampleFrameSet = new FrameSet(
+                "00000001",
+                "loading sample",
+                "test sample 1",
+                BigDecimal.valueOf(300),
+                25,
+                "nice gears",
+                "nice forks",
+                BigDecimal.valueOf(80.50),
+                true
+        );
+        samplePairOfWheels = new PairOfWheels(
+                "00001",
+                "loading sample",
+                "test sample 1",
+                BigDecimal.valueOf(50),
+                200,
+                BigDecimal.valueOf(55),
+                TyreType.HYBRID,
+                BrakeType.DISK
+        );
+        sampleBicycle = new Bicycle(
+                "loading bike",
+                sampleHandlebar,
+                sampleFrameSet,
+                samplePairOfWheels,
+                "1"
+        );
+
+        // Unassigned at first, so that there is at least one pending order to be loaded.
+        sampleOrder = new models.order.Order();
+        sampleOrder.prepareOrder(CUSTOMER_ID, sampleBicycle);
+
+        System.out.println("Performing order loading tests...");
+    }
+
+    @Test
+    @Order(1)
+    public void testCreateSampleOrder()
+            throws SQLException, ComponentAlreadyExistsException, InputTooLongException,
+            ComponentNotFoundException, InsufficientStockException, InvalidOrderException {
+        assertTrue(fController.createComponent(sampleFrameSet));
+        assertTrue(hController.createComponent(sampleHandlebar));
+        assertTrue(powController.createComponent(samplePairOfWheels));
+        executeUpdate("INSERT INTO Staff (staffUsername, forename, surname) VALUES (?, 'sample', 'staff')",
+                      STAFF_USERNAME);
+        executeUpdate("INSERT INTO Customers (customerId, forename, surname) VALUES (?, 'sample', 'customer')",
+                      CUSTOMER_ID);
+        assertTrue(bController.createBicycle(sampleBicycle));
+        assertTrue(oController.createOrder(sampleOrder));
+    }
+
+    @Test
+    @Order(2)
+    public void testReadAllPendingOrdersSingleStatement() throws SQLException, InvalidOrderException {
+        countingDataSource.reset();
+        ArrayList<models.order.Order> pendingOrders = oController.readAllPendingOrders();
+
+        // However many orders are pending, they are loaded with all their items at once.
+        assertTrue(pendingOrders.size() >= 1);
+        for (models.order.Order order : pendingOrders) {
+            assertEquals(4, order.getOrderItems().size());
+        }
+        assertEquals(1, countingDataSource.getStatementCount());
+        assertEquals(1, countingDataSource.getConnectionCount());
+    }
+
+    @Test
+    @Order(3)
+    public void testFindOrderByIdSingleStatement()
+            throws SQLException, InvalidOrderException, OrderNotFoundException {
+        countingDataSource.reset();
+        models.order.Order foundOrder = oController.findOrderById(sampleOrder.getOrderNumber());
+
+        assertEquals(sampleOrder.getOrderNumber(), foundOrder.getOrderNumber());
+        assertEquals(4, foundOrder.getOrderItems().size());
+        assertEquals(1, countingDataSource.getStatementCount());
+    }
+
+    @Test
+    @Order(4)
+    public void testFindStaffOrdersSingleStatement()
+            throws SQLException, InvalidOrderException, NoOrderForUserException {
+        Staff staff = new Staff(STAFF_USERNAME, "sample", "staff", null);
+        assertTrue(oController.assignStaffOrder(sampleOrder.getOrderNumber(), STAFF_USERNAME));
+
+        countingDataSource.reset();
+        ArrayList<models.order.Order> staffOrders = oController.findStaffOrders(staff);
+
+        assertEquals(1, staffOrders.size());
+        assertEquals(sampleOrder.getOrderNumber(), staffOrders.get(0).getOrderNumber());
+        assertEquals(4, staffOrders.get(0).getOrderItems().size());
+        assertEquals(1, countingDataSource.getStatementCount());
+    }
+
+    @Test
+    @Order(5)
+    public void testFindCustomerOrdersSingleStatement()
+            throws SQLException, InvalidOrderException, NoOrderForUserException {
+        Customer customer = new Customer(CUSTOMER_ID, "sample", "customer", null);
+
+        countingDataSource.reset();
+        ArrayList<models.order.Order> customerOrders = oController.findCustomerOrders(customer);
+
+        assertEquals(1, customerOrders.size());
+        assertEquals(sampleOrder.getOrderNumber(), customerOrders.get(0).getOrderNumber());
+        assertEquals(4, customerOrders.get(0).getOrderItems().size());
+        assertEquals(1, countingDataSource.getStatementCount());
+    }
+
+    @Test
+    @Order(6)
+    public void testDeleteSampleOrder()
+            throws SQLException, OrderNotFoundException, InputTooLongException,
+            ComponentNotFoundException, BicycleNotFoundException {
+        assertTrue(oController.deleteOrder(sampleOrder));
+        assertTrue(powController.deleteComponent(samplePairOfWheels, "PairsOfWheels"));
+        assertTrue(hController.deleteComponent(sampleHandlebar, "Handlebars"));
+        assertTrue(fController.deleteComponent(sampleFrameSet, "FrameSets"));
+        executeUpdate("DELETE FROM Customers WHERE customerId = ?", CUSTOMER_ID);
+        executeUpdate("DELETE FROM Staff WHERE staffUsername = ?", STAFF_USERNAME);
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        DatabaseController.setDataSource(originalDataSource);
+        System.out.println("All tests done.");
+    }
+
+    private static void executeUpdate(String sqlQuery, String key) throws SQLException {
+        try (Connection connection = DatabaseController.getDataSource().getConnection();
+             PreparedStatement sqlStatement = connection.prepareStatement(sqlQuery)) {
+            sqlStatement.setString(1, key);
+            sqlStatement.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,200 @@
+/**
+ * OrderPaginationTest.java
+ *
+ * Tests of the keyset-paginated order listings of the OrderController, making
+ * sure that walking all the pages returns every order exactly once and in order.
+ */
+
+package tests.database.controllers.order;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import database.controllers.component.FrameSetController;
+import database.controllers.component.HandlebarController;
+import database.controllers.component.PairOfWheelsController;
+import database.controllers.order.OrderController;
+import exceptions.*;
+import models.bicycle.Bicycle;
+import models.component.frameset.FrameSet;
+import models.component.handlebar.Handlebar;
+import models.component.handlebar.HandlebarType;
+import models.component.pairofwheels.BrakeType;
+import models.component.pairofwheels.PairOfWheels;
+import models.component.pairofwheels.TyreType;
+import models.order.OrderCursor;
+import models.order.OrderPage;
+import models.user.staff.Staff;
+import org.junit.jupiter.api.*;
+import services.OrderPlacementService;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class OrderPaginationTest {
+    private static final int SAMPLE_ORDERS = 5;
+    private static OrderController oController;
+    private static HandlebarController hController;
+    private static FrameSetController fController;
+    private static PairOfWheelsController powController;
+    private static Handlebar sampleHandlebar;
+    private static FrameSet sampleFrameSet;
+    private static PairOfWheels samplePairOfWheels;
+    private static ArrayList<models.order.Order> sampleOrders;
+
+    @BeforeAll
+    public static void setUp() {
+        oController = new OrderController();
+        hController = new HandlebarController();
+        fController = new FrameSetController();
+        powController = new PairOfWheelsController();
+
+        sampleHandlebar = new Handlebar(
+                "0007",
+                "paging sample",
+                "test sample 1",
+                BigDecimal.valueOf(100),
+                100,
+                HandlebarType.HIGH
+        );
+        sampleFrameSet = new FrameSet(
+                "00000007",
+                "paging sample",
+                "test sample 1",
+                BigDecimal.valueOf(300),
+                100,
+                "nice gears",
+                "nice forks",
+                BigDecimal.valueOf(80.50),
+                true
+        );
+        samplePairOfWheels = new PairOfWheels(
+                "00007",
+                "paging sample",
+                "test sample 1",
+                BigDecimal.valueOf(50),
+                100,
+                BigDecimal.valueOf(55),
+                TyreType.HYBRID,
+                BrakeType.DISK
+        );
+        sampleOrders = new ArrayList<>();
+
+        System.out.println("Performing order pagination tests...");
+    }
+
+    @Test
+    @Order(1)
+    public void testCreateSampleOrders() throws Exception {
+        assertTrue(fController.createComponent(sampleFrameSet));
+        assertTrue(hController.createComponent(sampleHandlebar));
+        assertTrue(powController.createComponent(samplePairOfWheels));
+
+        // All placed on the same date, so that the order number has to break the ties.
+        for (int i = 0; i < SAMPLE_ORDERS; i++) {
+            Bicycle bicycle = new Bicycle(
+                    "paging bike", sampleHandlebar, sampleFrameSet, samplePairOfWheels, null
+            );
+            models.order.Order order = new models.order.Order();
+            order.prepareOrder(null, bicycle);
+            assertTrue(new OrderPlacementService().placeOrder(order, bicycle));
+            sampleOrders.add(order);
+        }
+    }
+
+    @Test
+    @Order(2)
+    public void testWalkPendingOrdersPages() throws SQLException, InvalidOrderException {
+        Map<String, Integer> seen = new HashMap<>();
+        ArrayList<models.order.Order> listed = new ArrayList<>();
+        String cursor = null;
+
+        do {
+            OrderPage page = oController.readPendingOrdersPage(2, cursor);
+            assertTrue(page.getOrders().size() <= 2);
+            // Only the last page may come short.
+            if (page.hasNext()) {
+                assertEquals(2, page.getOrders().size());
+            }
+
+            for (models.order.Order order : page.getOrders()) {
+                assertEquals(4, order.getOrderItems().size());
+                seen.merge(order.getOrderNumber(), 1, Integer::sum);
+                listed.add(order);
+            }
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        for (models.order.Order order : sampleOrders) {
+            assertEquals(Integer.valueOf(1), seen.get(order.getOrderNumber()));
+        }
+
+        // Newest first, then by descending order number.
+        for (int i = 1; i < listed.size(); i++) {
+            models.order.Order previous = listed.get(i - 1);
+            models.order.Order current = listed.get(i);
+            int byDate = previous.getDate().compareTo(current.getDate());
+            assertTrue(byDate > 0
+                    || (byDate == 0 && previous.getOrderNumber().compareTo(current.getOrderNumber()) > 0));
+        }
+    }
+
+    @Test
+    @Order(3)
+    public void testCursorRoundTrip() {
+        models.order.Order order = sampleOrders.get(0);
+        OrderCursor cursor = OrderCursor.decode(
+                OrderCursor.after(order).encode()
+        );
+
+        assertEquals(order.getOrderNumber(), cursor.getOrderNumber());
+        assertEquals(new java.sql.Date(order.getDate().getTime()).toString(), cursor.getDate().toString());
+    }
+
+    @Test
+    @Order(4)
+    public void testInvalidCursorAndPageSize() {
+        assertThrows(
+                IllegalArgumentException.class, () -> {
+                    oController.readPendingOrdersPage(2, "not a cursor");
+                }
+        );
+        assertThrows(
+                IllegalArgumentException.class, () -> {
+                    oController.readPendingOrdersPage(0, null);
+                }
+        );
+    }
+
+    @Test
+    @Order(5)
+    public void testEmptyStaffOrdersPage() throws SQLException, InvalidOrderException {
+        Staff staff = new Staff("samplePaginationTestStaff", "sample", "staff", null);
+        OrderPage page = oController.findStaffOrdersPage(staff, 2, null);
+
+        assertTrue(page.getOrders().isEmpty());
+        assertFalse(page.hasNext());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    @Order(6)
+    public void testDeleteSampleOrders()
+            throws SQLException, OrderNotFoundException, InputTooLongException,
+            ComponentNotFoundException, BicycleNotFoundException {
+        for (models.order.Order order : sampleOrders) {
+            assertTrue(oController.deleteOrder(order));
+        }
+        assertTrue(powController.deleteComponent(samplePairOfWheels, "PairsOfWheels"));
+        assertTrue(hController.deleteComponent(sampleHandlebar, "Handlebars"));
+        assertTrue(fController.deleteComponent(sampleFrameSet, "FrameSets"));
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        System.out.println("All tests done.");
+    }
+}
@@ -0,0 +1,172 @@
+/**
+ * OrderStatusTransitionTest.java
+ *
+ * Tests of the order status transitions: only the allowed transitions are
+ * accepted, and a transition made from an outdated copy of an order fails
+ * instead of overwriting the status set meanwhile.
+ */
+
+package tests.database.controllers.order;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import database.controllers.component.FrameSetController;
+import database.controllers.component.HandlebarController;
+import database.controllers.component.PairOfWheelsController;
+import database.controllers.order.OrderController;
+import exceptions.*;
+import models.bicycle.Bicycle;
+import models.component.frameset.FrameSet;
+import models.component.handlebar.Handlebar;
+import models.component.handlebar.HandlebarType;
+import models.component.pairofwheels.BrakeType;
+import models.component.pairofwheels.PairOfWheels;
+import models.component.pairofwheels.TyreType;
+import models.order.OrderStatus;
+import org.junit.jupiter.api.*;
+import services.OrderPlacementService;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class OrderStatusTransitionTest {
+    private static OrderController oController;
+    private static HandlebarController hController;
+    private static FrameSetController fController;
+    private static PairOfWheelsController powController;
+    private static Handlebar sampleHandlebar;
+    private static FrameSet sampleFrameSet;
+    private static PairOfWheels samplePairOfWheels;
+    private static models.order.Order sampleOrder;
+
+    @BeforeAll
+    public static void setUp() {
+        oController = new OrderController();
+        hController = new HandlebarController();
+        fController = new FrameSetController();
+        powController = new PairOfWheelsController();
+
+        sampleHandlebar = new Handlebar(
+                "0010",
+                "status sample",
+                "test sample 1",
+                BigDecimal.valueOf(100),
+                10,
+                HandlebarType.HIGH
+        );
+        sampleFrameSet = new FrameSet(
+                "00000010",
+                "status sample",
+                "test sample 1",
+                BigDecimal.valueOf(300),
+                10,
+                "nice gears",
+                "nice forks",
+                BigDecimal.valueOf(80.50),
+                true
+        );
+        samplePairOfWheels = new PairOfWheels(
+                "00010",
+                "status sample",
+                "test sample 1",
+                BigDecimal.valueOf(50),
+                10,
+                BigDecimal.valueOf(55),
+                TyreType.HYBRID,
+                BrakeType.DISK
+        );
+
+        System.out.println("Performing order status transition tests...");
+    }
+
+    @Test
+    @Order(1)
+    public void testAllowedTransitions() {
+        assertTrue(OrderStatus.PENDING.canTransitionTo(OrderStatus.CONFIRMED));
+        assertTrue(OrderStatus.CONFIRMED.canTransitionTo(OrderStatus.FULFILLED));
+        assertTrue(OrderStatus.CONFIRMED.canTransitionTo(OrderStatus.PENDING));
+        assertTrue(OrderStatus.FULFILLED.canTransitionTo(OrderStatus.CONFIRMED));
+
+        assertFalse(OrderStatus.PENDING.canTransitionTo(OrderStatus.FULFILLED));
+        assertFalse(OrderStatus.FULFILLED.canTransitionTo(OrderStatus.PENDING));
+        for (OrderStatus status : OrderStatus.values()) {
+            assertFalse(status.canTransitionTo(status));
+        }
+    }
+
+    @Test
+    @Order(2)
+    public void testCreateSampleOrder() throws Exception {
+        assertTrue(fController.createComponent(sampleFrameSet));
+        assertTrue(hController.createComponent(sampleHandlebar));
+        assertTrue(powController.createComponent(samplePairOfWheels));
+
+        Bicycle bicycle = new Bicycle(
+                "status bike", sampleHandlebar, sampleFrameSet, samplePairOfWheels, null
+        );
+        sampleOrder = new models.order.Order();
+        sampleOrder.prepareOrder(null, bicycle);
+        assertTrue(new OrderPlacementService().placeOrder(sampleOrder, bicycle));
+    }
+
+    @Test
+    @Order(3)
+    public void testInvalidTransition() {
+        // Skipping a step is refused before reaching the database.
+        assertThrows(
+                InvalidStatusTransitionException.class, () -> {
+                    oController.transitionOrderStatus(sampleOrder, OrderStatus.FULFILLED);
+                }
+        );
+        assertEquals(OrderStatus.PENDING, sampleOrder.getStatus());
+    }
+
+    @Test
+    @Order(4)
+    public void testTransitionsAndStaleCopy() throws Exception {
+        // Another staff member's copy of the same order, read before any change.
+        models.order.Order staleCopy = oController.findOrderById(sampleOrder.getOrderNumber());
+
+        assertTrue(oController.transitionOrderStatus(sampleOrder, OrderStatus.CONFIRMED));
+        assertEquals(OrderStatus.CONFIRMED, sampleOrder.getStatus());
+
+        // The outdated copy still believes the order is PENDING.
+        assertThrows(
+                StaleOrderException.class, () -> {
+                    oController.transitionOrderStatus(staleCopy, OrderStatus.CONFIRMED);
+                }
+        );
+        assertEquals(OrderStatus.PENDING, staleCopy.getStatus());
+
+        assertTrue(oController.transitionOrderStatus(sampleOrder, OrderStatus.FULFILLED));
+        assertEquals(
+                OrderStatus.FULFILLED, oController.findOrderById(sampleOrder.getOrderNumber()).getStatus()
+        );
+    }
+
+    @Test
+    @Order(5)
+    public void testCancelNotPendingOrder() throws Exception {
+        // A FULFILLED order keeps its status and cannot be dis-assigned.
+        assertFalse(oController.cancelStaffOrder(sampleOrder.getOrderNumber()));
+        assertEquals(
+                OrderStatus.FULFILLED, oController.findOrderById(sampleOrder.getOrderNumber()).getStatus()
+        );
+    }
+
+    @Test
+    @Order(6)
+    public void testDeleteSampleOrder() throws SQLException, OrderNotFoundException, InputTooLongException,
+            ComponentNotFoundException, BicycleNotFoundException {
+        assertTrue(oController.deleteOrder(sampleOrder));
+        assertTrue(powController.deleteComponent(samplePairOfWheels, "PairsOfWheels"));
+        assertTrue(hController.deleteComponent(sampleHandlebar, "Handlebars"));
+        assertTrue(fController.deleteComponent(sampleFrameSet, "FrameSets"));
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        System.out.println("All tests done.");
+    }
+}
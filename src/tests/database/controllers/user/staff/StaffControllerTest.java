@@ -0,0 +1,164 @@
+/**
+ * StaffControllerTest.java
+ *
+ * Unit tests for the StaffController class, including the replacement of the
+ * original password hashes on log in.
+ */
+
+package tests.database.controllers.user.staff;
+
+import database.controllers.DatabaseController;
+import database.controllers.user.staff.StaffController;
+import exceptions.IncorrectPasswordException;
+import exceptions.InvalidCredentialsException;
+import exceptions.UserNotFoundException;
+import models.user.staff.Staff;
+import services.EncryptionHandler;
+import services.Pbkdf2PasswordHasher;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+
+import tests.database.CountingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class StaffControllerTest {
+    private static final String USERNAME = "sampleStaffControllerTest";
+    private static final String PASSWORD = "samplePassword1";
+    private static StaffController sController;
+    private static String encryptedUsername;
+
+    @BeforeAll
+    public static void setUp() throws Exception {
+        sController = new StaffController(new Pbkdf2PasswordHasher(Pbkdf2PasswordHasher.MIN_ITERATIONS));
+        encryptedUsername = EncryptionHandler.encryptData(USERNAME);
+        System.out.println("Performing staff controller tests...");
+    }
+
+    @Test
+    @Order(1)
+    public void testCreateLegacyStaff() throws Exception {
+        // A staff member as stored originally, with a single SHA-256 round.
+        String sqlQuery = "INSERT INTO Staff (staffUsername, forename, surname, password) " +
+                          "VALUES (?, 'sample', 'staff', ?)";
+
+        try (Connection connection = DatabaseController.getDataSource().getConnection();
+             PreparedStatement sqlStatement = connection.prepareStatement(sqlQuery)) {
+            sqlStatement.setString(1, encryptedUsername);
+            sqlStatement.setString(2, EncryptionHandler.encryptData(PASSWORD));
+            assertEquals(1, sqlStatement.executeUpdate());
+        }
+    }
+
+    @Test
+    @Order(2)
+    public void testLogInRehashesLegacyPassword() throws Exception {
+        Staff staff = logIn(PASSWORD);
+
+        assertEquals("sample", staff.getForename());
+        assertEquals("staff", staff.getSurname());
+        assertTrue(readStoredPassword().startsWith("pbkdf2-sha256$"));
+    }
+
+    @Test
+    @Order(3)
+    public void testLogInWithRehashedPassword() throws Exception {
+        String storedHash = readStoredPassword();
+
+        assertNotNull(logIn(PASSWORD));
+        // Already up to date, so not hashed again.
+        assertEquals(storedHash, readStoredPassword());
+    }
+
+    @Test
+    @Order(4)
+    public void testLogInRejected() {
+        assertThrows(
+                IncorrectPasswordException.class, () -> {
+                    logIn("wrongPassword");
+                }
+        );
+        assertThrows(
+                InvalidCredentialsException.class, () -> {
+                    logIn("");
+                }
+        );
+        assertThrows(
+                UserNotFoundException.class, () -> {
+                    Staff unknown = new Staff();
+                    unknown.setUsername("sampleUnknownStaff");
+                    sController.attemptLogIn(unknown, PASSWORD.toCharArray());
+                }
+        );
+    }
+
+    @Test
+    @Order(5)
+    public void testPasswordCheckedOnEveryLogIn() throws Exception {
+        Staff staff = logIn(PASSWORD);
+
+        // Logged in once, the same staff member is still refused with a wrong password.
+        assertThrows(
+                IncorrectPasswordException.class, () -> {
+                    sController.attemptLogIn(staff, "wrongPassword".toCharArray());
+                }
+        );
+    }
+
+    @Test
+    @Order(6)
+    public void testLogInSingleStatement() throws Exception {
+        DataSource original = DatabaseController.getDataSource();
+        CountingDataSource counting = new CountingDataSource(original);
+        DatabaseController.setDataSource(counting);
+        try {
+            assertNotNull(logIn(PASSWORD));
+            assertEquals(1, counting.getStatementCount());
+            assertEquals(1, counting.getConnectionCount());
+        }
+        finally {
+            DatabaseController.setDataSource(original);
+        }
+    }
+
+    @Test
+    @Order(7)
+    public void testDeleteStaff() throws SQLException {
+        try (Connection connection = DatabaseController.getDataSource().getConnection();
+             PreparedStatement sqlStatement = connection.prepareStatement(
+                     "DELETE FROM Staff WHERE staffUsername = ?")) {
+            sqlStatement.setString(1, encryptedUsername);
+            assertEquals(1, sqlStatement.executeUpdate());
+        }
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        System.out.println("All tests done.");
+    }
+
+    private static Staff logIn(String password) throws Exception {
+        Staff staff = new Staff();
+        staff.setUsername(USERNAME);
+        return sController.attemptLogIn(staff, password.toCharArray());
+    }
+
+    private static String readStoredPassword() throws SQLException {
+        try (Connection connection = DatabaseController.getDataSource().getConnection();
+             PreparedStatement sqlStatement = connection.prepareStatement(
+                     "SELECT password FROM Staff WHERE staffUsername = ?")) {
+            sqlStatement.setString(1, encryptedUsername);
+
+            try (ResultSet result = sqlStatement.executeQuery()) {
+                assertTrue(result.next());
+                return result.getString("password");
+            }
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/**
+ * DataLoaderTest.java
+ *
+ * Unit tests for the DataLoader, verifying that the results of background loads
+ * are delivered on the Event Dispatch Thread, that failures are passed on, and
+ * that cancelled loads deliver nothing (no database or window needed).
+ */
+
+package tests.gui;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import gui.DataLoader;
+import org.junit.jupiter.api.*;
+
+import javax.swing.*;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class DataLoaderTest {
+    private static final long TIMEOUT_S = 5;
+
+    @BeforeAll
+    public static void setUp() {
+        System.out.println("Performing tests for DataLoader...");
+    }
+
+    @Test
+    @Order(1)
+    public void testResultOnEventDispatchThread() throws Exception {
+        List<Boolean> loadingStates = new CopyOnWriteArrayList<>();
+        AtomicReference<String> loaded = new AtomicReference<>();
+        AtomicBoolean onEdt = new AtomicBoolean();
+        CountDownLatch done = new CountDownLatch(1);
+        DataLoader loader = new DataLoader(loadingStates::add);
+
+        SwingUtilities.invokeAndWait(() -> loader.load(
+                () -> {
+                    assertFalse(SwingUtilities.isEventDispatchThread());
+                    return "loaded";
+                },
+                value -> {
+                    loaded.set(value);
+                    onEdt.set(SwingUtilities.isEventDispatchThread());
+                    done.countDown();
+                },
+                e -> fail(e)
+        ));
+
+        assertTrue(done.await(TIMEOUT_S, TimeUnit.SECONDS));
+        assertEquals("loaded", loaded.get());
+        assertTrue(onEdt.get());
+        SwingUtilities.invokeAndWait(() -> assertFalse(loader.isLoading()));
+        assertEquals(Arrays.asList(true, false), loadingStates);
+    }
+
+    @Test
+    @Order(2)
+    public void testFailurePassedOn() throws Exception {
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        CountDownLatch done = new CountDownLatch(1);
+        DataLoader loader = new DataLoader(loading -> {});
+
+        SwingUtilities.invokeAndWait(() -> loader.load(
+                () -> {
+                    throw new SQLException("no connection");
+                },
+                value -> fail("No result expected."),
+                e -> {
+                    failure.set(e);
+                    done.countDown();
+                }
+        ));
+
+        assertTrue(done.await(TIMEOUT_S, TimeUnit.SECONDS));
+        assertTrue(failure.get() instanceof SQLException);
+        assertEquals("no connection", failure.get().getMessage());
+    }
+
+    @Test
+    @Order(3)
+    public void testCancelledLoadDeliversNothing() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean delivered = new AtomicBoolean();
+        DataLoader loader = new DataLoader(loading -> {});
+
+        SwingUtilities.invokeAndWait(() -> loader.load(
+                () -> {
+                    started.countDown();
+                    release.await();
+                    return "too late";
+                },
+                value -> delivered.set(true),
+                e -> delivered.set(true)
+        ));
+        assertTrue(started.await(TIMEOUT_S, TimeUnit.SECONDS));
+
+        // Disposing the screen cancels the load in flight and refuses new ones.
+        SwingUtilities.invokeAndWait(loader::cancelAll);
+        release.countDown();
+        SwingUtilities.invokeAndWait(() -> {
+            SwingWorker<String, Void> later = loader.load(() -> "new", value -> delivered.set(true), e -> {});
+            assertTrue(later.isCancelled());
+        });
+
+        // Let any (wrongly) pending callbacks run before checking.
+        Thread.sleep(200);
+        SwingUtilities.invokeAndWait(() -> {});
+        assertFalse(delivered.get());
+        SwingUtilities.invokeAndWait(() -> assertFalse(loader.isLoading()));
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        System.out.println("All tests done.");
+    }
+}
@@ -0,0 +1,156 @@
+/**
+ * ComponentCatalogTest.java
+ *
+ * Unit tests for the ComponentCatalog, verifying that the filters are served from
+ * memory and that any change of the components is picked up by the next read.
+ */
+
+package tests.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import database.controllers.DatabaseController;
+import database.controllers.component.FrameSetController;
+import database.controllers.component.HandlebarController;
+import database.controllers.component.PairOfWheelsController;
+import exceptions.*;
+import models.component.Component;
+import models.component.frameset.FrameSet;
+import models.component.handlebar.Handlebar;
+import models.component.handlebar.HandlebarType;
+import models.component.pairofwheels.BrakeType;
+import models.component.pairofwheels.PairOfWheels;
+import models.component.pairofwheels.TyreType;
+import org.junit.jupiter.api.*;
+import services.ComponentCatalog;
+import tests.database.CountingDataSource;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.ArrayList;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class ComponentCatalogTest {
+    private static DataSource originalDataSource;
+    private static CountingDataSource countingDataSource;
+    private static ComponentCatalog catalog;
+    private static HandlebarController hController;
+    private static FrameSetController fController;
+    private static PairOfWheelsController powController;
+    private static Handlebar sampleHandlebar;
+    private static FrameSet sampleFrameSet;
+    private static PairOfWheels samplePairOfWheels;
+
+    @BeforeAll
+    public static void setUp() {
+        catalog = new ComponentCatalog(0);
+        hController = new HandlebarController();
+        fController = new FrameSetController();
+        powController = new PairOfWheelsController();
+
+        originalDataSource = DatabaseController.getDataSource();
+        countingDataSource = new CountingDataSource(originalDataSource);
+        DatabaseController.setDataSource(countingDataSource);
+
+        sampleHandlebar = new Handlebar(
+                "0004",
+                "catalog sample",
+                "test sample 1",
+                BigDecimal.valueOf(100),
+                100,
+                HandlebarType.HIGH
+        );
+        sampleFrameSet = new FrameSet(
+                "00000004",
+                "catalog sample",
+                "test sample 1",
+                BigDecimal.valueOf(300),
+                25,
+                "nice gears",
+                "nice forks",
+                BigDecimal.valueOf(80.50),
+                true
+        );
+        samplePairOfWheels = new PairOfWheels(
+                "00004",
+                "catalog sample",
+                "test sample 1",
+                BigDecimal.valueOf(50),
+                200,
+                BigDecimal.valueOf(55),
+                TyreType.HYBRID,
+                BrakeType.DISK
+        );
+
+        System.out.println("Performing tests for ComponentCatalog...");
+    }
+
+    @Test
+    @Order(1)
+    public void testCreateComponents()
+            throws SQLException, ComponentAlreadyExistsException, InputTooLongException {
+        assertTrue(fController.createComponent(sampleFrameSet));
+        assertTrue(hController.createComponent(sampleHandlebar));
+        assertTrue(powController.createComponent(samplePairOfWheels));
+    }
+
+    @Test
+    @Order(2)
+    public void testFiltersServedFromMemory() throws SQLException, NoComponentForFilterException {
+        // The first read loads the whole catalog.
+        assertTrue(containsComponent(catalog.getFrameSets(false), sampleFrameSet));
+
+        countingDataSource.reset();
+        assertTrue(containsComponent(
+                catalog.filterFrameSets(new BigDecimal("80.5"), true), sampleFrameSet
+        ));
+        assertTrue(containsComponent(catalog.filterHandlebars(HandlebarType.HIGH), sampleHandlebar));
+        assertTrue(containsComponent(
+                catalog.filterWheels(TyreType.HYBRID, BrakeType.DISK, BigDecimal.valueOf(55)),
+                samplePairOfWheels
+        ));
+        assertTrue(catalog.getUniqueSizeSet().size() >= 1);
+        assertEquals(0, countingDataSource.getConnectionCount());
+    }
+
+    @Test
+    @Order(3)
+    public void testUpdateInvalidatesCatalog()
+            throws SQLException, ComponentNotFoundException, InputTooLongException {
+        sampleHandlebar.setStock(0);
+        assertTrue(hController.updateComponent(sampleHandlebar));
+
+        // Out-of-stock components are no longer offered to customers.
+        assertFalse(containsComponent(catalog.getHandlebars(false), sampleHandlebar));
+        assertTrue(containsComponent(catalog.getHandlebars(true), sampleHandlebar));
+    }
+
+    @Test
+    @Order(4)
+    public void testDeleteComponents() throws SQLException, ComponentNotFoundException {
+        assertTrue(powController.deleteComponent(samplePairOfWheels, "PairsOfWheels"));
+        assertTrue(hController.deleteComponent(sampleHandlebar, "Handlebars"));
+        assertTrue(fController.deleteComponent(sampleFrameSet, "FrameSets"));
+
+        assertFalse(containsComponent(catalog.getFrameSets(true), sampleFrameSet));
+    }
+
+    private static boolean containsComponent(
+            ArrayList<? extends Component> components,
+            Component expected) {
+        for (Component component : components) {
+            if (component.getSerialNumber().equals(expected.getSerialNumber())
+                    && component.getBrandName().equals(expected.getBrandName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        DatabaseController.setDataSource(originalDataSource);
+        System.out.println("All tests done.");
+    }
+}
@@ -0,0 +1,177 @@
+/**
+ * ComponentImportServiceTest.java
+ *
+ * Unit tests for the ComponentImportService, verifying that valid records are
+ * imported in batches while invalid and existing ones are reported with their
+ * lines, without holding back the valid records of the same batch.
+ */
+
+package tests.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import database.controllers.component.FrameSetController;
+import database.controllers.component.HandlebarController;
+import database.controllers.component.PairOfWheelsController;
+import exceptions.ComponentNotFoundException;
+import exceptions.InputTooLongException;
+import models.component.frameset.FrameSet;
+import models.component.handlebar.Handlebar;
+import models.component.handlebar.HandlebarType;
+import models.component.pairofwheels.PairOfWheels;
+import models.component.pairofwheels.TyreType;
+import models.order.items.ItemType;
+import org.junit.jupiter.api.*;
+import services.ComponentImportService;
+import services.CsvReader;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class ComponentImportServiceTest {
+    private static final String BRAND = "import sample";
+
+    private static ComponentImportService importService;
+    private static HandlebarController hController;
+    private static FrameSetController fController;
+    private static PairOfWheelsController powController;
+
+    @BeforeAll
+    public static void setUp() {
+        // Small batches, so that a few records span several of them.
+        importService = new ComponentImportService(2);
+        hController = new HandlebarController();
+        fController = new FrameSetController();
+        powController = new PairOfWheelsController();
+        System.out.println("Performing tests for ComponentImportService...");
+    }
+
+    @Test
+    @Order(1)
+    public void testCsvReader() throws IOException {
+        CsvReader reader = new CsvReader(new StringReader(
+                "a,\"b, \"\"quoted\"\"\",c\r\n" +
+                "\"multi\nline\",,\n" +
+                "last"
+        ));
+
+        assertEquals(Arrays.asList("a", "b, \"quoted\"", "c"), reader.readRecord());
+        assertEquals(1, reader.getLineNumber());
+        assertEquals(Arrays.asList("multi\nline", "", ""), reader.readRecord());
+        assertEquals(2, reader.getLineNumber());
+        assertEquals(Arrays.asList("last"), reader.readRecord());
+        assertEquals(4, reader.getLineNumber());
+        assertNull(reader.readRecord());
+    }
+
+    @Test
+    @Order(2)
+    public void testImportHandlebars()
+            throws IOException, SQLException, ComponentNotFoundException, InputTooLongException {
+        String csv =
+                "serialNumber,brandName,handlebarName,type,cost,stock,notes\n" +
+                "9001," + BRAND + ",\"Bar, Pro\",high,25.50,10,ignored\n" +
+                "9002," + BRAND + ",Straight bar,STRAIGHT,20,5,\n" +
+                "\n" +
+                "9003," + BRAND + ",deliberatelytoolongnamenottobevalidated,HIGH,20,5,\n" +
+                "9004," + BRAND + ",Bad type,CURVED,20,5,\n" +
+                "9005," + BRAND + ",Negative stock,HIGH,20,-1,\n" +
+                "9006," + BRAND + ",,HIGH,20,5,\n" +
+                // Already in the file, so refused by the database in its batch.
+                "9001," + BRAND + ",Duplicate,HIGH,20,5,\n" +
+                "9007," + BRAND + ",Dropped bar,dropped,30,1,\n";
+
+        ComponentImportService.ImportReport report = importService.importComponents(
+                new StringReader(csv), ItemType.HANDLEBAR
+        );
+
+        assertEquals(8, report.getRowsRead());
+        assertEquals(3, report.getRowsImported());
+        assertEquals(5, report.getRowsFailed());
+        assertTrue(report.getRowsPerSecond() > 0);
+
+        List<ComponentImportService.RowError> errors = report.getErrors();
+        assertEquals(Arrays.asList(5, 6, 7, 8, 9), errors.stream().map(ComponentImportService.RowError::getLine)
+                                                          .sorted().collect(Collectors.toList()));
+        assertTrue(errors.stream().anyMatch(error -> error.getLine() == 9
+                                                     && error.getMessage().contains("already exists")));
+
+        Handlebar handlebar = hController.findComponentById("9001", BRAND);
+        assertEquals("Bar, Pro", handlebar.getComponentName());
+        assertEquals(HandlebarType.HIGH, handlebar.getType());
+        assertEquals(0, BigDecimal.valueOf(25.50).compareTo(handlebar.getCost()));
+        assertEquals(HandlebarType.DROPPED, hController.findComponentById("9007", BRAND).getType());
+        assertFalse(hController.componentExists(new Handlebar(
+                "9003", "", BRAND, BigDecimal.ONE, 0, HandlebarType.HIGH
+        ), "Handlebars"));
+    }
+
+    @Test
+    @Order(3)
+    public void testImportExisting() throws IOException, SQLException {
+        String csv =
+                "serialNumber,brandName,handlebarName,type,cost,stock\n" +
+                "9001," + BRAND + ",Again,HIGH,20,5\n" +
+                "9008," + BRAND + ",New,HIGH,20,5\n";
+
+        ComponentImportService.ImportReport report = importService.importComponents(
+                new StringReader(csv), ItemType.HANDLEBAR
+        );
+
+        // The existing component is left out, the other one of the batch imported.
+        assertEquals(1, report.getRowsImported());
+        assertEquals(1, report.getRowsFailed());
+        assertEquals(2, report.getErrors().get(0).getLine());
+    }
+
+    @Test
+    @Order(4)
+    public void testImportOtherTypes()
+            throws IOException, SQLException, ComponentNotFoundException, InputTooLongException {
+        ComponentImportService.ImportReport frameSets = importService.importComponents(new StringReader(
+                "serialNumber,brandName,frameSetName,forkSetName,gearSetName,hasShocks,size,cost,stock\n" +
+                "90000001," + BRAND + ",Frame,Forks,Gears,yes,54.5,300,3\n" +
+                "90000002," + BRAND + ",Frame,Forks,Gears,maybe,54.5,300,3\n"
+        ), ItemType.FRAMESET);
+        assertEquals(1, frameSets.getRowsImported());
+        assertEquals(3, frameSets.getErrors().get(0).getLine());
+
+        ComponentImportService.ImportReport wheels = importService.importComponents(new StringReader(
+                "serialNumber,brandName,pairOfWheelsName,diameter,tyreType,brakeType,cost,stock\n" +
+                "90001," + BRAND + ",Wheels,29,mountain,disk,120,4\n"
+        ), ItemType.PAIROFWHEELS);
+        assertEquals(1, wheels.getRowsImported());
+
+        assertTrue(fController.findComponentById("90000001", BRAND).isHasShocks());
+        assertEquals(TyreType.MOUNTAIN, powController.findComponentById("90001", BRAND).getTyreType());
+    }
+
+    @Test
+    @Order(5)
+    public void testMissingColumn() {
+        assertThrows(IllegalArgumentException.class, () -> importService.importComponents(
+                new StringReader("serialNumber,brandName,type,cost,stock\n"), ItemType.HANDLEBAR
+        ));
+        assertThrows(IllegalArgumentException.class, () -> importService.importComponents(
+                new StringReader("serialNumber\n"), ItemType.BICYCLE
+        ));
+    }
+
+    @AfterAll
+    public static void tearDown() throws SQLException, ComponentNotFoundException, InputTooLongException {
+        for (String serialNumber : Arrays.asList("9001", "9002", "9007", "9008")) {
+            hController.deleteComponent(hController.findComponentById(serialNumber, BRAND), "Handlebars");
+        }
+        FrameSet frameSet = fController.findComponentById("90000001", BRAND);
+        fController.deleteComponent(frameSet, "FrameSets");
+        PairOfWheels pairOfWheels = powController.findComponentById("90001", BRAND);
+        powController.deleteComponent(pairOfWheels, "PairsOfWheels");
+        System.out.println("All tests done.");
+    }
+}
@@ -13,7 +13,16 @@ import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.Assertions;
 import services.EncryptionHandler;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
 public class EncryptionHandlerTest {
@@ -69,8 +78,82 @@ public class EncryptionHandlerTest {
         );
     }
 
+    @Test
+    public void test6EncryptDataMatchesOriginalAlgorithm() throws NoSuchAlgorithmException {
+        // Stored passwords must stay valid, so compare with the original algorithm on many inputs.
+        Random random = new Random(42);
+        for (int i = 0; i < 1000; i++) {
+            String rawData = randomData(random);
+            Assertions.assertEquals(
+                    originalEncryptData(rawData), EncryptionHandler.encryptData(rawData)
+            );
+        }
+    }
+
+    @Test
+    public void test7EncryptDataConcurrently() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<Boolean>> futures = new ArrayList<>();
+
+        try {
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit((Callable<Boolean>) () -> {
+                    for (int i = 0; i < 500; i++) {
+                        if (!EncryptionHandler.encryptData(rawData1).equals(encryptedData1)
+                                || !EncryptionHandler.encryptData(rawData5).equals(encryptedData5)) {
+                            return false;
+                        }
+                    }
+                    return true;
+                }));
+            }
+            for (Future<Boolean> future : futures) {
+                Assertions.assertTrue(future.get());
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
     @AfterAll
     public void tearDown() {
         System.out.println("All tests done.");
     }
+
+    private static String randomData(Random random) {
+        StringBuilder data = new StringBuilder();
+        int length = random.nextInt(30);
+        for (int i = 0; i < length; i++) {
+            // Mostly ASCII, with some non-ASCII characters encoded on several bytes.
+            if (random.nextInt(10) == 0) {
+                data.append((char) (0xa0 + random.nextInt(0x300)));
+            } else {
+                data.append((char) (0x21 + random.nextInt(0x5e)));
+            }
+        }
+        return data.toString();
+    }
+
+    // The algorithm as originally written, kept as the reference for the stored hashes.
+    private static String originalEncryptData(String rawData) throws NoSuchAlgorithmException {
+        StringBuilder salted = new StringBuilder(rawData);
+        while (salted.length() < 20) {
+            salted.append('$');
+        }
+
+        byte[] hashData = MessageDigest.getInstance("SHA-256").digest(
+                salted.toString().getBytes(StandardCharsets.UTF_8)
+        );
+
+        StringBuilder hexStr = new StringBuilder();
+        for (byte hByte : hashData) {
+            String hex = Integer.toHexString(0xff & hByte);
+            if (hex.length() == 1) {
+                hexStr.append('$');
+            }
+            hexStr.append(hex);
+        }
+        return hexStr.toString();
+    }
 }
@@ -0,0 +1,126 @@
+/**
+ * FacetIndexTest.java
+ *
+ * Unit tests for the FacetIndex, verifying the filter combinations, the cost
+ * ordering of the results and the facet counts (no database needed).
+ */
+
+package tests.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import models.component.pairofwheels.BrakeType;
+import models.component.pairofwheels.PairOfWheels;
+import models.component.pairofwheels.TyreType;
+import org.junit.jupiter.api.*;
+import services.FacetIndex;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class FacetIndexTest {
+    private static FacetIndex<PairOfWheels> index;
+    private static PairOfWheels cheapRoad;
+    private static PairOfWheels expensiveRoad;
+    private static PairOfWheels mountain;
+    private static PairOfWheels soldOutRoad;
+
+    @BeforeAll
+    public static void setUp() {
+        expensiveRoad = sampleWheels("00001", 90, 5, "55.00", TyreType.ROAD, BrakeType.DISK);
+        cheapRoad = sampleWheels("00002", 40, 5, "55", TyreType.ROAD, BrakeType.DISK);
+        mountain = sampleWheels("00003", 60, 5, "60", TyreType.MOUNTAIN, BrakeType.RIM);
+        soldOutRoad = sampleWheels("00004", 10, 0, "55", TyreType.ROAD, BrakeType.DISK);
+
+        index = new FacetIndex<>(Arrays.asList(expensiveRoad, cheapRoad, mountain, soldOutRoad))
+                .addFacet("tyreType", PairOfWheels::getTyreType)
+                .addFacet("brakeType", PairOfWheels::getBrakeType)
+                .addFacet("diameter", PairOfWheels::getDiameter);
+
+        System.out.println("Performing tests for FacetIndex...");
+    }
+
+    @Test
+    @Order(1)
+    public void testSelectAllSortedByCost() {
+        ArrayList<PairOfWheels> selected = index.select(Collections.emptyMap());
+
+        // Out-of-stock items are never selected.
+        assertEquals(Arrays.asList(cheapRoad, mountain, expensiveRoad), selected);
+    }
+
+    @Test
+    @Order(2)
+    public void testSelectCombinedFilters() {
+        Map<String, Object> selections = new HashMap<>();
+        selections.put("tyreType", TyreType.ROAD);
+        selections.put("brakeType", null);
+        // Same diameter as stored, regardless of the scale.
+        selections.put("diameter", new BigDecimal("55.0"));
+
+        assertEquals(Arrays.asList(cheapRoad, expensiveRoad), index.select(selections));
+
+        selections.put("brakeType", BrakeType.RIM);
+        assertTrue(index.select(selections).isEmpty());
+    }
+
+    @Test
+    @Order(3)
+    public void testSelectUnknownValue() {
+        Map<String, Object> selections = new HashMap<>();
+        selections.put("diameter", BigDecimal.valueOf(99));
+
+        assertTrue(index.select(selections).isEmpty());
+    }
+
+    @Test
+    @Order(4)
+    public void testCountIgnoresOwnFacet() {
+        Map<String, Object> selections = new HashMap<>();
+        selections.put("tyreType", TyreType.ROAD);
+        selections.put("diameter", BigDecimal.valueOf(60));
+
+        // Counts of the tyre types given the diameter, whatever tyre type is selected.
+        Map<Object, Integer> counts = index.count("tyreType", selections);
+        assertEquals(Integer.valueOf(0), counts.get(TyreType.ROAD));
+        assertEquals(Integer.valueOf(1), counts.get(TyreType.MOUNTAIN));
+
+        Map<Object, Integer> diameters = index.count("diameter", selections);
+        assertEquals(Integer.valueOf(2), diameters.get(new BigDecimal("55")));
+        assertEquals(Integer.valueOf(0), diameters.get(new BigDecimal("60")));
+    }
+
+    @Test
+    @Order(5)
+    public void testUnknownFacet() {
+        assertThrows(
+                IllegalArgumentException.class, () -> {
+                    index.count("colour", Collections.emptyMap());
+                }
+        );
+    }
+
+    private static PairOfWheels sampleWheels(
+            String serialNumber, int cost, int stock, String diameter, TyreType tyreType, BrakeType brakeType) {
+        return new PairOfWheels(
+                serialNumber,
+                "facet sample",
+                "test sample 1",
+                BigDecimal.valueOf(cost),
+                stock,
+                new BigDecimal(diameter),
+                tyreType,
+                brakeType
+        );
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        System.out.println("All tests done.");
+    }
+}
@@ -0,0 +1,157 @@
+/**
+ * IdAllocatorTest.java
+ *
+ * Unit tests for the IdAllocator, verifying the format of the IDs, that no ID
+ * is ever handed out twice, also when several threads and several allocators
+ * (i.e. instances of the app) allocate at the same time, and that migration V008
+ * seeds every sequence above the IDs already stored.
+ */
+
+package tests.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import database.ScriptRunner;
+import database.controllers.DatabaseController;
+import org.junit.jupiter.api.*;
+import services.IdAllocator;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class IdAllocatorTest {
+    private static final int THREADS = 8;
+    private static final int IDS_PER_THREAD = 200;
+
+    @BeforeAll
+    public static void setUp() {
+        System.out.println("Performing tests for IdAllocator...");
+    }
+
+    @Test
+    @Order(1)
+    public void testIdFormats() throws Exception {
+        IdAllocator allocator = new IdAllocator(DatabaseController.getDataSource(), 5);
+
+        assertTrue(allocator.nextOrderNumber().matches("[1-9][0-9]{10}"));
+        assertTrue(allocator.nextCustomerId().matches("[1-9][0-9]{10}"));
+        assertTrue(allocator.nextBicycleSerialNumber().matches("[1-9][0-9]{11}"));
+    }
+
+    @Test
+    @Order(2)
+    public void testConcurrentAllocationUnique() throws Exception {
+        // Two allocators with small blocks, so that leases are frequent and contended.
+        IdAllocator[] allocators = {
+                new IdAllocator(DatabaseController.getDataSource(), 7),
+                new IdAllocator(DatabaseController.getDataSource(), 7)
+        };
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                IdAllocator allocator = allocators[t % allocators.length];
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < IDS_PER_THREAD; i++) {
+                        assertTrue(ids.add(allocator.nextBicycleSerialNumber()));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        finally {
+            executor.shutdown();
+        }
+
+        assertEquals(THREADS * IDS_PER_THREAD, ids.size());
+    }
+
+    @Test
+    @Order(3)
+    public void testSequencesSeededByMigration() throws Exception {
+        DataSource dataSource = DatabaseController.getDataSource();
+        Map<String, Long> leased = readSequences(dataSource);
+
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.executeUpdate("DELETE FROM IdSequences");
+        }
+        ScriptRunner.run(dataSource, "/database/migrations/V008__seed_id_sequences.sql");
+        Map<String, Long> seeded = readSequences(dataSource);
+
+        try {
+            assertEquals(3, seeded.size());
+            assertSeededAbove(dataSource, seeded.get("orderNumber"), "Orders", "orderNumber", 11);
+            assertSeededAbove(dataSource, seeded.get("bicycleSerialNumber"), "Bicycles", "serialNumber", 12);
+            assertSeededAbove(dataSource, seeded.get("customerId"), "Customers", "customerId", 11);
+
+            // Existing rows are kept.
+            ScriptRunner.run(dataSource, "/database/migrations/V008__seed_id_sequences.sql");
+            assertEquals(seeded, readSequences(dataSource));
+        }
+        finally {
+            // Never hand out again the blocks leased by the earlier tests.
+            try (Connection connection = dataSource.getConnection();
+                 PreparedStatement update = connection.prepareStatement(
+                         "UPDATE IdSequences SET nextValue = ? WHERE name = ? AND nextValue < ?")) {
+                for (Map.Entry<String, Long> sequence : leased.entrySet()) {
+                    update.setLong(1, sequence.getValue());
+                    update.setString(2, sequence.getKey());
+                    update.setLong(3, sequence.getValue());
+                    update.executeUpdate();
+                }
+            }
+        }
+    }
+
+    private static Map<String, Long> readSequences(DataSource dataSource) throws SQLException {
+        Map<String, Long> sequences = new HashMap<>();
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery("SELECT name, nextValue FROM IdSequences")) {
+            while (result.next()) {
+                sequences.put(result.getString("name"), result.getLong("nextValue"));
+            }
+        }
+        return sequences;
+    }
+
+    private static void assertSeededAbove(DataSource dataSource, Long nextValue, String table, String column, int length)
+            throws SQLException {
+        assertNotNull(nextValue);
+        assertTrue(nextValue >= (long) Math.pow(10, length - 1));
+
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery(
+                     "SELECT " + column + " FROM " + table + " WHERE LENGTH(" + column + ") = " + length)) {
+            while (result.next()) {
+                assertTrue(nextValue > Long.parseLong(result.getString(1)));
+            }
+        }
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        System.out.println("All tests done.");
+    }
+}
@@ -0,0 +1,262 @@
+/**
+ * OrderPlacementServiceTest.java
+ *
+ * Unit tests for the OrderPlacementService, verifying that an order is placed
+ * atomically (bicycle, order, items and stock), or not placed at all.
+ */
+
+package tests.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import database.controllers.bicycle.BicycleController;
+import database.controllers.component.FrameSetController;
+import database.controllers.component.HandlebarController;
+import database.controllers.component.PairOfWheelsController;
+import database.controllers.order.OrderController;
+import exceptions.*;
+import models.bicycle.Bicycle;
+import models.component.frameset.FrameSet;
+import models.component.handlebar.Handlebar;
+import models.component.handlebar.HandlebarType;
+import models.component.pairofwheels.BrakeType;
+import models.component.pairofwheels.PairOfWheels;
+import models.component.pairofwheels.TyreType;
+import org.junit.jupiter.api.*;
+import services.OrderPlacementService;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class OrderPlacementServiceTest {
+    private static OrderPlacementService placementService;
+    private static OrderController oController;
+    private static BicycleController bController;
+    private static HandlebarController hController;
+    private static FrameSetController fController;
+    private static PairOfWheelsController powController;
+    private static Handlebar sampleHandlebar;
+    private static FrameSet sampleFrameSet;
+    private static PairOfWheels samplePairOfWheels;
+    private static PairOfWheels missingPairOfWheels;
+    private static Handlebar soldOutHandlebar;
+    private static Handlebar lastHandlebar;
+    private static PairOfWheels soldOutPairOfWheels;
+    private static models.order.Order sampleOrder;
+
+    @BeforeAll
+    public static void setUp() {
+        placementService = new OrderPlacementService();
+        oController = new OrderController();
+        bController = new BicycleController();
+        hController = new HandlebarController();
+        fController = new FrameSetController();
+        powController = new PairOfWheelsController();
+
+        sampleHandlebar = new Handlebar(
+                "0002",
+                "placement sample",
+                "test sample 1",
+                BigDecimal.valueOf(100),
+                100,
+                HandlebarType.HIGH
+        );
+        sampleFrameSet = new FrameSet(
+                "00000002",
+                "placement sample",
+                "test sample 1",
+                BigDecimal.valueOf(300),
+                25,
+                "nice gears",
+                "nice forks",
+                BigDecimal.valueOf(80.50),
+                true
+        );
+        samplePairOfWheels = new PairOfWheels(
+                "00002",
+                "placement sample",
+                "test sample 1",
+                BigDecimal.valueOf(50),
+                200,
+                BigDecimal.valueOf(55),
+                TyreType.HYBRID,
+                BrakeType.DISK
+        );
+        // Deliberately never stored in the database records.
+        missingPairOfWheels = new PairOfWheels(
+                "00003",
+                "missing sample",
+                "test sample 1",
+                BigDecimal.valueOf(50),
+                200,
+                BigDecimal.valueOf(55),
+                TyreType.HYBRID,
+                BrakeType.DISK
+        );
+
+        soldOutHandlebar = new Handlebar(
+                "0003",
+                "sold out sample",
+                "test sample 1",
+                BigDecimal.valueOf(100),
+                0,
+                HandlebarType.HIGH
+        );
+
+        // The last unit of a handlebar, ordered together with sold out wheels.
+        lastHandlebar = new Handlebar(
+                "0005",
+                "last unit sample",
+                "test sample 1",
+                BigDecimal.valueOf(100),
+                1,
+                HandlebarType.HIGH
+        );
+        soldOutPairOfWheels = new PairOfWheels(
+                "00005",
+                "sold out sample",
+                "test sample 1",
+                BigDecimal.valueOf(50),
+                0,
+                BigDecimal.valueOf(55),
+                TyreType.HYBRID,
+                BrakeType.DISK
+        );
+
+        System.out.println("Performing tests for OrderPlacementService...");
+    }
+
+    @Test
+    @Order(1)
+    public void testCreateComponents()
+            throws SQLException, ComponentAlreadyExistsException, InputTooLongException {
+        assertTrue(fController.createComponent(sampleFrameSet));
+        assertTrue(hController.createComponent(sampleHandlebar));
+        assertTrue(powController.createComponent(samplePairOfWheels));
+        assertTrue(hController.createComponent(soldOutHandlebar));
+        assertTrue(hController.createComponent(lastHandlebar));
+        assertTrue(powController.createComponent(soldOutPairOfWheels));
+    }
+
+    @Test
+    @Order(2)
+    public void testPlaceOrder()
+            throws SQLException, InvalidOrderException, ComponentNotFoundException,
+            InsufficientStockException, OrderNotFoundException, InputTooLongException {
+        Bicycle bicycle = new Bicycle(
+                "placement bike", sampleHandlebar, sampleFrameSet, samplePairOfWheels, "2"
+        );
+        sampleOrder = new models.order.Order();
+        sampleOrder.prepareOrder(null, bicycle);
+
+        assertTrue(placementService.placeOrder(sampleOrder, bicycle));
+
+        // The order, with all its items, and the decremented stock must be stored.
+        assertEquals(
+                4, oController.findOrderById(sampleOrder.getOrderNumber()).getOrderItems().size()
+        );
+        assertEquals(
+                24,
+                fController.findComponentById(
+                        sampleFrameSet.getSerialNumber(), sampleFrameSet.getBrandName()
+                ).getStock()
+        );
+        assertEquals(24, sampleFrameSet.getStock());
+    }
+
+    @Test
+    @Order(3)
+    public void testPlaceOrderRolledBack() throws SQLException, ComponentNotFoundException, InputTooLongException {
+        Bicycle bicycle = new Bicycle(
+                "placement bike", sampleHandlebar, sampleFrameSet, missingPairOfWheels, "3"
+        );
+        models.order.Order failingOrder = new models.order.Order();
+        failingOrder.prepareOrder(null, bicycle);
+
+        assertThrows(
+                ComponentNotFoundException.class, () -> {
+                    placementService.placeOrder(failingOrder, bicycle);
+                }
+        );
+
+        // Nothing of the failed order may be left behind.
+        assertFalse(bController.bicycleExists(bicycle.getSerialNumber()));
+        assertFalse(oController.orderExists(failingOrder.getOrderNumber()));
+        assertEquals(
+                24,
+                fController.findComponentById(
+                        sampleFrameSet.getSerialNumber(), sampleFrameSet.getBrandName()
+                ).getStock()
+        );
+    }
+
+    @Test
+    @Order(4)
+    public void testPlaceOrderOutOfStock() throws SQLException, ComponentNotFoundException, InputTooLongException {
+        Bicycle bicycle = new Bicycle(
+                "placement bike", soldOutHandlebar, sampleFrameSet, samplePairOfWheels, "4"
+        );
+        models.order.Order failingOrder = new models.order.Order();
+        failingOrder.prepareOrder(null, bicycle);
+
+        // The stock must never be driven below zero.
+        assertThrows(
+                InsufficientStockException.class, () -> {
+                    placementService.placeOrder(failingOrder, bicycle);
+                }
+        );
+        assertFalse(oController.orderExists(failingOrder.getOrderNumber()));
+        assertEquals(
+                0,
+                hController.findComponentById(
+                        soldOutHandlebar.getSerialNumber(), soldOutHandlebar.getBrandName()
+                ).getStock()
+        );
+    }
+
+    @Test
+    @Order(5)
+    public void testOutOfStockComponentReported()
+            throws SQLException, ComponentNotFoundException, InputTooLongException {
+        Bicycle bicycle = new Bicycle(
+                "placement bike", lastHandlebar, sampleFrameSet, soldOutPairOfWheels, "6"
+        );
+        models.order.Order failingOrder = new models.order.Order();
+        failingOrder.prepareOrder(null, bicycle);
+
+        // The handlebar updated before the wheels failed must not be blamed for them.
+        InsufficientStockException e = assertThrows(
+                InsufficientStockException.class, () -> {
+                    placementService.placeOrder(failingOrder, bicycle);
+                }
+        );
+        assertEquals(soldOutPairOfWheels.getSerialNumber(), e.getSerialNumber());
+        assertTrue(e.getMessage().contains("0 available"));
+        assertEquals(
+                1,
+                hController.findComponentById(
+                        lastHandlebar.getSerialNumber(), lastHandlebar.getBrandName()
+                ).getStock()
+        );
+    }
+
+    @Test
+    @Order(6)
+    public void testDeleteOrderAndComponents()
+            throws SQLException, OrderNotFoundException, InputTooLongException,
+            ComponentNotFoundException, BicycleNotFoundException {
+        assertTrue(oController.deleteOrder(sampleOrder));
+        assertTrue(powController.deleteComponent(samplePairOfWheels, "PairsOfWheels"));
+        assertTrue(hController.deleteComponent(sampleHandlebar, "Handlebars"));
+        assertTrue(hController.deleteComponent(soldOutHandlebar, "Handlebars"));
+        assertTrue(hController.deleteComponent(lastHandlebar, "Handlebars"));
+        assertTrue(powController.deleteComponent(soldOutPairOfWheels, "PairsOfWheels"));
+        assertTrue(fController.deleteComponent(sampleFrameSet, "FrameSets"));
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        System.out.println("All tests done.");
+    }
+}
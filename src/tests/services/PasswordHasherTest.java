@@ -0,0 +1,91 @@
+/**
+ * PasswordHasherTest.java
+ *
+ * Unit tests for the password hashers (PBKDF2 and the original SHA-256 one).
+ */
+
+package tests.services;
+
+import org.junit.jupiter.api.*;
+import services.EncryptionHandler;
+import services.LegacyPasswordHasher;
+import services.Pbkdf2PasswordHasher;
+
+import java.security.NoSuchAlgorithmException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class PasswordHasherTest {
+    private static Pbkdf2PasswordHasher hasher;
+    private static LegacyPasswordHasher legacyHasher;
+    private static final char[] password = "Pa$sw0rD".toCharArray();
+    private static final char[] wrongPassword = "Pa$sw0rd".toCharArray();
+
+    @BeforeAll
+    public static void setUp() {
+        hasher = new Pbkdf2PasswordHasher(Pbkdf2PasswordHasher.MIN_ITERATIONS);
+        legacyHasher = new LegacyPasswordHasher();
+        System.out.println("Performing password hasher tests...");
+    }
+
+    @Test
+    @Order(1)
+    public void testHashAndVerify() {
+        String encodedHash = hasher.hash(password);
+
+        assertTrue(encodedHash.startsWith("pbkdf2-sha256$" + Pbkdf2PasswordHasher.MIN_ITERATIONS + "$"));
+        assertTrue(encodedHash.length() <= 255);
+        assertTrue(hasher.recognizes(encodedHash));
+        assertTrue(hasher.verify(password, encodedHash));
+        assertFalse(hasher.verify(wrongPassword, encodedHash));
+    }
+
+    @Test
+    @Order(2)
+    public void testSaltPerHash() {
+        // The same password never gives the same hash twice.
+        assertNotEquals(hasher.hash(password), hasher.hash(password));
+    }
+
+    @Test
+    @Order(3)
+    public void testNeedsRehash() {
+        Pbkdf2PasswordHasher strongerHasher = new Pbkdf2PasswordHasher(Pbkdf2PasswordHasher.MIN_ITERATIONS * 2);
+        String weakHash = hasher.hash(password);
+
+        assertTrue(strongerHasher.needsRehash(weakHash));
+        assertFalse(hasher.needsRehash(weakHash));
+        // Older hashes stay verifiable after the iterations change.
+        assertTrue(strongerHasher.verify(password, weakHash));
+    }
+
+    @Test
+    @Order(4)
+    public void testLegacyHashes() throws NoSuchAlgorithmException {
+        String legacyHash = EncryptionHandler.encryptData(String.valueOf(password));
+
+        assertTrue(legacyHasher.recognizes(legacyHash));
+        assertFalse(hasher.recognizes(legacyHash));
+        assertFalse(legacyHasher.recognizes(hasher.hash(password)));
+        assertTrue(legacyHasher.verify(password, legacyHash));
+        assertFalse(legacyHasher.verify(wrongPassword, legacyHash));
+        assertTrue(legacyHasher.needsRehash(legacyHash));
+    }
+
+    @Test
+    @Order(5)
+    public void testCalibrationAndMinimum() {
+        assertTrue(Pbkdf2PasswordHasher.calibrate(1) >= Pbkdf2PasswordHasher.MIN_ITERATIONS);
+        assertThrows(
+                IllegalArgumentException.class, () -> {
+                    new Pbkdf2PasswordHasher(Pbkdf2PasswordHasher.MIN_ITERATIONS - 1);
+                }
+        );
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        System.out.println("All tests done.");
+    }
+}
@@ -0,0 +1,209 @@
+/**
+ * StockAdjustmentServiceTest.java
+ *
+ * Unit tests for the StockAdjustmentService, verifying that the adjustments of
+ * all the component tables are applied in one transaction with a single batch
+ * per table, and that a rejected adjustment is reported without holding back
+ * the others, nor taking the units held by reservations.
+ */
+
+package tests.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import database.controllers.DatabaseController;
+import database.controllers.component.FrameSetController;
+import database.controllers.component.HandlebarController;
+import database.controllers.component.PairOfWheelsController;
+import exceptions.*;
+import models.component.StockAdjustment;
+import models.component.frameset.FrameSet;
+import models.component.handlebar.Handlebar;
+import models.component.handlebar.HandlebarType;
+import models.component.pairofwheels.BrakeType;
+import models.component.pairofwheels.PairOfWheels;
+import models.component.pairofwheels.TyreType;
+import org.junit.jupiter.api.*;
+import services.StockAdjustmentService;
+import services.StockAdjustmentService.AdjustmentResult;
+import services.StockAdjustmentService.Status;
+import services.StockReservationService;
+import services.StockReservationService.Reservation;
+import tests.database.CountingDataSource;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class StockAdjustmentServiceTest {
+    private static final String BRAND = "adjustment sample";
+
+    private static StockAdjustmentService adjustmentService;
+    private static HandlebarController hController;
+    private static FrameSetController fController;
+    private static PairOfWheelsController powController;
+    private static Handlebar sampleHandlebar;
+    private static FrameSet sampleFrameSet;
+    private static PairOfWheels samplePairOfWheels;
+
+    @BeforeAll
+    public static void setUp() throws SQLException, ComponentAlreadyExistsException, InputTooLongException {
+        adjustmentService = new StockAdjustmentService();
+        hController = new HandlebarController();
+        fController = new FrameSetController();
+        powController = new PairOfWheelsController();
+
+        sampleHandlebar = new Handlebar(
+                "0013", "test sample 1", BRAND, BigDecimal.valueOf(100), 10, HandlebarType.HIGH
+        );
+        sampleFrameSet = new FrameSet(
+                "00000013", "test sample 1", BRAND, BigDecimal.valueOf(300), 10,
+                "nice gears", "nice forks", BigDecimal.valueOf(80.50), true
+        );
+        samplePairOfWheels = new PairOfWheels(
+                "00013", "test sample 1", BRAND, BigDecimal.valueOf(50), 10,
+                BigDecimal.valueOf(55), TyreType.HYBRID, BrakeType.DISK
+        );
+        hController.createComponent(sampleHandlebar);
+        fController.createComponent(sampleFrameSet);
+        powController.createComponent(samplePairOfWheels);
+
+        System.out.println("Performing tests for StockAdjustmentService...");
+    }
+
+    @Test
+    @Order(1)
+    public void testDeliveryOneBatchPerTable()
+            throws SQLException, ComponentNotFoundException, InputTooLongException {
+        DataSource originalDataSource = DatabaseController.getDataSource();
+        CountingDataSource countingDataSource = new CountingDataSource(originalDataSource);
+        DatabaseController.setDataSource(countingDataSource);
+
+        List<AdjustmentResult> results;
+        try {
+            results = adjustmentService.applyAdjustments(Arrays.asList(
+                    new StockAdjustment("Handlebars", "0013", BRAND, 5),
+                    new StockAdjustment("FrameSets", "00000013", BRAND, 2),
+                    new StockAdjustment("PairsOfWheels", "00013", BRAND, 3),
+                    new StockAdjustment("Handlebars", "0013", BRAND, 1)
+            ));
+        }
+        finally {
+            DatabaseController.setDataSource(originalDataSource);
+        }
+
+        assertTrue(results.stream().allMatch(AdjustmentResult::isApplied));
+        assertEquals(1, countingDataSource.getConnectionCount());
+        assertEquals(3, countingDataSource.getStatementCount());
+
+        assertEquals(16, hController.findComponentById("0013", BRAND).getStock());
+        assertEquals(12, fController.findComponentById("00000013", BRAND).getStock());
+        assertEquals(13, powController.findComponentById("00013", BRAND).getStock());
+    }
+
+    @Test
+    @Order(2)
+    public void testNegativeStockRejected()
+            throws SQLException, ComponentNotFoundException, InputTooLongException {
+        List<AdjustmentResult> results = adjustmentService.applyAdjustments(Arrays.asList(
+                new StockAdjustment("Handlebars", "0013", BRAND, -10),
+                // Only 6 left after the line above.
+                new StockAdjustment("Handlebars", "0013", BRAND, -7),
+                new StockAdjustment("FrameSets", "00000013", BRAND, -12)
+        ));
+
+        assertEquals(Status.APPLIED, results.get(0).getStatus());
+        assertEquals(Status.INSUFFICIENT_STOCK, results.get(1).getStatus());
+        assertEquals(6, results.get(1).getAvailableStock());
+        assertTrue(results.get(1).getMessage().contains("out of stock"));
+        assertEquals(Status.APPLIED, results.get(2).getStatus());
+
+        assertEquals(6, hController.findComponentById("0013", BRAND).getStock());
+        assertEquals(0, fController.findComponentById("00000013", BRAND).getStock());
+    }
+
+    @Test
+    @Order(3)
+    public void testMissingComponent() throws SQLException {
+        List<AdjustmentResult> results = adjustmentService.applyAdjustments(Arrays.asList(
+                new StockAdjustment("PairsOfWheels", "00014", BRAND, 1),
+                new StockAdjustment("PairsOfWheels", "00013", BRAND, -13)
+        ));
+
+        assertEquals(Status.NOT_FOUND, results.get(0).getStatus());
+        assertNull(results.get(0).getAvailableStock());
+        assertTrue(results.get(0).getMessage().contains("could not be found"));
+        assertTrue(results.get(1).isApplied());
+    }
+
+    @Test
+    @Order(4)
+    public void testAdjustComponent() throws SQLException, ComponentNotFoundException, InputTooLongException {
+        Handlebar handlebar = hController.findComponentById("0013", BRAND);
+
+        assertTrue(adjustmentService.adjustStock(handlebar, 4).isApplied());
+        // The in-memory component follows the committed stock.
+        assertEquals(10, handlebar.getStock());
+        assertFalse(adjustmentService.adjustStock(handlebar, -11).isApplied());
+        assertEquals(10, handlebar.getStock());
+        assertEquals(10, hController.findComponentById("0013", BRAND).getStock());
+    }
+
+    @Test
+    @Order(5)
+    public void testUnknownTable() {
+        // Table names end up in the SQL, so anything else is refused up front.
+        assertThrows(IllegalArgumentException.class,
+                     () -> new StockAdjustment("Bicycles", "0013", BRAND, 1));
+        assertThrows(IllegalArgumentException.class,
+                     () -> new StockAdjustment("Handlebars; DROP TABLE Orders", "0013", BRAND, 1));
+    }
+
+    @Test
+    @Order(6)
+    public void testRejectedReportedBeforeLaterLines() throws SQLException {
+        // 10 left: the first line is rejected, the second one applied after it.
+        List<AdjustmentResult> results = adjustmentService.applyAdjustments(Arrays.asList(
+                new StockAdjustment("Handlebars", "0013", BRAND, -11),
+                new StockAdjustment("Handlebars", "0013", BRAND, -4)
+        ));
+
+        assertEquals(Status.INSUFFICIENT_STOCK, results.get(0).getStatus());
+        assertEquals(10, results.get(0).getAvailableStock());
+        assertTrue(results.get(1).isApplied());
+    }
+
+    @Test
+    @Order(7)
+    public void testHeldUnitsLeftAlone()
+            throws SQLException, ComponentNotFoundException, InputTooLongException, InsufficientStockException {
+        Handlebar handlebar = hController.findComponentById("0013", BRAND);
+        Reservation reservation = new StockReservationService(60000).reserve(handlebar);
+
+        try {
+            // 6 left, 1 of which is held.
+            AdjustmentResult result = adjustmentService.adjustStock(handlebar, -6);
+            assertEquals(Status.INSUFFICIENT_STOCK, result.getStatus());
+            assertEquals(5, result.getAvailableStock());
+            assertTrue(adjustmentService.adjustStock(handlebar, -5).isApplied());
+            // Deliveries are never held back.
+            assertTrue(adjustmentService.adjustStock(handlebar, 2).isApplied());
+        }
+        finally {
+            reservation.release();
+        }
+
+        assertEquals(3, hController.findComponentById("0013", BRAND).getStock());
+    }
+
+    @AfterAll
+    public static void tearDown() throws SQLException, ComponentNotFoundException {
+        hController.deleteComponent(sampleHandlebar, "Handlebars");
+        fController.deleteComponent(sampleFrameSet, "FrameSets");
+        powController.deleteComponent(samplePairOfWheels, "PairsOfWheels");
+        System.out.println("All tests done.");
+    }
+}
@@ -0,0 +1,248 @@
+/**
+ * StockReservationServiceTest.java
+ *
+ * Unit tests for the StockReservationService, verifying that the holds taken at
+ * checkout are taken off the stock offered to shoppers (from the display cache,
+ * without querying the database), are seen by other instances and their orders, and
+ * are converted by the order, released, or swept once expired.
+ */
+
+package tests.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import database.DatabaseConfig;
+import database.controllers.DatabaseController;
+import database.controllers.component.FrameSetController;
+import database.controllers.component.HandlebarController;
+import database.controllers.component.PairOfWheelsController;
+import database.controllers.order.OrderController;
+import exceptions.*;
+import models.bicycle.Bicycle;
+import models.component.Component;
+import models.component.frameset.FrameSet;
+import models.component.handlebar.Handlebar;
+import models.component.handlebar.HandlebarType;
+import models.component.pairofwheels.BrakeType;
+import models.component.pairofwheels.PairOfWheels;
+import models.component.pairofwheels.TyreType;
+import org.junit.jupiter.api.*;
+import services.ComponentCatalog;
+import services.OrderPlacementService;
+import services.StockReservationService;
+import services.StockReservationService.Reservation;
+import tests.database.CountingDataSource;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class StockReservationServiceTest {
+    private static final long TTL_MS = 60000;
+
+    private static StockReservationService reservations;
+    private static ComponentCatalog catalog;
+    private static HandlebarController hController;
+    private static FrameSetController fController;
+    private static PairOfWheelsController powController;
+    private static Handlebar sampleHandlebar;
+    private static FrameSet sampleFrameSet;
+    private static PairOfWheels samplePairOfWheels;
+    private static models.order.Order sampleOrder;
+
+    @BeforeAll
+    public static void setUp() throws SQLException, ComponentAlreadyExistsException, InputTooLongException {
+        // The holds expire on the database's clock, so the tests expire them by hand;
+        // the sweeper of the shared service would race the sweeps of these tests.
+        StockReservationService.getInstance().stopSweeper();
+        reservations = new StockReservationService(TTL_MS);
+        catalog = new ComponentCatalog(0, reservations);
+        hController = new HandlebarController();
+        fController = new FrameSetController();
+        powController = new PairOfWheelsController();
+
+        // A single handlebar left, plenty of the rest.
+        sampleHandlebar = new Handlebar(
+                "0014", "test sample 1", "reservation sample", BigDecimal.valueOf(100), 1, HandlebarType.HIGH
+        );
+        sampleFrameSet = new FrameSet(
+                "00000014", "test sample 1", "reservation sample", BigDecimal.valueOf(300), 10,
+                "nice gears", "nice forks", BigDecimal.valueOf(80.50), true
+        );
+        samplePairOfWheels = new PairOfWheels(
+                "00014", "test sample 1", "reservation sample", BigDecimal.valueOf(50), 10,
+                BigDecimal.valueOf(55), TyreType.HYBRID, BrakeType.DISK
+        );
+        hController.createComponent(sampleHandlebar);
+        fController.createComponent(sampleFrameSet);
+        powController.createComponent(samplePairOfWheels);
+
+        System.out.println("Performing tests for StockReservationService...");
+    }
+
+    @Test
+    @Order(1)
+    public void testReserveLastUnit() throws SQLException, InsufficientStockException {
+        Reservation reservation = reservations.reserve(sampleHandlebar, sampleFrameSet, samplePairOfWheels);
+
+        assertTrue(reservation.isHeld());
+        assertEquals(0, reservations.getAvailableStock(sampleHandlebar));
+        assertEquals(9, reservations.getAvailableStock(sampleFrameSet));
+
+        // The last handlebar is held, so nothing is held for another customer either.
+        InsufficientStockException e = assertThrows(
+                InsufficientStockException.class,
+                () -> reservations.reserve(sampleHandlebar, sampleFrameSet, samplePairOfWheels)
+        );
+        assertTrue(e.getMessage().contains("0 available"));
+        assertEquals(1, reservations.getHeldUnits(sampleFrameSet));
+        assertEquals(1, reservations.getReservationCount());
+
+        assertTrue(reservation.release());
+        assertFalse(reservation.release());
+        assertEquals(1, reservations.getAvailableStock(sampleHandlebar));
+        assertTrue(reservations.getHeldUnits().isEmpty());
+    }
+
+    @Test
+    @Order(2)
+    public void testReservedHiddenFromShoppers()
+            throws SQLException, InsufficientStockException, NoComponentForFilterException {
+        // Load the catalog first, then count the reads of the database.
+        assertTrue(containsComponent(catalog.getHandlebars(false), sampleHandlebar));
+        Reservation reservation = reservations.reserve(sampleHandlebar, sampleFrameSet, samplePairOfWheels);
+
+        DataSource originalDataSource = DatabaseController.getDataSource();
+        CountingDataSource countingDataSource = new CountingDataSource(originalDataSource);
+        DatabaseController.setDataSource(countingDataSource);
+        try {
+            assertFalse(containsComponent(catalog.getHandlebars(false), sampleHandlebar));
+            assertFalse(containsComponent(catalog.filterHandlebars(HandlebarType.HIGH), sampleHandlebar));
+            assertTrue(containsComponent(catalog.getHandlebars(true), sampleHandlebar));
+            // Other units are left, so still offered.
+            assertTrue(containsComponent(catalog.getFrameSets(false), sampleFrameSet));
+            assertEquals(0, countingDataSource.getConnectionCount());
+        }
+        finally {
+            DatabaseController.setDataSource(originalDataSource);
+        }
+
+        reservation.release();
+        assertTrue(containsComponent(catalog.getHandlebars(false), sampleHandlebar));
+    }
+
+    @Test
+    @Order(3)
+    public void testExpiredReleased() throws SQLException, InsufficientStockException {
+        Reservation reservation = reservations.reserve(sampleHandlebar, sampleFrameSet, samplePairOfWheels);
+
+        assertEquals(0, reservations.releaseExpired());
+        assertTrue(reservation.isHeld());
+
+        expireHolds(reservation);
+        // One hold per component.
+        assertEquals(3, reservations.releaseExpired());
+        assertFalse(reservation.isHeld());
+        assertEquals(0, reservations.getReservationCount());
+        assertEquals(1, reservations.getAvailableStock(sampleHandlebar));
+        // Too late to convert it.
+        assertFalse(reservation.confirm());
+    }
+
+    @Test
+    @Order(4)
+    public void testSeenByOtherInstance()
+            throws SQLException, InsufficientStockException, InvalidOrderException,
+            ComponentNotFoundException, InputTooLongException {
+        StockReservationService otherInstance = new StockReservationService(TTL_MS);
+        Reservation reservation = reservations.reserve(sampleHandlebar, sampleFrameSet, samplePairOfWheels);
+
+        try {
+            assertThrows(InsufficientStockException.class,
+                         () -> otherInstance.reserve(sampleHandlebar, sampleFrameSet, samplePairOfWheels));
+            otherInstance.refreshHeldUnits();
+            assertEquals(1, otherInstance.getHeldUnits(sampleHandlebar));
+
+            // Nor can an order without the reservation take the held unit.
+            Bicycle bicycle = new Bicycle(
+                    "reservation bike", sampleHandlebar, sampleFrameSet, samplePairOfWheels, "5"
+            );
+            models.order.Order order = new models.order.Order();
+            order.prepareOrder(null, bicycle);
+            InsufficientStockException e = assertThrows(
+                    InsufficientStockException.class,
+                    () -> new OrderPlacementService().placeOrder(order, bicycle)
+            );
+            assertTrue(e.getMessage().contains("0 available"));
+            assertEquals(1, hController.findComponentById("0014", "reservation sample").getStock());
+        }
+        finally {
+            assertTrue(reservation.release());
+        }
+
+        otherInstance.refreshHeldUnits();
+        assertEquals(0, otherInstance.getHeldUnits(sampleHandlebar));
+    }
+
+    @Test
+    @Order(5)
+    public void testConvertedByOrder()
+            throws SQLException, InsufficientStockException, InvalidOrderException,
+            ComponentNotFoundException, InputTooLongException {
+        Reservation reservation = reservations.reserve(sampleHandlebar, sampleFrameSet, samplePairOfWheels);
+        Bicycle bicycle = new Bicycle(
+                "reservation bike", sampleHandlebar, sampleFrameSet, samplePairOfWheels, "5"
+        );
+        sampleOrder = new models.order.Order();
+        sampleOrder.prepareOrder(null, bicycle);
+
+        assertTrue(new OrderPlacementService().placeOrder(sampleOrder, bicycle, reservation));
+
+        // The hold is replaced by the stock decrement, never counted twice.
+        assertFalse(reservation.isHeld());
+        assertEquals(0, reservations.getHeldUnits(sampleHandlebar));
+        assertEquals(0, hController.findComponentById("0014", "reservation sample").getStock());
+        assertEquals(9, reservations.getAvailableStock(sampleFrameSet));
+    }
+
+    @AfterAll
+    public static void tearDown()
+            throws SQLException, OrderNotFoundException, InputTooLongException,
+            ComponentNotFoundException, BicycleNotFoundException {
+        if (sampleOrder != null) {
+            new OrderController().deleteOrder(sampleOrder);
+        }
+        hController.deleteComponent(sampleHandlebar, "Handlebars");
+        fController.deleteComponent(sampleFrameSet, "FrameSets");
+        powController.deleteComponent(samplePairOfWheels, "PairsOfWheels");
+        StockReservationService.getInstance().startSweeper(
+                DatabaseConfig.load().getLong(StockReservationService.SWEEP_PERIOD_MS, 0)
+        );
+        System.out.println("All tests done.");
+    }
+
+    private static void expireHolds(Reservation reservation) throws SQLException {
+        try (Connection connection = DatabaseController.getDataSource().getConnection();
+             PreparedStatement sqlStatement = connection.prepareStatement(
+                     "UPDATE Reservations SET expiresAt = TIMESTAMPADD(SECOND, -1, CURRENT_TIMESTAMP(3)) " +
+                     "WHERE reservationId = ?"
+             )) {
+            sqlStatement.setString(1, reservation.getId());
+            sqlStatement.executeUpdate();
+        }
+    }
+
+    private static boolean containsComponent(ArrayList<? extends Component> components, Component expected) {
+        for (Component component : components) {
+            if (component.getSerialNumber().equals(expected.getSerialNumber())
+                    && component.getBrandName().equals(expected.getBrandName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}